@@ -0,0 +1,222 @@
+package org.processmining.plugins.signaturediscovery;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.processmining.plugins.signaturediscovery.learningalgorithm.NonZeroRowFilter;
+
+import weka.core.Attribute;
+import weka.core.Instance;
+import weka.core.Instances;
+import weka.core.SparseInstance;
+import weka.filters.Filter;
+import weka.filters.unsupervised.attribute.Remove;
+
+/**
+ * Checks the rows kept by NonZeroRowFilter in the rule loops of
+ * DiscoverSignatures with PercentageSplit evaluation: on every iteration the
+ * zero rows are removed, the data set is split (getPercentageSplit) and the
+ * attributes of the "rules" (a few random attributes) are removed, as in
+ * findID3RuleListMetrics and findJ48RuleListMetrics.
+ *
+ * The kept rows and the training and test sets must be the ones of the same
+ * loop with the old getNonZeroInstances (restarting its scan after every
+ * deleted row), and the kept rows must be the ones of the old loop that
+ * randomized the working set in place before the split (the restart loop does
+ * not depend on the row order, the filter does). Both loops are timed.
+ *
+ * Usage: PercentageSplitBenchmark [noRows noAttributes noIterations]; every
+ * row has 1 to 3 non-zero attributes (1 in 5 rows none). Without arguments
+ * 5000 rows, 200 attributes and 20 iterations are used.
+ *
+ * Throws an IllegalStateException if a check fails.
+ */
+public class PercentageSplitBenchmark {
+
+	static final double PERCENT = 66;
+	static final int NO_REMOVED_ATTRIBUTES = 5;
+
+	static Instances createData(int noRows, int noAttributes, Random random) {
+		List<String> nominalValues = new ArrayList<String>(2);
+		nominalValues.add("0");
+		nominalValues.add("1");
+		ArrayList<Attribute> attributes = new ArrayList<Attribute>(noAttributes + 1);
+		for (int j = 0; j < noAttributes; j++)
+			attributes.add(new Attribute("a" + j, nominalValues));
+		List<String> classValues = new ArrayList<String>(2);
+		classValues.add("neg");
+		classValues.add("pos");
+		attributes.add(new Attribute("class", classValues));
+
+		Instances data = new Instances("PercentageSplitBenchmark", attributes, noRows);
+		data.setClassIndex(noAttributes);
+		double[] values = new double[noAttributes + 1];
+		for (int i = 0; i < noRows; i++) {
+			for (int j = 0; j < values.length; j++)
+				values[j] = 0;
+			if (random.nextInt(5) != 0) {
+				int noNonZeroValues = 1 + random.nextInt(3);
+				for (int j = 0; j < noNonZeroValues; j++)
+					values[random.nextInt(noAttributes)] = 1;
+			}
+			// Class 0 ("neg") is a zero value, as in DiscoverSignatures.createWekaInstances
+			values[noAttributes] = random.nextInt(2);
+			data.add(new SparseInstance(1.0, values.clone()));
+		}
+		return data;
+	}
+
+	/*
+	 * The baseline getNonZeroInstances of DiscoverSignatures
+	 */
+	static Instances getNonZeroInstances(Instances data) {
+		Instance instance;
+		boolean zeroRowExists = false;
+		boolean isZeroRow;
+		do {
+			zeroRowExists = false;
+			for (int i = 0; i < data.numInstances(); i++) {
+				instance = data.instance(i);
+				isZeroRow = true;
+				for (int j = 0; j < instance.numAttributes(); j++) {
+					if (instance.value(j) != 0) {
+						isZeroRow = false;
+						break;
+					}
+				}
+				if (isZeroRow) {
+					data.delete(i);
+					zeroRowExists = true;
+					break;
+				}
+			}
+		} while (zeroRowExists);
+		return data;
+	}
+
+	/*
+	 * Return: NO_REMOVED_ATTRIBUTES distinct random attribute indices of data (not the class)
+	 */
+	static int[] getRuleAttributeIndices(Instances data, Random random) {
+		List<Integer> attributeIndexList = new ArrayList<Integer>();
+		for (int j = 0; j < data.numAttributes(); j++)
+			if (j != data.classIndex())
+				attributeIndexList.add(j);
+		Collections.shuffle(attributeIndexList, random);
+		int[] attributeIndices = new int[Math.min(NO_REMOVED_ATTRIBUTES, attributeIndexList.size())];
+		for (int j = 0; j < attributeIndices.length; j++)
+			attributeIndices[j] = attributeIndexList.get(j);
+		return attributeIndices;
+	}
+
+	static Instances removeAttributes(Instances data, int[] attributeIndices) throws Exception {
+		Remove remove = new Remove();
+		remove.setAttributeIndicesArray(attributeIndices);
+		remove.setInputFormat(data);
+		return Filter.useFilter(data, remove);
+	}
+
+	static List<String> getRows(Instances data) {
+		List<String> rowList = new ArrayList<String>(data.numInstances());
+		for (int i = 0; i < data.numInstances(); i++)
+			rowList.add(data.instance(i).toString());
+		return rowList;
+	}
+
+	static List<String> getSortedRows(Instances data) {
+		List<String> rowList = getRows(data);
+		Collections.sort(rowList);
+		return rowList;
+	}
+
+	static void check(boolean condition, String message, int iteration) {
+		if (!condition)
+			throw new IllegalStateException("Iteration " + iteration + ": " + message);
+	}
+
+	public static void main(String[] args) throws Exception {
+		int noRows = 5000, noAttributes = 200, noIterations = 20;
+		if (args.length == 3) {
+			noRows = Integer.parseInt(args[0]);
+			noAttributes = Integer.parseInt(args[1]);
+			noIterations = Integer.parseInt(args[2]);
+		}
+		Instances data = createData(noRows, noAttributes, new Random(1));
+		System.out.println("No. Rows: " + noRows + " @ No. Attributes: " + noAttributes);
+
+		/*
+		 * The attributes removed on every iteration, the same for all loops
+		 */
+		List<int[]> ruleAttributeIndicesList = new ArrayList<int[]>();
+		Random random = new Random(2);
+		Instances attributeData = data;
+		for (int iteration = 0; iteration < noIterations && attributeData.numAttributes() > 1; iteration++) {
+			ruleAttributeIndicesList.add(getRuleAttributeIndices(attributeData, random));
+			attributeData = removeAttributes(new Instances(attributeData, 0),
+					ruleAttributeIndicesList.get(iteration));
+		}
+
+		/*
+		 * NonZeroRowFilter with the split on a shuffled copy
+		 */
+		List<List<String>> rowsList = new ArrayList<List<String>>();
+		List<List<String>> trainRowsList = new ArrayList<List<String>>();
+		List<List<String>> testRowsList = new ArrayList<List<String>>();
+		long start = System.nanoTime();
+		Instances filteredData = new Instances(data);
+		NonZeroRowFilter nonZeroRowFilter = new NonZeroRowFilter(filteredData);
+		Instances[] splitData;
+		List<String> rowList;
+		for (int[] ruleAttributeIndices : ruleAttributeIndicesList) {
+			filteredData = nonZeroRowFilter.removeZeroRows();
+			rowList = getRows(filteredData);
+			splitData = DiscoverSignatures.getPercentageSplit(filteredData, PERCENT);
+			check(rowList.equals(getRows(filteredData)), "The split reordered the rows of the data set",
+					rowsList.size());
+			rowsList.add(rowList);
+			trainRowsList.add(getRows(splitData[0]));
+			testRowsList.add(getRows(splitData[1]));
+			filteredData = removeAttributes(filteredData, ruleAttributeIndices);
+			nonZeroRowFilter.removeAttributes(ruleAttributeIndices, filteredData);
+		}
+		long filterNanos = System.nanoTime() - start;
+
+		/*
+		 * getNonZeroInstances with the same split
+		 */
+		start = System.nanoTime();
+		Instances referenceData = new Instances(data);
+		for (int iteration = 0; iteration < ruleAttributeIndicesList.size(); iteration++) {
+			referenceData = getNonZeroInstances(referenceData);
+			check(rowsList.get(iteration).equals(getRows(referenceData)),
+					"The kept rows differ from getNonZeroInstances", iteration);
+			splitData = DiscoverSignatures.getPercentageSplit(referenceData, PERCENT);
+			check(trainRowsList.get(iteration).equals(getRows(splitData[0])), "The training sets differ", iteration);
+			check(testRowsList.get(iteration).equals(getRows(splitData[1])), "The test sets differ", iteration);
+			referenceData = removeAttributes(referenceData, ruleAttributeIndicesList.get(iteration));
+		}
+		long referenceNanos = System.nanoTime() - start;
+
+		/*
+		 * getNonZeroInstances with the working set randomized in place, as before the split copy
+		 */
+		referenceData = new Instances(data);
+		for (int iteration = 0; iteration < ruleAttributeIndicesList.size(); iteration++) {
+			referenceData = getNonZeroInstances(referenceData);
+			rowList = new ArrayList<String>(rowsList.get(iteration));
+			Collections.sort(rowList);
+			check(rowList.equals(getSortedRows(referenceData)),
+					"The kept rows differ from the loop randomizing in place", iteration);
+			referenceData.randomize(new Random(1));
+			referenceData = removeAttributes(referenceData, ruleAttributeIndicesList.get(iteration));
+		}
+
+		System.out.println(String.format("%-20s %10.2f ms", "getNonZeroInstances", referenceNanos / 1e6));
+		System.out.println(String.format("%-20s %10.2f ms", "NonZeroRowFilter", filterNanos / 1e6));
+		System.out.println("No. Iterations: " + ruleAttributeIndicesList.size() + ", No. Rows Kept: "
+				+ rowsList.get(rowsList.size() - 1).size());
+		System.out.println("Same Rows and Splits: true");
+	}
+}
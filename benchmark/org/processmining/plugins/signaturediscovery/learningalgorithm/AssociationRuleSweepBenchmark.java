@@ -0,0 +1,183 @@
+package org.processmining.plugins.signaturediscovery.learningalgorithm;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.processmining.plugins.signaturediscovery.metrics.Metrics;
+import org.processmining.plugins.signaturediscovery.metrics.RuleListMetrics;
+import org.processmining.plugins.signaturediscovery.types.AssociationRuleEngineType;
+import org.processmining.plugins.signaturediscovery.types.Feature;
+
+import weka.core.Attribute;
+import weka.core.Instances;
+import weka.core.SparseInstance;
+
+/**
+ * Checks the association rules of the Best sweep of DiscoverSignatures.findSignatures,
+ * which mines all its min support values (0.2, 0.3, ..., 0.9) at once with the
+ * FPGrowth engine (the default of SignatureDiscoveryInput), against the
+ * per-configuration runs with the Eclat engine, one ClassSpecificAssociationRuleMiner
+ * per min support value: every feature must have the same rules (the
+ * conditions of a rule compared as a set) and the same class metrics. Both are
+ * timed.
+ *
+ * Usage: AssociationRuleSweepBenchmark [noRows noAttributes]; the attributes
+ * a0 to a4 are almost only found in the rows of the class "pos" and a5 to a7
+ * in the rows of "neg", so that both classes have confident rules, up to five
+ * conditions long. Without arguments 1000 rows and 30 attributes are used, for
+ * the features IE, TR and MR (three random data sets).
+ *
+ * Throws an IllegalStateException if a check fails.
+ */
+public class AssociationRuleSweepBenchmark {
+
+	static final Feature[] FEATURES = { Feature.IE, Feature.TR, Feature.MR };
+
+	/*
+	 * Nominal {0,1} attributes and the class {neg, pos, other}, as the nominal
+	 * data sets of DiscoverSignatures; a0 to a4 are 1 in 95% of the rows of
+	 * "pos" and in 5% of the others, a5 to a7 in 90% of the rows of "neg" and
+	 * in 5% of the others, all other attributes in 30% of all rows
+	 */
+	static Instances createData(int noRows, int noAttributes, Random random) {
+		List<String> nominalValues = new ArrayList<String>(2);
+		nominalValues.add("0");
+		nominalValues.add("1");
+		ArrayList<Attribute> attributes = new ArrayList<Attribute>(noAttributes + 1);
+		for (int j = 0; j < noAttributes; j++)
+			attributes.add(new Attribute("a" + j, nominalValues));
+		List<String> classValues = new ArrayList<String>(3);
+		classValues.add("neg");
+		classValues.add("pos");
+		classValues.add("other");
+		attributes.add(new Attribute("class", classValues));
+
+		Instances data = new Instances("AssociationRuleSweepBenchmark", attributes, noRows);
+		data.setClassIndex(noAttributes);
+		double[] values = new double[noAttributes + 1];
+		int classValue;
+		double probability;
+		for (int i = 0; i < noRows; i++) {
+			classValue = random.nextInt(3);
+			for (int j = 0; j < noAttributes; j++) {
+				if (j < 5)
+					probability = classValue == 1 ? 0.95 : 0.05;
+				else if (j < 8)
+					probability = classValue == 0 ? 0.9 : 0.05;
+				else
+					probability = 0.3;
+				values[j] = random.nextDouble() < probability ? 1 : 0;
+			}
+			values[noAttributes] = classValue;
+			data.add(new SparseInstance(1.0, values));
+		}
+		return data;
+	}
+
+	/*
+	 * Return: the rules, each with its conditions sorted, e.g., "a0=1 AND a3=1 THEN pos", sorted
+	 */
+	static List<String> getRules(RuleListMetrics ruleListMetrics) {
+		List<String> ruleList = new ArrayList<String>();
+		List<String> conditionList = new ArrayList<String>();
+		for (Rule rule : ruleListMetrics.getRuleList()) {
+			conditionList.clear();
+			for (RuleCondition condition : rule.getConditionList())
+				conditionList.add(condition.toString());
+			Collections.sort(conditionList);
+			StringBuilder text = new StringBuilder();
+			for (String condition : conditionList)
+				text.append(text.length() > 0 ? " AND " : "").append(condition);
+			ruleList.add(text.append(" THEN ").append(rule.getClassLabel()).toString());
+		}
+		Collections.sort(ruleList);
+		return ruleList;
+	}
+
+	static String toString(Metrics metrics) {
+		return metrics.getTP() + "/" + metrics.getFP() + "/" + metrics.getTN() + "/" + metrics.getFN() + "/"
+				+ metrics.getNoInstances();
+	}
+
+	static void check(RuleListMetrics expected, RuleListMetrics actual, Feature feature, float minSupport) {
+		String configuration = feature + " @ min support " + minSupport;
+		if (expected == null || actual == null)
+			throw new IllegalStateException("No rules for " + configuration);
+		if (!getRules(expected).equals(getRules(actual)))
+			throw new IllegalStateException("The rules of " + configuration + " differ:\n" + getRules(expected)
+					+ "\n" + getRules(actual));
+		Map<String, Metrics> expectedClassMetricsMap = expected.getClassMetricsMap();
+		Map<String, Metrics> classMetricsMap = actual.getClassMetricsMap();
+		if (!expectedClassMetricsMap.keySet().equals(classMetricsMap.keySet()))
+			throw new IllegalStateException("The classes of " + configuration + " differ");
+		for (String classValue : expectedClassMetricsMap.keySet())
+			if (!toString(expectedClassMetricsMap.get(classValue)).equals(toString(classMetricsMap.get(classValue))))
+				throw new IllegalStateException("The metrics of " + classValue + " for " + configuration
+						+ " differ");
+	}
+
+	public static void main(String[] args) {
+		int noRows = 1000, noAttributes = 30;
+		if (args.length == 2) {
+			noRows = Integer.parseInt(args[0]);
+			noAttributes = Integer.parseInt(args[1]);
+		}
+		Map<Feature, Instances> featureInstancesMap = new HashMap<Feature, Instances>();
+		for (int i = 0; i < FEATURES.length; i++)
+			featureInstancesMap.put(FEATURES[i], createData(noRows, noAttributes, new Random(i)));
+		Set<String> generateRulesForClassLabelSet = new HashSet<String>();
+		generateRulesForClassLabelSet.add("neg");
+		generateRulesForClassLabelSet.add("pos");
+
+		// The min support values of the Best sweep, see DiscoverSignatures.findSignatures
+		List<Float> minSupportList = new ArrayList<Float>();
+		for (float minSupport = 0.2f; minSupport < 1.0; minSupport += 0.1)
+			minSupportList.add(minSupport);
+		float[] minSupports = new float[minSupportList.size()];
+		for (int i = 0; i < minSupports.length; i++)
+			minSupports[i] = minSupportList.get(i);
+
+		long start = System.nanoTime();
+		List<Map<Feature, RuleListMetrics>> featureRuleListMetricsMapList = new ClassSpecificAssociationRuleMiner(
+				featureInstancesMap, generateRulesForClassLabelSet, minSupports, 0.9f,
+				AssociationRuleEngineType.FPGrowth).getFeatureRuleListMetricsList();
+		long sweepNanos = System.nanoTime() - start;
+
+		long eclatNanos = 0;
+		int noRules = 0, noLongRules = 0;
+		Set<String> ruleClassLabelSet = new HashSet<String>();
+		Map<Feature, RuleListMetrics> featureRuleListMetricsMap;
+		for (int i = 0; i < minSupports.length; i++) {
+			start = System.nanoTime();
+			featureRuleListMetricsMap = new ClassSpecificAssociationRuleMiner(featureInstancesMap,
+					generateRulesForClassLabelSet, new float[] { minSupports[i] }, 0.9f, AssociationRuleEngineType.Eclat)
+					.getFeatureRuleListMetrics();
+			eclatNanos += System.nanoTime() - start;
+			for (Feature feature : FEATURES) {
+				check(featureRuleListMetricsMap.get(feature), featureRuleListMetricsMapList.get(i).get(feature),
+						feature, minSupports[i]);
+				for (Rule rule : featureRuleListMetricsMap.get(feature).getRuleList()) {
+					noRules++;
+					if (rule.getConditionList().size() > 1)
+						noLongRules++;
+					ruleClassLabelSet.add(rule.getClassLabel());
+				}
+			}
+		}
+		if (!ruleClassLabelSet.equals(generateRulesForClassLabelSet) || noLongRules == 0)
+			throw new IllegalStateException("Not every class has rules, or no rule has more than one condition: "
+					+ noRules + " rules (" + noLongRules + " longer) for " + ruleClassLabelSet);
+
+		System.out.println(String.format("%-28s %10.2f ms", "Eclat per min support", eclatNanos / 1e6));
+		System.out.println(String.format("%-28s %10.2f ms", "FPGrowth sweep", sweepNanos / 1e6));
+		System.out.println("No. Rules: " + noRules + " (" + noLongRules + " with more than one condition) over "
+				+ minSupports.length + " min support values");
+		System.out.println("Same Rules and Metrics: true");
+	}
+}
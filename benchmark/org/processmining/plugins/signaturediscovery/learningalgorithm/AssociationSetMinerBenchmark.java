@@ -0,0 +1,438 @@
+package org.processmining.plugins.signaturediscovery.learningalgorithm;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.processmining.plugins.signaturediscovery.metrics.Metrics;
+import org.processmining.plugins.signaturediscovery.metrics.RuleListMetrics;
+import org.processmining.plugins.signaturediscovery.types.AssociationRuleEngineType;
+import org.processmining.plugins.signaturediscovery.types.Feature;
+
+import weka.core.Attribute;
+import weka.core.DenseInstance;
+import weka.core.Instance;
+import weka.core.Instances;
+
+/**
+ * Checks the class association rules of ClassSpecificAssociationRuleMiner, with
+ * the Eclat and the FPGrowth engine, against the level-wise joins it used
+ * before (getCombinationAssociations, ported below with its support and
+ * confidence scans): on random data sets both engines must give the same
+ * maximal rules (the conditions of a rule compared as a set) and the same
+ * class metrics as the joins.
+ *
+ * Then the engines are timed on a data set of the size the UI used to refuse
+ * (min support below 0.2 with more than 40 activities): 500 attributes at min
+ * support 0.05, where the rows of the class "pos" mostly have the first ten
+ * attributes.
+ *
+ * Usage: AssociationSetMinerBenchmark [noDataSets [noRows noAttributes]];
+ * without arguments 400 data sets are checked, of 20 to 150 rows over 4 to 12
+ * attributes (some with the values {0, 1, 2}), and the scale run uses 2000
+ * rows of 500 attributes.
+ *
+ * Throws an IllegalStateException if a check fails.
+ */
+public class AssociationSetMinerBenchmark {
+
+	static final AssociationRuleEngineType[] ENGINES = { AssociationRuleEngineType.Eclat,
+			AssociationRuleEngineType.FPGrowth };
+
+	/*
+	 * Nominal attributes {0, 1} (1 in 4 {0, 1, 2}) and the class {neg, pos, other};
+	 * the rows of "pos" have the attributes of patternSize random attributes with
+	 * probability 0.9, all others any attribute with probability density
+	 */
+	static Instances createData(int noRows, int noAttributes, int patternSize, double density, Random random) {
+		ArrayList<Attribute> attributes = new ArrayList<Attribute>(noAttributes + 1);
+		List<String> values;
+		for (int j = 0; j < noAttributes; j++) {
+			values = new ArrayList<String>(3);
+			values.add("0");
+			values.add("1");
+			if (random.nextInt(4) == 0)
+				values.add("2");
+			attributes.add(new Attribute("a" + j, values));
+		}
+		List<String> classValues = new ArrayList<String>(3);
+		classValues.add("neg");
+		classValues.add("pos");
+		classValues.add("other");
+		attributes.add(new Attribute("class", classValues));
+
+		List<Integer> attributeIndexList = new ArrayList<Integer>();
+		for (int j = 0; j < noAttributes; j++)
+			attributeIndexList.add(j);
+		Collections.shuffle(attributeIndexList, random);
+		Set<Integer> patternSet = new HashSet<Integer>(attributeIndexList.subList(0, Math.min(patternSize,
+				noAttributes)));
+
+		Instances data = new Instances("AssociationSetMinerBenchmark", attributes, noRows);
+		data.setClassIndex(noAttributes);
+		double[] rowValues;
+		int classValue;
+		for (int i = 0; i < noRows; i++) {
+			rowValues = new double[noAttributes + 1];
+			classValue = random.nextInt(3);
+			for (int j = 0; j < noAttributes; j++)
+				if (random.nextDouble() < (classValue == 1 && patternSet.contains(j) ? 0.9 : density))
+					rowValues[j] = 1 + random.nextInt(data.attribute(j).numValues() - 1);
+			rowValues[noAttributes] = classValue;
+			data.add(new DenseInstance(1.0, rowValues));
+		}
+		return data;
+	}
+
+	/*
+	 * The baseline ClassSpecificAssociationRuleMiner: the association sets are
+	 * grown by joining the ones of the last level with the ones of the first
+	 * level (which the merge of every level adds to, as the maps share their
+	 * sets), rescanning the instances for the support and the confidence of
+	 * every candidate
+	 */
+	static class JoinMiner {
+		float minSupport;
+		float minConfidence;
+		Set<String> generateRulesForClassLabelSet;
+
+		JoinMiner(Set<String> generateRulesForClassLabelSet, float minSupport, float minConfidence) {
+			this.generateRulesForClassLabelSet = generateRulesForClassLabelSet;
+			this.minSupport = minSupport;
+			this.minConfidence = minConfidence;
+		}
+
+		/*
+		 * Return: the rules "IF a0=1 AND a3=2 THEN pos", as the baseline getMaximalAssociations
+		 */
+		List<String> findRules(Instances instances) {
+			List<Instance> instanceList = new ArrayList<Instance>();
+			for (Instance instance : instances)
+				if (generateRulesForClassLabelSet.contains(instance.stringValue(instances.classAttribute())))
+					instanceList.add(instance);
+
+			List<Map<Attribute, String>> attributeValueMapList = getAttributeValueMapList(instanceList);
+			Map<String, Set<Map<Attribute, String>>> classValueAttributeValuePairSetMap = getClassValueAttributeValuePairSetMap(
+					attributeValueMapList, instanceList);
+			Map<String, Set<Map<Attribute, String>>> tempMap = new HashMap<String, Set<Map<Attribute, String>>>(
+					classValueAttributeValuePairSetMap);
+			Map<String, Set<Map<Attribute, String>>> combinationMap = new HashMap<String, Set<Map<Attribute, String>>>(
+					classValueAttributeValuePairSetMap);
+			do {
+				tempMap = getCombinationAssociations(tempMap, classValueAttributeValuePairSetMap, instanceList);
+				for (String classValue : tempMap.keySet()) {
+					if (combinationMap.containsKey(classValue))
+						combinationMap.get(classValue).addAll(tempMap.get(classValue));
+					else
+						combinationMap.put(classValue, tempMap.get(classValue));
+				}
+			} while (tempMap.size() > 0);
+			return getMaximalAssociations(combinationMap);
+		}
+
+		List<Map<Attribute, String>> getAttributeValueMapList(List<Instance> instanceList) {
+			List<Map<Attribute, String>> attributeValueMapList = new ArrayList<Map<Attribute, String>>();
+			Map<Attribute, String> attributeValueMap;
+			Instance instance = instanceList.get(0);
+			Attribute attribute;
+			for (int i = 0; i < instance.numAttributes(); i++) {
+				attribute = instance.attribute(i);
+				if (attribute.equals(instance.classAttribute()))
+					continue;
+				for (int j = 0; j < attribute.numValues(); j++) {
+					if (attribute.value(j).equalsIgnoreCase("0"))
+						continue;
+					attributeValueMap = new HashMap<Attribute, String>();
+					attributeValueMap.put(attribute, attribute.value(j));
+					if (getSupport(attributeValueMap, instanceList) > minSupport)
+						attributeValueMapList.add(attributeValueMap);
+				}
+			}
+			return attributeValueMapList;
+		}
+
+		Map<String, Set<Map<Attribute, String>>> getClassValueAttributeValuePairSetMap(
+				List<Map<Attribute, String>> attributeValueMapList, List<Instance> instanceList) {
+			Map<String, Set<Map<Attribute, String>>> classValueAttributeValuePairSetMap = new HashMap<String, Set<Map<Attribute, String>>>();
+			Attribute classAttribute = instanceList.get(0).classAttribute();
+			List<Instance> filteredInstanceList;
+			for (Map<Attribute, String> attributeValueMap : attributeValueMapList) {
+				filteredInstanceList = getFilteredInstanceList(attributeValueMap, instanceList);
+				for (String classValue : generateRulesForClassLabelSet) {
+					if (getConfidence(classAttribute, classValue, filteredInstanceList) > minConfidence) {
+						if (!classValueAttributeValuePairSetMap.containsKey(classValue))
+							classValueAttributeValuePairSetMap.put(classValue, new HashSet<Map<Attribute, String>>());
+						classValueAttributeValuePairSetMap.get(classValue).add(attributeValueMap);
+					}
+				}
+			}
+			return classValueAttributeValuePairSetMap;
+		}
+
+		Map<String, Set<Map<Attribute, String>>> getCombinationAssociations(
+				Map<String, Set<Map<Attribute, String>>> mapA, Map<String, Set<Map<Attribute, String>>> mapB,
+				List<Instance> instanceList) {
+			Map<String, Set<Map<Attribute, String>>> combinationMap = new HashMap<String, Set<Map<Attribute, String>>>();
+			Attribute classAttribute = instanceList.get(0).classAttribute();
+			List<Map<Attribute, String>> listA = new ArrayList<Map<Attribute, String>>();
+			List<Map<Attribute, String>> listB = new ArrayList<Map<Attribute, String>>();
+			Set<Attribute> attributeSet = new HashSet<Attribute>();
+			Map<Attribute, String> attributeValueMap;
+			for (String classValue : mapA.keySet()) {
+				if (!mapB.containsKey(classValue))
+					continue;
+				listA.clear();
+				listA.addAll(mapA.get(classValue));
+				listB.clear();
+				listB.addAll(mapB.get(classValue));
+				for (int i = 0; i < listA.size(); i++) {
+					for (int j = 0; j < listB.size(); j++) {
+						attributeSet.clear();
+						attributeSet.addAll(listA.get(i).keySet());
+						attributeSet.retainAll(listB.get(j).keySet());
+						if (attributeSet.size() > 0)
+							continue;
+						attributeValueMap = new HashMap<Attribute, String>(listA.get(i));
+						attributeValueMap.putAll(listB.get(j));
+						if (getSupport(attributeValueMap, instanceList) > minSupport
+								&& getConfidence(classAttribute, classValue,
+										getFilteredInstanceList(attributeValueMap, instanceList)) > minConfidence) {
+							if (!combinationMap.containsKey(classValue))
+								combinationMap.put(classValue, new HashSet<Map<Attribute, String>>());
+							combinationMap.get(classValue).add(attributeValueMap);
+						}
+					}
+				}
+			}
+			return combinationMap;
+		}
+
+		List<String> getMaximalAssociations(Map<String, Set<Map<Attribute, String>>> classValueAttributeValuePairSetMap) {
+			List<String> ruleList = new ArrayList<String>();
+			Set<Set<String>> associationCombinationSet = new HashSet<Set<String>>();
+			Set<String> associationSet;
+			StringBuilder rule;
+			for (String classValue : classValueAttributeValuePairSetMap.keySet()) {
+				associationCombinationSet.clear();
+				for (Map<Attribute, String> attributeValueMap : classValueAttributeValuePairSetMap.get(classValue)) {
+					associationSet = new HashSet<String>();
+					for (Attribute attribute : attributeValueMap.keySet())
+						associationSet.add(attribute.name() + "=" + attributeValueMap.get(attribute));
+					associationCombinationSet.add(associationSet);
+				}
+				for (Set<String> association : new AbstractionSetTheory(associationCombinationSet).getMaximalElements()) {
+					rule = new StringBuilder("IF ");
+					for (String antecedant : association)
+						rule.append(rule.length() > 3 ? " AND " : "").append(antecedant);
+					ruleList.add(rule.append(" THEN ").append(classValue).toString());
+				}
+			}
+			return ruleList;
+		}
+
+		float getSupport(Map<Attribute, String> attributeValueMap, List<Instance> instanceList) {
+			return (float) getFilteredInstanceList(attributeValueMap, instanceList).size() / instanceList.size();
+		}
+
+		List<Instance> getFilteredInstanceList(Map<Attribute, String> attributeValueMap, List<Instance> instanceList) {
+			List<Instance> filteredInstanceList = new ArrayList<Instance>();
+			boolean allSatisfied;
+			for (Instance instance : instanceList) {
+				allSatisfied = true;
+				for (Attribute attribute : attributeValueMap.keySet()) {
+					if (!instance.stringValue(attribute).equals(attributeValueMap.get(attribute))) {
+						allSatisfied = false;
+						break;
+					}
+				}
+				if (allSatisfied)
+					filteredInstanceList.add(instance);
+			}
+			return filteredInstanceList;
+		}
+
+		float getConfidence(Attribute classAttribute, String classValue, List<Instance> instanceList) {
+			float confidence = 0;
+			for (Instance instance : instanceList)
+				if (instance.stringValue(classAttribute).equals(classValue))
+					confidence++;
+			return confidence / instanceList.size();
+		}
+
+		/*
+		 * The baseline evaluateRuleList: the TP/FP/TN/FN of the rules of every class,
+		 * and for every rule the number of instances of the class, added up
+		 */
+		Map<String, String> evaluateRuleList(List<String> ruleList, Instances data) {
+			Map<String, String> classMetricsMap = new HashMap<String, String>();
+			String[] ruleSplit, antecedantSplit;
+			Instance instance;
+			boolean isSatisfied;
+			int tp, fp, tn, fn, noInstancesWithRuleClassValue;
+			for (String classValue : generateRulesForClassLabelSet) {
+				tp = fp = tn = fn = noInstancesWithRuleClassValue = 0;
+				for (String rule : ruleList) {
+					ruleSplit = rule.replaceAll("IF ", "").split(" THEN ");
+					if (!ruleSplit[1].trim().equals(classValue))
+						continue;
+					antecedantSplit = ruleSplit[0].split(" AND ");
+					for (int i = 0; i < data.numInstances(); i++) {
+						instance = data.instance(i);
+						if (instance.stringValue(instance.classAttribute()).equals(classValue))
+							noInstancesWithRuleClassValue++;
+						isSatisfied = true;
+						for (String antecedant : antecedantSplit) {
+							if (!instance.stringValue(data.attribute(antecedant.split("=")[0].trim())).equals(
+									antecedant.split("=")[1].trim())) {
+								isSatisfied = false;
+								break;
+							}
+						}
+						if (isSatisfied) {
+							if (instance.stringValue(instance.classAttribute()).equals(classValue))
+								tp++;
+							else
+								fp++;
+						} else {
+							if (instance.stringValue(instance.classAttribute()).equals(classValue))
+								fn++;
+							else
+								tn++;
+						}
+					}
+				}
+				classMetricsMap.put(classValue, tp + "/" + fp + "/" + tn + "/" + fn + "/" + noInstancesWithRuleClassValue);
+			}
+			return classMetricsMap;
+		}
+	}
+
+	/*
+	 * Return: the rules with their conditions sorted, e.g., "a0=1 AND a3=2 THEN pos", sorted
+	 */
+	static List<String> getSortedRules(List<String> ruleList) {
+		List<String> sortedRuleList = new ArrayList<String>();
+		List<String> conditionList = new ArrayList<String>();
+		String[] ruleSplit;
+		StringBuilder text;
+		for (String rule : ruleList) {
+			ruleSplit = rule.replaceAll("IF ", "").split(" THEN ");
+			conditionList.clear();
+			Collections.addAll(conditionList, ruleSplit[0].split(" AND "));
+			Collections.sort(conditionList);
+			text = new StringBuilder();
+			for (String condition : conditionList)
+				text.append(text.length() > 0 ? " AND " : "").append(condition);
+			sortedRuleList.add(text.append(" THEN ").append(ruleSplit[1]).toString());
+		}
+		Collections.sort(sortedRuleList);
+		return sortedRuleList;
+	}
+
+	static List<String> getRules(RuleListMetrics ruleListMetrics) {
+		List<String> ruleList = new ArrayList<String>();
+		for (Rule rule : ruleListMetrics.getRuleList())
+			ruleList.add(rule.toString());
+		return getSortedRules(ruleList);
+	}
+
+	static Map<String, String> getClassMetrics(RuleListMetrics ruleListMetrics) {
+		Map<String, String> classMetricsMap = new HashMap<String, String>();
+		Metrics metrics;
+		for (String classValue : ruleListMetrics.getClassMetricsMap().keySet()) {
+			metrics = ruleListMetrics.getClassMetricsMap().get(classValue);
+			classMetricsMap.put(classValue, metrics.getTP() + "/" + metrics.getFP() + "/" + metrics.getTN() + "/"
+					+ metrics.getFN() + "/" + metrics.getNoInstances());
+		}
+		return classMetricsMap;
+	}
+
+	static RuleListMetrics mine(Instances data, Set<String> generateRulesForClassLabelSet, float minSupport,
+			float minConfidence, AssociationRuleEngineType engine) {
+		Map<Feature, Instances> featureInstancesMap = new HashMap<Feature, Instances>();
+		featureInstancesMap.put(Feature.IE, data);
+		return new ClassSpecificAssociationRuleMiner(featureInstancesMap, generateRulesForClassLabelSet,
+				new float[] { minSupport }, minConfidence, engine).getFeatureRuleListMetrics().get(Feature.IE);
+	}
+
+	public static void main(String[] args) {
+		int noDataSets = 400, noScaleRows = 2000, noScaleAttributes = 500;
+		if (args.length >= 1)
+			noDataSets = Integer.parseInt(args[0]);
+		if (args.length == 3) {
+			noScaleRows = Integer.parseInt(args[1]);
+			noScaleAttributes = Integer.parseInt(args[2]);
+		}
+		Set<String> generateRulesForClassLabelSet = new HashSet<String>();
+		generateRulesForClassLabelSet.add("neg");
+		generateRulesForClassLabelSet.add("pos");
+
+		Random random = new Random(1);
+		long joinNanos = 0, start;
+		long[] engineNanos = new long[ENGINES.length];
+		int noRules = 0, noLongRules = 0;
+		Instances data;
+		float minSupport, minConfidence;
+		JoinMiner joinMiner;
+		List<String> expectedRuleList;
+		Map<String, String> expectedClassMetricsMap;
+		RuleListMetrics ruleListMetrics;
+		for (int i = 0; i < noDataSets; i++) {
+			data = createData(20 + random.nextInt(131), 4 + random.nextInt(9), 2 + random.nextInt(3),
+					0.1 + 0.4 * random.nextDouble(), random);
+			minSupport = 0.05f * (1 + random.nextInt(10));
+			minConfidence = 0.1f * (5 + random.nextInt(5));
+
+			start = System.nanoTime();
+			joinMiner = new JoinMiner(generateRulesForClassLabelSet, minSupport, minConfidence);
+			expectedRuleList = joinMiner.findRules(data);
+			expectedClassMetricsMap = joinMiner.evaluateRuleList(expectedRuleList, data);
+			joinNanos += System.nanoTime() - start;
+			expectedRuleList = getSortedRules(expectedRuleList);
+
+			for (int j = 0; j < ENGINES.length; j++) {
+				start = System.nanoTime();
+				ruleListMetrics = mine(data, generateRulesForClassLabelSet, minSupport, minConfidence, ENGINES[j]);
+				engineNanos[j] += System.nanoTime() - start;
+				if (!getRules(ruleListMetrics).equals(expectedRuleList))
+					throw new IllegalStateException("The rules of " + ENGINES[j] + " on data set " + i
+							+ " differ from the joins:\n" + expectedRuleList + "\n" + getRules(ruleListMetrics));
+				if (!getClassMetrics(ruleListMetrics).equals(expectedClassMetricsMap))
+					throw new IllegalStateException("The metrics of " + ENGINES[j] + " on data set " + i
+							+ " differ from the joins: " + expectedClassMetricsMap + " " + getClassMetrics(ruleListMetrics));
+			}
+			noRules += expectedRuleList.size();
+			for (String rule : expectedRuleList)
+				if (rule.contains(" AND "))
+					noLongRules++;
+		}
+		if (noLongRules == 0)
+			throw new IllegalStateException("No rule with more than one condition found");
+
+		System.out.println(String.format("%-28s %10.2f ms", "Level-wise joins", joinNanos / 1e6));
+		for (int j = 0; j < ENGINES.length; j++)
+			System.out.println(String.format("%-28s %10.2f ms", ENGINES[j], engineNanos[j] / 1e6));
+		System.out.println("No. Data Sets: " + noDataSets + ", No. Rules: " + noRules + " (" + noLongRules
+				+ " with more than one condition)");
+		System.out.println("Same Maximal Rules and Metrics: true");
+
+		data = createData(noScaleRows, noScaleAttributes, 10, 0.02, new Random(2));
+		System.out.println("No. Rows: " + noScaleRows + " @ No. Attributes: " + noScaleAttributes
+				+ " @ min support 0.05, min confidence 0.9");
+		List<String> ruleList = null;
+		for (int j = 0; j < ENGINES.length; j++) {
+			start = System.nanoTime();
+			ruleListMetrics = mine(data, generateRulesForClassLabelSet, 0.05f, 0.9f, ENGINES[j]);
+			System.out.println(String.format("%-28s %10.2f ms, %d rules", ENGINES[j], (System.nanoTime() - start) / 1e6,
+					ruleListMetrics.getRuleList().size()));
+			if (ruleList != null && !ruleList.equals(getRules(ruleListMetrics)))
+				throw new IllegalStateException("The rules of the engines differ on the scale run");
+			ruleList = getRules(ruleListMetrics);
+		}
+	}
+}
@@ -0,0 +1,169 @@
+package org.processmining.plugins.signaturediscovery.learningalgorithm;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import weka.core.Attribute;
+import weka.core.DenseInstance;
+import weka.core.Instances;
+
+/**
+ * Checks the rules DecisionTreeRuleExtractor reads from the nodes of a J48
+ * tree against the rules parsed from J48.toString() as DiscoverSignatures did
+ * before (convertDecisionTreeToRules), on data sets whose trees have empty
+ * leaves: the nominal attributes have a value that no row takes, so their
+ * splits have a branch without training rows, which J48 labels with the
+ * majority class of the split. The classes are imbalanced so that this is not
+ * the first class value. Both are timed.
+ *
+ * Usage: J48RuleBenchmark [noRows noDataSets]; without arguments 2000 rows and
+ * 10 data sets are used, with a pruned and an unpruned tree each.
+ *
+ * Throws an IllegalStateException if a check fails.
+ */
+public class J48RuleBenchmark {
+
+	static final String[] OPTIONS = { "-C 0.25 -M 2", "-U -M 2" };
+
+	/*
+	 * color {red, green, blue}, size {s, m, l}, weight (numeric) and the class
+	 * {neg, pos}; blue and l are never used
+	 */
+	static Instances createData(int noRows, Random random) {
+		List<String> colorValues = new ArrayList<String>(3);
+		colorValues.add("red");
+		colorValues.add("green");
+		colorValues.add("blue");
+		List<String> sizeValues = new ArrayList<String>(3);
+		sizeValues.add("s");
+		sizeValues.add("m");
+		sizeValues.add("l");
+		List<String> classValues = new ArrayList<String>(2);
+		classValues.add("neg");
+		classValues.add("pos");
+		ArrayList<Attribute> attributes = new ArrayList<Attribute>(4);
+		attributes.add(new Attribute("color", colorValues));
+		attributes.add(new Attribute("size", sizeValues));
+		attributes.add(new Attribute("weight"));
+		attributes.add(new Attribute("class", classValues));
+
+		Instances data = new Instances("J48RuleBenchmark", attributes, noRows);
+		data.setClassIndex(3);
+		double color, size, weight;
+		boolean isPos;
+		for (int i = 0; i < noRows; i++) {
+			color = random.nextInt(10) < 7 ? 0 : 1;
+			size = random.nextInt(2);
+			weight = random.nextInt(100) / 10.0;
+			if (color == 0)
+				isPos = random.nextInt(10) < (size == 0 ? 9 : 6);
+			else
+				isPos = weight > 5 ? random.nextInt(10) < 8 : random.nextInt(10) < 1;
+			data.add(new DenseInstance(1.0, new double[] { color, size, weight, isPos ? 1 : 0 }));
+		}
+		return data;
+	}
+
+	/*
+	 * The baseline convertDecisionTreeToRules of DiscoverSignatures (without
+	 * collecting the attributes)
+	 */
+	static List<String> convertDecisionTreeToRules(String tree, Set<String> generateRulesForClassLabelSet) {
+		String[] treeSplit = tree.replaceAll(" ", "").split("[\r\n\b]+");
+
+		Map<Integer, String> levelConstriantMap = new HashMap<Integer, String>();
+		int depth;
+		String[] ruleSplit;
+		List<String> ruleList = new ArrayList<String>();
+		String rule;
+		String classLabel;
+		for (int i = 2; i < treeSplit.length - 1; i++) {
+			if (treeSplit[i].contains("Number"))
+				break;
+			if (treeSplit[i].contains("|")) {
+				depth = treeSplit[i].split("\\|").length;
+				if (treeSplit[i].contains(":")) {
+					ruleSplit = treeSplit[i].split("\\|")[depth - 1].split(":");
+					classLabel = ruleSplit[1].split("\\(")[0].trim();
+					if (generateRulesForClassLabelSet.contains(classLabel)) {
+						rule = "IF ";
+						for (int j = 0; j < depth - 1; j++)
+							rule += levelConstriantMap.get(j) + " AND ";
+						rule += ruleSplit[0] + " THEN " + classLabel;
+						ruleList.add(rule);
+					}
+				} else {
+					levelConstriantMap.put(depth - 1, treeSplit[i].split("\\|")[depth - 1]);
+				}
+			} else {
+				if (treeSplit[i].contains(":")) {
+					ruleSplit = treeSplit[i].split(":");
+					classLabel = ruleSplit[1].split("\\(")[0].trim();
+					if (generateRulesForClassLabelSet.contains(classLabel))
+						ruleList.add("IF " + ruleSplit[0] + " THEN " + classLabel);
+				} else {
+					levelConstriantMap.put(0, treeSplit[i]);
+				}
+			}
+		}
+		return ruleList;
+	}
+
+	public static void main(String[] args) throws Exception {
+		int noRows = 2000, noDataSets = 10;
+		if (args.length == 2) {
+			noRows = Integer.parseInt(args[0]);
+			noDataSets = Integer.parseInt(args[1]);
+		}
+		Set<String> generateRulesForClassLabelSet = new HashSet<String>();
+		generateRulesForClassLabelSet.add("neg");
+		generateRulesForClassLabelSet.add("pos");
+		DecisionTreeRuleExtractor ruleExtractor = new DecisionTreeRuleExtractor(generateRulesForClassLabelSet);
+
+		long extractorNanos = 0, parserNanos = 0, start;
+		int noRules = 0, noTreesWithEmptyLeaves = 0;
+		Instances data;
+		DecisionTreeRuleExtractor.RuleJ48 j48;
+		List<String> ruleList, expectedRuleList;
+		String tree;
+		for (int i = 0; i < noDataSets; i++) {
+			data = createData(noRows, new Random(i));
+			for (String options : OPTIONS) {
+				j48 = new DecisionTreeRuleExtractor.RuleJ48();
+				j48.setOptions(weka.core.Utils.splitOptions(options));
+				j48.buildClassifier(data);
+
+				start = System.nanoTime();
+				ruleList = new ArrayList<String>();
+				for (Rule rule : ruleExtractor.getRuleList(j48, data, new HashSet<String>()))
+					ruleList.add(rule.toString());
+				extractorNanos += System.nanoTime() - start;
+
+				start = System.nanoTime();
+				tree = j48.toString();
+				expectedRuleList = convertDecisionTreeToRules(tree, generateRulesForClassLabelSet);
+				parserNanos += System.nanoTime() - start;
+
+				if (!ruleList.equals(expectedRuleList))
+					throw new IllegalStateException("The rules of data set " + i + " (" + options
+							+ ") differ from J48.toString():\n" + tree + "\n" + ruleList + "\n" + expectedRuleList);
+				if (tree.contains("(0.0)"))
+					noTreesWithEmptyLeaves++;
+				noRules += ruleList.size();
+			}
+		}
+		if (noTreesWithEmptyLeaves == 0)
+			throw new IllegalStateException("None of the trees has an empty leaf");
+
+		System.out.println(String.format("%-28s %10.2f ms", "J48.toString() parsed", parserNanos / 1e6));
+		System.out.println(String.format("%-28s %10.2f ms", "DecisionTreeRuleExtractor", extractorNanos / 1e6));
+		System.out.println("No. Rules: " + noRules + ", No. Trees with Empty Leaves: " + noTreesWithEmptyLeaves + "/"
+				+ noDataSets * OPTIONS.length);
+		System.out.println("Same Rules: true");
+	}
+}
@@ -0,0 +1,191 @@
+package org.processmining.plugins.signaturediscovery.learningalgorithm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import weka.classifiers.trees.Id3;
+import weka.core.Attribute;
+import weka.core.DenseInstance;
+import weka.core.Instance;
+import weka.core.Instances;
+
+/**
+ * Checks RuleId3 against weka.classifiers.trees.Id3 on random nominal data
+ * sets: both trees must have the same toString() and toSource(), and classify
+ * (classifyInstance and distributionForInstance) the training rows and random
+ * other rows, which also reach the leaves without training rows, the same.
+ * The rules DecisionTreeRuleExtractor reads from the nodes of RuleId3 must be
+ * the rules parsed from Id3.toString() as DiscoverSignatures did before
+ * (convertDecisionTreeToRules). Both builds are timed.
+ *
+ * Usage: RuleId3Benchmark [noDataSets]; every data set has 2 to 8 attributes
+ * with 2 to 4 values, 10 to 300 rows and the class {neg, pos, other}, given by
+ * the first attributes with some noise. Without arguments 300 data sets are
+ * used.
+ *
+ * Throws an IllegalStateException if a check fails.
+ */
+public class RuleId3Benchmark {
+
+	static final int NO_TEST_ROWS = 50;
+
+	static Instances createData(Random random) {
+		int noAttributes = 2 + random.nextInt(7);
+		ArrayList<Attribute> attributes = new ArrayList<Attribute>(noAttributes + 1);
+		List<String> values;
+		for (int j = 0; j < noAttributes; j++) {
+			int noValues = 2 + random.nextInt(3);
+			values = new ArrayList<String>(noValues);
+			for (int k = 0; k < noValues; k++)
+				values.add("v" + k);
+			attributes.add(new Attribute("a" + j, values));
+		}
+		List<String> classValues = new ArrayList<String>(3);
+		classValues.add("neg");
+		classValues.add("pos");
+		classValues.add("other");
+		attributes.add(new Attribute("class", classValues));
+
+		int noRows = 10 + random.nextInt(291);
+		Instances data = new Instances("RuleId3Benchmark", attributes, noRows);
+		data.setClassIndex(noAttributes);
+		for (int i = 0; i < noRows; i++)
+			data.add(createRow(data, random));
+		return data;
+	}
+
+	static Instance createRow(Instances data, Random random) {
+		int noAttributes = data.numAttributes() - 1;
+		double[] values = new double[noAttributes + 1];
+		for (int j = 0; j < noAttributes; j++)
+			values[j] = random.nextInt(data.attribute(j).numValues());
+		if (random.nextInt(10) == 0)
+			values[noAttributes] = random.nextInt(3);
+		else
+			values[noAttributes] = (values[0] + (noAttributes > 2 ? values[1] * values[2] : values[1])) % 3;
+		return new DenseInstance(1.0, values);
+	}
+
+	/*
+	 * The baseline convertDecisionTreeToRules of DiscoverSignatures for an Id3
+	 * tree (without collecting the attributes)
+	 */
+	static List<String> convertDecisionTreeToRules(String tree, Set<String> generateRulesForClassLabelSet) {
+		String[] treeSplit = tree.replaceAll(" ", "").split("[\r\n\b]+");
+
+		Map<Integer, String> levelConstriantMap = new HashMap<Integer, String>();
+		int depth;
+		String[] ruleSplit;
+		List<String> ruleList = new ArrayList<String>();
+		String rule;
+		String classLabel;
+		for (int i = 1; i < treeSplit.length; i++) {
+			if (treeSplit[i].contains("Number"))
+				break;
+			if (treeSplit[i].contains("|")) {
+				depth = treeSplit[i].split("\\|").length;
+				if (treeSplit[i].contains(":")) {
+					ruleSplit = treeSplit[i].split("\\|")[depth - 1].split(":");
+					classLabel = ruleSplit[1].split("\\(")[0].trim();
+					if (generateRulesForClassLabelSet.contains(classLabel)) {
+						rule = "IF ";
+						for (int j = 0; j < depth - 1; j++)
+							rule += levelConstriantMap.get(j) + " AND ";
+						rule += ruleSplit[0] + " THEN " + classLabel;
+						ruleList.add(rule);
+					}
+				} else {
+					levelConstriantMap.put(depth - 1, treeSplit[i].split("\\|")[depth - 1]);
+				}
+			} else {
+				if (treeSplit[i].contains(":")) {
+					ruleSplit = treeSplit[i].split(":");
+					classLabel = ruleSplit[1].split("\\(")[0].trim();
+					if (generateRulesForClassLabelSet.contains(classLabel))
+						ruleList.add("IF " + ruleSplit[0] + " THEN " + classLabel);
+				} else {
+					levelConstriantMap.put(0, treeSplit[i]);
+				}
+			}
+		}
+		return ruleList;
+	}
+
+	static void check(boolean condition, String message, int dataSet) {
+		if (!condition)
+			throw new IllegalStateException("Data set " + dataSet + ": " + message);
+	}
+
+	public static void main(String[] args) throws Exception {
+		int noDataSets = 300;
+		if (args.length == 1)
+			noDataSets = Integer.parseInt(args[0]);
+		Set<String> generateRulesForClassLabelSet = new HashSet<String>();
+		generateRulesForClassLabelSet.add("neg");
+		generateRulesForClassLabelSet.add("pos");
+		DecisionTreeRuleExtractor ruleExtractor = new DecisionTreeRuleExtractor(generateRulesForClassLabelSet);
+
+		long id3Nanos = 0, ruleId3Nanos = 0, start;
+		int noRules = 0, noEmptyLeafRows = 0;
+		Instances data;
+		Id3 id3;
+		RuleId3 ruleId3;
+		List<Instance> rowList;
+		Instance row;
+		List<String> ruleList;
+		for (int i = 0; i < noDataSets; i++) {
+			Random random = new Random(i);
+			data = createData(random);
+
+			start = System.nanoTime();
+			id3 = new Id3();
+			id3.buildClassifier(data);
+			id3Nanos += System.nanoTime() - start;
+
+			start = System.nanoTime();
+			ruleId3 = new RuleId3();
+			ruleId3.buildClassifier(data);
+			ruleId3Nanos += System.nanoTime() - start;
+
+			check(id3.toString().equals(ruleId3.toString()), "toString() differs:\n" + id3 + "\n" + ruleId3, i);
+			check(id3.toSource("Tree").equals(ruleId3.toSource("Tree")), "toSource() differs:\n"
+					+ id3.toSource("Tree") + "\n" + ruleId3.toSource("Tree"), i);
+
+			rowList = new ArrayList<Instance>(data);
+			for (int j = 0; j < NO_TEST_ROWS; j++) {
+				row = createRow(data, random);
+				row.setDataset(data);
+				rowList.add(row);
+			}
+			for (Instance instance : rowList) {
+				check(Double.compare(id3.classifyInstance(instance), ruleId3.classifyInstance(instance)) == 0,
+						"classifyInstance differs for " + instance, i);
+				check(Arrays.equals(id3.distributionForInstance(instance), ruleId3.distributionForInstance(instance)),
+						"distributionForInstance differs for " + instance, i);
+				if (Double.isNaN(ruleId3.classifyInstance(instance)))
+					noEmptyLeafRows++;
+			}
+
+			ruleList = new ArrayList<String>();
+			for (Rule rule : ruleExtractor.getRuleList(ruleId3, data, new HashSet<String>()))
+				ruleList.add(rule.toString());
+			check(ruleList.equals(convertDecisionTreeToRules(id3.toString(), generateRulesForClassLabelSet)),
+					"The rules differ from Id3.toString():\n" + id3 + "\n" + ruleList, i);
+			noRules += ruleList.size();
+		}
+		if (noEmptyLeafRows == 0)
+			throw new IllegalStateException("No row reached a leaf without training rows");
+
+		System.out.println(String.format("%-28s %10.2f ms", "Id3", id3Nanos / 1e6));
+		System.out.println(String.format("%-28s %10.2f ms", "RuleId3", ruleId3Nanos / 1e6));
+		System.out.println("No. Data Sets: " + noDataSets + ", No. Rules: " + noRules
+				+ ", No. Rows in Empty Leaves: " + noEmptyLeafRows);
+		System.out.println("Same Trees, Classifications, Source and Rules: true");
+	}
+}
@@ -0,0 +1,156 @@
+package org.processmining.plugins.signaturediscovery.util;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compares the non-overlapping alphabet feature counting of
+ * AlphabetFeatureMatcher against the earlier regular expression based
+ * counting (a pattern (p){1,} compiled for every pattern at every position of
+ * a trace) on the tandem repeat alphabet (TRA) and maximal repeat alphabet
+ * (MRA) features of a synthetic log: the throughput of both and whether they
+ * report the same counts for every trace.
+ *
+ * Usage: AlphabetFeatureBenchmark [noTraces noActivities traceLength
+ * encodingLength]; see SuffixTreeBenchmark for the synthetic log. Without
+ * arguments a log of 2000 traces over 20 activities is used.
+ */
+public class AlphabetFeatureBenchmark {
+
+	/*
+	 * The regular expression based counting that AlphabetFeatureMatcher
+	 * replaces, used as the reference for the counts
+	 */
+	static Map<Set<String>, Integer> getRegexAlphabetCountMap(int encodingLength, String encodedTrace,
+			Map<Set<String>, Set<String>> alphabetFeatureSetMap) {
+		Map<Set<String>, Integer> encodedTraceAlphabetCountMap = new HashMap<Set<String>, Integer>();
+
+		int encodedTraceLength = encodedTrace.length() / encodingLength;
+		TreeSet<String> alphabetFeatureSet;
+		boolean encodedTraceHasPattern;
+		Matcher matcher;
+		int maxCount, repeatLength, noMatches;
+		String maxCountPattern;
+		Integer patternCount;
+		for (Set<String> alphabet : alphabetFeatureSetMap.keySet()) {
+			alphabetFeatureSet = new TreeSet<String>(alphabetFeatureSetMap.get(alphabet));
+
+			encodedTraceHasPattern = false;
+			for (String repeatPattern : alphabetFeatureSet) {
+				if (encodedTrace.contains(repeatPattern)) {
+					encodedTraceHasPattern = true;
+					break;
+				}
+			}
+			if (!encodedTraceHasPattern)
+				continue;
+
+			for (int i = 0; i < encodedTraceLength; i++) {
+				maxCount = 0;
+				maxCountPattern = "";
+				for (String repeatPattern : alphabetFeatureSet) {
+					if (encodedTrace.indexOf(repeatPattern, i * encodingLength) != i * encodingLength)
+						continue;
+					matcher = Pattern.compile("(" + repeatPattern + "){1,}").matcher(encodedTrace);
+					if (matcher.find(i * encodingLength) && matcher.start() == i * encodingLength) {
+						noMatches = (matcher.end() - matcher.start()) / repeatPattern.length();
+						if (noMatches > maxCount) {
+							maxCount = noMatches;
+							maxCountPattern = repeatPattern;
+						}
+					}
+				}
+				if (maxCount > 0) {
+					repeatLength = maxCountPattern.length() / encodingLength;
+					i += repeatLength * maxCount - 1;
+					patternCount = encodedTraceAlphabetCountMap.get(alphabet);
+					encodedTraceAlphabetCountMap.put(alphabet, maxCount + (patternCount == null ? 0 : patternCount));
+				}
+			}
+		}
+		return encodedTraceAlphabetCountMap;
+	}
+
+	static Map<Set<String>, Set<String>> getTandemRepeatAlphabetFeatureSetMap(int encodingLength,
+			List<String> encodedTraceList) {
+		Set<String> tandemRepeatSet = new HashSet<String>();
+		UkkonenSuffixTree suffixTree;
+		for (String encodedTrace : encodedTraceList) {
+			if (encodedTrace.length() <= 2 * encodingLength)
+				continue;
+			suffixTree = new UkkonenSuffixTree(encodingLength, encodedTrace);
+			suffixTree.LZDecomposition();
+			for (TreeSet<String> tandemRepeatPatternSet : suffixTree.getPrimitiveTandemRepeats().values())
+				tandemRepeatSet.addAll(tandemRepeatPatternSet);
+		}
+		return new EquivalenceClass().getAlphabetEquivalenceClassMap(encodingLength, tandemRepeatSet);
+	}
+
+	static Map<Set<String>, Set<String>> getMaximalRepeatAlphabetFeatureSetMap(int encodingLength,
+			String charStream) {
+		SuffixArray suffixArray = new SuffixArray(encodingLength, charStream);
+		suffixArray.findLeftDiverseNodes();
+		Set<String> maximalRepeatSet = suffixArray.getMaximalRepeats();
+		if (maximalRepeatSet == null)
+			maximalRepeatSet = new HashSet<String>();
+		return new EquivalenceClass().getAlphabetEquivalenceClassMap(encodingLength, maximalRepeatSet);
+	}
+
+	static void benchmark(String name, int encodingLength, List<String> encodedTraceList,
+			Map<Set<String>, Set<String>> alphabetFeatureSetMap) {
+		int noPatterns = 0;
+		for (Set<String> patternSet : alphabetFeatureSetMap.values())
+			noPatterns += patternSet.size();
+
+		long start = System.nanoTime();
+		AlphabetFeatureMatcher alphabetFeatureMatcher = new AlphabetFeatureMatcher(encodingLength,
+				alphabetFeatureSetMap);
+		for (String encodedTrace : encodedTraceList)
+			alphabetFeatureMatcher.getAlphabetCountMap(encodedTrace);
+		long matcherNanos = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		for (String encodedTrace : encodedTraceList)
+			getRegexAlphabetCountMap(encodingLength, encodedTrace, alphabetFeatureSetMap);
+		long regexNanos = System.nanoTime() - start;
+
+		boolean isSameCounts = true;
+		for (String encodedTrace : encodedTraceList)
+			isSameCounts &= alphabetFeatureMatcher.getAlphabetCountMap(encodedTrace).equals(
+					getRegexAlphabetCountMap(encodingLength, encodedTrace, alphabetFeatureSetMap));
+
+		int noTraces = encodedTraceList.size();
+		System.out.println(String.format("%-8s %10d %10d %18.0f %18.0f %12s", name, alphabetFeatureSetMap.size(),
+				noPatterns, noTraces / (regexNanos / 1e9), noTraces / (matcherNanos / 1e9), isSameCounts));
+	}
+
+	public static void main(String[] args) {
+		int noTraces = 2000, noActivities = 20, traceLength = 30, encodingLength = 2;
+		if (args.length == 4) {
+			noTraces = Integer.parseInt(args[0]);
+			noActivities = Integer.parseInt(args[1]);
+			traceLength = Integer.parseInt(args[2]);
+			encodingLength = Integer.parseInt(args[3]);
+		}
+
+		List<String> encodedTraceList = SuffixTreeBenchmark.createSyntheticLog(noTraces, noActivities, traceLength,
+				encodingLength, new Random(1));
+		String charStream = SuffixTreeBenchmark.createCharStream(encodedTraceList, noActivities, encodingLength);
+
+		System.out.println("No. Traces: " + noTraces + " @ Trace Length: " + traceLength + " @ Encoding Length: "
+				+ encodingLength);
+		System.out.println(String.format("%-8s %10s %10s %18s %18s %12s", "Feature", "Alphabets", "Patterns",
+				"Regex (traces/s)", "Matcher (traces/s)", "Same Counts"));
+		benchmark("TRA", encodingLength, encodedTraceList,
+				getTandemRepeatAlphabetFeatureSetMap(encodingLength, encodedTraceList));
+		benchmark("MRA", encodingLength, encodedTraceList,
+				getMaximalRepeatAlphabetFeatureSetMap(encodingLength, charStream));
+	}
+}
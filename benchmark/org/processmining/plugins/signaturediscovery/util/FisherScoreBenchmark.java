@@ -0,0 +1,276 @@
+package org.processmining.plugins.signaturediscovery.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Compares FisherScoreCalculator against the earlier Fisher score computation
+ * of DiscoverSignatures (hash maps keyed by "feature:label" strings with boxed
+ * Double values) on synthetic instances: the time of both and whether they
+ * give the same scores bit for bit and the same ranking (the order of
+ * DiscoverSignatures.sortByComparator, ties included).
+ *
+ * The instances have on average 20 features with a non-zero count, drawn with
+ * a skew towards the low feature ids and towards the features of their class.
+ * The earlier computation takes time proportional to noFeatures * noInstances
+ * in hash map operations, so it is only run on the first referenceNoFeatures
+ * features of the first referenceNoInstances instances.
+ *
+ * Usage: FisherScoreBenchmark [noFeatures noInstances [referenceNoFeatures
+ * referenceNoInstances]]; without arguments 50000 features and 100000
+ * instances, and 2000 features and 10000 instances for the comparison.
+ */
+public class FisherScoreBenchmark {
+
+	static final String[] LABELS = { "pos", "neg", "other" };
+
+	static List<Map<String, Integer>> createSyntheticInstances(int noFeatures, int noInstances, List<String> labelList,
+			Random random) {
+		List<Map<String, Integer>> instanceFeatureCountMapList = new ArrayList<Map<String, Integer>>();
+		Map<String, Integer> featureCountMap;
+		int classId, featureId, noInstanceFeatures;
+		for (int i = 0; i < noInstances; i++) {
+			classId = random.nextInt(LABELS.length);
+			labelList.add(LABELS[classId]);
+			featureCountMap = new HashMap<String, Integer>();
+			noInstanceFeatures = 1 + random.nextInt(40);
+			for (int j = 0; j < noInstanceFeatures; j++) {
+				featureId = (int) (noFeatures * Math.pow(random.nextDouble(), 3));
+				if (random.nextBoolean())
+					featureId = featureId - featureId % LABELS.length + classId;
+				if (featureId < noFeatures)
+					featureCountMap.put("f" + featureId, 1 + random.nextInt(3));
+			}
+			instanceFeatureCountMapList.add(featureCountMap);
+		}
+		return instanceFeatureCountMapList;
+	}
+
+	/*
+	 * The earlier computation of DiscoverSignatures (for one feature type),
+	 * used as the reference for the scores
+	 */
+	static Map<String, Double> computeReferenceFisherScores(Set<String> featureSet,
+			List<Map<String, Integer>> instanceFeatureCountMapList, List<String> labelList) {
+		Map<String, Double> featureFisherScoreMap = new HashMap<String, Double>();
+		Map<String, Double> featureClassAvgValueMap = new HashMap<String, Double>();
+		Map<String, Double> featureClassStdDevValueMap = new HashMap<String, Double>();
+		Map<String, Double> featureOverallAvgValueMap = new HashMap<String, Double>();
+		Map<String, Integer> classInstanceCountMap = new HashMap<String, Integer>();
+
+		Map<String, Integer> instanceFeatureCountMap;
+		String featureClassKey, label;
+		Double doubleValue;
+		double frequency;
+		for (int i = 0; i < labelList.size(); i++) {
+			instanceFeatureCountMap = instanceFeatureCountMapList.get(i);
+			label = labelList.get(i);
+			if (!classInstanceCountMap.containsKey(label))
+				classInstanceCountMap.put(label, 1);
+			else
+				classInstanceCountMap.put(label, classInstanceCountMap.get(label) + 1);
+
+			for (String feature : featureSet) {
+				frequency = instanceFeatureCountMap.containsKey(feature) ? instanceFeatureCountMap.get(feature) : 0;
+				if (!featureOverallAvgValueMap.containsKey(feature))
+					doubleValue = 1.0 * frequency;
+				else
+					doubleValue = featureOverallAvgValueMap.get(feature) + 1.0 * (frequency);
+				featureOverallAvgValueMap.put(feature, doubleValue);
+
+				featureClassKey = feature + ":" + label;
+				if (!featureClassAvgValueMap.containsKey(featureClassKey))
+					doubleValue = frequency;
+				else
+					doubleValue = featureClassAvgValueMap.get(featureClassKey) + 1.0 * frequency;
+				featureClassAvgValueMap.put(featureClassKey, doubleValue);
+			}
+		}
+
+		for (String feature : featureOverallAvgValueMap.keySet())
+			featureOverallAvgValueMap.put(feature, 1.0 * featureOverallAvgValueMap.get(feature) / labelList.size());
+		for (String featureClass : featureClassAvgValueMap.keySet()) {
+			String[] split = featureClass.split(":");
+			featureClassAvgValueMap.put(featureClass,
+					1.0 * featureClassAvgValueMap.get(featureClass) / classInstanceCountMap.get(split[1]));
+		}
+
+		for (int i = 0; i < labelList.size(); i++) {
+			instanceFeatureCountMap = instanceFeatureCountMapList.get(i);
+			for (String feature : featureSet) {
+				featureClassKey = feature + ":" + labelList.get(i);
+				if (instanceFeatureCountMap.containsKey(feature)) {
+					if (!featureClassStdDevValueMap.containsKey(featureClassKey))
+						doubleValue = Math.pow(
+								instanceFeatureCountMap.get(feature) - featureClassAvgValueMap.get(featureClassKey), 2);
+					else
+						doubleValue = featureClassStdDevValueMap.get(featureClassKey)
+								+ 1.0
+								* Math.pow(instanceFeatureCountMap.get(feature)
+										- featureClassAvgValueMap.get(featureClassKey), 2);
+				} else {
+					if (!featureClassStdDevValueMap.containsKey(featureClassKey))
+						doubleValue = Math.pow(featureClassAvgValueMap.get(featureClassKey), 2);
+					else
+						doubleValue = featureClassStdDevValueMap.get(featureClassKey) + 1.0
+								* Math.pow(featureClassAvgValueMap.get(featureClassKey), 2);
+				}
+				featureClassStdDevValueMap.put(featureClassKey, doubleValue);
+			}
+		}
+		for (String featureClassKey2 : featureClassStdDevValueMap.keySet()) {
+			String[] split = featureClassKey2.split(":");
+			featureClassStdDevValueMap.put(featureClassKey2, featureClassStdDevValueMap.get(featureClassKey2)
+					/ classInstanceCountMap.get(split[1]));
+		}
+
+		for (String feature : featureOverallAvgValueMap.keySet()) {
+			Double nominator = 0.0;
+			Double denominator = 0.0;
+			for (String classLabel : classInstanceCountMap.keySet()) {
+				featureClassKey = feature + ":" + classLabel;
+				nominator += 1.0 * classInstanceCountMap.get(classLabel)
+						* Math.pow(featureClassAvgValueMap.get(featureClassKey) - featureOverallAvgValueMap.get(feature), 2);
+				denominator += 1.0 * classInstanceCountMap.get(classLabel) * featureClassStdDevValueMap.get(featureClassKey);
+			}
+			if (denominator != 0.0)
+				featureFisherScoreMap.put(feature, 1.0 * nominator / denominator);
+			else if (nominator == 0.0)
+				featureFisherScoreMap.put(feature, 0.0);
+			else
+				featureFisherScoreMap.put(feature, Double.MAX_VALUE);
+		}
+
+		return featureFisherScoreMap;
+	}
+
+	/*
+	 * As DiscoverSignatures.computeFisherScoreForSequenceFeatures
+	 */
+	static Map<String, Double> computeFisherScores(List<String> featureList,
+			List<Map<String, Integer>> instanceFeatureCountMapList, List<String> labelList) {
+		Map<String, Integer> featureIdMap = new HashMap<String, Integer>();
+		for (String feature : featureList)
+			featureIdMap.put(feature, featureIdMap.size());
+
+		FisherScoreCalculator fisherScoreCalculator = new FisherScoreCalculator(featureList.size());
+		int[] featureIds = new int[featureList.size()];
+		int[] counts = new int[featureList.size()];
+		int length;
+		Integer featureId;
+		for (int i = 0; i < labelList.size(); i++) {
+			length = 0;
+			for (Map.Entry<String, Integer> entry : instanceFeatureCountMapList.get(i).entrySet()) {
+				featureId = featureIdMap.get(entry.getKey());
+				if (featureId != null) {
+					featureIds[length] = featureId;
+					counts[length++] = entry.getValue();
+				}
+			}
+			fisherScoreCalculator.addInstance(labelList.get(i), featureIds, counts, length);
+		}
+
+		double[] fisherScores = fisherScoreCalculator.computeFisherScores();
+		Map<String, Double> featureFisherScoreMap = new HashMap<String, Double>();
+		for (int i = 0; i < fisherScores.length; i++)
+			featureFisherScoreMap.put(featureList.get(i), fisherScores[i]);
+		return featureFisherScoreMap;
+	}
+
+	/*
+	 * As DiscoverSignatures.sortByComparator: the features in decreasing order
+	 * of score, ties in the iteration order of the map
+	 */
+	static List<String> getRanking(Map<String, Double> featureFisherScoreMap) {
+		List<Map.Entry<String, Double>> list = new LinkedList<Map.Entry<String, Double>>(
+				featureFisherScoreMap.entrySet());
+		Collections.sort(list, new Comparator<Map.Entry<String, Double>>() {
+			public int compare(Map.Entry<String, Double> o1, Map.Entry<String, Double> o2) {
+				return (-1) * (o1.getValue()).compareTo(o2.getValue());
+			}
+		});
+		List<String> ranking = new ArrayList<String>();
+		for (Map.Entry<String, Double> entry : list)
+			ranking.add(entry.getKey());
+		return ranking;
+	}
+
+	static boolean hasSameScores(Map<String, Double> featureFisherScoreMap1, Map<String, Double> featureFisherScoreMap2) {
+		if (!featureFisherScoreMap1.keySet().equals(featureFisherScoreMap2.keySet()))
+			return false;
+		for (String feature : featureFisherScoreMap1.keySet())
+			if (Double.doubleToLongBits(featureFisherScoreMap1.get(feature)) != Double
+					.doubleToLongBits(featureFisherScoreMap2.get(feature)))
+				return false;
+		return true;
+	}
+
+	/*
+	 * Return: the features f0, f1, ... below noFeatures that occur in the
+	 * instances, in the iteration order of a HashSet as the filtered feature
+	 * sets of DiscoverSignatures
+	 */
+	static Set<String> getFeatureSet(int noFeatures, List<Map<String, Integer>> instanceFeatureCountMapList) {
+		Set<String> featureSet = new HashSet<String>();
+		for (Map<String, Integer> featureCountMap : instanceFeatureCountMapList)
+			for (String feature : featureCountMap.keySet())
+				if (Integer.parseInt(feature.substring(1)) < noFeatures)
+					featureSet.add(feature);
+		return featureSet;
+	}
+
+	public static void main(String[] args) {
+		int noFeatures = 50000, noInstances = 100000, referenceNoFeatures = 2000, referenceNoInstances = 10000;
+		if (args.length >= 2) {
+			noFeatures = Integer.parseInt(args[0]);
+			noInstances = Integer.parseInt(args[1]);
+		}
+		if (args.length == 4) {
+			referenceNoFeatures = Integer.parseInt(args[2]);
+			referenceNoInstances = Integer.parseInt(args[3]);
+		}
+
+		List<String> labelList = new ArrayList<String>();
+		List<Map<String, Integer>> instanceFeatureCountMapList = createSyntheticInstances(noFeatures, noInstances,
+				labelList, new Random(1));
+
+		System.out.println(String.format("%-10s %10s %12s %14s %14s %12s %12s", "Run", "Features", "Instances",
+				"Reference (s)", "Columnar (s)", "Same Scores", "Same Ranking"));
+
+		Set<String> featureSet = getFeatureSet(noFeatures, instanceFeatureCountMapList);
+		long startTime = System.nanoTime();
+		Map<String, Double> featureFisherScoreMap = computeFisherScores(new ArrayList<String>(featureSet),
+				instanceFeatureCountMapList, labelList);
+		double time = (System.nanoTime() - startTime) / 1e9;
+		System.out.println(String.format("%-10s %10d %12d %14s %14.2f %12s %12s", "full", featureFisherScoreMap.size(),
+				noInstances, "-", time, "-", "-"));
+
+		List<Map<String, Integer>> referenceInstanceFeatureCountMapList = instanceFeatureCountMapList.subList(0,
+				Math.min(referenceNoInstances, noInstances));
+		List<String> referenceLabelList = labelList.subList(0, referenceInstanceFeatureCountMapList.size());
+		featureSet = getFeatureSet(referenceNoFeatures, referenceInstanceFeatureCountMapList);
+
+		startTime = System.nanoTime();
+		Map<String, Double> referenceFeatureFisherScoreMap = computeReferenceFisherScores(featureSet,
+				referenceInstanceFeatureCountMapList, referenceLabelList);
+		double referenceTime = (System.nanoTime() - startTime) / 1e9;
+
+		startTime = System.nanoTime();
+		featureFisherScoreMap = computeFisherScores(new ArrayList<String>(featureSet),
+				referenceInstanceFeatureCountMapList, referenceLabelList);
+		time = (System.nanoTime() - startTime) / 1e9;
+
+		System.out.println(String.format("%-10s %10d %12d %14.2f %14.2f %12s %12s", "reference", featureSet.size(),
+				referenceLabelList.size(), referenceTime, time,
+				hasSameScores(referenceFeatureFisherScoreMap, featureFisherScoreMap),
+				getRanking(referenceFeatureFisherScoreMap).equals(getRanking(featureFisherScoreMap))));
+	}
+}
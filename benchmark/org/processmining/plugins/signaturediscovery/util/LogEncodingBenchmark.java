@@ -0,0 +1,197 @@
+package org.processmining.plugins.signaturediscovery.util;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+import org.deckfour.xes.model.XAttributeMap;
+import org.deckfour.xes.model.XEvent;
+import org.deckfour.xes.model.XLog;
+import org.deckfour.xes.model.XTrace;
+import org.processmining.plugins.signaturediscovery.OpenLogFilePlugin;
+import org.processmining.plugins.signaturediscovery.encoding.ActivityDictionary;
+import org.processmining.plugins.signaturediscovery.encoding.EncodeActivitySet;
+import org.processmining.plugins.signaturediscovery.encoding.EncodeTraces;
+import org.processmining.plugins.signaturediscovery.encoding.InstanceProfile;
+import org.processmining.plugins.signaturediscovery.encoding.StreamingLogEncoder;
+
+/**
+ * Compares the peak heap of encoding a log file along the XLog path
+ * (OpenLogFilePlugin.importFile, the merged trace list of the
+ * DiscoverSignatures constructor, EncodeActivitySet and EncodeTraces) with
+ * the StreamingLogEncoder path (OpenLogFilePlugin.encodeFile), and whether
+ * both give the same traces (names, labels and activities).
+ *
+ * The peak is the sum of the peak usages of the heap memory pools, which
+ * includes garbage that was not collected yet; run each path in its own JVM
+ * with a fixed heap (e.g., -Xmx2g) for comparable numbers.
+ *
+ * Usage: LogEncodingBenchmark [logFile | noTraces noActivities traceLength]
+ * [xlog | stream]; without a log file a synthetic .xes.gz log is written to
+ * the temporary directory (by default 20000 traces over 50 activities).
+ */
+public class LogEncodingBenchmark {
+
+	static void resetPeakUsage() {
+		for (int i = 0; i < 3; i++)
+			System.gc();
+		for (MemoryPoolMXBean memoryPool : ManagementFactory.getMemoryPoolMXBeans())
+			if (memoryPool.getType() == MemoryType.HEAP)
+				memoryPool.resetPeakUsage();
+	}
+
+	static long getPeakUsage() {
+		long peakUsage = 0;
+		for (MemoryPoolMXBean memoryPool : ManagementFactory.getMemoryPoolMXBeans())
+			if (memoryPool.getType() == MemoryType.HEAP)
+				peakUsage += memoryPool.getPeakUsage().getUsed();
+		return peakUsage;
+	}
+
+	static long getUsedMemory() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++)
+			System.gc();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	static File createSyntheticLog(int noTraces, int noActivities, int traceLength, Random random)
+			throws IOException {
+		File file = File.createTempFile("LogEncodingBenchmark", ".xes.gz");
+		file.deleteOnExit();
+		PrintWriter writer = new PrintWriter(new OutputStreamWriter(new GZIPOutputStream(new FileOutputStream(file)),
+				"UTF-8"));
+		try {
+			writer.println("<?xml version=\"1.0\" encoding=\"UTF-8\" ?>");
+			writer.println("<log xes.version=\"1.0\" xmlns=\"http://www.xes-standard.org/\">");
+			writer.println("<extension name=\"Concept\" prefix=\"concept\" uri=\"http://www.xes-standard.org/concept.xesext\"/>");
+			writer.println("<extension name=\"Lifecycle\" prefix=\"lifecycle\" uri=\"http://www.xes-standard.org/lifecycle.xesext\"/>");
+			int length;
+			for (int i = 0; i < noTraces; i++) {
+				writer.println("<trace>");
+				writer.println("<string key=\"concept:name\" value=\"case_" + i + "\"/>");
+				writer.println("<string key=\"Label\" value=\"" + (random.nextBoolean() ? "pos" : "neg") + "\"/>");
+				length = 1 + random.nextInt(2 * traceLength);
+				for (int j = 0; j < length; j++) {
+					writer.println("<event>");
+					writer.println("<string key=\"concept:name\" value=\"Activity " + random.nextInt(noActivities)
+							+ "\"/>");
+					writer.println("<string key=\"lifecycle:transition\" value=\""
+							+ (random.nextInt(4) == 0 ? "start" : "complete") + "\"/>");
+					writer.println("</event>");
+				}
+				writer.println("</trace>");
+			}
+			writer.println("</log>");
+		} finally {
+			writer.close();
+		}
+		return file;
+	}
+
+	/*
+	 * Return: for every trace, its name, label and activities, e.g.,
+	 * "case_1 pos [Activity 3-complete, Activity 7-start]"
+	 */
+	static List<String> getDecodedTraceList(List<InstanceProfile> instanceProfileList, Map<String, String> charActivityMap,
+			int encodingLength) {
+		List<String> decodedTraceList = new ArrayList<String>();
+		List<String> activityList = new ArrayList<String>();
+		String encodedTrace;
+		for (InstanceProfile instanceProfile : instanceProfileList) {
+			encodedTrace = instanceProfile.getEncodedTrace();
+			activityList.clear();
+			for (int i = 0; i < encodedTrace.length() / encodingLength; i++)
+				activityList.add(charActivityMap.get(encodedTrace.substring(i * encodingLength, (i + 1)
+						* encodingLength)));
+			decodedTraceList.add(instanceProfile.getName() + " " + instanceProfile.getLabel() + " " + activityList);
+		}
+		return decodedTraceList;
+	}
+
+	/*
+	 * As DiscoverSignatures: the log is imported, its traces are merged into
+	 * one list (not cloned) and encoded
+	 */
+	static List<String> encodeXLog(File file) throws Exception {
+		XLog log = (XLog) new OpenLogFilePlugin().importFile(file);
+		List<XTrace> mergeLog = new ArrayList<XTrace>(log);
+
+		Set<String> activitySet = new HashSet<String>();
+		XAttributeMap attributeMap;
+		for (XTrace trace : mergeLog) {
+			for (XEvent event : trace) {
+				attributeMap = event.getAttributes();
+				activitySet.add(attributeMap.get("concept:name").toString() + "-"
+						+ attributeMap.get("lifecycle:transition").toString());
+			}
+			activitySet.add(trace.getAttributes().get("concept:name").toString());
+		}
+		EncodeActivitySet encodeActivitySet = new EncodeActivitySet(activitySet);
+		EncodeTraces encodeTraces = new EncodeTraces(encodeActivitySet.getActivityDictionary(), mergeLog);
+
+		List<InstanceProfile> instanceProfileList = encodeTraces.getInstanceProfileList();
+		System.out.println(String.format("%-8s %10d traces %16.1f MB peak", "xlog", instanceProfileList.size(),
+				getPeakUsage() / (1024.0 * 1024.0)));
+		return getDecodedTraceList(instanceProfileList, encodeActivitySet.getCharActivityMap(),
+				encodeActivitySet.getEncodingLength());
+	}
+
+	static List<String> encodeStream(File file) throws Exception {
+		StreamingLogEncoder logEncoder = new StreamingLogEncoder();
+		new OpenLogFilePlugin().encodeFile(file, logEncoder, false);
+
+		List<InstanceProfile> instanceProfileList = logEncoder.getInstanceProfileList();
+		System.out.println(String.format("%-8s %10d traces %16.1f MB peak", "stream", instanceProfileList.size(),
+				getPeakUsage() / (1024.0 * 1024.0)));
+		ActivityDictionary activityDictionary = logEncoder.getActivityDictionary();
+		return getDecodedTraceList(instanceProfileList, activityDictionary.getCodeActivityMap(),
+				activityDictionary.getEncodingLength());
+	}
+
+	public static void main(String[] args) throws Exception {
+		File file;
+		int modeArgIndex;
+		if (args.length == 1 || args.length == 2) {
+			file = new File(args[0]);
+			modeArgIndex = 1;
+		} else {
+			int noTraces = 20000, noActivities = 50, traceLength = 30;
+			if (args.length >= 3) {
+				noTraces = Integer.parseInt(args[0]);
+				noActivities = Integer.parseInt(args[1]);
+				traceLength = Integer.parseInt(args[2]);
+			}
+			file = createSyntheticLog(noTraces, noActivities, traceLength, new Random(1));
+			modeArgIndex = 3;
+		}
+		String mode = args.length > modeArgIndex ? args[modeArgIndex] : null;
+
+		System.out.println("Log: " + file + " (" + file.length() / 1024 + " KB)");
+		System.out.println("Heap before: " + getUsedMemory() / (1024 * 1024) + " MB");
+
+		List<String> streamTraceList = null, xlogTraceList = null;
+		if (mode == null || mode.equals("stream")) {
+			resetPeakUsage();
+			streamTraceList = encodeStream(file);
+		}
+		if (mode == null || mode.equals("xlog")) {
+			resetPeakUsage();
+			xlogTraceList = encodeXLog(file);
+		}
+		if (streamTraceList != null && xlogTraceList != null)
+			System.out.println("Same traces: " + streamTraceList.equals(xlogTraceList));
+	}
+}
@@ -0,0 +1,154 @@
+package org.processmining.plugins.signaturediscovery.util;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.jgraph.graph.DefaultEdge;
+import org.jgrapht.alg.DijkstraShortestPath;
+import org.jgrapht.graph.SimpleDirectedGraph;
+import org.processmining.plugins.signaturediscovery.learningalgorithm.AbstractionSetTheory;
+import org.processmining.plugins.signaturediscovery.learningalgorithm.EclatMiner;
+
+/**
+ * Compares the maximal elements of AbstractionSetTheory (MaximalSetFinder)
+ * against the earlier computation on its Hasse diagram (a DijkstraShortestPath
+ * for every pair of subset-related alphabets while the diagram is built, and
+ * for every alphabet and maximal element afterwards) on the association sets
+ * of a class as ClassSpecificAssociationRuleMiner passes them to
+ * getMaximalAssociations: the time of both (of MaximalSetFinder averaged over
+ * a few runs after a warm-up run; the Hasse diagram takes minutes on a few
+ * thousand sets, so it is run once), and whether they give the same maximal
+ * elements in the same order and the same maximal elements of every alphabet.
+ *
+ * The association sets are mined with EclatMiner from synthetic instances of
+ * two classes over binary attributes: every attribute is present in 15% of
+ * the instances of the first class and 5% of the other one, and in 40% of the
+ * instances of the first class noBlocks blocks of blockSize attributes are
+ * present (each attribute with a probability of 0.9), which gives many
+ * overlapping association sets.
+ *
+ * Usage: MaximalSetBenchmark [noInstances noAttributes noBlocks blockSize
+ * [minSupport minConfidence]]; without arguments 1000 instances, 60
+ * attributes, 2 blocks of 6 attributes, min support 0.05 and min confidence
+ * 0.8 (about 1700 association sets).
+ */
+public class MaximalSetBenchmark {
+
+	static Set<Set<String>> createAssociationSet(int noInstances, int noAttributes, int noBlocks, int blockSize,
+			float minSupport, float minConfidence, Random random) {
+		boolean[][] isPresent = new boolean[noInstances][noAttributes];
+		BitSet classTidset = new BitSet(noInstances);
+		boolean isFirstClass;
+		for (int i = 0; i < noInstances; i++) {
+			isFirstClass = random.nextBoolean();
+			if (isFirstClass)
+				classTidset.set(i);
+			for (int j = 0; j < noAttributes; j++)
+				isPresent[i][j] = random.nextDouble() < (isFirstClass ? 0.15 : 0.05);
+			for (int block = 0; block < noBlocks; block++)
+				if (isFirstClass && random.nextDouble() < 0.4)
+					for (int j = 0; j < blockSize; j++)
+						if (random.nextDouble() < 0.9)
+							isPresent[i][(block * blockSize + j) % noAttributes] = true;
+		}
+
+		EclatMiner eclatMiner = new EclatMiner(noInstances);
+		BitSet tidset;
+		for (int j = 0; j < noAttributes; j++) {
+			tidset = new BitSet(noInstances);
+			for (int i = 0; i < noInstances; i++)
+				if (isPresent[i][j])
+					tidset.set(i);
+			eclatMiner.addItem("a" + j + "=1", j, tidset);
+		}
+		return eclatMiner.getClassAssociationSet(classTidset, minSupport, minConfidence);
+	}
+
+	/*
+	 * The earlier AbstractionSetTheory.getMaximalElements, on the Hasse diagram;
+	 * fills alphabetMaximalElementSetMap
+	 */
+	static List<Set<String>> getHasseDiagramMaximalElements(Set<Set<String>> alphabetSet,
+			Map<Set<String>, Set<Set<String>>> alphabetMaximalElementSetMap) {
+		SimpleDirectedGraph<Set<String>, DefaultEdge> sg = new AbstractionSetTheory(alphabetSet).getHasseDiagram();
+		List<Set<String>> maximalElementList = new ArrayList<Set<String>>();
+		for (Set<String> alphabet : sg.vertexSet())
+			if (sg.outDegreeOf(alphabet) == 0)
+				maximalElementList.add(alphabet);
+
+		Set<Set<String>> alphabetMaximalElementSet;
+		for (Set<String> alphabet : alphabetSet) {
+			for (Set<String> maximalElement : maximalElementList) {
+				if (!alphabet.equals(maximalElement)) {
+					DijkstraShortestPath<Set<String>, DefaultEdge> d = new DijkstraShortestPath<Set<String>, DefaultEdge>(
+							sg, alphabet, maximalElement);
+					if (d.getPathEdgeList() == null)
+						continue;
+				}
+				alphabetMaximalElementSet = alphabetMaximalElementSetMap.get(alphabet);
+				if (alphabetMaximalElementSet == null) {
+					alphabetMaximalElementSet = new HashSet<Set<String>>();
+					alphabetMaximalElementSetMap.put(alphabet, alphabetMaximalElementSet);
+				}
+				alphabetMaximalElementSet.add(maximalElement);
+			}
+		}
+		return maximalElementList;
+	}
+
+	public static void main(String[] args) {
+		int noInstances = 1000, noAttributes = 60, noBlocks = 2, blockSize = 6;
+		float minSupport = 0.05f, minConfidence = 0.8f;
+		if (args.length >= 4) {
+			noInstances = Integer.parseInt(args[0]);
+			noAttributes = Integer.parseInt(args[1]);
+			noBlocks = Integer.parseInt(args[2]);
+			blockSize = Integer.parseInt(args[3]);
+		}
+		if (args.length == 6) {
+			minSupport = Float.parseFloat(args[4]);
+			minConfidence = Float.parseFloat(args[5]);
+		}
+		int noRuns = 5;
+
+		Set<Set<String>> associationSet = createAssociationSet(noInstances, noAttributes, noBlocks, blockSize,
+				minSupport, minConfidence, new Random(1));
+		System.out.println("No. Association Sets: " + associationSet.size());
+
+		List<Set<String>> maximalElementList = null;
+		Map<Set<String>, Set<Set<String>>> alphabetMaximalElementSetMap = null;
+		AbstractionSetTheory ast;
+		long finderNanos = 0;
+		for (int run = 0; run <= noRuns; run++) {
+			long start = System.nanoTime();
+			ast = new AbstractionSetTheory(associationSet);
+			maximalElementList = ast.getMaximalElements();
+			alphabetMaximalElementSetMap = ast.getAlphabetMaximalElementSetMap();
+			if (run > 0)
+				finderNanos += System.nanoTime() - start;
+		}
+
+		List<Set<String>> hasseDiagramMaximalElementList;
+		Map<Set<String>, Set<Set<String>>> hasseDiagramAlphabetMaximalElementSetMap;
+		long start = System.nanoTime();
+		hasseDiagramAlphabetMaximalElementSetMap = new HashMap<Set<String>, Set<Set<String>>>();
+		hasseDiagramMaximalElementList = getHasseDiagramMaximalElements(associationSet,
+				hasseDiagramAlphabetMaximalElementSetMap);
+		long hasseDiagramNanos = System.nanoTime() - start;
+
+		System.out.println(String.format("%-24s %14s %20s", "Method", "Time (ms)", "Maximal Elements"));
+		System.out.println(String.format("%-24s %14.1f %20d", "Hasse diagram", hasseDiagramNanos / 1e6,
+				hasseDiagramMaximalElementList.size()));
+		System.out.println(String.format("%-24s %14.1f %20d", "MaximalSetFinder", finderNanos / 1e6 / noRuns,
+				maximalElementList.size()));
+		System.out.println("Same Maximal Elements: " + maximalElementList.equals(hasseDiagramMaximalElementList)
+				+ " @ Same Alphabet Maximal Elements: "
+				+ alphabetMaximalElementSetMap.equals(hasseDiagramAlphabetMaximalElementSetMap));
+	}
+}
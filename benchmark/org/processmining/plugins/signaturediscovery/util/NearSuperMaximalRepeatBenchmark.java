@@ -0,0 +1,94 @@
+package org.processmining.plugins.signaturediscovery.util;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Random;
+
+/**
+ * Checks the near super maximal repeats of IntegerSuffixTree on a highly
+ * repetitive trace, whose suffix tree has long chains of left diverse nodes
+ * with left diverse children: the repeats must be the ones of
+ * StringSuffixTree (the baseline tree) and must be found without collecting
+ * the leaves of any node, i.e., by counting the left symbols over the leaf
+ * ranges numbered by findLeftDiverseNodes(). Both trees are timed.
+ *
+ * Usage: NearSuperMaximalRepeatBenchmark [noBlocks blockLength noActivities
+ * encodingLength]; a block repeats a short random pattern up to blockLength
+ * symbols and is followed by one random activity. Without arguments 20 blocks
+ * of 300 symbols over 5 activities are used.
+ *
+ * Throws an IllegalStateException if a check fails.
+ */
+public class NearSuperMaximalRepeatBenchmark {
+
+	/*
+	 * UkkonenSuffixTree that counts the calls to getLeaves
+	 */
+	static class LeafCountingSuffixTree extends UkkonenSuffixTree {
+		int noGetLeavesCalls;
+
+		LeafCountingSuffixTree(int encodingLength, String sequence) {
+			super(encodingLength, sequence);
+		}
+
+		void getLeaves(IntegerSuffixNode node, ArrayList<IntegerSuffixNode> leaves) {
+			noGetLeavesCalls++;
+			super.getLeaves(node, leaves);
+		}
+	}
+
+	static String createRepetitiveTrace(int noBlocks, int blockLength, int noActivities, int encodingLength,
+			Random random) {
+		StringBuilder encodedTrace = new StringBuilder();
+		StringBuilder pattern = new StringBuilder();
+		int patternLength;
+		for (int i = 0; i < noBlocks; i++) {
+			pattern.setLength(0);
+			patternLength = 1 + random.nextInt(3);
+			for (int j = 0; j < patternLength; j++)
+				pattern.append(SuffixTreeBenchmark.getEncoding(random.nextInt(noActivities), encodingLength));
+			for (int j = 0; j < blockLength / patternLength; j++)
+				encodedTrace.append(pattern);
+			encodedTrace.append(SuffixTreeBenchmark.getEncoding(random.nextInt(noActivities), encodingLength));
+		}
+		return encodedTrace.toString();
+	}
+
+	public static void main(String[] args) {
+		int noBlocks = 20, blockLength = 300, noActivities = 5, encodingLength = 2;
+		if (args.length == 4) {
+			noBlocks = Integer.parseInt(args[0]);
+			blockLength = Integer.parseInt(args[1]);
+			noActivities = Integer.parseInt(args[2]);
+			encodingLength = Integer.parseInt(args[3]);
+		}
+		String encodedTrace = createRepetitiveTrace(noBlocks, blockLength, noActivities, encodingLength,
+				new Random(1));
+		System.out.println("No. Symbols: " + encodedTrace.length() / encodingLength + " @ Encoding Length: "
+				+ encodingLength);
+
+		long start = System.nanoTime();
+		StringSuffixTree stringSuffixTree = new StringSuffixTree(encodingLength, encodedTrace);
+		stringSuffixTree.findLeftDiverseNodes();
+		HashSet<String> expectedRepeatSet = stringSuffixTree.getNearSuperMaximalRepeats();
+		long stringNanos = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		LeafCountingSuffixTree suffixTree = new LeafCountingSuffixTree(encodingLength, encodedTrace);
+		suffixTree.findLeftDiverseNodes();
+		suffixTree.noGetLeavesCalls = 0;
+		HashSet<String> nearSuperMaximalRepeatSet = suffixTree.getNearSuperMaximalRepeats();
+		long integerNanos = System.nanoTime() - start;
+
+		System.out.println(String.format("%-20s %10.2f ms", "StringSuffixTree", stringNanos / 1e6));
+		System.out.println(String.format("%-20s %10.2f ms", "UkkonenSuffixTree", integerNanos / 1e6));
+		System.out.println("No. Near Super Maximal Repeats: " + nearSuperMaximalRepeatSet.size());
+
+		if (!expectedRepeatSet.equals(nearSuperMaximalRepeatSet))
+			throw new IllegalStateException("The near super maximal repeats differ from StringSuffixTree");
+		if (suffixTree.noGetLeavesCalls != 0)
+			throw new IllegalStateException("getNearSuperMaximalRepeats collected the leaves of "
+					+ suffixTree.noGetLeavesCalls + " nodes");
+		System.out.println("Same Near Super Maximal Repeats: true, no leaf lists built");
+	}
+}
@@ -0,0 +1,111 @@
+package org.processmining.plugins.signaturediscovery.util;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import org.processmining.plugins.signaturediscovery.featureextraction.FeatureExtraction;
+import org.processmining.plugins.signaturediscovery.types.RepeatEngineType;
+
+/**
+ * Compares the repeat engines (RepeatEngineType) used for the whole-log
+ * repeat features on the same encoded log: the heap retained by the structure
+ * after construction, the time to construct it and to find the maximal, super
+ * maximal and near super maximal repeats, and whether all engines report the
+ * same repeats.
+ *
+ * The retained heap is measured as the difference of the used heap (after
+ * System.gc()) with and without the structure, so run with a heap large
+ * enough for the suffix tree, e.g. -Xmx4g, or pass a single engine to measure
+ * only that one (a log whose suffix tree runs out of memory can still be
+ * measured with SuffixArray).
+ *
+ * Usage: RepeatEngineBenchmark [encodedLogFile encodingLength [engine]] or
+ * RepeatEngineBenchmark [noTraces noActivities traceLength encodingLength
+ * [engine]]; see SuffixTreeBenchmark for the log format. Without arguments a
+ * synthetic log of 5000 traces over 20 activities is used.
+ */
+public class RepeatEngineBenchmark {
+
+	static long getUsedMemory() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++)
+			System.gc();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	static void benchmark(RepeatEngineType repeatEngineType, int encodingLength, String charStream,
+			HashSet<String>[] expectedRepeats) {
+		long usedMemoryBefore = getUsedMemory();
+
+		long start = System.nanoTime();
+		RepeatFinder repeatFinder = FeatureExtraction.createRepeatFinder(repeatEngineType, encodingLength,
+				charStream);
+		long constructionNanos = System.nanoTime() - start;
+
+		long retainedBytes = getUsedMemory() - usedMemoryBefore;
+
+		start = System.nanoTime();
+		repeatFinder.findLeftDiverseNodes();
+		HashSet<String> maximalRepeatSet = repeatFinder.getMaximalRepeats();
+		HashSet<String> superMaximalRepeatSet = repeatFinder.getSuperMaximalRepeats();
+		HashSet<String> nearSuperMaximalRepeatSet = repeatFinder.getNearSuperMaximalRepeats();
+		long repeatNanos = System.nanoTime() - start;
+
+		String isSameRepeats = "-";
+		if (expectedRepeats[0] == null) {
+			expectedRepeats[0] = maximalRepeatSet;
+			expectedRepeats[1] = superMaximalRepeatSet;
+			expectedRepeats[2] = nearSuperMaximalRepeatSet;
+		} else {
+			isSameRepeats = Boolean.toString(expectedRepeats[0].equals(maximalRepeatSet)
+					&& expectedRepeats[1].equals(superMaximalRepeatSet)
+					&& expectedRepeats[2].equals(nearSuperMaximalRepeatSet));
+		}
+
+		System.out.println(String.format("%-18s %14.1f %16.2f %16.2f %12s", repeatEngineType, retainedBytes
+				/ (1024.0 * 1024.0), constructionNanos / 1e6, repeatNanos / 1e6, isSameRepeats));
+	}
+
+	@SuppressWarnings("unchecked")
+	public static void main(String[] args) throws IOException {
+		String charStream;
+		int encodingLength;
+		int engineArgIndex;
+		if (args.length == 2 || args.length == 3) {
+			charStream = SuffixTreeBenchmark.readCharStream(args[0]);
+			encodingLength = Integer.parseInt(args[1]);
+			engineArgIndex = 2;
+		} else {
+			int noTraces = 5000, noActivities = 20, traceLength = 30;
+			encodingLength = 2;
+			if (args.length >= 4) {
+				noTraces = Integer.parseInt(args[0]);
+				noActivities = Integer.parseInt(args[1]);
+				traceLength = Integer.parseInt(args[2]);
+				encodingLength = Integer.parseInt(args[3]);
+			}
+			engineArgIndex = 4;
+			List<String> encodedTraceList = SuffixTreeBenchmark.createSyntheticLog(noTraces, noActivities,
+					traceLength, encodingLength, new Random(1));
+			charStream = SuffixTreeBenchmark.createCharStream(encodedTraceList, noActivities, encodingLength);
+		}
+
+		RepeatEngineType[] repeatEngineTypes = RepeatEngineType.values();
+		if (args.length > engineArgIndex)
+			repeatEngineTypes = new RepeatEngineType[] { RepeatEngineType.valueOf(args[engineArgIndex]) };
+
+		System.out.println("No. Symbols: " + charStream.length() / encodingLength + " @ Encoding Length: "
+				+ encodingLength);
+		System.out.println(String.format("%-18s %14s %16s %16s %12s", "Engine", "Retained (MB)",
+				"Construction (ms)", "Repeats (ms)", "Same Repeats"));
+
+		/*
+		 * The first engine provides the expected repeats
+		 */
+		HashSet<String>[] expectedRepeats = new HashSet[3];
+		for (RepeatEngineType repeatEngineType : repeatEngineTypes)
+			benchmark(repeatEngineType, encodingLength, charStream, expectedRepeats);
+	}
+}
@@ -0,0 +1,166 @@
+package org.processmining.plugins.signaturediscovery.util;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures the construction throughput of UkkonenSuffixTree (built on
+ * IntegerSuffixTree) against StringSuffixTree, the String-symbol tree it
+ * replaced, on the same encoded log, and checks that both report the same
+ * MR/SMR/NSMR sets.
+ *
+ * The log is the charStream that FeatureExtraction builds for the MR/SMR/NSMR
+ * features: all encoded traces concatenated, each followed by the encoding of
+ * its trace identifier as delimiter.
+ *
+ * Usage: SuffixTreeBenchmark [encodedLogFile encodingLength] or
+ * SuffixTreeBenchmark [noTraces noActivities traceLength encodingLength]
+ * where encodedLogFile contains the charStream (whitespace is ignored). Without
+ * arguments a synthetic log of 1000 traces over 20 activities is used.
+ */
+public class SuffixTreeBenchmark {
+	static final String[] ALL_ARRAY = { "a", "b", "c", "d", "e", "f", "g", "h", "i", "j", "k", "l", "m", "n", "o", "p",
+			"q", "r", "s", "t", "u", "v", "w", "x", "y", "z", "A", "B", "C", "D", "E", "F", "G", "H", "I", "J", "K", "L",
+			"M", "N", "O", "P", "Q", "R", "S", "T", "U", "V", "W", "X", "Y", "Z", "0", "1", "2", "3", "4", "5", "6",
+			"7", "8", "9" };
+
+	static final int NO_WARMUP_RUNS = 2;
+	static final int NO_RUNS = 5;
+
+	/*
+	 * Returns the encoding of the index-th element for the given encoding
+	 * length (all combinations of ALL_ARRAY, as in EncodeActivitySet)
+	 */
+	static String getEncoding(int index, int encodingLength) {
+		StringBuilder encoding = new StringBuilder();
+		for (int i = 0; i < encodingLength; i++) {
+			encoding.insert(0, ALL_ARRAY[index % ALL_ARRAY.length]);
+			index /= ALL_ARRAY.length;
+		}
+		return encoding.toString();
+	}
+
+	/*
+	 * Creates a synthetic log with loops: every trace is a random walk over
+	 * noActivities activities where, with some probability, the last few
+	 * activities are repeated; the trace identifiers use the encodings after
+	 * the activities
+	 */
+	static List<String> createSyntheticLog(int noTraces, int noActivities, int traceLength, int encodingLength,
+			Random random) {
+		List<String> encodedTraceList = new ArrayList<String>();
+		StringBuilder encodedTrace = new StringBuilder();
+		int loopLength;
+		for (int i = 0; i < noTraces; i++) {
+			encodedTrace.setLength(0);
+			while (encodedTrace.length() < traceLength * encodingLength) {
+				if (encodedTrace.length() > 4 * encodingLength && random.nextInt(4) == 0) {
+					loopLength = (1 + random.nextInt(3)) * encodingLength;
+					encodedTrace.append(encodedTrace.substring(encodedTrace.length() - loopLength));
+				} else {
+					encodedTrace.append(getEncoding(random.nextInt(noActivities), encodingLength));
+				}
+			}
+			encodedTraceList.add(encodedTrace.toString());
+		}
+		return encodedTraceList;
+	}
+
+	static String createCharStream(List<String> encodedTraceList, int noActivities, int encodingLength) {
+		StringBuilder charStream = new StringBuilder();
+		int traceIndex = noActivities;
+		for (String encodedTrace : encodedTraceList) {
+			charStream.append(encodedTrace);
+			charStream.append(getEncoding(traceIndex++, encodingLength));
+		}
+		return charStream.toString();
+	}
+
+	static String readCharStream(String fileName) throws IOException {
+		StringBuilder charStream = new StringBuilder();
+		BufferedReader reader = new BufferedReader(new FileReader(fileName));
+		try {
+			String line;
+			while ((line = reader.readLine()) != null)
+				charStream.append(line.replaceAll("\\s", ""));
+		} finally {
+			reader.close();
+		}
+		return charStream.toString();
+	}
+
+	static long timeUkkonenSuffixTree(int encodingLength, String charStream) {
+		long start = System.nanoTime();
+		new UkkonenSuffixTree(encodingLength, charStream);
+		return System.nanoTime() - start;
+	}
+
+	static long timeStringSuffixTree(int encodingLength, String charStream) {
+		long start = System.nanoTime();
+		new StringSuffixTree(encodingLength, charStream);
+		return System.nanoTime() - start;
+	}
+
+	static void printThroughput(String name, long totalNanos, int noSymbols) {
+		double msecs = totalNanos / 1e6 / NO_RUNS;
+		System.out.println(String.format("%-20s %10.2f ms/tree %12.0f symbols/s", name, msecs, noSymbols
+				/ (msecs / 1000)));
+	}
+
+	public static void main(String[] args) throws IOException {
+		String charStream;
+		int encodingLength;
+		if (args.length == 2) {
+			charStream = readCharStream(args[0]);
+			encodingLength = Integer.parseInt(args[1]);
+		} else {
+			int noTraces = 1000, noActivities = 20, traceLength = 30;
+			encodingLength = 2;
+			if (args.length == 4) {
+				noTraces = Integer.parseInt(args[0]);
+				noActivities = Integer.parseInt(args[1]);
+				traceLength = Integer.parseInt(args[2]);
+				encodingLength = Integer.parseInt(args[3]);
+			}
+			List<String> encodedTraceList = createSyntheticLog(noTraces, noActivities, traceLength, encodingLength,
+					new Random(1));
+			charStream = createCharStream(encodedTraceList, noActivities, encodingLength);
+		}
+
+		int noSymbols = charStream.length() / encodingLength;
+		System.out.println("No. Symbols: " + noSymbols + " @ Encoding Length: " + encodingLength);
+
+		for (int i = 0; i < NO_WARMUP_RUNS; i++) {
+			timeStringSuffixTree(encodingLength, charStream);
+			timeUkkonenSuffixTree(encodingLength, charStream);
+		}
+
+		long stringNanos = 0, ukkonenNanos = 0;
+		for (int i = 0; i < NO_RUNS; i++) {
+			stringNanos += timeStringSuffixTree(encodingLength, charStream);
+			ukkonenNanos += timeUkkonenSuffixTree(encodingLength, charStream);
+		}
+		printThroughput("StringSuffixTree", stringNanos, noSymbols);
+		printThroughput("UkkonenSuffixTree", ukkonenNanos, noSymbols);
+
+		/*
+		 * Both trees should report the same repeats
+		 */
+		StringSuffixTree stringSuffixTree = new StringSuffixTree(encodingLength, charStream);
+		stringSuffixTree.findLeftDiverseNodes();
+		UkkonenSuffixTree ukkonenSuffixTree = new UkkonenSuffixTree(encodingLength, charStream);
+		ukkonenSuffixTree.findLeftDiverseNodes();
+
+		System.out.println("Same Maximal Repeats: "
+				+ stringSuffixTree.getMaximalRepeats().equals(ukkonenSuffixTree.getMaximalRepeats()));
+		System.out.println("Same Super Maximal Repeats: "
+				+ stringSuffixTree.getSuperMaximalRepeats().equals(ukkonenSuffixTree.getSuperMaximalRepeats()));
+		System.out.println("Same Near Super Maximal Repeats: "
+				+ stringSuffixTree.getNearSuperMaximalRepeats().equals(
+						ukkonenSuffixTree.getNearSuperMaximalRepeats()));
+	}
+}
@@ -0,0 +1,121 @@
+package org.processmining.plugins.signaturediscovery.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Microbenchmark for the child lookup of the suffix tree nodes on wide
+ * alphabets (logs with thousands of distinct activities, i.e., 2 or 3
+ * character encodings).
+ *
+ * 1. Child lookup: SuffixNodeChildIndex against a linear scan of a list of
+ * children (the lookup cost per symbol at a node with the given fan-out).
+ *
+ * 2. Construction: UkkonenSuffixTree on synthetic logs
+ * with an increasing number of activities; the root of these trees has one
+ * child per activity (and per trace delimiter).
+ *
+ * Usage: WideAlphabetBenchmark [noTraces traceLength]
+ */
+public class WideAlphabetBenchmark {
+	static final int[] FAN_OUTS = { 2, 4, 8, 16, 64, 256, 1024, 4096 };
+	static final int[] NO_ACTIVITIES = { 50, 500, 2000, 10000 };
+	static final int NO_LOOKUPS = 2000000;
+
+	static final class Child {
+		int firstSymbol;
+
+		Child(int firstSymbol) {
+			this.firstSymbol = firstSymbol;
+		}
+	}
+
+	static Child findChildLinear(List<Child> childList, int symbol) {
+		int noChildren = childList.size();
+		Child child;
+		for (int i = 0; i < noChildren; i++) {
+			child = childList.get(i);
+			if (child.firstSymbol == symbol)
+				return child;
+		}
+		return null;
+	}
+
+	static void benchmarkChildLookup(Random random) {
+		System.out.println(String.format("%8s %16s %16s", "Fan-out", "Linear (ns/op)", "Index (ns/op)"));
+		for (int fanOut : FAN_OUTS) {
+			List<Child> childList = new ArrayList<Child>();
+			SuffixNodeChildIndex<Child> childIndex = new SuffixNodeChildIndex<Child>();
+			int[] symbols = new int[fanOut];
+			for (int i = 0; i < fanOut; i++) {
+				symbols[i] = random.nextInt(1 << 20);
+				Child child = new Child(symbols[i]);
+				childList.add(child);
+				childIndex.put(symbols[i], child);
+			}
+
+			int[] lookups = new int[NO_LOOKUPS];
+			for (int i = 0; i < NO_LOOKUPS; i++)
+				lookups[i] = symbols[random.nextInt(fanOut)];
+
+			long linearNanos = 0, indexNanos = 0, start;
+			int found = 0;
+			for (int run = 0; run < 3; run++) {
+				start = System.nanoTime();
+				for (int i = 0; i < NO_LOOKUPS; i++)
+					if (findChildLinear(childList, lookups[i]) != null)
+						found++;
+				linearNanos = System.nanoTime() - start;
+
+				start = System.nanoTime();
+				for (int i = 0; i < NO_LOOKUPS; i++)
+					if (childIndex.get(lookups[i]) != null)
+						found++;
+				indexNanos = System.nanoTime() - start;
+			}
+			if (found != 6 * NO_LOOKUPS)
+				System.out.println("Lookup mismatch for fan-out " + fanOut);
+
+			System.out.println(String.format("%8d %16.2f %16.2f", fanOut, (double) linearNanos / NO_LOOKUPS,
+					(double) indexNanos / NO_LOOKUPS));
+		}
+	}
+
+	static void benchmarkConstruction(int noTraces, int traceLength, Random random) {
+		System.out.println(String.format("%12s %8s %10s %22s", "Activities", "Length", "Symbols",
+				"UkkonenSuffixTree (ms)"));
+		for (int noActivities : NO_ACTIVITIES) {
+			int encodingLength = 1;
+			int noEncodings = SuffixTreeBenchmark.ALL_ARRAY.length;
+			while (noEncodings < noActivities + noTraces) {
+				encodingLength++;
+				noEncodings *= SuffixTreeBenchmark.ALL_ARRAY.length;
+			}
+
+			List<String> encodedTraceList = SuffixTreeBenchmark.createSyntheticLog(noTraces, noActivities,
+					traceLength, encodingLength, random);
+			String charStream = SuffixTreeBenchmark.createCharStream(encodedTraceList, noActivities, encodingLength);
+
+			long ukkonenNanos = 0;
+			for (int run = 0; run < 3; run++)
+				ukkonenNanos = SuffixTreeBenchmark.timeUkkonenSuffixTree(encodingLength, charStream);
+
+			System.out.println(String.format("%12d %8d %10d %22.2f", noActivities, encodingLength,
+					charStream.length() / encodingLength, ukkonenNanos / 1e6));
+		}
+	}
+
+	public static void main(String[] args) {
+		int noTraces = 2000, traceLength = 30;
+		if (args.length == 2) {
+			noTraces = Integer.parseInt(args[0]);
+			traceLength = Integer.parseInt(args[1]);
+		}
+
+		Random random = new Random(1);
+		benchmarkChildLookup(random);
+		System.out.println();
+		benchmarkConstruction(noTraces, traceLength, random);
+	}
+}
@@ -7,6 +7,8 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Enumeration;
@@ -20,6 +22,7 @@ import java.util.Map;
 import java.util.Random;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
 
 import javax.swing.JFrame;
 import javax.swing.JOptionPane;
@@ -29,23 +32,40 @@ import org.deckfour.xes.model.XAttributeMap;
 import org.deckfour.xes.model.XEvent;
 import org.deckfour.xes.model.XLog;
 import org.deckfour.xes.model.XTrace;
-import org.processmining.plugins.signaturediscovery.encoding.ActivityOverFlowException;
+import org.processmining.plugins.signaturediscovery.encoding.ActivityDictionary;
 import org.processmining.plugins.signaturediscovery.encoding.EncodeActivitySet;
 import org.processmining.plugins.signaturediscovery.encoding.EncodeTraces;
 import org.processmining.plugins.signaturediscovery.encoding.EncodingNotFoundException;
+import org.processmining.plugins.signaturediscovery.encoding.FeatureDictionary;
 import org.processmining.plugins.signaturediscovery.encoding.InstanceProfile;
 import org.processmining.plugins.signaturediscovery.encoding.InstanceVector;
+import org.processmining.plugins.signaturediscovery.encoding.StreamingLogEncoder;
+import org.processmining.plugins.signaturediscovery.encoding.TraceStore;
 import org.processmining.plugins.signaturediscovery.featureextraction.FeatureExtraction;
 import org.processmining.plugins.signaturediscovery.learningalgorithm.ClassSpecificAssociationRuleMiner;
+import org.processmining.plugins.signaturediscovery.learningalgorithm.DecisionTreeRuleExtractor;
+import org.processmining.plugins.signaturediscovery.learningalgorithm.NonZeroRowFilter;
+import org.processmining.plugins.signaturediscovery.learningalgorithm.ParallelCrossValidation;
+import org.processmining.plugins.signaturediscovery.learningalgorithm.Rule;
+import org.processmining.plugins.signaturediscovery.learningalgorithm.RuleCondition;
+import org.processmining.plugins.signaturediscovery.learningalgorithm.RuleEvaluator;
+import org.processmining.plugins.signaturediscovery.learningalgorithm.RuleId3;
 import org.processmining.plugins.signaturediscovery.metrics.Metrics;
 import org.processmining.plugins.signaturediscovery.metrics.RuleListMetrics;
+import org.processmining.plugins.signaturediscovery.types.AssociationRuleEngineType;
 import org.processmining.plugins.signaturediscovery.types.EvaluationOptionType;
 import org.processmining.plugins.signaturediscovery.types.Feature;
 import org.processmining.plugins.signaturediscovery.types.FeatureType;
 import org.processmining.plugins.signaturediscovery.types.LearningAlgorithmType;
 import org.processmining.plugins.signaturediscovery.ui.SignaturePatternsFrame;
+import org.processmining.plugins.signaturediscovery.util.AlphabetFeatureMatcher;
+import org.processmining.plugins.signaturediscovery.util.FeatureSupportCounter;
 import org.processmining.plugins.signaturediscovery.util.FileIO;
+import org.processmining.plugins.signaturediscovery.util.FisherScoreCalculator;
+import org.processmining.plugins.signaturediscovery.util.HeapProfiler;
 import org.processmining.plugins.signaturediscovery.util.Logger;
+import org.processmining.plugins.signaturediscovery.util.ParallelTaskExecutor;
+import org.processmining.plugins.signaturediscovery.util.SequenceFeatureMatcher;
 import org.supercsv.cellprocessor.constraint.NotNull;
 import org.supercsv.cellprocessor.constraint.UniqueHashCode;
 import org.supercsv.cellprocessor.ift.CellProcessor;
@@ -55,12 +75,11 @@ import org.supercsv.prefs.CsvPreference;
 
 import tool.ConnectionManager;
 import weka.classifiers.Classifier;
-import weka.classifiers.trees.Id3;
 import weka.classifiers.trees.J48;
 import weka.core.Attribute;
 import weka.core.Instance;
 import weka.core.Instances;
-import weka.core.converters.ConverterUtils.DataSource;
+import weka.core.SparseInstance;
 import weka.filters.Filter;
 import weka.filters.unsupervised.attribute.Remove;
 
@@ -78,7 +97,10 @@ import weka.filters.unsupervised.attribute.Remove;
  */
 
 public class DiscoverSignatures {
-	XLog log;
+	/*
+	 * The traces of the training log and of the test log, not copied (encodeLog only reads them)
+	 */
+	List<XTrace> log;
 	SignatureDiscoveryInput input;
 	
 	/*
@@ -106,6 +128,23 @@ public class DiscoverSignatures {
 	 * 0003		cd0cd1ab0ab1cdeow019dd0191019d 		Quick
 	 */	
 	List<InstanceProfile> instanceProfileList;
+	
+	/*
+	 * Memory-lean mode (input.isMemoryLean): the traces of the log, which the instance 
+	 * profiles and the instance vectors refer to by trace index; null otherwise
+	 */
+	TraceStore traceStore;
+	
+	/*
+	 * Memory-lean mode, or log read with a StreamingLogEncoder: the concept:name of the events 
+	 * of every activity ("Arrive_Start-complete", "Arrive_Start"), as there is no XLog after encoding
+	 */
+	Map<String, String> activityEventNameMap;
+	
+	/*
+	 * Heap retained after every stage of the discovery (input.isHeapProfile)
+	 */
+	HeapProfiler heapProfiler;
 
 	/*
 	 * (TR, (ab0ab1, cd0cd1cd2, de0de1, ...,xy0xy1xy2))
@@ -157,6 +196,13 @@ public class DiscoverSignatures {
 	 */
 	Map<Feature, Map<String, Double>> filterFeatureSelectionMap = new HashMap<Feature, Map<String, Double>>(); 
 	
+	/**
+	 * Fisher scores of the filtered features, computed once per feature type (see getFisherScoreMap)
+	 * Key: feature type, e.g. TR/MR/MRA
+	 * Value: mapping from feature to the computed fisher score, in decreasing order of fisher score
+	 */
+	Map<Feature, Map<String, Double>> featureFisherScoreMap = new HashMap<Feature, Map<String, Double>>();
+	
 	
 	/*
 	 * Contains map from feature type (TR, MR) to list of instance vectors
@@ -173,6 +219,13 @@ public class DiscoverSignatures {
 	 */
 	Map<Feature, List<InstanceVector>> featureInstanceVectorListMap; //Bruce: from 1 June 2015, THIS IS FOR TRAINING DATA ONLY
 	
+	/*
+	 * Contains map from feature type (TR, MR) to the support counts of its features in 
+	 * featureInstanceVectorListMap, counted while the instance vectors are created (see createInstanceVector)
+	 */
+	Map<Feature, FeatureSupportCounter<String>> sequenceFeatureSupportCounterMap = new HashMap<Feature, FeatureSupportCounter<String>>();
+	Map<Feature, FeatureSupportCounter<Set<String>>> alphabetFeatureSupportCounterMap = new HashMap<Feature, FeatureSupportCounter<Set<String>>>();
+	
 	/*
 	 * Contains map from feature type (TR,MR) to a list of features
 	 * Note: here contains all features, including those with zero frequency in certain traces
@@ -184,13 +237,13 @@ public class DiscoverSignatures {
 	
 	/*
 	 * Map from feature type (TR, MR...) to Weka instance containing data set for analysis
-	 * This data set is read from a file with naming format: <featuretype>_Nominal.arff
+	 * This data set is created in memory, it can be exported to a file with naming format: <featuretype>_Nominal.arff
 	 */
 	Map<Feature, Instances> featureNominalWekaInstancesMap = new HashMap<Feature, Instances>();
 	
 	/*
 	 * Map from feature type (TR, MR...) to Weka instance containing data set for analysis
-	 * This data set is read from a file with naming format: <featuretype>_Numeric.arff
+	 * This data set is created in memory, it can be exported to a file with naming format: <featuretype>_Numeric.arff
 	 */	
 	Map<Feature, Instances> featureNumericWekaInstancesMap = new HashMap<Feature, Instances>();
 	
@@ -215,10 +268,15 @@ public class DiscoverSignatures {
 	 */
 	Map<String, String> activityCharMap;
 	
-
-	Set<String> attributesInRuleSet;
+	/*
+	 * Dense integer ids of the activities (and trace identifiers), with the encoded 
+	 * names above as their codes; the instance profiles carry their traces as ids
+	 */
+	ActivityDictionary activityDictionary;
+	
+	
 	float threshold = 0.3f;
-	List<String> finalRuleList;
+	List<Rule> finalRuleList;
 	Map<String, Metrics> finalRuleListMetricsMap;
 	Map<String, String> encodedDecodedRuleMap;
 	
@@ -239,27 +297,23 @@ public class DiscoverSignatures {
 	 */
 	public DiscoverSignatures(XLog trainLog, XLog testLog, double min_sup, int coverage_thres, SignatureDiscoveryInput input, 
 								boolean featureCreation, String fold){
+		heapProfiler = new HeapProfiler(input.isHeapProfile);
 		
-		//Merge trainLog and testLog into one log
-		XLog mergeLog = (XLog) trainLog.clone(); 
+		//Merge trainLog and testLog into one log; the traces are shared, not cloned
+		List<XTrace> mergeLog = new ArrayList<XTrace>(trainLog); 
 		if (testLog != null && testLog.size() > 0) {
-			for (XTrace trace : testLog) {
-				mergeLog.add((XTrace)trace.clone());
-			}
+			mergeLog.addAll(testLog);
 		}
 		
 		this.log = mergeLog;
 		this.input = input;
 		hasSignatures = true;
 		this.featureCreation = featureCreation;
+		heapProfiler.mark("Merge logs");
 		
 		System.out.println("Encode activity names");
 		encodeLog(); //generate instanceProfileList, encoding is done on merge log to cover both training and testing data
 		
-		//--------------------------------------------------------
-		// Remove testing traces out of instanceProfileList so 
-		// that feature mining is only done on the training data
-		//--------------------------------------------------------
 		Set<String> testTraceIDs = new HashSet<String>();
 		if (testLog != null && testLog.size() > 0) {
 			for (XTrace trace : testLog) {
@@ -267,6 +321,78 @@ public class DiscoverSignatures {
 			}
 		}
 		
+		if (input.isMemoryLean) {
+			/*
+			 * Release the merged log, the traces are in traceStore from now on; the 
+			 * logs are not passed on, so that the individual events are counted on 
+			 * the instance profiles
+			 */
+			this.log = null;
+			mergeLog = null;
+			trainLog = null;
+			testLog = null;
+		}
+		heapProfiler.mark("Encode log");
+		
+		discoverSignatures(testTraceIDs, min_sup, coverage_thres, fold, trainLog, testLog);
+	}
+	
+	/*
+	 * Same as above for the log files trainFile and testFile (testFile may be null), which are 
+	 * read with a StreamingLogEncoder (see OpenLogFilePlugin.encodeFile): the logs are never 
+	 * held in memory as XLog, only their encoded traces
+	 */
+	public DiscoverSignatures(File trainFile, File testFile, double min_sup, int coverage_thres, SignatureDiscoveryInput input, 
+								boolean featureCreation, String fold) throws Exception{
+		this(encodeLogFiles(trainFile, testFile), min_sup, coverage_thres, input, featureCreation, fold);
+	}
+	
+	/*
+	 * Same as above for the training traces and the test traces read into logEncoder
+	 */
+	public DiscoverSignatures(StreamingLogEncoder logEncoder, double min_sup, int coverage_thres, SignatureDiscoveryInput input, 
+								boolean featureCreation, String fold){
+		heapProfiler = new HeapProfiler(input.isHeapProfile);
+		this.input = input;
+		hasSignatures = true;
+		this.featureCreation = featureCreation;
+		
+		System.out.println("Encode activity names");
+		activityDictionary = logEncoder.getActivityDictionary();
+		encodingLength = activityDictionary.getEncodingLength();
+		activityCharMap = activityDictionary.getActivityCodeMap();
+		charActivityMap = activityDictionary.getCodeActivityMap();
+		activityEventNameMap = new HashMap<String, String>();
+		for (int activityId = 0; activityId < activityDictionary.size(); activityId++) {
+			if (logEncoder.getEventName(activityId) != null)
+				activityEventNameMap.put(activityDictionary.getActivity(activityId), logEncoder.getEventName(activityId));
+		}
+		traceStore = input.isMemoryLean ? new TraceStore(activityDictionary) : null;
+		instanceProfileList = new ArrayList<InstanceProfile>(logEncoder.getInstanceProfileList(traceStore));
+		encodedTraceList = logEncoder.getCharStreamList();
+		heapProfiler.mark("Encode log");
+		
+		discoverSignatures(logEncoder.getTestTraceNameSet(), min_sup, coverage_thres, fold, null, null);
+	}
+	
+	private static StreamingLogEncoder encodeLogFiles(File trainFile, File testFile) throws Exception{
+		StreamingLogEncoder logEncoder = new StreamingLogEncoder();
+		OpenLogFilePlugin openLogFilePlugin = new OpenLogFilePlugin();
+		openLogFilePlugin.encodeFile(trainFile, logEncoder, false);
+		if (testFile != null)
+			openLogFilePlugin.encodeFile(testFile, logEncoder, true);
+		return logEncoder;
+	}
+	
+	/*
+	 * Precondition: the log has been encoded (instanceProfileList contains the training and the test traces)
+	 * trainLog, testLog: null in memory-lean mode or if the logs were read with a StreamingLogEncoder
+	 */
+	private void discoverSignatures(Set<String> testTraceIDs, double min_sup, int coverage_thres, String fold, XLog trainLog, XLog testLog){
+		//--------------------------------------------------------
+		// Remove testing traces out of instanceProfileList so 
+		// that feature mining is only done on the training data
+		//--------------------------------------------------------
 		List<InstanceProfile> testInstanceProfileList = new ArrayList<InstanceProfile>();
 		Iterator<InstanceProfile> iterator = instanceProfileList.iterator();
 		InstanceProfile instance;
@@ -282,14 +408,17 @@ public class DiscoverSignatures {
 		
 		System.out.println("Generate all possible features");
 		computeFeatureSets(); // use instanceProfileList (contain only training traces) to generate features
+		heapProfiler.mark("Generate features");
 		
 		setActualFeatureSet(); 
 
 		filterFeatureSet();
+		heapProfiler.mark("Filter features");
 
 		System.out.println("Transform log into a feature vector table");
 		createInstanceVector(); //transform the log into feature space with feature support count computed for each instance
 		List<InstanceVector> testInstanceVectorList = this.createInstanceVector(testInstanceProfileList);
+		heapProfiler.mark("Create instance vectors");
 		
 		/*
 		 * Bruce 27.05.2014
@@ -325,6 +454,7 @@ public class DiscoverSignatures {
 			
 				System.out.println("Select features based on Fisher score");
 				filterFeatureSetByFeatureSelection(coverage_thres); //requires instance vector list to calculate support and Fisher score
+				heapProfiler.mark("Select features");
 				
 				//createFeatureSelectionTable();
 				System.out.println("Write feature selection to features.txt");
@@ -333,11 +463,11 @@ public class DiscoverSignatures {
 				//createInstanceVectorTable2();		
 				System.out.println("Write case tables for classification to crosstrain.txt and crosstest.txt");
 				
-				Map<String, Map<String, Integer>> indiEventMap = computeIndividualEventCountMap(trainLog);
+				Map<String, Map<String, Integer>> indiEventMap = trainLog != null ? computeIndividualEventCountMap(trainLog) : computeIndividualEventCountMap(instanceProfileList);
 				writeInstanceVectorToFile(trainInstanceVectorList, indiEventMap, System.getProperty("user.dir") + "\\" + fold + "\\crosstrain.csv");
 				
 				if (testInstanceVectorList.size() > 0) {
-					indiEventMap = computeIndividualEventCountMap(testLog);
+					indiEventMap = testLog != null ? computeIndividualEventCountMap(testLog) : computeIndividualEventCountMap(testInstanceProfileList);
 					writeInstanceVectorToFile(testInstanceVectorList, indiEventMap, System.getProperty("user.dir") + "\\" + fold + "\\crosstest.csv");
 				}
 				
@@ -354,9 +484,45 @@ public class DiscoverSignatures {
 			
 		} else {
 			prepareWekaData();
+			heapProfiler.mark("Prepare Weka data");
 			findSignatures();
+			heapProfiler.mark("Find signatures");
 		}
-
+		
+		heapProfiler.printReport();
+	}
+	
+	/*
+	 * Same as computeIndividualEventCountMap(XLog) for the traces kept in traceStore, or read 
+	 * with a StreamingLogEncoder
+	 */
+	private Map<String, Map<String, Integer>> computeIndividualEventCountMap(List<InstanceProfile> instanceProfileList) {
+		Set<String> eventNameSet = new HashSet<String>(); //set of distinct event names
+		Map<String, Map<String, Integer>> eventCountMap = new HashMap<String, Map<String, Integer>>(); 	
+		
+		String eventName;
+		Integer count;
+		for (InstanceProfile instanceProfile : instanceProfileList) {
+			Map<String, Integer> traceEventCountMap = new TreeMap<String, Integer>(); //for the current trace
+			for (int activityId : instanceProfile.getActivityIds()) {
+				eventName = activityEventNameMap.get(activityDictionary.getActivity(activityId));
+				eventNameSet.add(eventName);
+				count = traceEventCountMap.get(eventName);
+				traceEventCountMap.put(eventName, count == null ? 1 : count + 1);
+			}
+			eventCountMap.put(instanceProfile.getName(), traceEventCountMap);
+		}
+		
+		// Add other event names not present in a trace to eventCountMap with zero frequency
+		for (Map<String, Integer> map : eventCountMap.values()) {
+			for (String name : eventNameSet) {
+				if (!map.containsKey(name)) {
+					map.put(name, 0);
+				}
+			}
+		}
+		
+		return eventCountMap;
 	}
 	
 	private Map<String, Map<String, Integer>> computeIndividualEventCountMap(XLog log) {
@@ -541,7 +707,7 @@ public class DiscoverSignatures {
 	 * 0000005		2		3		0	
 	 */
 	private void createInstanceVectorTable() {
-		String table, sql, attributeName;
+		String table, sql, attributeName, encodedTrace;
 		List<InstanceVector> instanceVectorList;
 		List<String> featureAttributeNameList;
 		boolean hasFeatures=true;
@@ -655,12 +821,13 @@ public class DiscoverSignatures {
             instanceVectorList = featureInstanceVectorListMap.get(feature);
              
             for (InstanceVector instanceVector : instanceVectorList) {
+            	encodedTrace = instanceVector.getEncodedTrace();
             	
-            	System.out.println("TraceID " + instanceVector.getName() + " " + instanceVector.getEncodedTrace());
+            	System.out.println("TraceID " + instanceVector.getName() + " " + encodedTrace);
             	
 	        	sql = "INSERT INTO " + table + " VALUES(";
 	        	sql += "'" + instanceVector.getName().trim() + "',";
-	        	sql += "'" + instanceVector.getEncodedTrace().trim() + "',";
+	        	sql += "'" + encodedTrace.trim() + "',";
 	        	sql += "'" + instanceVector.getLabel().trim() + "',";
 	        	
 	        	numericVector = instanceVector.getStandardizedNumericVector();
@@ -702,7 +869,7 @@ public class DiscoverSignatures {
 	 * and all features after filtering by support level and fisher score
 	 */
 	private void createInstanceVectorTable2() throws IOException {
-		String table, sql;
+		String table, sql, encodedTrace;
 		List<InstanceVector> instanceVectorList;
 		Map<String, Double> featureScoreMap; //feature -> score
 		boolean hasFeatures=true;
@@ -787,23 +954,22 @@ public class DiscoverSignatures {
             System.out.println("INSERT INTO " + table);
             
             instanceVectorList = featureInstanceVectorListMap.get(featureType);
-            Map<String,Integer> instanceFeatureCountMap = new HashMap<String,Integer>(); 
+            Map<String, Set<String>> alphabetFeatureNameMap = getAlphabetFeatureNameMap();
+            boolean isAlphabetFeature;
             for (InstanceVector instance : instanceVectorList) {
-            	System.out.println("TraceID " + instance.getName() + " " + instance.getEncodedTrace());
+            	encodedTrace = instance.getEncodedTrace();
+            	System.out.println("TraceID " + instance.getName() + " " + encodedTrace);
 	        	sql = "INSERT INTO " + table + " VALUES(";
 	        	sql += "'" + instance.getName().trim() + "',";
-	        	sql += "'" + instance.getEncodedTrace().trim() + "',";
+	        	sql += "'" + encodedTrace.trim() + "',";
 	        	sql += "'" + instance.getLabel().trim() + "',";
 	        	
 	        	if (input.selectedFeatureSet.contains(Feature.MR) || input.selectedFeatureSet.contains(Feature.TR)) {
-	        		instanceFeatureCountMap = instance.getSequenceFeatureCountMap();
+	        		isAlphabetFeature = false;
 	        	}
 	        	else if (input.selectedFeatureSet.contains(Feature.MRA) || input.selectedFeatureSet.contains(Feature.TRA)) {
-					//Need to convert the set-based key to string-based key
-	        		instanceFeatureCountMap.clear();
-					for (Set<String> setFeature : instance.getAlphabetFeatureCountMap().keySet()) {
-						instanceFeatureCountMap.put(this.extractStringFromAlphabetFeature(setFeature), instance.getAlphabetFeatureCountMap().get(setFeature));
-					}	        		
+					//Need to look up the set-based feature of the string-based name
+	        		isAlphabetFeature = true;
 	        	}
 	        	else {
 	        		throw new IOException("Wrong feature selection by users!");
@@ -813,10 +979,7 @@ public class DiscoverSignatures {
 	        	int k = 0;
 	        	for (String featureName : featureSet) {
 	        		k++;
-	        		featureInstanceCount = 0;
-	        		if (instanceFeatureCountMap.containsKey(featureName)) {
-	        			featureInstanceCount = instanceFeatureCountMap.get(featureName);
-	        		}
+	        		featureInstanceCount = instance.getFeatureCount(isAlphabetFeature ? alphabetFeatureNameMap.get(featureName) : featureName);
 	        		sql += featureInstanceCount;
 	        		if (k < featureSet.size()) {
 	        			sql += ",";
@@ -880,17 +1043,15 @@ public class DiscoverSignatures {
         //------------------------------------------------
         // Build the instance info list
         //------------------------------------------------
-        Map<String,Integer> instanceFeatureCountMap = new HashMap<String,Integer>();
+        Map<String, Set<String>> alphabetFeatureNameMap = getAlphabetFeatureNameMap();
+        boolean isAlphabetFeature;
 		for (InstanceVector instance : instanceVectorList) {
         	if (input.selectedFeatureSet.contains(Feature.MR) || input.selectedFeatureSet.contains(Feature.TR)) {
-        		instanceFeatureCountMap = instance.getSequenceFeatureCountMap();
+        		isAlphabetFeature = false;
         	}
         	else if (input.selectedFeatureSet.contains(Feature.MRA) || input.selectedFeatureSet.contains(Feature.TRA)) {
-				//Need to convert the set-based key to string-based key
-        		instanceFeatureCountMap.clear();
-				for (Set<String> setFeature : instance.getAlphabetFeatureCountMap().keySet()) {
-					instanceFeatureCountMap.put(extractStringFromAlphabetFeature(setFeature), instance.getAlphabetFeatureCountMap().get(setFeature));
-				}	        		
+				//Need to look up the set-based feature of the string-based name
+        		isAlphabetFeature = true;
         	}
         	else {
         		throw new IOException("Wrong feature selection by users!");
@@ -909,10 +1070,7 @@ public class DiscoverSignatures {
         	// Add frequency count in the instance for every feature
         	int featureInstanceCount;
 			for (String featureName : featureMap.keySet()) {
-        		featureInstanceCount = 0;
-        		if (instanceFeatureCountMap.containsKey(featureName)) {
-        			featureInstanceCount = instanceFeatureCountMap.get(featureName);
-        		}
+        		featureInstanceCount = instance.getFeatureCount(isAlphabetFeature ? alphabetFeatureNameMap.get(featureName) : featureName);
         		instanceInfo.add(String.valueOf(featureInstanceCount));				
 			}
 			
@@ -1128,7 +1286,6 @@ public class DiscoverSignatures {
 		ArrayList<String> featureInfo = null;		
 		if (featureType.equals(Feature.MR) || featureType.equals(Feature.TR)) {
 			Set<String> featureSet = filteredActualFeatureSequenceFeatureSetMap.get(featureType);
-			Map<String, Integer> featureCountMap;
 	        for (String feature : featureSet) { // for every feature (1 line): <Name> <Count> <Support> (1:3) (2:5) (5:1)...
 	        	featureInfo = new ArrayList<String>();
 	        	featureInfo.add(feature.trim()); // name
@@ -1136,13 +1293,8 @@ public class DiscoverSignatures {
 	        	Integer totalCount = 0;
 	        	int counter = 1;
 	            for (InstanceVector instanceVector : instanceVectorList) {   
-	            	featureCountMap = instanceVector.getSequenceFeatureCountMap();
-	            	if (featureCountMap.containsKey(feature)) {
-		            	supCount = featureCountMap.get(feature);
-		            	totalCount += supCount;
-	            	} else {
-	            		supCount = 0;
-	            	}
+	            	supCount = instanceVector.getFeatureCount(feature);
+	            	totalCount += supCount;
 					if (supCount > 0) { // sparse format: zero frequency not need to show
 						featureInfo.add("(" + counter + "," + String.valueOf(Double.valueOf(supCount).intValue()) + ")");
 					}
@@ -1156,7 +1308,6 @@ public class DiscoverSignatures {
 		else if (featureType.equals(Feature.MRA) || featureType.equals(Feature.TRA)) {
 			// Every feature consists of a <feature set> and a set of equivalence classes
 			Map<Set<String>, Set<String>> featureSet = filteredActualFeatureAlphabetFeatureSetMap.get(featureType);
-			Map<Set<String>, Integer> featureCountMap;
 	        for (Set<String> feature : featureSet.keySet()) { // for every feature (1 line): <Name> <EquivalenceClasses> <Count> <Support> (1:3) (2:5) (5:1)...
 	        	featureInfo = new ArrayList<String>();
 	        	featureInfo.add(extractStringFromAlphabetFeature(feature)); //name
@@ -1165,13 +1316,8 @@ public class DiscoverSignatures {
 	        	Integer totalCount = 0;
 	        	int counter = 1;
 	            for (InstanceVector instanceVector : instanceVectorList) {
-	            	featureCountMap = instanceVector.getAlphabetFeatureCountMap();
-	            	if (featureCountMap.containsKey(feature)) {
-		            	supCount = featureCountMap.get(feature);
-		            	totalCount += supCount;
-	            	} else {
-	            		supCount = 0;
-	            	}
+	            	supCount = instanceVector.getFeatureCount(feature);
+	            	totalCount += supCount;
 					if (supCount > 0) { // sparse format: zero frequency not need to show
 						featureInfo.add("(" + counter + "," + String.valueOf(Double.valueOf(supCount).intValue()) + ")");
 					}
@@ -1421,20 +1567,27 @@ public class DiscoverSignatures {
 	 */
 	private String getRealActivityTrace(String encodedFeature) {
 		
-		String activityTrace="";
+		StringBuilder activityTrace = new StringBuilder();
 		
 		int encodedTraceLength = encodedFeature.length()/encodingLength;
-		String encodedActivity;
 		for(int i = 0; i < encodedTraceLength; i++){
-			encodedActivity = encodedFeature.substring(i*encodingLength, (i+1)*encodingLength);
-			activityTrace += charActivityMap.get(encodedActivity);
+			activityTrace.append(getDecodedActivity(encodedFeature, i*encodingLength));
 			if (i < encodedTraceLength-1) {
-				activityTrace += ",";
+				activityTrace.append(",");
 			}
 		}
 		
-		return activityTrace;
-	}	
+		return activityTrace.toString();
+	}
+	
+	/*
+	 * Return: the activity whose code is at start of encodedFeature (looked up in 
+	 * activityDictionary without a substring), null if there is no such activity
+	 */
+	private String getDecodedActivity(String encodedFeature, int start) {
+		int activityId = activityDictionary.getCodeId(encodedFeature, start);
+		return activityId < 0 ? null : activityDictionary.getActivity(activityId);
+	}
 	
 	/**
 	 * This method encodes the given log into character streams
@@ -1450,13 +1603,19 @@ public class DiscoverSignatures {
 		Set<String> activitySet = new HashSet<String>();
 		XAttributeMap attributeMap;
 		Set<String> eventTypeSet = new HashSet<String>();
+		String activity;
+		if (input.isMemoryLean)
+			activityEventNameMap = new HashMap<String, String>();
 		
 		for (XTrace trace : log) {
 			for (XEvent event : trace) {
 				attributeMap = event.getAttributes();
-				activitySet.add(attributeMap.get("concept:name").toString() + "-"
-						+ attributeMap.get("lifecycle:transition").toString());
+				activity = attributeMap.get("concept:name").toString() + "-"
+						+ attributeMap.get("lifecycle:transition").toString();
+				activitySet.add(activity);
 				eventTypeSet.add(attributeMap.get("lifecycle:transition").toString());
+				if (activityEventNameMap != null && !activityEventNameMap.containsKey(activity))
+					activityEventNameMap.put(activity, LogUtilites.getConceptName(event));
 			}
 			activitySet.add(trace.getAttributes().get("concept:name").toString()); //used for trace delimiter in computation of repeats
 		}
@@ -1465,6 +1624,7 @@ public class DiscoverSignatures {
 		try {
 			EncodeActivitySet encodeActivitySet = new EncodeActivitySet(activitySet);
 			encodingLength = encodeActivitySet.getEncodingLength();
+			activityDictionary = encodeActivitySet.getActivityDictionary();
 
 			activityCharMap = encodeActivitySet.getActivityCharMap();
 			charActivityMap = encodeActivitySet.getCharActivityMap();
@@ -1473,11 +1633,10 @@ public class DiscoverSignatures {
 			/*
 			 * Encode each trace to a charStream
 			 */
-			EncodeTraces encodeTraces = new EncodeTraces(activityCharMap, log);
+			traceStore = input.isMemoryLean ? new TraceStore(activityDictionary) : null;
+			EncodeTraces encodeTraces = new EncodeTraces(activityDictionary, log, traceStore);
 			encodedTraceList = encodeTraces.getCharStreamList();
 			instanceProfileList = encodeTraces.getInstanceProfileList();
-		}catch(ActivityOverFlowException e){
-			e.printStackTrace();
 		}catch(EncodingNotFoundException e){
 			e.printStackTrace();
 		}
@@ -1545,7 +1704,7 @@ public class DiscoverSignatures {
 			expandedSelectedFeatureSet.add(Feature.IE_TRA_NSMRA);
 		
 		input.selectedFeatureSet = expandedSelectedFeatureSet;
-		featureExtraction = new FeatureExtraction(encodingLength, activityCharMap, charActivityMap, instanceProfileList, expandedSelectedFeatureSet, input.kGramValue);
+		featureExtraction = new FeatureExtraction(encodingLength, activityCharMap, charActivityMap, instanceProfileList, expandedSelectedFeatureSet, input.kGramValue, input.noThreads, input.repeatEngineType);
 		featureExtraction.computeNonOverlapFeatureMetrics();
 	}
 
@@ -1785,7 +1944,9 @@ public class DiscoverSignatures {
 	 * Bruce: 27 May 2015
 	 * Filter features with minimum support
 	 * Min support is read from the property file 
-	 * @Input: featureInstanceVectorListMap
+	 * The support counts are those counted while the instance vectors were created, the 
+	 * instance vectors are only scanned again for a feature type without support counter
+	 * @Input: featureInstanceVectorListMap, sequenceFeatureSupportCounterMap, alphabetFeatureSupportCounterMap
 	 * @Return: filteredActualFeatureSequenceFeatureSetMap and filteredActualFeatureAlphabetFeatureSetMap
 	 */
 	private void filterFeatureSetBySupportLevel(double min_sup) throws FileNotFoundException, IOException, NumberFormatException {
@@ -1796,8 +1957,9 @@ public class DiscoverSignatures {
 		 * SEQUENCE FEATURES
 		 *******************************/
 		List<InstanceVector> instanceVectorList;
-		Set<String> filteredFeatureSet = new HashSet<String>();
+		Set<String> filteredFeatureSet;
 		Map <String,Integer> featureCountMap;
+		FeatureSupportCounter<String> sequenceFeatureSupportCounter;
 		
 		int traceCount = encodedTraceList.size();
 		filteredActualFeatureSequenceFeatureSetMap = new HashMap<Feature, Set<String>>();
@@ -1811,17 +1973,23 @@ public class DiscoverSignatures {
 			 */
 			if (feature == Feature.IE) continue;
 				
-			instanceVectorList = featureInstanceVectorListMap.get(feature);
-			featureCountMap = computeTotalSequenceFeatureSupportCount(instanceVectorList);
-			//System.out.println(featureCountMap.toString());
-			
 			/*
 			 * Select features
 			 */
-			filteredFeatureSet.clear();
-			for (String pattern : featureCountMap.keySet()) {
-				if ((double)featureCountMap.get(pattern)/traceCount >= min_sup) {
-					filteredFeatureSet.add(pattern);
+			filteredFeatureSet = new HashSet<String>();
+			sequenceFeatureSupportCounter = sequenceFeatureSupportCounterMap.get(feature);
+			if (sequenceFeatureSupportCounter != null) {
+				filteredFeatureSet.addAll(sequenceFeatureSupportCounter.getFrequentFeatureList(min_sup, traceCount));
+			}
+			else {
+				instanceVectorList = featureInstanceVectorListMap.get(feature);
+				featureCountMap = computeTotalSequenceFeatureSupportCount(instanceVectorList);
+				//System.out.println(featureCountMap.toString());
+				
+				for (String pattern : featureCountMap.keySet()) {
+					if ((double)featureCountMap.get(pattern)/traceCount >= min_sup) {
+						filteredFeatureSet.add(pattern);
+					}
 				}
 			}
 			
@@ -1836,25 +2004,35 @@ public class DiscoverSignatures {
 		 * ALPHABET FEATURES
 		 *******************************/
 		Map<Set<String>, Set<String>> alphabetFeatureSet;
-		Map<Set<String>, Set<String>> filteredAlphabetFeatureSet = new HashMap<Set<String>, Set<String>>();
+		Map<Set<String>, Set<String>> filteredAlphabetFeatureSet;
 		Map<Set<String>, Integer> alphabetFeatureCountMap;
+		FeatureSupportCounter<Set<String>> alphabetFeatureSupportCounter;
 		filteredActualFeatureAlphabetFeatureSetMap = new HashMap<Feature, Map<Set<String>, Set<String>>>();
 		
 		for (Feature feature : actualFeatureAlphabetFeatureSetMap.keySet()) {
 			alphabetFeatureSet = actualFeatureAlphabetFeatureSetMap.get(feature);
-			instanceVectorList = featureInstanceVectorListMap.get(feature);
-			alphabetFeatureCountMap = computeTotalAlphabetFeatureSupportCount(instanceVectorList);
-			//System.out.println(alphabetFeatureCountMap.toString());
 			
 			/*
 			 * Select features
 			 */
-			filteredAlphabetFeatureSet.clear();
-			for (Set<String> pattern : alphabetFeatureCountMap.keySet()) {
-				if ((double)alphabetFeatureCountMap.get(pattern)/traceCount >= min_sup) {
+			filteredAlphabetFeatureSet = new HashMap<Set<String>, Set<String>>();
+			alphabetFeatureSupportCounter = alphabetFeatureSupportCounterMap.get(feature);
+			if (alphabetFeatureSupportCounter != null) {
+				for (Set<String> pattern : alphabetFeatureSupportCounter.getFrequentFeatureList(min_sup, traceCount)) {
 					filteredAlphabetFeatureSet.put(pattern,alphabetFeatureSet.get(pattern));
 				}
-			}			
+			}
+			else {
+				instanceVectorList = featureInstanceVectorListMap.get(feature);
+				alphabetFeatureCountMap = computeTotalAlphabetFeatureSupportCount(instanceVectorList);
+				//System.out.println(alphabetFeatureCountMap.toString());
+				
+				for (Set<String> pattern : alphabetFeatureCountMap.keySet()) {
+					if ((double)alphabetFeatureCountMap.get(pattern)/traceCount >= min_sup) {
+						filteredAlphabetFeatureSet.put(pattern,alphabetFeatureSet.get(pattern));
+					}
+				}
+			}
 			
 			filteredActualFeatureAlphabetFeatureSetMap.put(feature, filteredAlphabetFeatureSet);
 			System.out.println("Number of features selected: " + filteredAlphabetFeatureSet.size());
@@ -1870,16 +2048,15 @@ public class DiscoverSignatures {
 	 * @Return: filterFeatureSelectionMap
 	 */
 	private void filterFeatureSetByFeatureSelection(int coverage_thres) throws Exception {
-		Map<String, Double> featureSelectionMap = null;
+		featureFisherScoreMap.clear(); // the filtered features may have changed since the scores were computed
+		Map<String, Double> featureSelectionMap = this.featureSelection(coverage_thres);
 		
 		for (Feature feature : filteredActualFeatureSequenceFeatureSetMap.keySet()) {
-			featureSelectionMap = this.featureSelection(coverage_thres);
-			filterFeatureSelectionMap.put(feature, featureSelectionMap);
+			filterFeatureSelectionMap.put(feature, new LinkedHashMap<String, Double>(featureSelectionMap));
 		}
 		
 		for (Feature feature : filteredActualFeatureAlphabetFeatureSetMap.keySet()) {
-			featureSelectionMap = this.featureSelection(coverage_thres);
-			filterFeatureSelectionMap.put(feature, featureSelectionMap);
+			filterFeatureSelectionMap.put(feature, new LinkedHashMap<String, Double>(featureSelectionMap));
 		}		
 		
 		System.out.println("Number of features selected: " + featureSelectionMap.size());
@@ -1887,367 +2064,145 @@ public class DiscoverSignatures {
 	}
 	
 	/**
-	 * Scan the instance vector list and compute fisher score for every feature
-	 * The attribute values and the label values of every instance must not contain comma character (":")
+	 * Return the Fisher scores of the filtered features of a feature type, 
+	 * in decreasing order of Fisher score; they are computed only once per feature type
+	 * @throws Exception 
+	 */
+	private Map<String, Double> getFisherScoreMap(Feature featureType) throws Exception {
+		Map<String, Double> fisherScoreMap = featureFisherScoreMap.get(featureType);
+		if (fisherScoreMap == null) {
+			if (actualFeatureSequenceFeatureSetMap.containsKey(featureType)) {
+				fisherScoreMap = sortByComparator(this.computeFisherScoreForSequenceFeatures(featureType));
+			}
+			else {
+				fisherScoreMap = sortByComparator(this.computeFisherScoreForAlphabetFeatures(featureType));
+			}
+			featureFisherScoreMap.put(featureType, fisherScoreMap);
+		}
+		return fisherScoreMap;
+	}
+	
+	/**
+	 * Scan the instance vector list of a feature type and compute fisher score for every feature
 	 * Input: 
 	 * 		- featureInstanceVectorListMap: instance vector in the feature space
 	 * 		- filteredActualFeatureSequenceFeatureSetMap: filtered sequence features by min support
-	 * 		- filteredActualFeatureAlphabetFeatureSetMap: filtered alphabet features by min support
-	 * @return Map from Feature value to Fisher score, in descreasing order of Fisher score
+	 * @return Map from Feature value to Fisher score
 	 * @throws Exception 
 	 */
-	private Map<String, Double> computeFisherScoreForSequenceFeatures() throws Exception {
+	private Map<String, Double> computeFisherScoreForSequenceFeatures(Feature featureType) throws Exception {
 		
 		Map<String, Double> featureFisherScoreMap = new HashMap<String, Double>(); //key is feature, value is fisher score
-		Map<String, Double> featureClassAvgValueMap = new HashMap<String, Double>(); //key is feature + ":" + class, value is the feature avg value in the class
-		Map<String, Double> featureClassStdDevValueMap = new HashMap<String, Double>(); //key is feature + ":" + class, value is the feature std value in the class
-		Map<String, Double> featureOverallAvgValueMap = new HashMap<String, Double>(); //key is feature, value is the feature avg value in the whole instance vector list
-		Map<String, Integer> classInstanceCountMap = new HashMap<String, Integer>(); //key is class label, value is the number of instances in the class
 		
-		List<InstanceVector> instanceVectorList;
-		Map<String,Integer> instanceFeatureCountMap;
-		String featureClassKey = "";
-		Double doubleValue;
+		List<String> featureList = new ArrayList<String>(filteredActualFeatureSequenceFeatureSetMap.get(featureType));
+		double[] fisherScores = computeFisherScores(featureList, featureInstanceVectorListMap.get(featureType));
+		for (int i = 0; i < fisherScores.length; i++) {
+			featureFisherScoreMap.put(featureList.get(i), fisherScores[i]);
+		}
 		
-		for (Feature featureType : actualFeatureSequenceFeatureSetMap.keySet()) {	
-			instanceVectorList = featureInstanceVectorListMap.get(featureType);
-			
-			for (InstanceVector instance : instanceVectorList) {
-				instanceFeatureCountMap = instance.getSequenceFeatureCountMap(); // feature and its support count in a trace, not present if support = 0
-				
-				/*************************************
-				 * Calculate class instance count for every class i: Ni
-				 *************************************/
-				if (!classInstanceCountMap.containsKey(instance.getLabel())) {
-					classInstanceCountMap.put(instance.getLabel(), 1);
-				} 
-				else {
-					classInstanceCountMap.put(instance.getLabel(), classInstanceCountMap.get(instance.getLabel()) + 1);
-				}
-				
-				//--------------------------
-				// For every feature
-				//--------------------------
-				for (String feature : filteredActualFeatureSequenceFeatureSetMap.get(featureType)) {
-					double frequency = 0.0;
-					
-					if (instanceFeatureCountMap.containsKey(feature)) {
-						frequency = instanceFeatureCountMap.get(feature);
-					}
-					else {
-						frequency = 0;
-					}
-					
-					/*************************************
-					 * Calculate overall avg feature value: SUMiSUMj(Xij), for all feature j and class i
-					 * Avoid dividing for the total number of instance for not losing the numeric precision
-					 *************************************/					
-					if (!featureOverallAvgValueMap.containsKey(feature)) {
-						doubleValue = 1.0*frequency;
-					} 
-					else {
-						doubleValue = featureOverallAvgValueMap.get(feature) + 1.0*(frequency);
-					}
-					featureOverallAvgValueMap.put(feature, doubleValue);
-				
-					/*************************************
-					 * Calculate average feature value by class with the count only: SUMij(Xij), all feature value of feature j for class i
-					 * The average value would be update later by dividing the total number of instances in each class
-					 *************************************/					
-					featureClassKey = feature + ":" + instance.getLabel(); //feature + ":" + label
-					if (!featureClassAvgValueMap.containsKey(featureClassKey)) {
-						doubleValue = frequency;
-					} 
-					else {
-						doubleValue = featureClassAvgValueMap.get(featureClassKey) + 1.0*frequency;
-					}
-					featureClassAvgValueMap.put(featureClassKey, doubleValue);	//count only	
-				}				
-			}
-			
-			/*************************************
-			 * Update the total average feature value in the whole dataset
-			 * by dividing by the total number of instances 
-			 *************************************/
-			for (String feature : featureOverallAvgValueMap.keySet()) {
-				featureOverallAvgValueMap.put(feature, 1.0*featureOverallAvgValueMap.get(feature)/instanceVectorList.size());
-			}
-			
-			/*************************************
-			 * Calculate average feature value by classes: SUMij(Xij)/Ni, SUMij(Xij) and Ni have been calculated above for every class i
-			 *************************************/				
-			for (String featureClass : featureClassAvgValueMap.keySet()) {
-				String[] split = featureClass.split(":"); // split[0] is the feature, split[1] is the class label
-				featureClassAvgValueMap.put(featureClass, 1.0*featureClassAvgValueMap.get(featureClass)/classInstanceCountMap.get(split[1]));
-			}			
-			
-			/*************************************
-			 * Calculate std deviation by classes in two steps.
-			 * First, calculate SUMj((Xij - Ui)^2), Ui is the avg feature value by class i as calculated above
-			 * Second, calculate SUMj((Xij - Ui)^2)/Ni, Ni is the number of instances in class i, as calculated above
-			 * Note: here the square root is not taken because it is not used in the Fisher score formula
-			 * So this is to calculate the power 2 of std dev instead of std dev
-			 *************************************/				
-			for (InstanceVector instance : instanceVectorList) { //for every instance
-				instanceFeatureCountMap = instance.getSequenceFeatureCountMap();
-				for (String feature : filteredActualFeatureSequenceFeatureSetMap.get(featureType)) {
-					featureClassKey = feature + ":" + instance.getLabel();
-					if (instanceFeatureCountMap.containsKey(feature)) {
-						if (!featureClassStdDevValueMap.containsKey(featureClassKey)) {
-							doubleValue = Math.pow(instanceFeatureCountMap.get(feature) - featureClassAvgValueMap.get(featureClassKey),2);
-						} 
-						else {
-							doubleValue = featureClassStdDevValueMap.get(featureClassKey) + 1.0*Math.pow(instanceFeatureCountMap.get(feature) - featureClassAvgValueMap.get(featureClassKey),2);
-						}	
-					}
-					else {
-						if (!featureClassStdDevValueMap.containsKey(featureClassKey)) {
-							doubleValue = Math.pow(featureClassAvgValueMap.get(featureClassKey),2);
-						} 
-						else {
-							doubleValue = featureClassStdDevValueMap.get(featureClassKey) + 1.0*Math.pow(featureClassAvgValueMap.get(featureClassKey),2);
-						}
-					}
-					featureClassStdDevValueMap.put(featureClassKey, doubleValue);
+		return featureFisherScoreMap;
+		
+	}
+	
+	/**
+	 * Compute the Fisher score of the features (see FisherScoreCalculator) 
+	 * from the sparse vectors of the instances of a feature type
+	 * @return Fisher scores in the order of featureList, empty if there is no instance
+	 */
+	private static double[] computeFisherScores(List<?> featureList, List<InstanceVector> instanceVectorList) {
+		if (instanceVectorList.isEmpty()) {
+			return new double[0];
+		}
+		
+		int[] featureListIndices = getFeatureListIndices(featureList, instanceVectorList.get(0).getFeatureDictionary());
+		FisherScoreCalculator fisherScoreCalculator = new FisherScoreCalculator(featureList.size());
+		int[] featureIds = new int[featureList.size()];
+		int[] counts = new int[featureList.size()];
+		int[] instanceFeatureIds, instanceFeatureCounts;
+		int length, featureIndex;
+		for (InstanceVector instance : instanceVectorList) {
+			instanceFeatureIds = instance.getFeatureIds();
+			instanceFeatureCounts = instance.getFeatureCounts();
+			length = 0;
+			for (int j = 0; j < instanceFeatureIds.length; j++) {
+				featureIndex = featureListIndices[instanceFeatureIds[j]];
+				if (featureIndex >= 0) {
+					featureIds[length] = featureIndex;
+					counts[length++] = instanceFeatureCounts[j];
 				}
 			}
-			
-			// Then, finalize the std deviation: SUMj((Xij - Ui)^2)/Ni
-			for (String featureClassKey2 : featureClassStdDevValueMap.keySet()) {
-				String[] split = featureClassKey2.split(":"); // split[0] is the feature, split[1] is the class label
-				featureClassStdDevValueMap.put(featureClassKey2, featureClassStdDevValueMap.get(featureClassKey2)/classInstanceCountMap.get(split[1]));
+			fisherScoreCalculator.addInstance(instance.getLabel(), featureIds, counts, length);
+		}
+		
+		return fisherScoreCalculator.computeFisherScores();
+	}
+	
+	/**
+	 * The instance vectors of a feature type share one feature dictionary
+	 * @return for every feature id of featureDictionary, the index of the feature in featureList, 
+	 * -1 if it is not in featureList
+	 */
+	private static int[] getFeatureListIndices(List<?> featureList, FeatureDictionary<?> featureDictionary) {
+		int[] featureListIndices = new int[featureDictionary.size()];
+		Arrays.fill(featureListIndices, -1);
+		int featureId;
+		for (int i = 0; i < featureList.size(); i++) {
+			featureId = featureDictionary.getFeatureId(featureList.get(i));
+			if (featureId >= 0) {
+				featureListIndices[featureId] = i;
 			}
-			
-			/*************************************
-			 * Now, calculate the Fisher score: SUMi(Ni*(Ui - U)^2) / SUMi(Ni*STDDEVi), for all class i
-			 *************************************/				
-			for (String feature : featureOverallAvgValueMap.keySet()) {
-				Double nominator = 0.0;
-				Double denominator = 0.0;	
-				featureClassKey = "";
-				
-				//For every class label
-				for (String classLabel : classInstanceCountMap.keySet()) { //for every feature-class pair
-					featureClassKey = feature + ":" + classLabel;
-					if (featureClassAvgValueMap.containsKey(featureClassKey)) {
-						nominator += 1.0*classInstanceCountMap.get(classLabel)*Math.pow(featureClassAvgValueMap.get(featureClassKey) - featureOverallAvgValueMap.get(feature),2);
-						denominator += 1.0*classInstanceCountMap.get(classLabel)*featureClassStdDevValueMap.get(featureClassKey);
-					}
-					else {
-						//nominator += 1.0*classInstanceCountMap.get(classLabel)*Math.pow(featureOverallAvgValueMap.get(feature),2);
-						throw new Exception("Error in Fisher score calculation: featureClassAvgValueMap does not contain key: " + featureClassKey);
-					}
-				}
-				
-				if (denominator != 0.0) {
-					featureFisherScoreMap.put(feature, 1.0*nominator/denominator);
-				}
-				else if (nominator == 0.0) {
-					featureFisherScoreMap.put(feature, 0.0);
-				}
-				else {
-					featureFisherScoreMap.put(feature, Double.MAX_VALUE);
-				}
+		}
+		return featureListIndices;
+	}
+	
+	/**
+	 * Map from the name of every filtered alphabet feature (see extractStringFromAlphabetFeature) 
+	 * to the feature
+	 */
+	private Map<String, Set<String>> getAlphabetFeatureNameMap() {
+		Map<String, Set<String>> alphabetFeatureNameMap = new HashMap<String, Set<String>>();
+		for (Map<Set<String>, Set<String>> alphabetFeatureSetMap : filteredActualFeatureAlphabetFeatureSetMap.values()) {
+			for (Set<String> feature : alphabetFeatureSetMap.keySet()) {
+				alphabetFeatureNameMap.put(this.extractStringFromAlphabetFeature(feature), feature);
 			}
 		}
-		
-		return featureFisherScoreMap;
-		
+		return alphabetFeatureNameMap;
 	}
 	
 	/**
-	 * In case of alphabet feature, the attribute name is converted 
-	 * from set of string, which would have this format if use toString(), e.g.: "[ab0],[ab1],[ab2]"
-	 * Need to remove special characters and return "ab0ab1ab2"
+	 * In case of alphabet feature, the attribute name is the concatenation of 
+	 * the sorted encoded activities of the set, e.g.: [ab1, ab0, ab2] gives "ab0ab1ab2"
 	 */	
 	private String extractStringFromAlphabetFeature(Set<String> feature) {
 		ArrayList<String> featureList = new ArrayList<String>(feature);
 		Collections.sort(featureList);
 		
-		String featureString = featureList.toString(); //"[ab0],[ab1],[ab2]"
-		featureString = featureString.replace("[", "");
-		featureString = featureString.replace("]", "");
-		featureString = featureString.replace(" ", "");  
-		featureString = featureString.replace(",", ""); // now "ab0ab1ab2"
-    	return featureString;		
+		StringBuilder featureString = new StringBuilder();
+		for (String activity : featureList) {
+			featureString.append(activity);
+		}
+    	return featureString.toString();		
 	}
 	
 	/**
-	 * Scan the instance vector list and compute fisher score for every alphabet feature
+	 * Scan the instance vector list of a feature type and compute fisher score for every alphabet feature
 	 * This is different from the same task for sequence feature because the 
-	 * alphabet feature has a form of a set of features, rather than a string
+	 * alphabet feature has a form of a set of features, rather than a string; 
+	 * the features are named by extractStringFromAlphabetFeature
 	 * Input: 
 	 * 		- featureInstanceVectorListMap: instance vector in the feature space
 	 * 		- filteredActualFeatureAlphabetFeatureSetMap: filtered alphabet features by min support
-	 * @return Map from Feature value to Fisher score, in descreasing order of Fisher score
+	 * @return Map from Feature value to Fisher score
 	 * @throws Exception 
 	 */
-	private Map<String, Double> computeFisherScoreForAlphabetFeatures() throws Exception {
+	private Map<String, Double> computeFisherScoreForAlphabetFeatures(Feature featureType) throws Exception {
 		
 		Map<String, Double> featureFisherScoreMap = new HashMap<String, Double>(); //key is feature, value is fisher score
-		Map<String, Double> featureClassAvgValueMap = new HashMap<String, Double>(); //key is feature + ":" + class, value is the feature avg value in the class
-		Map<String, Double> featureClassStdDevValueMap = new HashMap<String, Double>(); //key is feature + ":" + class, value is the feature std value in the class
-		Map<String, Double> featureOverallAvgValueMap = new HashMap<String, Double>(); //key is feature, value is the feature avg value in the whole instance vector list
-		Map<String, Integer> classInstanceCountMap = new HashMap<String, Integer>(); //key is class label, value is the number of instances in the class
 		
-		List<InstanceVector> instanceVectorList;
-		Map<String,Integer> instanceFeatureCountMap = new HashMap<String, Integer>();
-		String featureClassKey = "";
-		Double doubleValue;
-		String feature = "";
-		
-		for (Feature featureType : actualFeatureAlphabetFeatureSetMap.keySet()) {	
-			instanceVectorList = featureInstanceVectorListMap.get(featureType);
-			
-			for (InstanceVector instance : instanceVectorList) {
-				
-				//Convert the set-based key map to string-based key map, to make it similar to the processing for sequence features
-				instanceFeatureCountMap.clear();
-				for (Set<String> setFeature : instance.getAlphabetFeatureCountMap().keySet()) {
-					instanceFeatureCountMap.put(this.extractStringFromAlphabetFeature(setFeature), instance.getAlphabetFeatureCountMap().get(setFeature));
-				}
-				
-				/*************************************
-				 * Calculate class instance count for every class i: Ni
-				 *************************************/
-				if (!classInstanceCountMap.containsKey(instance.getLabel())) {
-					classInstanceCountMap.put(instance.getLabel(), 1);
-				} 
-				else {
-					classInstanceCountMap.put(instance.getLabel(), classInstanceCountMap.get(instance.getLabel()) + 1);
-				}
-				
-				// For every feature
-				for (Set<String> setFeature : filteredActualFeatureAlphabetFeatureSetMap.get(featureType).keySet()) {
-					
-					feature = this.extractStringFromAlphabetFeature(setFeature);
-					
-					double frequency = 0.0;
-					if (instanceFeatureCountMap.containsKey(feature)) {
-						frequency = instanceFeatureCountMap.get(feature);
-					}
-					else {
-						frequency = 0;
-					}					
-					
-					/*************************************
-					 * Calculate overall avg feature value: SUMiSUMj(Xij)/Total No of traces, for all feature j and class i
-					 *************************************/
-					if (!featureOverallAvgValueMap.containsKey(feature)) {
-						doubleValue = 1.0*frequency;
-					} 
-					else {
-						doubleValue = featureOverallAvgValueMap.get(feature) + 1.0*frequency;
-					}
-					featureOverallAvgValueMap.put(feature, doubleValue);
-					
-					/*************************************
-					 * Calculate average feature value by class with the count only: SUMij(Xij), all feature value of feature j for class i
-					 * The average value would be update later by dividing the total number of instances in each class
-					 *************************************/					
-					featureClassKey = feature + ":" + instance.getLabel();
-					if (!featureClassAvgValueMap.containsKey(featureClassKey)) {
-						doubleValue = 1.0*frequency;
-					} 
-					else {
-						doubleValue = featureClassAvgValueMap.get(featureClassKey) + 1.0*frequency;
-					}
-					featureClassAvgValueMap.put(featureClassKey, doubleValue);	//count only	
-				}				
-			}
-			
-			/*************************************
-			 * Update the total average feature value in the whole dataset
-			 * by dividing by the total number of instances 
-			 *************************************/
-			for (String feature2 : featureOverallAvgValueMap.keySet()) {
-				featureOverallAvgValueMap.put(feature2, 1.0*featureOverallAvgValueMap.get(feature2)/instanceVectorList.size());
-			}
-			
-			/*************************************
-			 * Calculate average feature value by classes: SUMij(Xij)/Ni, SUMij(Xij) and Ni have been calculated above for every class i
-			 *************************************/				
-			for (String featureClass : featureClassAvgValueMap.keySet()) {
-				String[] split = featureClass.split(":"); // split[0] is the feature, split[1] is the class label
-				featureClassAvgValueMap.put(featureClass, 1.0*featureClassAvgValueMap.get(featureClass)/classInstanceCountMap.get(split[1]));
-			}			
-			
-			/*************************************
-			 * Calculate std deviation by classes: 
-			 * Update in two stages: 
-			 * First, calculate SUMj((Xij - Ui)^2), Ui is the avg feature value by class i as calculated above
-			 * Second, calculate SUMj((Xij - Ui)^2)/Ni, Ni is the number of instances in class i, as calculated above
-			 * Note: here the square root is not taken because it is not used in the Fisher score formula
-			 * So this is to calculate the power 2 of std dev instead of std dev
-			 *************************************/				
-			for (InstanceVector instance : instanceVectorList) { //for every instance
-				
-				//Convert set-based key to string-based key
-				instanceFeatureCountMap.clear();
-				for (Set<String> setFeature : instance.getAlphabetFeatureCountMap().keySet()) {
-					instanceFeatureCountMap.put(this.extractStringFromAlphabetFeature(setFeature), instance.getAlphabetFeatureCountMap().get(setFeature));
-				}		
-				
-				for (Set<String> setFeature : filteredActualFeatureAlphabetFeatureSetMap.get(featureType).keySet()) {
-					
-					feature = this.extractStringFromAlphabetFeature(setFeature);
-					featureClassKey = feature + ":" + instance.getLabel();
-					
-					if (instanceFeatureCountMap.containsKey(feature)) {
-						if (!featureClassStdDevValueMap.containsKey(featureClassKey)) {
-							doubleValue = Math.pow(instanceFeatureCountMap.get(feature) - featureClassAvgValueMap.get(featureClassKey),2);
-						} 
-						else {
-							doubleValue = featureClassStdDevValueMap.get(featureClassKey) + 1.0*Math.pow(instanceFeatureCountMap.get(feature) - featureClassAvgValueMap.get(featureClassKey),2);
-						}	
-					}
-					else {
-						if (!featureClassStdDevValueMap.containsKey(featureClassKey)) {
-							doubleValue = Math.pow(featureClassAvgValueMap.get(featureClassKey),2);
-						} 
-						else {
-							doubleValue = featureClassStdDevValueMap.get(featureClassKey) + 1.0*Math.pow(featureClassAvgValueMap.get(featureClassKey),2);
-						}						
-					}
-					featureClassStdDevValueMap.put(featureClassKey, doubleValue);
-				}
-			}
-			
-			// Then, finalize the std deviation: SUMj((Xij - Ui)^2)/Ni
-			for (String featureClassKey2 : featureClassStdDevValueMap.keySet()) {
-				String[] split = featureClassKey2.split(":"); // split[0] is the feature, split[1] is the class label
-				featureClassStdDevValueMap.put(featureClassKey2, featureClassStdDevValueMap.get(featureClassKey2)/classInstanceCountMap.get(split[1]));
-			}
-			
-			/*************************************
-			 * Now, calculate the Fisher score: SUMi(Ni*(Ui - U)^2) / SUMi(Ni*STDDEVi), for all class i
-			 *************************************/				
-			for (String featureKey : featureOverallAvgValueMap.keySet()) {
-				Double nominator = 0.0;
-				Double denominator = 0.0;
-				featureClassKey = "";				
-				for (String classLabel : classInstanceCountMap.keySet()) { //for every feature-class pair
-					featureClassKey = featureKey + ":" + classLabel;
-					if (featureClassAvgValueMap.containsKey(featureClassKey)) {
-						nominator += 1.0*classInstanceCountMap.get(classLabel)*Math.pow(featureClassAvgValueMap.get(featureClassKey) - featureOverallAvgValueMap.get(featureKey),2);
-						denominator += 1.0*classInstanceCountMap.get(classLabel)*featureClassStdDevValueMap.get(featureClassKey);
-				
-					}
-					else {
-						//nominator += 1.0*classInstanceCountMap.get(classLabel)*Math.pow(featureOverallAvgValueMap.get(featureKey),2);
-						throw new Exception("Error in Fisher score calculation: featureClassAvgValueMap does not contain key: " + featureClassKey);
-					}
-				}
-				if (denominator != 0.0) {
-					featureFisherScoreMap.put(featureKey, 1.0*nominator/denominator);
-				}
-				else if (nominator == 0.0) {
-					featureFisherScoreMap.put(feature, 0.0);
-				}
-				else {
-					featureFisherScoreMap.put(feature, Double.MAX_VALUE);
-				}
-			}
+		List<Set<String>> featureList = new ArrayList<Set<String>>(filteredActualFeatureAlphabetFeatureSetMap.get(featureType).keySet());
+		double[] fisherScores = computeFisherScores(featureList, featureInstanceVectorListMap.get(featureType));
+		for (int i = 0; i < fisherScores.length; i++) {
+			featureFisherScoreMap.put(this.extractStringFromAlphabetFeature(featureList.get(i)), fisherScores[i]);
 		}
 		
 		return featureFisherScoreMap;
@@ -2262,18 +2217,16 @@ public class DiscoverSignatures {
 	 * 		- featureInstanceVectorListMap: instance vector in the feature space
 	 * 		- filteredActualFeatureSequenceFeatureSetMap: filtered sequence features by min support
 	 * 		- filteredActualFeatureAlphabetFeatureSetMap: filtered alphabet features by min support
+	 * The patterns of every feature type are taken in decreasing order of their Fisher score (see getFisherScoreMap)
 	 * @throws Exception 
 	 * @Note: only accept one feature type at a time: MR/TR/MRA/TRA, no group of features allowed
 	 */
 	private Map<String, Double> featureSelection(int coverageThreshold) throws Exception {
 		Map<String, Double> F = null; //input set of patterns with fisher score calculated
 		Map<String, Double> FS = new HashMap<String, Double>(); //selected set of patterns based on fisher score
-		Map<InstanceVector, Integer> instanceCoverageMap = new HashMap<InstanceVector, Integer>(); //keep track of coverage count for every instance
 		List<InstanceVector> TDB;
-		Map<String,Integer> instanceFeatureCountMap; 	
-		Iterator<Map.Entry<String, Double>> patternIterator = null;
-		String feature = "";
-		Set<InstanceVector> removedInstances = new HashSet<InstanceVector>();
+		Map<String, BitSet> featureInstanceBitSetMap; //for every pattern, the instances in TDB that contain it
+		List<String> featureNameList;
 		
 		// Read coverage threshold from the parameter file
 		//coverageThreshold = ConnectionManager.getCoverageThreshold();
@@ -2283,134 +2236,139 @@ public class DiscoverSignatures {
 		 *******************************************************/
 		for (Feature featureType : actualFeatureSequenceFeatureSetMap.keySet()) {	
 			
-			// Sort patterns in F in decreasing order of Fisher score
-			F = sortByComparator(this.computeFisherScoreForSequenceFeatures());
+			// Patterns in F in decreasing order of Fisher score
+			F = this.getFisherScoreMap(featureType);
 			
 			System.out.println("Features sorted by Fisher score:");
 			System.out.println(F.toString());
-			patternIterator = F.entrySet().iterator();
 			
-			while (true) {
-				TDB = featureInstanceVectorListMap.get(featureType); //list of instance vector in feature space
-				
-				//Find the next pattern in F
-				feature = patternIterator.next().getKey();
-				
-				//------------------------------------------------
-				//Check if the current pattern covers at least one instance in TDB
-				//Note: count all instances covered, not only one
-				//------------------------------------------------
-				boolean hasCoveredInstance = false;
-				for (InstanceVector instance : TDB) {
-					if (!removedInstances.contains(instance)) {
-						instanceFeatureCountMap = instance.getSequenceFeatureCountMap();
-						if (instanceFeatureCountMap.containsKey(feature)) { // increase the coverage count for the covered instance
-							hasCoveredInstance = true;
-							if (!instanceCoverageMap.containsKey(instance)) {
-								instanceCoverageMap.put(instance, 1);
-							}
-							else {
-								instanceCoverageMap.put(instance, instanceCoverageMap.get(instance) + 1);
-							}
-						}
-					}
-				}
-				if (hasCoveredInstance) FS.put(feature, F.get(feature));
-				patternIterator.remove();
-				
-				//-------------------------------------------------
-				//If an instance in TDB is covered coverageThreshold, remove it out of TDB
-				//-------------------------------------------------
-				for (InstanceVector coveredInstance : instanceCoverageMap.keySet()) {
-					if (instanceCoverageMap.get(coveredInstance) >= coverageThreshold) {
-						//TDB.remove(coveredInstance);
-						removedInstances.add(coveredInstance);
-					}
-				}
-				
-				if (F.isEmpty() || (removedInstances.size() == TDB.size())) { 
-					break;
-				}
-			}
+			TDB = featureInstanceVectorListMap.get(featureType); //list of instance vector in feature space
+			featureNameList = new ArrayList<String>(F.keySet());
+			featureInstanceBitSetMap = getFeatureInstanceBitSetMap(TDB, featureNameList, featureNameList);
 			
+			selectFeaturesByCoverage(F, featureInstanceBitSetMap, TDB.size(), coverageThreshold, FS);
 		}
 		
 		/*******************************************************
 		 * FOR ALPHABET FEATURES
 		 *******************************************************/
-		instanceFeatureCountMap = new HashMap<String, Integer>();
-		instanceCoverageMap.clear();
-		removedInstances.clear();
+		Map<String, Set<String>> alphabetFeatureNameMap = getAlphabetFeatureNameMap();
+		List<Set<String>> alphabetFeatureList = new ArrayList<Set<String>>();
 		for (Feature featureType : actualFeatureAlphabetFeatureSetMap.keySet()) {	
 			
-			// Sort patterns in F in decreasing order of Fisher score
-			F = sortByComparator(this.computeFisherScoreForAlphabetFeatures());
+			// Patterns in F in decreasing order of Fisher score
+			F = this.getFisherScoreMap(featureType);
 			
-			patternIterator = F.entrySet().iterator();			
-
-			while (true) {
-				TDB = featureInstanceVectorListMap.get(featureType); //list of instance vector in feature space
-				
-				//Find the next pattern in F
-				feature = patternIterator.next().getKey();
-				
-				//------------------------------------------------
-				//Check if the current pattern covers at least one instance in TDB
-				//Note: count all instances covered, not only one
-				//------------------------------------------------
-				boolean hasCoveredInstance = false;
-				for (InstanceVector instance : TDB) {
-					if (!removedInstances.contains(instance)) {
-						//Need to convert the set-based key to string-based key, so that
-						//the following code would be reused without any changes
-						instanceFeatureCountMap.clear();
-						for (Set<String> setFeature : instance.getAlphabetFeatureCountMap().keySet()) {
-							instanceFeatureCountMap.put(this.extractStringFromAlphabetFeature(setFeature), instance.getAlphabetFeatureCountMap().get(setFeature));
-						}
-						
-						if (instanceFeatureCountMap.containsKey(feature)) { // increase the coverage count for the covered instance
-							hasCoveredInstance = true;
-							if (!instanceCoverageMap.containsKey(instance)) {
-								instanceCoverageMap.put(instance, 1);
-							}
-							else {
-								instanceCoverageMap.put(instance, instanceCoverageMap.get(instance) + 1);
-							}
-						}
-					}
-				}
-				if (hasCoveredInstance) FS.put(feature, F.get(feature));
-				patternIterator.remove();
-				
-				//-------------------------------------------------
-				//If an instance in TDB is covered coverageThreshold, remove it out of TDB
-				//-------------------------------------------------
-				for (InstanceVector coveredInstance : instanceCoverageMap.keySet()) {
-					if (instanceCoverageMap.get(coveredInstance) >= coverageThreshold) {
-						//TDB.remove(coveredInstance);
-						removedInstances.add(coveredInstance);
-					}
-				}
-				
-				if (F.isEmpty() || (removedInstances.size() == TDB.size())) { 
-					break;
-				}
+			//The patterns are named by extractStringFromAlphabetFeature, so are the posting lists
+			TDB = featureInstanceVectorListMap.get(featureType); //list of instance vector in feature space
+			featureNameList = new ArrayList<String>(F.keySet());
+			alphabetFeatureList.clear();
+			for (String featureName : featureNameList) {
+				alphabetFeatureList.add(alphabetFeatureNameMap.get(featureName));
 			}
+			featureInstanceBitSetMap = getFeatureInstanceBitSetMap(TDB, alphabetFeatureList, featureNameList);
+			
+			selectFeaturesByCoverage(F, featureInstanceBitSetMap, TDB.size(), coverageThreshold, FS);
 		}		
 		
 		return sortByComparator(FS);
 	}
 	
-	/**
-	 * Sort map in decreasing order of values
-	 * @param unsort Map
-	 * @return sorted Map
-	 * @author Mkyong.com
+	/*
+	 * For every feature of featureList, the instances in TDB (their sparse vectors) that contain it, 
+	 * keyed by the name of the feature in featureNameList
 	 */
-	private static Map<String, Double> sortByComparator(Map<String, Double> unsortMap) {
-		 
-		// Convert Map to List
-		List<Map.Entry<String, Double>> list = new LinkedList<Map.Entry<String, Double>>(unsortMap.entrySet());
+	private static Map<String, BitSet> getFeatureInstanceBitSetMap(List<InstanceVector> TDB, List<?> featureList, List<String> featureNameList) {
+		Map<String, BitSet> featureInstanceBitSetMap = new HashMap<String, BitSet>();
+		if (TDB.isEmpty()) {
+			return featureInstanceBitSetMap;
+		}
+		
+		int[] featureListIndices = getFeatureListIndices(featureList, TDB.get(0).getFeatureDictionary());
+		int[] featureIds;
+		int featureIndex;
+		for (int i = 0; i < TDB.size(); i++) {
+			featureIds = TDB.get(i).getFeatureIds();
+			for (int j = 0; j < featureIds.length; j++) {
+				featureIndex = featureListIndices[featureIds[j]];
+				if (featureIndex >= 0) {
+					addInstanceToBitSet(featureInstanceBitSetMap, featureNameList.get(featureIndex), i);
+				}
+			}
+		}
+		return featureInstanceBitSetMap;
+	}
+	
+	private static void addInstanceToBitSet(Map<String, BitSet> featureInstanceBitSetMap, String feature, int instanceIndex) {
+		BitSet instanceBitSet = featureInstanceBitSetMap.get(feature);
+		if (instanceBitSet == null) {
+			instanceBitSet = new BitSet();
+			featureInstanceBitSetMap.put(feature, instanceBitSet);
+		}
+		instanceBitSet.set(instanceIndex);
+	}
+	
+	/**
+	 * The greedy coverage loop of featureSelection for one feature type:
+	 * take the patterns in F in turn and select those that cover at least one instance of TDB 
+	 * that is still live; an instance that has been covered coverageThreshold times is no longer live.
+	 * Stop when all instances have been covered coverageThreshold times
+	 * Input:
+	 * 		- F: patterns in decreasing order of fisher score
+	 * 		- featureInstanceBitSetMap: for every pattern, the instances (indexes in TDB) that contain it
+	 * 		- noInstances: the number of instances in TDB
+	 * @Return: the selected patterns are added to FS
+	 */
+	private static void selectFeaturesByCoverage(Map<String, Double> F, Map<String, BitSet> featureInstanceBitSetMap, 
+			int noInstances, int coverageThreshold, Map<String, Double> FS) {
+		BitSet liveInstances = new BitSet(noInstances); //instances still in TDB
+		liveInstances.set(0, noInstances);
+		int[] instanceCoverages = new int[noInstances]; //keep track of coverage count for every instance
+		int noRemovedInstances = 0;
+		BitSet coveredInstances;
+		
+		for (Map.Entry<String, Double> pattern : F.entrySet()) {
+			if (noRemovedInstances == noInstances) {
+				break;
+			}
+			
+			//------------------------------------------------
+			//Find the live instances covered by the current pattern
+			//Note: count all instances covered, not only one
+			//------------------------------------------------
+			if (!featureInstanceBitSetMap.containsKey(pattern.getKey())) {
+				continue;
+			}
+			coveredInstances = (BitSet)featureInstanceBitSetMap.get(pattern.getKey()).clone();
+			coveredInstances.and(liveInstances);
+			if (coveredInstances.isEmpty()) {
+				continue;
+			}
+			FS.put(pattern.getKey(), pattern.getValue());
+			
+			//-------------------------------------------------
+			//If an instance in TDB is covered coverageThreshold, remove it out of TDB
+			//-------------------------------------------------
+			for (int i = coveredInstances.nextSetBit(0); i >= 0; i = coveredInstances.nextSetBit(i + 1)) {
+				instanceCoverages[i]++;
+				if (instanceCoverages[i] >= coverageThreshold) {
+					liveInstances.clear(i);
+					noRemovedInstances++;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Sort map in decreasing order of values
+	 * @param unsort Map
+	 * @return sorted Map
+	 * @author Mkyong.com
+	 */
+	private static Map<String, Double> sortByComparator(Map<String, Double> unsortMap) {
+		 
+		// Convert Map to List
+		List<Map.Entry<String, Double>> list = new LinkedList<Map.Entry<String, Double>>(unsortMap.entrySet());
  
 		// Sort list with comparator, to compare the Map values
 		Collections.sort(list, new Comparator<Map.Entry<String, Double>>() {
@@ -2435,26 +2393,7 @@ public class DiscoverSignatures {
 	 */
 	
 	private Map<String,Integer> computeTotalSequenceFeatureSupportCount(List<InstanceVector> instanceVectorList) {
-		Map<String,Integer> totalFeatureCountMap = new HashMap<String,Integer>();
-		Map<String,Integer> instanceFeatureCountMap;
-		int count;
-		
-		for (InstanceVector instanceVector : instanceVectorList) {
-			instanceFeatureCountMap = instanceVector.getSequenceFeatureCountMap();
-			for (String feature : instanceFeatureCountMap.keySet()) {
-				if (!totalFeatureCountMap.containsKey(feature)) {
-					count = instanceFeatureCountMap.get(feature); 
-//					count = 1; //only count the trace
-				} 
-				else {
-					count = totalFeatureCountMap.get(feature) + instanceFeatureCountMap.get(feature);
-//					count = totalFeatureCountMap.get(feature) + 1;// only count the trace
-				}
-				totalFeatureCountMap.put(feature, count);
-			}
-		}
-		
-		return totalFeatureCountMap;
+		return computeTotalFeatureSupportCount(instanceVectorList);
 	}
 	
 	/*
@@ -2463,27 +2402,34 @@ public class DiscoverSignatures {
 	 * 26.05.2015: change from counting 1 for multiple occurrences in 1 trace to multiple times for a feature
 	 */
 	private Map<Set<String>, Integer> computeTotalAlphabetFeatureSupportCount (List<InstanceVector> instanceVectorList) {
-		Map<Set<String>, Integer> totalFeatureCountMap = new HashMap<Set<String>, Integer>();
-		Map<Set<String>, Integer> instanceFeatureCountMap;
-		int count;
+		return computeTotalFeatureSupportCount(instanceVectorList);
+	}
+	
+	/*
+	 * Sums the counts of the sparse vectors of the instances per feature; E is the type of the 
+	 * features of the feature dictionary of the instances (String or Set<String>)
+	 */
+	@SuppressWarnings("unchecked")
+	private static <E> Map<E, Integer> computeTotalFeatureSupportCount(List<InstanceVector> instanceVectorList) {
+		Map<E, Integer> totalFeatureCountMap = new HashMap<E, Integer>();
+		FeatureDictionary<E> featureDictionary;
+		int[] featureIds, featureCounts;
+		E feature;
+		Integer count;
 		
 		for (InstanceVector instanceVector : instanceVectorList) {
-			instanceFeatureCountMap = instanceVector.getAlphabetFeatureCountMap();
-			for (Set<String> feature : instanceFeatureCountMap.keySet()) {
-				if (!totalFeatureCountMap.containsKey(feature)) {
-					count = instanceFeatureCountMap.get(feature);
-//					count = 1;
-				} 
-				else {
-					count = totalFeatureCountMap.get(feature) + instanceFeatureCountMap.get(feature);
-//					count = totalFeatureCountMap.get(feature) + 1;
-				}
-				totalFeatureCountMap.put(feature, count);
+			featureDictionary = (FeatureDictionary<E>)instanceVector.getFeatureDictionary();
+			featureIds = instanceVector.getFeatureIds();
+			featureCounts = instanceVector.getFeatureCounts();
+			for (int i = 0; i < featureIds.length; i++) {
+				feature = featureDictionary.getFeature(featureIds[i]);
+				count = totalFeatureCountMap.get(feature);
+				totalFeatureCountMap.put(feature, count == null ? featureCounts[i] : count + featureCounts[i]);
 			}
 		}
 		
-		return totalFeatureCountMap;		
-	}	
+		return totalFeatureCountMap;
+	}
 	
 	/*
 	 * Precondition: actual feature sets have been set
@@ -2521,43 +2467,32 @@ public class DiscoverSignatures {
 			featureAttributeNameListMap.clear();
 		}
 		
+		sequenceFeatureSupportCounterMap.clear();
+		alphabetFeatureSupportCounterMap.clear();
+		
 		/*
 		 * FOR SEQUENCE FEATURES
 		 * For IE feature, it also run this code below, however it is overridden by the alphabet code following
 		 */
 		List<InstanceVector> instanceVectorList;
-		InstanceVector instanceVector;
 		List<String> attributeNameList;
 
 		Set<String> sequenceFeatureSet;
 		List<String> sequenceFeatureList = new ArrayList<String>();
+		SequenceFeatureMatcher sequenceFeatureMatcher;
+		FeatureSupportCounter<String> sequenceFeatureSupportCounter;
 		
 		for (Feature feature : filteredActualFeatureSequenceFeatureSetMap.keySet()) {
 			sequenceFeatureSet = filteredActualFeatureSequenceFeatureSetMap.get(feature);
 			
 			sequenceFeatureList.clear();
 			sequenceFeatureList.addAll(sequenceFeatureSet);
+			sequenceFeatureMatcher = new SequenceFeatureMatcher(activityDictionary, sequenceFeatureSet);
+			sequenceFeatureSupportCounter = new FeatureSupportCounter<String>(new FeatureDictionary<String>(sequenceFeatureList));
 			
-			instanceVectorList = new ArrayList<InstanceVector>();
-			
-			for (InstanceProfile instanceProfile : instanceProfileList) {
-				instanceVector = new InstanceVector();
-				instanceVector.setLabel(instanceProfile.getLabel());
-				instanceVector.setName(instanceProfile.getName()); //Bruce 27.05.2014
-				instanceVector.setEncodedTrace(instanceProfile.getEncodedTrace()); //Bruce 27.05.2014
-							
-				/*
-				 * Create instance vector based on encoded trace and the feature set
-				 */
-				instanceVector.setSequenceFeatureCountMap(featureExtraction
-						.computeNonOverlapSequenceFeatureCountMap(encodingLength,
-								instanceProfile.getEncodedTrace(), sequenceFeatureSet));
-				
-				instanceVector.standarizeNumericVector(sequenceFeatureList);
-				instanceVector.standarizeNominalVector(sequenceFeatureList);
-				instanceVectorList.add(instanceVector);
-			}
+			instanceVectorList = createSequenceInstanceVectorList(instanceProfileList, sequenceFeatureMatcher, sequenceFeatureSupportCounter.getFeatureDictionary(), sequenceFeatureSupportCounter);
 			featureInstanceVectorListMap.put(feature, instanceVectorList);
+			sequenceFeatureSupportCounterMap.put(feature, sequenceFeatureSupportCounter);
 			attributeNameList = new ArrayList<String>();
 			attributeNameList.addAll(sequenceFeatureList);
 			featureAttributeNameListMap.put(feature, attributeNameList);
@@ -2569,26 +2504,19 @@ public class DiscoverSignatures {
 		 */		
 		Map<Set<String>, Set<String>> alphabetFeatureSetMap;
 		List<Set<String>> alphabetFeatureList = new ArrayList<Set<String>>();
+		AlphabetFeatureMatcher alphabetFeatureMatcher;
+		FeatureSupportCounter<Set<String>> alphabetFeatureSupportCounter;
 		
 		for(Feature feature : filteredActualFeatureAlphabetFeatureSetMap.keySet()){
 			alphabetFeatureSetMap = filteredActualFeatureAlphabetFeatureSetMap.get(feature);
 			alphabetFeatureList.clear();
 			alphabetFeatureList.addAll(alphabetFeatureSetMap.keySet());
+			alphabetFeatureMatcher = new AlphabetFeatureMatcher(activityDictionary, alphabetFeatureSetMap);
+			alphabetFeatureSupportCounter = new FeatureSupportCounter<Set<String>>(new FeatureDictionary<Set<String>>(alphabetFeatureList));
 			
-			instanceVectorList = new ArrayList<InstanceVector>();
-			for(InstanceProfile instanceProfile : instanceProfileList){
-				instanceVector = new InstanceVector();
-				instanceVector.setLabel(instanceProfile.getLabel());
-				instanceVector.setName(instanceProfile.getName()); //Bruce 27.05.2014
-				instanceVector.setEncodedTrace(instanceProfile.getEncodedTrace()); //Bruce 27.05.2014
-
-				instanceVector.setAlphabetFeatureCountMap(featureExtraction.computeNonOverlapAlphabetFeatureCountMap(encodingLength, instanceProfile.getEncodedTrace(), alphabetFeatureSetMap));
-				instanceVector.standarizeNumericVector(alphabetFeatureList);
-				instanceVector.standarizeNominalVector(alphabetFeatureList);
-				instanceVectorList.add(instanceVector);
-				
-			}
+			instanceVectorList = createAlphabetInstanceVectorList(instanceProfileList, alphabetFeatureMatcher, alphabetFeatureSupportCounter.getFeatureDictionary(), alphabetFeatureSupportCounter);
 			featureInstanceVectorListMap.put(feature, instanceVectorList);
+			alphabetFeatureSupportCounterMap.put(feature, alphabetFeatureSupportCounter);
 			
 			attributeNameList = new ArrayList<String>();
 			for(Set<String> alphabet : alphabetFeatureList)
@@ -2609,6 +2537,8 @@ public class DiscoverSignatures {
 	 * Ensure that there are no reassignment to class variables by executing this method
 	 * Otherwise, it will cause inconsistent class variable values  
 	 * Particularly in these two  methods: computeNonOverlapSequenceFeatureCountMap and computeNonOverlapAlphabetFeatureCountMap
+	 * The features are counted with SequenceFeatureMatcher and AlphabetFeatureMatcher, which are 
+	 * only read, so the traces can be vectorized in parallel (see createSequenceInstanceVectorList)
 	 * @param instanceProfileList
 	 * @return
 	 * @author Bruce Nguyen
@@ -2620,34 +2550,19 @@ public class DiscoverSignatures {
 		 * For IE feature, it also run this code below, however it is overridden by the alphabet code following
 		 */
 		List<InstanceVector> instanceVectorList = new ArrayList<InstanceVector>();
-		InstanceVector instanceVector;
 
 		Set<String> sequenceFeatureSet;
 		List<String> sequenceFeatureList = new ArrayList<String>();
+		SequenceFeatureMatcher sequenceFeatureMatcher;
 		
 		for (Feature feature : filteredActualFeatureSequenceFeatureSetMap.keySet()) {
 			sequenceFeatureSet = filteredActualFeatureSequenceFeatureSetMap.get(feature);
 			
 			sequenceFeatureList.clear();
 			sequenceFeatureList.addAll(sequenceFeatureSet);
+			sequenceFeatureMatcher = new SequenceFeatureMatcher(activityDictionary, sequenceFeatureSet);
 			
-			for (InstanceProfile instanceProfile : instanceProfileList) {
-				instanceVector = new InstanceVector();
-				instanceVector.setLabel(instanceProfile.getLabel());
-				instanceVector.setName(instanceProfile.getName()); //Bruce 27.05.2014
-				instanceVector.setEncodedTrace(instanceProfile.getEncodedTrace()); //Bruce 27.05.2014
-							
-				/*
-				 * Create instance vector based on encoded trace and the feature set
-				 */
-				instanceVector.setSequenceFeatureCountMap(featureExtraction
-						.computeNonOverlapSequenceFeatureCountMap(encodingLength,
-								instanceProfile.getEncodedTrace(), sequenceFeatureSet));
-				
-				instanceVector.standarizeNumericVector(sequenceFeatureList);
-				instanceVector.standarizeNominalVector(sequenceFeatureList);
-				instanceVectorList.add(instanceVector);
-			}
+			instanceVectorList.addAll(createSequenceInstanceVectorList(instanceProfileList, sequenceFeatureMatcher, new FeatureDictionary<String>(sequenceFeatureList), null));
 //			featureInstanceVectorListMap.put(feature, instanceVectorList);
 //			attributeNameList = new ArrayList<String>();
 //			attributeNameList.addAll(sequenceFeatureList);
@@ -2660,24 +2575,15 @@ public class DiscoverSignatures {
 		 */		
 		Map<Set<String>, Set<String>> alphabetFeatureSetMap;
 		List<Set<String>> alphabetFeatureList = new ArrayList<Set<String>>();
+		AlphabetFeatureMatcher alphabetFeatureMatcher;
 		
 		for(Feature feature : filteredActualFeatureAlphabetFeatureSetMap.keySet()){
 			alphabetFeatureSetMap = filteredActualFeatureAlphabetFeatureSetMap.get(feature);
 			alphabetFeatureList.clear();
 			alphabetFeatureList.addAll(alphabetFeatureSetMap.keySet());
+			alphabetFeatureMatcher = new AlphabetFeatureMatcher(activityDictionary, alphabetFeatureSetMap);
 			
-			for(InstanceProfile instanceProfile : instanceProfileList){
-				instanceVector = new InstanceVector();
-				instanceVector.setLabel(instanceProfile.getLabel());
-				instanceVector.setName(instanceProfile.getName()); //Bruce 27.05.2014
-				instanceVector.setEncodedTrace(instanceProfile.getEncodedTrace()); //Bruce 27.05.2014
-
-				instanceVector.setAlphabetFeatureCountMap(featureExtraction.computeNonOverlapAlphabetFeatureCountMap(encodingLength, instanceProfile.getEncodedTrace(), alphabetFeatureSetMap));
-				instanceVector.standarizeNumericVector(alphabetFeatureList);
-				instanceVector.standarizeNominalVector(alphabetFeatureList);
-				instanceVectorList.add(instanceVector);
-				
-			}
+			instanceVectorList.addAll(createAlphabetInstanceVectorList(instanceProfileList, alphabetFeatureMatcher, new FeatureDictionary<Set<String>>(alphabetFeatureList), null));
 			
 //			featureInstanceVectorListMap.put(feature, instanceVectorList);
 //			
@@ -2695,11 +2601,212 @@ public class DiscoverSignatures {
 	}	
 	
 	/*
-	 * Generate Weka .arff file
-	 * Read arff file into a Weka DataSource and DataInstance object
+	 * Splits the instance profiles into consecutive blocks, a few per thread, so that
+	 * the blocks can be vectorized in parallel and their results concatenated in order
+	 */
+	private List<List<InstanceProfile>> getInstanceProfileBlockList(List<InstanceProfile> instanceProfileList){
+		List<List<InstanceProfile>> instanceProfileBlockList = new ArrayList<List<InstanceProfile>>();
+		int noInstances = instanceProfileList.size();
+		int noBlocks = 4*Math.max(1, input.noThreads);
+		int blockSize = Math.max(1, (noInstances+noBlocks-1)/noBlocks);
+		for(int start = 0; start < noInstances; start += blockSize)
+			instanceProfileBlockList.add(instanceProfileList.subList(start, Math.min(start+blockSize, noInstances)));
+		return instanceProfileBlockList;
+	}
+	
+	private InstanceVector newInstanceVector(InstanceProfile instanceProfile){
+		InstanceVector instanceVector = new InstanceVector();
+		instanceVector.setLabel(instanceProfile.getLabel());
+		instanceVector.setName(instanceProfile.getName()); //Bruce 27.05.2014
+		instanceVector.setInstanceProfile(instanceProfile);
+		return instanceVector;
+	}
+	
+	private List<InstanceVector> concatenate(List<List<InstanceVector>> instanceVectorBlockList){
+		List<InstanceVector> instanceVectorList = new ArrayList<InstanceVector>();
+		for(List<InstanceVector> instanceVectorBlock : instanceVectorBlockList)
+			instanceVectorList.addAll(instanceVectorBlock);
+		return instanceVectorList;
+	}
+	
+	/*
+	 * Return: the instance vectors of the traces for one sequence feature set, in the order of 
+	 * instanceProfileList; with input.noThreads > 1 blocks of traces are vectorized in parallel 
+	 * (the matcher and the feature dictionary are only read by the tasks)
+	 * The features are counted on the activity ids of the traces (the matcher is built with 
+	 * activityDictionary); the instance vectors are sparse vectors over featureDictionary
+	 * If supportCounter is not null, the support of the features is counted in it at the same time
+	 */
+	private List<InstanceVector> createSequenceInstanceVectorList(List<InstanceProfile> instanceProfileList, final SequenceFeatureMatcher sequenceFeatureMatcher, final FeatureDictionary<String> featureDictionary, final FeatureSupportCounter<String> supportCounter){
+		List<Callable<List<InstanceVector>>> taskList = new ArrayList<Callable<List<InstanceVector>>>();
+		for(final List<InstanceProfile> instanceProfileBlock : getInstanceProfileBlockList(instanceProfileList)){
+			taskList.add(new Callable<List<InstanceVector>>() {
+				public List<InstanceVector> call() {
+					List<InstanceVector> instanceVectorList = new ArrayList<InstanceVector>(instanceProfileBlock.size());
+					long[] supportCounts = supportCounter != null ? supportCounter.newSupportCounts() : null;
+					InstanceVector instanceVector;
+					for (InstanceProfile instanceProfile : instanceProfileBlock) {
+						instanceVector = newInstanceVector(instanceProfile);
+						
+						/*
+						 * Create instance vector based on the activity ids (read in place, e.g., 
+						 * from the TraceStore) and the feature set
+						 */
+						instanceVector.setSparseVector(featureDictionary, sequenceFeatureMatcher
+								.getFeatureCountMap(instanceProfile.getActivityIdArray(), instanceProfile.getActivityIdStart(), instanceProfile.getActivityIdEnd()));
+						
+						if(supportCounts != null)
+							supportCounter.addSupportCounts(instanceVector.getFeatureIds(), instanceVector.getFeatureCounts(), supportCounts);
+						
+						instanceVectorList.add(instanceVector);
+					}
+					if(supportCounts != null)
+						supportCounter.addSupportCounts(supportCounts);
+					return instanceVectorList;
+				}
+			});
+		}
+		return concatenate(ParallelTaskExecutor.invokeAll(taskList, input.noThreads));
+	}
+	
+	/*
+	 * Similar to createSequenceInstanceVectorList, but for one alphabet feature set
+	 */
+	private List<InstanceVector> createAlphabetInstanceVectorList(List<InstanceProfile> instanceProfileList, final AlphabetFeatureMatcher alphabetFeatureMatcher, final FeatureDictionary<Set<String>> featureDictionary, final FeatureSupportCounter<Set<String>> supportCounter){
+		List<Callable<List<InstanceVector>>> taskList = new ArrayList<Callable<List<InstanceVector>>>();
+		for(final List<InstanceProfile> instanceProfileBlock : getInstanceProfileBlockList(instanceProfileList)){
+			taskList.add(new Callable<List<InstanceVector>>() {
+				public List<InstanceVector> call() {
+					List<InstanceVector> instanceVectorList = new ArrayList<InstanceVector>(instanceProfileBlock.size());
+					long[] supportCounts = supportCounter != null ? supportCounter.newSupportCounts() : null;
+					InstanceVector instanceVector;
+					for(InstanceProfile instanceProfile : instanceProfileBlock){
+						instanceVector = newInstanceVector(instanceProfile);
+						instanceVector.setSparseVector(featureDictionary, alphabetFeatureMatcher.getAlphabetCountMap(instanceProfile.getActivityIdArray(), instanceProfile.getActivityIdStart(), instanceProfile.getActivityIdEnd()));
+						if(supportCounts != null)
+							supportCounter.addSupportCounts(instanceVector.getFeatureIds(), instanceVector.getFeatureCounts(), supportCounts);
+						instanceVectorList.add(instanceVector);
+					}
+					if(supportCounts != null)
+						supportCounter.addSupportCounts(supportCounts);
+					return instanceVectorList;
+				}
+			});
+		}
+		return concatenate(ParallelTaskExecutor.invokeAll(taskList, input.noThreads));
+	}
+	
+	/*
+	 * Create the Weka data sets of the feature types in memory, nominal (features {0,1}) 
+	 * and/or numeric (features REAL) depending on the input, with the class attribute last
 	 * Return: featureNominalWekaInstancesMap, featureNumericWekaInstancesMap
 	 */
 	private void prepareWekaData(){
+		if(input.isExportWekaData)
+			exportWekaData();
+		
+		featureNominalWekaInstancesMap = new HashMap<Feature, Instances>();
+		featureNumericWekaInstancesMap = new HashMap<Feature, Instances>();
+		
+		List<InstanceVector> instanceVectorList;
+		List<String> attributeNameList;
+		Set<String> classLabelSet = new HashSet<String>();
+		for(Feature feature : featureInstanceVectorListMap.keySet()){
+			instanceVectorList = featureInstanceVectorListMap.get(feature);
+			attributeNameList = featureAttributeNameListMap.get(feature);
+			classLabelSet.clear();
+			
+			for(InstanceVector instanceVector : instanceVectorList){
+				classLabelSet.add(instanceVector.getLabel());
+			}
+			
+			if(input.isNominalCount || input.featureType == FeatureType.Best){
+				featureNominalWekaInstancesMap.put(feature, createWekaInstances(attributeNameList, classLabelSet, instanceVectorList, true));
+			}
+			if(!input.isNominalCount || input.featureType == FeatureType.Best){
+				featureNumericWekaInstancesMap.put(feature, createWekaInstances(attributeNameList, classLabelSet, instanceVectorList, false));
+			}
+		}
+	}
+	
+	/*
+	 * Weka data set of one feature type, the same as the one read from the .arff file of 
+	 * exportWekaData: one attribute per feature of attributeNameList, {0,1} (isNominal) or 
+	 * REAL, and the class attribute with the values of classLabelSet, in its iteration order
+	 * The instances are sparse, only the features found in a trace are stored
+	 */
+	private Instances createWekaInstances(List<String> attributeNameList, Set<String> classLabelSet, List<InstanceVector> instanceVectorList, boolean isNominal){
+		int noFeatures = attributeNameList.size();
+		ArrayList<Attribute> attributes = new ArrayList<Attribute>(noFeatures + 1);
+		List<String> nominalValues = new ArrayList<String>(2);
+		nominalValues.add("0");
+		nominalValues.add("1");
+		for(String attributeName : attributeNameList){
+			if(isNominal)
+				attributes.add(new Attribute(attributeName.replaceAll(", ", "_").trim(), nominalValues));
+			else
+				attributes.add(new Attribute(attributeName.replaceAll(", ", "_").trim()));
+		}
+		
+		List<String> classValues = new ArrayList<String>(classLabelSet.size());
+		Map<String, Integer> classValueIndexMap = new HashMap<String, Integer>();
+		for(String classLabel : classLabelSet){
+			classValueIndexMap.put(classLabel, classValues.size());
+			classValues.add(classLabel);
+		}
+		attributes.add(new Attribute("class", classValues));
+		
+		Instances data = new Instances("SignatureDiscovery", attributes, instanceVectorList.size());
+		data.setClassIndex(noFeatures);
+		
+		int[] featureIds, featureCounts, indices;
+		double[] values;
+		int noValues;
+		for(InstanceVector instanceVector : instanceVectorList){
+			featureIds = instanceVector.getFeatureIds();
+			featureCounts = instanceVector.getFeatureCounts();
+			if(featureIds == null){
+				/*
+				 * Only the dense vector is set (see InstanceVector.standarizeNumericVector)
+				 */
+				int[] vector = isNominal ? instanceVector.getStandardizedNominalVector() : instanceVector.getStandardizedNumericVector();
+				featureIds = new int[vector.length];
+				featureCounts = new int[vector.length];
+				noValues = 0;
+				for(int i = 0; i < vector.length; i++){
+					if(vector[i] != 0){
+						featureIds[noValues] = i;
+						featureCounts[noValues++] = vector[i];
+					}
+				}
+				featureIds = Arrays.copyOf(featureIds, noValues);
+				featureCounts = Arrays.copyOf(featureCounts, noValues);
+			}
+			
+			indices = new int[featureIds.length + 1];
+			values = new double[featureIds.length + 1];
+			noValues = 0;
+			for(int i = 0; i < featureIds.length; i++){
+				if(featureCounts[i] != 0){
+					indices[noValues] = featureIds[i];
+					values[noValues++] = isNominal ? 1 : featureCounts[i];
+				}
+			}
+			if(classValueIndexMap.get(instanceVector.getLabel()) != 0){
+				indices[noValues] = noFeatures;
+				values[noValues++] = classValueIndexMap.get(instanceVector.getLabel());
+			}
+			data.add(new SparseInstance(1.0, Arrays.copyOf(values, noValues), Arrays.copyOf(indices, noValues), noFeatures + 1));
+		}
+		return data;
+	}
+	
+	/*
+	 * Export of the Weka data (input.isExportWekaData): write <feature>_Nominal.arff and 
+	 * <feature>_Numeric.arff to the temporary directory, together with the activity mapping 
+	 * and the instance profiles
+	 */
+	private void exportWekaData(){
 		// This is the property name for accessing OS temporary directory or
 		String tempDirProperty = "java.io.tmpdir"; //On Windows: %USERPROFILE%\AppData\Local\Temp
 		String fileSeparator = System.getProperty("file.separator");
@@ -2783,69 +2890,99 @@ public class DiscoverSignatures {
 		}catch(IOException e){
 			e.printStackTrace();
 		}
-		
-		//	Now read the data from the generated .arff files
-		
-		featureNominalWekaInstancesMap = new HashMap<Feature, Instances>();
-		featureNumericWekaInstancesMap = new HashMap<Feature, Instances>();
-		
-		DataSource dataSource;
-		Instances data;
-		try {
-			for(Feature feature : featureInstanceVectorListMap.keySet()){
-				if(input.isNominalCount || input.featureType == FeatureType.Best){
-					dataSource = new DataSource(outputDir+"\\Weka\\"+feature+"_Nominal.arff");
-				
-					data = dataSource.getDataSet();
-					if(data.classIndex() == -1)
-						data.setClassIndex(data.numAttributes()-1);
-					featureNominalWekaInstancesMap.put(feature, data);
-				}
-				if(!input.isNominalCount || input.featureType == FeatureType.Best){
-					dataSource = new DataSource(outputDir+"\\Weka\\"+feature+"_Numeric.arff");
-					data = dataSource.getDataSet();
-					if(data.classIndex() == -1)
-						data.setClassIndex(data.numAttributes()-1);
-					featureNumericWekaInstancesMap.put(feature, data);
-				}
-			}
-		} catch (Exception e) {
-			e.printStackTrace();
-		}
 	}
 
 	private void findSignatures(){
 //		System.out.println(input.learningAlgorithmType);
-		attributesInRuleSet = new HashSet<String>();
 		String optionsString;
-		Map<String, Map<Feature, RuleListMetrics>> optionsStringFeatureRuleListMetricsMap = new HashMap<String, Map<Feature,RuleListMetrics>>();
+		Map<String, Map<Feature, RuleListMetrics>> optionsStringFeatureRuleListMetricsMap = new LinkedHashMap<String, Map<Feature,RuleListMetrics>>();
 		Map<Feature, RuleListMetrics> featureRuleListMetricsMap;
 		
 		try{
 			if(input.learningAlgorithmType == LearningAlgorithmType.Best){
+				/*
+				 * The configurations below are independent and run concurrently (see 
+				 * sweepConfigurations); they share the data sets, so remove the rows with 
+				 * only zeros once here, which ID3 and J48 otherwise do in place on their 
+				 * first iteration (see getNonZeroInstances)
+				 */
+				for(Instances data : featureNominalWekaInstancesMap.values())
+					getNonZeroInstances(data);
+				for(Instances data : featureNumericWekaInstancesMap.values())
+					getNonZeroInstances(data);
+				
+				List<String> optionsStringList = new ArrayList<String>();
+				List<Callable<Map<Feature, RuleListMetrics>>> taskList = new ArrayList<Callable<Map<Feature, RuleListMetrics>>>();
+				
+				/*
+				 * The threads left to the feature types and the folds of a configuration 
+				 * (findID3Signatures, findJ48Signatures), set once all configurations are known
+				 */
+				final int[] noConfigurationThreads = new int[1];
+				
 				//Try Decision Tree; ID3 doesn't depend on any parameters 
-				featureRuleListMetricsMap = findID3Signatures();
-				optionsStringFeatureRuleListMetricsMap.put("Nominal", featureRuleListMetricsMap);
+				optionsStringList.add("Nominal");
+				taskList.add(new Callable<Map<Feature, RuleListMetrics>>() {
+					public Map<Feature, RuleListMetrics> call() {
+						return findID3Signatures(noConfigurationThreads[0]);
+					}
+				});
 			
 				//Parameter tuning is required only for J48 and not for ID3;			
 				for(double c = 0.2; c < 0.5 ; c += 0.1){
-					optionsString ="-C "+c+" -M 1";
+					final String j48OptionsString ="-C "+c+" -M 1";
 					if(featureNominalWekaInstancesMap.size() > 0){
-						featureRuleListMetricsMap = findJ48Signatures(optionsString, featureNominalWekaInstancesMap);
-						optionsStringFeatureRuleListMetricsMap.put(optionsString+" Nominal", featureRuleListMetricsMap);
+						optionsStringList.add(j48OptionsString+" Nominal");
+						taskList.add(new Callable<Map<Feature, RuleListMetrics>>() {
+							public Map<Feature, RuleListMetrics> call() {
+								return findJ48Signatures(j48OptionsString, featureNominalWekaInstancesMap, noConfigurationThreads[0]);
+							}
+						});
 					}
 					if(featureNumericWekaInstancesMap.size() > 0){
-						featureRuleListMetricsMap = findJ48Signatures(optionsString, featureNumericWekaInstancesMap);
-						optionsStringFeatureRuleListMetricsMap.put(optionsString+" Numeric", featureRuleListMetricsMap);
+						optionsStringList.add(j48OptionsString+" Numeric");
+						taskList.add(new Callable<Map<Feature, RuleListMetrics>>() {
+							public Map<Feature, RuleListMetrics> call() {
+								return findJ48Signatures(j48OptionsString, featureNumericWekaInstancesMap, noConfigurationThreads[0]);
+							}
+						});
 					}
 					
 				}
 				
 				//Parameter tuning is required for association rules; we restrict it to minSupport >= 0.2 and minConfidence >= 0.9 
-				for(float minSupport = 0.2f; minSupport < 1.0; minSupport += 0.1){
-					optionsString = "AssociationRules -minSupport "+minSupport+" -minConfidence "+0.9;
-					featureRuleListMetricsMap = findAssociationRules(minSupport, 0.9f);
-					optionsStringFeatureRuleListMetricsMap.put(optionsString+" Nominal", featureRuleListMetricsMap);
+				List<Float> associationRuleMinSupportList = new ArrayList<Float>();
+				for(float minSupport = 0.2f; minSupport < 1.0; minSupport += 0.1)
+					associationRuleMinSupportList.add(minSupport);
+				float[] associationRuleMinSupports = new float[associationRuleMinSupportList.size()];
+				for(int i = 0; i < associationRuleMinSupports.length; i++)
+					associationRuleMinSupports[i] = associationRuleMinSupportList.get(i);
+				
+				/*
+				 * FPGrowth mines all the min support values from one FP-tree per class, 
+				 * after the sweep; Eclat mines them as separate configurations
+				 */
+				boolean isSingleAssociationRuleRun = input.associationRuleEngineType == AssociationRuleEngineType.FPGrowth;
+				if(!isSingleAssociationRuleRun){
+					for(final float associationRuleMinSupport : associationRuleMinSupports){
+						optionsStringList.add("AssociationRules -minSupport "+associationRuleMinSupport+" -minConfidence "+0.9+" Nominal");
+						taskList.add(new Callable<Map<Feature, RuleListMetrics>>() {
+							public Map<Feature, RuleListMetrics> call() {
+								return findAssociationRules(associationRuleMinSupport, 0.9f);
+							}
+						});
+					}
+				}
+				
+				noConfigurationThreads[0] = Math.max(1, input.noThreads / taskList.size());
+				optionsStringFeatureRuleListMetricsMap.putAll(sweepConfigurations(optionsStringList, taskList));
+				
+				if(isSingleAssociationRuleRun){
+					long startTime = System.nanoTime();
+					List<Map<Feature, RuleListMetrics>> featureRuleListMetricsMapList = findAssociationRules(associationRuleMinSupports, 0.9f);
+					for(int i = 0; i < associationRuleMinSupports.length; i++)
+						optionsStringFeatureRuleListMetricsMap.put("AssociationRules -minSupport "+associationRuleMinSupports[i]+" -minConfidence "+0.9+" Nominal", featureRuleListMetricsMapList.get(i));
+					Logger.println(String.format("%-60s %10.1f ms", "AssociationRules FPGrowth ("+associationRuleMinSupports.length+" min support values)", (System.nanoTime() - startTime) / 1e6));
 				}
 			}else{
 				//One of decision tree or association rule learning algorithms would have been selected
@@ -2856,15 +2993,15 @@ public class DiscoverSignatures {
 					Logger.println("Options String: "+optionsString);
 				}else if(input.learningAlgorithmType == LearningAlgorithmType.J48){
 						if(featureNominalWekaInstancesMap.size() > 0){
-							featureRuleListMetricsMap = findJ48Signatures(optionsString, featureNominalWekaInstancesMap);
+							featureRuleListMetricsMap = findJ48Signatures(optionsString, featureNominalWekaInstancesMap, input.noThreads);
 							optionsStringFeatureRuleListMetricsMap.put(optionsString+" Nominal", featureRuleListMetricsMap);
 						}
 						if(featureNumericWekaInstancesMap.size() > 0){
-							featureRuleListMetricsMap = findJ48Signatures(optionsString, featureNumericWekaInstancesMap);
+							featureRuleListMetricsMap = findJ48Signatures(optionsString, featureNumericWekaInstancesMap, input.noThreads);
 							optionsStringFeatureRuleListMetricsMap.put(optionsString+" Numeric", featureRuleListMetricsMap);
 						}
 				}else if(input.learningAlgorithmType == LearningAlgorithmType.Id3){
-					featureRuleListMetricsMap = findID3Signatures();
+					featureRuleListMetricsMap = findID3Signatures(input.noThreads);
 					optionsStringFeatureRuleListMetricsMap.put("Nominal", featureRuleListMetricsMap);
 				}
 			}
@@ -2875,18 +3012,78 @@ public class DiscoverSignatures {
 		chooseBestRuleList(optionsStringFeatureRuleListMetricsMap);
 	}
 	
+	/*
+	 * Runs the candidate configurations of the learning algorithms, one task per options 
+	 * string, on at most input.noThreads threads and reports the time each one took
+	 * Return: map from the options string to the rule lists (and their metrics) found for 
+	 * the feature types, in the order of optionsStringList whatever the thread scheduling
+	 */
+	private Map<String, Map<Feature, RuleListMetrics>> sweepConfigurations(List<String> optionsStringList, List<Callable<Map<Feature, RuleListMetrics>>> taskList){
+		final long[] configurationTimes = new long[taskList.size()];
+		List<Callable<Map<Feature, RuleListMetrics>>> timedTaskList = new ArrayList<Callable<Map<Feature, RuleListMetrics>>>();
+		for(int i = 0; i < taskList.size(); i++){
+			final int configurationIndex = i;
+			final Callable<Map<Feature, RuleListMetrics>> task = taskList.get(i);
+			timedTaskList.add(new Callable<Map<Feature, RuleListMetrics>>() {
+				public Map<Feature, RuleListMetrics> call() throws Exception {
+					long startTime = System.nanoTime();
+					try{
+						return task.call();
+					}finally{
+						configurationTimes[configurationIndex] = System.nanoTime() - startTime;
+					}
+				}
+			});
+		}
+		
+		long startTime = System.nanoTime();
+		List<Map<Feature, RuleListMetrics>> resultList = ParallelTaskExecutor.invokeAll(timedTaskList, input.noThreads);
+		long sweepTime = System.nanoTime() - startTime;
+		
+		Map<String, Map<Feature, RuleListMetrics>> optionsStringFeatureRuleListMetricsMap = new LinkedHashMap<String, Map<Feature,RuleListMetrics>>();
+		for(int i = 0; i < optionsStringList.size(); i++){
+			optionsStringFeatureRuleListMetricsMap.put(optionsStringList.get(i), resultList.get(i));
+			Logger.println(String.format("%-60s %10.1f ms", optionsStringList.get(i), configurationTimes[i] / 1e6));
+		}
+		Logger.println(String.format("%-60s %10.1f ms", "Sweep ("+taskList.size()+" configurations, "+input.noThreads+" threads)", sweepTime / 1e6));
+		return optionsStringFeatureRuleListMetricsMap;
+	}
+	
+	/*
+	 * noThreads: the number of threads for the feature types, which are processed 
+	 * concurrently, and the cross validation folds
+	 */
+	private Map<Feature, RuleListMetrics> findID3Signatures(int noThreads){
+		List<Feature> featureList = new ArrayList<Feature>(featureNominalWekaInstancesMap.keySet());
+		int noFeatureThreads = Math.max(1, Math.min(noThreads, featureList.size()));
+		final int noFoldThreads = Math.max(1, noThreads / noFeatureThreads);
+		
+		List<Callable<RuleListMetrics>> taskList = new ArrayList<Callable<RuleListMetrics>>();
+		for(Feature feature : featureList){
+			final Instances data = featureNominalWekaInstancesMap.get(feature);
+			taskList.add(new Callable<RuleListMetrics>() {
+				public RuleListMetrics call() {
+					return findID3RuleListMetrics(data, noFoldThreads);
+				}
+			});
+		}
+		return toFeatureRuleListMetricsMap(featureList, ParallelTaskExecutor.invokeAll(taskList, noFeatureThreads));
+	}
+	
+	/*
+	 * Rules and their metrics for the data set of one feature type; null if they cannot be computed
+	 */
 	@SuppressWarnings("unchecked")
-	private Map<Feature, RuleListMetrics> findID3Signatures(){
-		Instances filteredData, trainData, testData = null, data;
-		List<String> currentIterationRuleList = new ArrayList<String>();
-		List<String> ruleList = new ArrayList<String>();
+	private RuleListMetrics findID3RuleListMetrics(Instances data, int noFoldThreads){
+		Instances filteredData, trainData, testData = null;
+		List<Rule> currentIterationRuleList = new ArrayList<Rule>();
+		List<Rule> ruleList = new ArrayList<Rule>();
 		
 		Metrics metrics;
 		boolean isCurrentIterationRulesOk;
 		
 		float[] weightedAvgMetrics;
 		
-		Map<Feature, RuleListMetrics> featureRuleListMetricsMap = new HashMap<Feature, RuleListMetrics>();
 		Map<String, Metrics> classMetricsMap;
 
 		Enumeration<String> classValueEnumeration;
@@ -2896,175 +3093,213 @@ public class DiscoverSignatures {
 		int tp, fp, tn, fn;
 		
 		int noCVFolds = 10;
+		Set<String> attributesInRuleSet = new HashSet<String>();
+		
 		try{
-			for(Feature feature : featureNominalWekaInstancesMap.keySet()){
-				Classifier id3 = new Id3();
-				
-				data = featureNominalWekaInstancesMap.get(feature);
-				
-				classMetricsMap = new HashMap<String, Metrics>();
-				classAttribute = data.classAttribute();
-				classValueEnumeration = classAttribute.enumerateValues();
-				while(classValueEnumeration.hasMoreElements()){
-					classMetricsMap.put(classValueEnumeration.nextElement().toString(), new Metrics(0,0,0,0,0));
-				}
+			Classifier id3 = new RuleId3();
+		
+			classMetricsMap = new HashMap<String, Metrics>();
+			classAttribute = data.classAttribute();
+			classValueEnumeration = classAttribute.enumerateValues();
+			while(classValueEnumeration.hasMoreElements()){
+				classMetricsMap.put(classValueEnumeration.nextElement().toString(), new Metrics(0,0,0,0,0));
+			}
+		
+			Logger.println("Class Values: "+classMetricsMap.keySet());
+		
+			trainData = data;
+			filteredData = trainData;
+			NonZeroRowFilter nonZeroRowFilter = new NonZeroRowFilter(filteredData);
+		
+			ruleList.clear();
+		
+			while(ruleList.size() < input.noRulesToGenerate && filteredData.numAttributes() > 0){
+				isCurrentIterationRulesOk = false;
+				attributesInRuleSet.clear();
+
+				Logger.println("No. Instances Before Zero Row: "+filteredData.numInstances());
+				Logger.println("No Attributes: "+filteredData.numAttributes());
+
+				/*
+				 * Check if there are instances with all attribute values
+				 * as 0; If so, remove those instances
+				 */
+			
+				filteredData = nonZeroRowFilter.removeZeroRows();
+			
+				Logger.println("No. Instances After Zero Row: "+filteredData.numInstances());
+			
+				id3.buildClassifier(filteredData);
+		
+				currentIterationRuleList.clear();
+			
+				currentIterationRuleList.addAll(convertDecisionTreeToRules(id3, filteredData, attributesInRuleSet));
+			
+				/*
+				 * There are no rules generated in this current iteration; So, exit out of the loop
+				 */
+				if(attributesInRuleSet.size() == 0)
+					break;
+			
+				/*
+				 * Perform Evaluation based on the chosen settings; If
+				 * choose automatically, then evaluation would be based on
+				 * Cross Validation (default settings)
+				 */
+			
+				weka.classifiers.Evaluation eval = new weka.classifiers.Evaluation(filteredData);
+				if(input.evaluationOptions.evaluationOptionType == EvaluationOptionType.TrainingSet){
+					eval.evaluateModel(id3, filteredData);
+
+					weightedAvgMetrics = getWeightedAverageMetrics(eval);
 				
-				Logger.println("Class Values: "+classMetricsMap.keySet());
+					if(weightedAvgMetrics[4] > threshold){
+						isCurrentIterationRulesOk = true;
+						for(String classValue : classMetricsMap.keySet()){
+							metrics = classMetricsMap.get(classValue);
+							classIndex = classAttribute.indexOfValue(classValue);
+							tp = (int)eval.numTruePositives(classIndex);
+							tn = (int)eval.numTrueNegatives(classIndex);
+							fp = (int)eval.numFalsePositives(classIndex);
+							fn = (int)eval.numFalseNegatives(classIndex);
+						
+							Logger.println("EM: "+tp+","+fp+","+tn+","+fn+","+filteredData.numInstances());
+						
+							metrics.add(tp, fp, tn, fn, filteredData.numInstances());
+							classMetricsMap.put(classValue, metrics);
+						}
+					}
+				}else if(input.evaluationOptions.evaluationOptionType == EvaluationOptionType.PercentageSplit){
+					double percent = new Double(input.evaluationOptions.noFoldsPercentageSplitValueStr.trim());
+					Instances[] splitData = getPercentageSplit(filteredData, percent);
+					trainData = splitData[0];
+					testData = splitData[1];
 				
-				trainData = data;
-				filteredData = trainData;
+					Classifier id3Temp = new RuleId3();
 				
-				ruleList.clear();
+					id3Temp.buildClassifier(trainData);
+					//use test set
+					eval.evaluateModel(id3Temp, testData);
 				
-				while(ruleList.size() < input.noRulesToGenerate && filteredData.numAttributes() > 0){
-					isCurrentIterationRulesOk = false;
-					attributesInRuleSet.clear();
-
-					Logger.println("No. Instances Before Zero Row: "+filteredData.numInstances());
-					Logger.println("No Attributes: "+filteredData.numAttributes());
-
-					/*
-					 * Check if there are instances with all attribute values
-					 * as 0; If so, remove those instances
-					 */
-					
-					filteredData = getNonZeroInstances(filteredData);
-					
-					Logger.println("No. Instances After Zero Row: "+filteredData.numInstances());
-					
-					id3.buildClassifier(filteredData);
+					weightedAvgMetrics = getWeightedAverageMetrics(eval);
 				
-					currentIterationRuleList.clear();
-					
-					currentIterationRuleList.addAll(convertDecisionTreeToRules(id3.toString()));
-					
-					/*
-					 * There are no rules generated in this current iteration; So, exit out of the loop
-					 */
-					if(attributesInRuleSet.size() == 0)
-						break;
-					
-					/*
-					 * Perform Evaluation based on the chosen settings; If
-					 * choose automatically, then evaluation would be based on
-					 * Cross Validation (default settings)
-					 */
-					
-					weka.classifiers.Evaluation eval = new weka.classifiers.Evaluation(filteredData);
-					if(input.evaluationOptions.evaluationOptionType == EvaluationOptionType.TrainingSet){
-						eval.evaluateModel(id3, filteredData);
+					if(weightedAvgMetrics[4] > threshold){
+						isCurrentIterationRulesOk = true;
 
-						weightedAvgMetrics = getWeightedAverageMetrics(eval.toClassDetailsString());
-						
-						if(weightedAvgMetrics[4] > threshold){
-							isCurrentIterationRulesOk = true;
-							for(String classValue : classMetricsMap.keySet()){
-								metrics = classMetricsMap.get(classValue);
-								classIndex = classAttribute.indexOfValue(classValue);
-								tp = (int)eval.numTruePositives(classIndex);
-								tn = (int)eval.numTrueNegatives(classIndex);
-								fp = (int)eval.numFalsePositives(classIndex);
-								fn = (int)eval.numFalseNegatives(classIndex);
-								
-								Logger.println("EM: "+tp+","+fp+","+tn+","+fn+","+filteredData.numInstances());
-								
-								metrics.add(tp, fp, tn, fn, filteredData.numInstances());
-								classMetricsMap.put(classValue, metrics);
-							}
-						}
-					}else if(input.evaluationOptions.evaluationOptionType == EvaluationOptionType.PercentageSplit){
-						data.randomize(new Random(1));
-						double percent = new Double(input.evaluationOptions.noFoldsPercentageSplitValueStr.trim());
-						int trainSize = (int) Math.round(data.numInstances() * percent/100);
-						int testSize = data.numInstances()-trainSize;
-						trainData = new Instances(data, 0, trainSize);
-						testData = new Instances(data, trainSize, testSize);
+						for(String classValue : classMetricsMap.keySet()){
+							metrics = classMetricsMap.get(classValue);
+							classIndex = classAttribute.indexOfValue(classValue);
 						
-						Classifier id3Temp = new Id3();
+							tp = (int)eval.numTruePositives(classIndex);
+							tn = (int)eval.numTrueNegatives(classIndex);
+							fp = (int)eval.numFalsePositives(classIndex);
+							fn = (int)eval.numFalseNegatives(classIndex);
 						
-						id3Temp.buildClassifier(trainData);
-						//use test set
-						eval.evaluateModel(id3Temp, testData);
+							Logger.println("EM: "+tp+","+fp+","+tn+","+fn+","+testData.numInstances());
 						
-						weightedAvgMetrics = getWeightedAverageMetrics(eval.toClassDetailsString());
-						
-						if(weightedAvgMetrics[4] > threshold){
-							isCurrentIterationRulesOk = true;
-
-							for(String classValue : classMetricsMap.keySet()){
-								metrics = classMetricsMap.get(classValue);
-								classIndex = classAttribute.indexOfValue(classValue);
-								
-								tp = (int)eval.numTruePositives(classIndex);
-								tn = (int)eval.numTrueNegatives(classIndex);
-								fp = (int)eval.numFalsePositives(classIndex);
-								fn = (int)eval.numFalseNegatives(classIndex);
-								
-								Logger.println("EM: "+tp+","+fp+","+tn+","+fn+","+testData.numInstances());
-								
-								metrics.add(tp, fp, tn, fn, testData.numInstances());
-								classMetricsMap.put(classValue, metrics);
-							}
+							metrics.add(tp, fp, tn, fn, testData.numInstances());
+							classMetricsMap.put(classValue, metrics);
 						}
-					}else{
-						// by default do cross validation
-						
-						noCVFolds = new Integer(input.evaluationOptions.noFoldsPercentageSplitValueStr.trim()).intValue();
-						if(noCVFolds > filteredData.numInstances())
-							noCVFolds = filteredData.numInstances()-1;
-						eval.crossValidateModel(id3, filteredData, noCVFolds, new Random(1));
-						
-						Logger.println("% Correct: "+eval.pctCorrect());
+					}
+				}else{
+					// by default do cross validation
+				
+					noCVFolds = new Integer(input.evaluationOptions.noFoldsPercentageSplitValueStr.trim()).intValue();
+					if(noCVFolds > filteredData.numInstances())
+						noCVFolds = filteredData.numInstances()-1;
+					ParallelCrossValidation.crossValidateModel(eval, new ParallelCrossValidation.ClassifierFactory() {
+						public Classifier newClassifier() {
+							return new RuleId3();
+						}
+					}, filteredData, noCVFolds, new Random(1), noFoldThreads);
+				
+					Logger.println("% Correct: "+eval.pctCorrect());
+				
+					weightedAvgMetrics = getWeightedAverageMetrics(eval);
+				
+					if(weightedAvgMetrics[4] > threshold){
+						isCurrentIterationRulesOk = true;
+
+						for(String classValue : classMetricsMap.keySet()){
+							metrics = classMetricsMap.get(classValue);
+							classIndex = classAttribute.indexOfValue(classValue);
+							tp = (int)eval.numTruePositives(classIndex);
+							tn = (int)eval.numTrueNegatives(classIndex);
+							fp = (int)eval.numFalsePositives(classIndex);
+							fn = (int)eval.numFalseNegatives(classIndex);
 						
-						weightedAvgMetrics = getWeightedAverageMetrics(eval.toClassDetailsString());
+							Logger.println("EM: "+tp+","+fp+","+tn+","+fn+","+filteredData.numInstances());
 						
-						if(weightedAvgMetrics[4] > threshold){
-							isCurrentIterationRulesOk = true;
-
-							for(String classValue : classMetricsMap.keySet()){
-								metrics = classMetricsMap.get(classValue);
-								classIndex = classAttribute.indexOfValue(classValue);
-								tp = (int)eval.numTruePositives(classIndex);
-								tn = (int)eval.numTrueNegatives(classIndex);
-								fp = (int)eval.numFalsePositives(classIndex);
-								fn = (int)eval.numFalseNegatives(classIndex);
-								
-								Logger.println("EM: "+tp+","+fp+","+tn+","+fn+","+filteredData.numInstances());
-								
-								metrics.add(tp, fp, tn, fn, filteredData.numInstances());
-								classMetricsMap.put(classValue, metrics);
-							}
+							metrics.add(tp, fp, tn, fn, filteredData.numInstances());
+							classMetricsMap.put(classValue, metrics);
 						}
 					}
-					
-					if(isCurrentIterationRulesOk)
-						ruleList.addAll(currentIterationRuleList);
-					
-					Logger.println("Attributes in Rule Set: "+attributesInRuleSet);
-					
-					filteredData = filterInstancesOnAttributes(attributesInRuleSet, filteredData);
-					
-					Logger.println("No. Attributes After Filter: "+filteredData.numAttributes());
 				}
-				featureRuleListMetricsMap.put(feature, new RuleListMetrics("", ruleList, classMetricsMap));
+			
+				if(isCurrentIterationRulesOk)
+					ruleList.addAll(currentIterationRuleList);
+			
+				Logger.println("Attributes in Rule Set: "+attributesInRuleSet);
+			
+				filteredData = filterInstancesOnAttributes(attributesInRuleSet, filteredData, nonZeroRowFilter);
+			
+				Logger.println("No. Attributes After Filter: "+filteredData.numAttributes());
 			}
+			return new RuleListMetrics("", ruleList, classMetricsMap);
 		}catch(Exception e){
 			e.printStackTrace();
 		}
 		
+		return null;
+	}
+	
+	/*
+	 * Return: map from the feature types to their rule lists, leaving out the ones that are null
+	 */
+	private Map<Feature, RuleListMetrics> toFeatureRuleListMetricsMap(List<Feature> featureList, List<RuleListMetrics> ruleListMetricsList){
+		Map<Feature, RuleListMetrics> featureRuleListMetricsMap = new HashMap<Feature, RuleListMetrics>();
+		for(int i = 0; i < featureList.size(); i++){
+			if(ruleListMetricsList.get(i) != null)
+				featureRuleListMetricsMap.put(featureList.get(i), ruleListMetricsList.get(i));
+		}
 		return featureRuleListMetricsMap;
 	}
 	
 	/*
 	 * Metrics are computed using Weka
+	 * noThreads: see findID3Signatures
 	 */
-	@SuppressWarnings("unchecked")
-	private Map<Feature, RuleListMetrics> findJ48Signatures(String optionsString, Map<Feature, Instances> featureWekaInstancesMap){
+	private Map<Feature, RuleListMetrics> findJ48Signatures(final String optionsString, Map<Feature, Instances> featureWekaInstancesMap, int noThreads){
 		Logger.printCall("Calling findJ48Signatures");
+		List<Feature> featureList = new ArrayList<Feature>(featureWekaInstancesMap.keySet());
+		int noFeatureThreads = Math.max(1, Math.min(noThreads, featureList.size()));
+		final int noFoldThreads = Math.max(1, noThreads / noFeatureThreads);
+		
+		List<Callable<RuleListMetrics>> taskList = new ArrayList<Callable<RuleListMetrics>>();
+		for(Feature feature : featureList){
+			final Instances data = featureWekaInstancesMap.get(feature);
+			taskList.add(new Callable<RuleListMetrics>() {
+				public RuleListMetrics call() {
+					return findJ48RuleListMetrics(optionsString, data, noFoldThreads);
+				}
+			});
+		}
+		Map<Feature, RuleListMetrics> featureRuleListMetricsMap = toFeatureRuleListMetricsMap(featureList, ParallelTaskExecutor.invokeAll(taskList, noFeatureThreads));
+//		buildResultsPanel(ruleList);
+		
+		Logger.printReturn("Calling findJ48Signatures");
+		return featureRuleListMetricsMap;
+	}
+	
+	/*
+	 * Rules and their metrics for the data set of one feature type; null if they cannot be computed
+	 */
+	@SuppressWarnings("unchecked")
+	private RuleListMetrics findJ48RuleListMetrics(final String optionsString, Instances data, int noFoldThreads){
 		Attribute classAttribute;
-		Instances filteredData, trainData, testData = null, data;
-		List<String> ruleList = new ArrayList<String>();
-		List<String> currentIterationRuleList = new ArrayList<String>();
+		Instances filteredData, trainData, testData = null;
+		List<Rule> ruleList = new ArrayList<Rule>();
+		List<Rule> currentIterationRuleList = new ArrayList<Rule>();
 		int noCVFolds = 10;
 		int tp, tn, fp, fn;
 		Enumeration<String> classValueEnumeration;
@@ -3073,174 +3308,174 @@ public class DiscoverSignatures {
 		boolean isCurrentIterationRulesOk;
 		float[] weightedAvgMetrics;
 		
-		Map<Feature, RuleListMetrics> featureRuleListMetricsMap = new HashMap<Feature, RuleListMetrics>();
 		Map<String, Metrics> classMetricsMap;
 		
+		Set<String> attributesInRuleSet = new HashSet<String>();
+		
 		try{
-			for(Feature feature : featureWekaInstancesMap.keySet()){
-				Classifier j48 = new J48();
-				((J48)j48).setOptions(weka.core.Utils.splitOptions(optionsString));
-				
-				data = featureWekaInstancesMap.get(feature);
-				
-				classMetricsMap = new HashMap<String, Metrics>();
-				classAttribute = data.classAttribute();
-				classValueEnumeration = classAttribute.enumerateValues();
-				while(classValueEnumeration.hasMoreElements()){
-					classMetricsMap.put(classValueEnumeration.nextElement().toString(), new Metrics(0,0,0,0,0));
-				}
-				
-				Logger.println("Class Values: "+classMetricsMap.keySet());
-				
-				trainData = data;
-				filteredData = trainData;
+			Classifier j48 = new DecisionTreeRuleExtractor.RuleJ48();
+			((J48)j48).setOptions(weka.core.Utils.splitOptions(optionsString));
+		
+			classMetricsMap = new HashMap<String, Metrics>();
+			classAttribute = data.classAttribute();
+			classValueEnumeration = classAttribute.enumerateValues();
+			while(classValueEnumeration.hasMoreElements()){
+				classMetricsMap.put(classValueEnumeration.nextElement().toString(), new Metrics(0,0,0,0,0));
+			}
+		
+			Logger.println("Class Values: "+classMetricsMap.keySet());
+		
+			trainData = data;
+			filteredData = trainData;
+			NonZeroRowFilter nonZeroRowFilter = new NonZeroRowFilter(filteredData);
 
-				ruleList.clear();
-				while(ruleList.size() < input.noRulesToGenerate && filteredData.numAttributes() > 0){
-					isCurrentIterationRulesOk = false;
-					attributesInRuleSet.clear();
+			ruleList.clear();
+			while(ruleList.size() < input.noRulesToGenerate && filteredData.numAttributes() > 0){
+				isCurrentIterationRulesOk = false;
+				attributesInRuleSet.clear();
 
-					Logger.println("No. Instances (before zero row removal): "+filteredData.numInstances());
-					Logger.println("No Attributes: "+filteredData.numAttributes());
+				Logger.println("No. Instances (before zero row removal): "+filteredData.numInstances());
+				Logger.println("No Attributes: "+filteredData.numAttributes());
 
-					/*
-					 * Check if there is an instance with all attribute values as 0;
-					 * If so, remove that instance
-					 */
-					
-					filteredData = getNonZeroInstances(filteredData);
-					
-					Logger.println("No. Instances (after zero row removal): "+filteredData.numInstances());
-					
-					currentIterationRuleList.clear();
-					
-					j48.buildClassifier(filteredData);
+				/*
+				 * Check if there is an instance with all attribute values as 0;
+				 * If so, remove that instance
+				 */
+			
+				filteredData = nonZeroRowFilter.removeZeroRows();
+			
+				Logger.println("No. Instances (after zero row removal): "+filteredData.numInstances());
+			
+				currentIterationRuleList.clear();
+			
+				j48.buildClassifier(filteredData);
 
-					currentIterationRuleList.addAll(convertDecisionTreeToRules(j48.toString()));
-					
-					/*
-					 * There are no rules generated in this current iteration; So, exit out of the loop
-					 */
-					if(attributesInRuleSet.size() == 0)
-						break;
-					
-					/*
-					 * Perform Evaluation based on the chosen settings; If
-					 * choose automatically, then evaluation would be based on
-					 * Cross Validation (default settings)
-					 */
-					
-					weka.classifiers.Evaluation eval = new weka.classifiers.Evaluation(filteredData);
-					if(input.evaluationOptions.evaluationOptionType == EvaluationOptionType.TrainingSet){
-						eval.evaluateModel(j48, trainData);
+				currentIterationRuleList.addAll(convertDecisionTreeToRules(j48, filteredData, attributesInRuleSet));
+			
+				/*
+				 * There are no rules generated in this current iteration; So, exit out of the loop
+				 */
+				if(attributesInRuleSet.size() == 0)
+					break;
+			
+				/*
+				 * Perform Evaluation based on the chosen settings; If
+				 * choose automatically, then evaluation would be based on
+				 * Cross Validation (default settings)
+				 */
+			
+				weka.classifiers.Evaluation eval = new weka.classifiers.Evaluation(filteredData);
+				if(input.evaluationOptions.evaluationOptionType == EvaluationOptionType.TrainingSet){
+					eval.evaluateModel(j48, trainData);
 
-						weightedAvgMetrics = getWeightedAverageMetrics(eval.toClassDetailsString());
+					weightedAvgMetrics = getWeightedAverageMetrics(eval);
+				
+					if(weightedAvgMetrics[4] > threshold){
+						isCurrentIterationRulesOk = true;
+						for(String classValue : classMetricsMap.keySet()){
+							metrics = classMetricsMap.get(classValue);
+							classIndex = classAttribute.indexOfValue(classValue);
+							tp = (int)eval.numTruePositives(classIndex);
+							tn = (int)eval.numTrueNegatives(classIndex);
+							fp = (int)eval.numFalsePositives(classIndex);
+							fn = (int)eval.numFalseNegatives(classIndex);
 						
-						if(weightedAvgMetrics[4] > threshold){
-							isCurrentIterationRulesOk = true;
-							for(String classValue : classMetricsMap.keySet()){
-								metrics = classMetricsMap.get(classValue);
-								classIndex = classAttribute.indexOfValue(classValue);
-								tp = (int)eval.numTruePositives(classIndex);
-								tn = (int)eval.numTrueNegatives(classIndex);
-								fp = (int)eval.numFalsePositives(classIndex);
-								fn = (int)eval.numFalseNegatives(classIndex);
-								
-								Logger.println("EM: "+tp+","+fp+","+tn+","+fn+","+filteredData.numInstances());
-								
-								metrics.add(tp, fp, tn, fn, filteredData.numInstances());
-								classMetricsMap.put(classValue, metrics);
-							}
+							Logger.println("EM: "+tp+","+fp+","+tn+","+fn+","+filteredData.numInstances());
+						
+							metrics.add(tp, fp, tn, fn, filteredData.numInstances());
+							classMetricsMap.put(classValue, metrics);
 						}
-					}else if(input.evaluationOptions.evaluationOptionType == EvaluationOptionType.PercentageSplit){
-						data.randomize(new Random(1));
-						double percent = new Double(input.evaluationOptions.noFoldsPercentageSplitValueStr.trim());
-						int trainSize = (int) Math.round(data.numInstances() * percent/100);
-						int testSize = data.numInstances()-trainSize;
-						trainData = new Instances(data, 0, trainSize);
-						testData = new Instances(data, trainSize, testSize);
+					}
+				}else if(input.evaluationOptions.evaluationOptionType == EvaluationOptionType.PercentageSplit){
+					double percent = new Double(input.evaluationOptions.noFoldsPercentageSplitValueStr.trim());
+					Instances[] splitData = getPercentageSplit(filteredData, percent);
+					trainData = splitData[0];
+					testData = splitData[1];
+				
+					Classifier j48Temp = new J48();
+					((J48)j48Temp).setOptions(weka.core.Utils.splitOptions(optionsString));
+					j48Temp.buildClassifier(trainData);
+					//use test set
+					eval.evaluateModel(j48Temp, testData);
+				
+					weightedAvgMetrics = getWeightedAverageMetrics(eval);
+				
+					if(weightedAvgMetrics[4] > threshold){
+						isCurrentIterationRulesOk = true;
+
+						for(String classValue : classMetricsMap.keySet()){
+							metrics = classMetricsMap.get(classValue);
+							classIndex = classAttribute.indexOfValue(classValue);
 						
-						Classifier j48Temp = new J48();
-						((J48)j48Temp).setOptions(weka.core.Utils.splitOptions(optionsString));
-						j48Temp.buildClassifier(trainData);
-						//use test set
-						eval.evaluateModel(j48Temp, testData);
+							tp = (int)eval.numTruePositives(classIndex);
+							tn = (int)eval.numTrueNegatives(classIndex);
+							fp = (int)eval.numFalsePositives(classIndex);
+							fn = (int)eval.numFalseNegatives(classIndex);
 						
-						weightedAvgMetrics = getWeightedAverageMetrics(eval.toClassDetailsString());
+							Logger.println("EM: "+tp+","+fp+","+tn+","+fn+","+testData.numInstances());
 						
-						if(weightedAvgMetrics[4] > threshold){
-							isCurrentIterationRulesOk = true;
-
-							for(String classValue : classMetricsMap.keySet()){
-								metrics = classMetricsMap.get(classValue);
-								classIndex = classAttribute.indexOfValue(classValue);
-								
-								tp = (int)eval.numTruePositives(classIndex);
-								tn = (int)eval.numTrueNegatives(classIndex);
-								fp = (int)eval.numFalsePositives(classIndex);
-								fn = (int)eval.numFalseNegatives(classIndex);
-								
-								Logger.println("EM: "+tp+","+fp+","+tn+","+fn+","+testData.numInstances());
-								
-								metrics.add(tp, fp, tn, fn, testData.numInstances());
-								classMetricsMap.put(classValue, metrics);
-							}
+							metrics.add(tp, fp, tn, fn, testData.numInstances());
+							classMetricsMap.put(classValue, metrics);
+						}
+					}
+				}else{
+					// by default do cross validation
+					noCVFolds = new Integer(input.evaluationOptions.noFoldsPercentageSplitValueStr).intValue();
+					if(noCVFolds > filteredData.numInstances())
+						noCVFolds = filteredData.numInstances()-1;
+					ParallelCrossValidation.crossValidateModel(eval, new ParallelCrossValidation.ClassifierFactory() {
+						public Classifier newClassifier() throws Exception {
+							Classifier j48Fold = new J48();
+							((J48)j48Fold).setOptions(weka.core.Utils.splitOptions(optionsString));
+							return j48Fold;
 						}
-					}else{
-						// by default do cross validation
-						noCVFolds = new Integer(input.evaluationOptions.noFoldsPercentageSplitValueStr).intValue();
-						if(noCVFolds > filteredData.numInstances())
-							noCVFolds = filteredData.numInstances()-1;
-						eval.crossValidateModel(j48, filteredData, noCVFolds, new Random(1));
-						Logger.println("% Correct: "+eval.pctCorrect());
+					}, filteredData, noCVFolds, new Random(1), noFoldThreads);
+					Logger.println("% Correct: "+eval.pctCorrect());
+				
+					weightedAvgMetrics = getWeightedAverageMetrics(eval);
+				
+					if(weightedAvgMetrics[4] > threshold){
+						isCurrentIterationRulesOk = true;
+
+						for(String classValue : classMetricsMap.keySet()){
+							metrics = classMetricsMap.get(classValue);
+							classIndex = classAttribute.indexOfValue(classValue);
+							tp = (int)eval.numTruePositives(classIndex);
+							tn = (int)eval.numTrueNegatives(classIndex);
+							fp = (int)eval.numFalsePositives(classIndex);
+							fn = (int)eval.numFalseNegatives(classIndex);
 						
-						weightedAvgMetrics = getWeightedAverageMetrics(eval.toClassDetailsString());
+							Logger.println("EM: "+tp+","+fp+","+tn+","+fn+","+filteredData.numInstances());
 						
-						if(weightedAvgMetrics[4] > threshold){
-							isCurrentIterationRulesOk = true;
-
-							for(String classValue : classMetricsMap.keySet()){
-								metrics = classMetricsMap.get(classValue);
-								classIndex = classAttribute.indexOfValue(classValue);
-								tp = (int)eval.numTruePositives(classIndex);
-								tn = (int)eval.numTrueNegatives(classIndex);
-								fp = (int)eval.numFalsePositives(classIndex);
-								fn = (int)eval.numFalseNegatives(classIndex);
-								
-								Logger.println("EM: "+tp+","+fp+","+tn+","+fn+","+filteredData.numInstances());
-								
-								metrics.add(tp, fp, tn, fn, filteredData.numInstances());
-								classMetricsMap.put(classValue, metrics);
-							}
+							metrics.add(tp, fp, tn, fn, filteredData.numInstances());
+							classMetricsMap.put(classValue, metrics);
 						}
 					}
-					
-					/*
-					 * Add the rules generated in this iteration only if its
-					 * performance is above the threshold; We consider the
-					 * F-measure as the basis metric
-					 */
-					if(isCurrentIterationRulesOk)
-						ruleList.addAll(currentIterationRuleList);
-					
-					filteredData = filterInstancesOnAttributes(attributesInRuleSet, filteredData);
-					
-					Logger.println("No. Attributes (after filtering attributes involved in rules): "+filteredData.numAttributes());
-				}
-				
-				for(String classValue : classMetricsMap.keySet()){
-					metrics = classMetricsMap.get(classValue);
-					Logger.println(classValue+" @ "+metrics.getTP()+","+metrics.getFP()+","+metrics.getTN()+","+metrics.getFN()+","+metrics.getNoInstances());
 				}
-				featureRuleListMetricsMap.put(feature, new RuleListMetrics(optionsString, ruleList, classMetricsMap));
+			
+				/*
+				 * Add the rules generated in this iteration only if its
+				 * performance is above the threshold; We consider the
+				 * F-measure as the basis metric
+				 */
+				if(isCurrentIterationRulesOk)
+					ruleList.addAll(currentIterationRuleList);
+			
+				filteredData = filterInstancesOnAttributes(attributesInRuleSet, filteredData, nonZeroRowFilter);
+			
+				Logger.println("No. Attributes (after filtering attributes involved in rules): "+filteredData.numAttributes());
+			}
+		
+			for(String classValue : classMetricsMap.keySet()){
+				metrics = classMetricsMap.get(classValue);
+				Logger.println(classValue+" @ "+metrics.getTP()+","+metrics.getFP()+","+metrics.getTN()+","+metrics.getFN()+","+metrics.getNoInstances());
 			}
-//			buildResultsPanel(ruleList);
+			return new RuleListMetrics(optionsString, ruleList, classMetricsMap);
 		}catch(Exception e){
 			e.printStackTrace();
 		}
 		
-		Logger.printReturn("Calling findJ48Signatures");
-		return featureRuleListMetricsMap;
+		return null;
 	}
 	
 	/**
@@ -3251,9 +3486,12 @@ public class DiscoverSignatures {
 	 * 
 	 * @param attributeNameSet
 	 * @param data
+	 * @param nonZeroRowFilter
+	 *            the filter of the rows of data with only zeros, updated for
+	 *            the removed attributes
 	 * @return
 	 */
-	private Instances filterInstancesOnAttributes(Set<String> attributeNameSet, Instances data){
+	private Instances filterInstancesOnAttributes(Set<String> attributeNameSet, Instances data, NonZeroRowFilter nonZeroRowFilter){
 		Logger.printCall("Calling filterInstancesOnAttributes()");
 		Instances filteredData = data;
 		try {
@@ -3274,6 +3512,7 @@ public class DiscoverSignatures {
 			remove.setAttributeIndicesArray(attributeIndicesArray);
 			remove.setInputFormat(data);
 			filteredData = Filter.useFilter(data, remove);
+			nonZeroRowFilter.removeAttributes(attributeIndicesArray, filteredData);
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
@@ -3282,149 +3521,63 @@ public class DiscoverSignatures {
 		return filteredData;
 	}
 	
+	/*
+	 * Percentage split of data, whose rows are shuffled (Random(1)) in a copy: data keeps 
+	 * its row order, which the NonZeroRowFilter of the rule loops refers to by row index
+	 * Return: the training set (the first percent of the shuffled rows) and the test set
+	 * The rule loops split their working set (filteredData: the non-zero rows without the 
+	 * attributes of the rules found so far), as their TrainingSet and CrossValidation 
+	 * evaluations use it; they used to split the full data set on every iteration, so that 
+	 * the rules of every iteration were evaluated on a classifier that could use the removed 
+	 * attributes again
+	 */
+	static Instances[] getPercentageSplit(Instances data, double percent){
+		Instances splitData = new Instances(data);
+		splitData.randomize(new Random(1));
+		int trainSize = (int) Math.round(splitData.numInstances() * percent/100);
+		int testSize = splitData.numInstances()-trainSize;
+		return new Instances[]{new Instances(splitData, 0, trainSize), new Instances(splitData, trainSize, testSize)};
+	}
+	
 	/**
-	 * This method filters any instance whose attribute values are all zeros. 
+	 * This method filters any instance whose attribute values are all zeros 
+	 * (in place, in one pass; see NonZeroRowFilter). 
 	 * @param data
 	 * @return
 	 */
 	private Instances getNonZeroInstances(Instances data){
 		Logger.printCall("Calling getNonZeroInstances()");
-		Instance instance;
-		boolean zeroRowExists = false;
-		boolean isZeroRow;
-		do{
-			zeroRowExists = false;
-			for(int i = 0; i < data.numInstances(); i++){
-				instance = data.instance(i);
-				isZeroRow = true;
-				for(int j = 0; j < instance.numAttributes(); j++){
-					if(instance.value(j) != 0){
-						isZeroRow = false;
-						break;
-					}
-				}
-				if(isZeroRow){
-					data.delete(i);
-					zeroRowExists = true;
-					break;
-				}
-			}
-		}while(zeroRowExists);
-		
-		//Logger.printReturn("Returning getNonZeroInstances()");
-		return data;
+		return new NonZeroRowFilter(data).removeZeroRows();
 	}
 	
-	private List<String> convertDecisionTreeToRules(String tree){
+	/*
+	 * tree: the RuleId3 or J48 (DecisionTreeRuleExtractor.RuleJ48) built on data
+	 * attributesInRuleSet: the attributes used in the rules are added to it
+	 * The rules are read from the nodes of the tree (see DecisionTreeRuleExtractor)
+	 */
+	private List<Rule> convertDecisionTreeToRules(Classifier tree, Instances data, Set<String> attributesInRuleSet){
 		Logger.printCall("Calling convertDecisionTreeToRules()");
-		Logger.println(tree);
-
-		String[] treeSplit = tree.replaceAll(" ", "").split("[\r\n\b]+");
-		
-		Map<Integer, String> levelConstriantMap = new HashMap<Integer, String>();
-		int depth;
-		String[] ruleSplit;
-		List<String> ruleList = new ArrayList<String>();
-		String constraint, rule;
-		int startIndex, endIndex;
-		String classLabel;
-		if(tree.contains("J48")){
-			//The last two rows in treeSplit will give details about number of leaves and size of tree the first two lines will contain J48 (un)pruned and ------
-			//
-			startIndex = 2;
-			endIndex = treeSplit.length-1;
-		}else if(tree.contains("Id3")){
-			startIndex = 1;
-			endIndex = treeSplit.length;
-		}else{
-			startIndex = 0;
-			endIndex = treeSplit.length;
-		}
-		
-		for(int i = startIndex; i < endIndex; i++){
-//			System.out.println(treeSplit[i]);
-			if(treeSplit[i].contains("Number"))
-				break;
-			if(treeSplit[i].contains("|")){
-				depth = treeSplit[i].split("\\|").length;
-//				System.out.println("Depth: "+depth);
-				if(treeSplit[i].contains(":")){
-					ruleSplit = treeSplit[i].split("\\|")[depth-1].split(":");
-					classLabel = ruleSplit[1].split("\\(")[0].trim();
-					if(input.generateRulesForClassLabelSet.contains(classLabel)){
-						rule = "IF ";
-						for(int j = 0; j < depth-1; j++){
-							rule += levelConstriantMap.get(j)+" AND ";
-						}
-						if(ruleSplit[0].contains("="))
-							attributesInRuleSet.add(ruleSplit[0].split("=")[0]);
-						else if(ruleSplit[0].contains("<"))
-							attributesInRuleSet.add(ruleSplit[0].split("<")[0]);
-						else if(ruleSplit[0].contains(">"))
-							attributesInRuleSet.add(ruleSplit[0].split(">")[0]);
-						
-						rule += ruleSplit[0]+" THEN "+classLabel;
-	//						System.out.println("RULE: "+rule);
-						ruleList.add(rule);
-					}
-				}else{
-					constraint = treeSplit[i].split("\\|")[depth-1];
-					levelConstriantMap.put(depth-1, constraint);
-					if(constraint.contains("="))
-						attributesInRuleSet.add(constraint.split("=")[0]);
-					else if(constraint.contains("<"))
-						attributesInRuleSet.add(constraint.split("<")[0]);
-					else if(constraint.contains(">"))
-						attributesInRuleSet.add(constraint.split(">")[0]);
-//					System.out.println("Constraint: "+constraint);
-				}
-			}else{
-				if(treeSplit[i].contains(":")){
-					//A rule with just one constraint (no depth of tree involved with |)
-					ruleSplit = treeSplit[i].split(":");
-					classLabel = ruleSplit[1].split("\\(")[0].trim();
-					if(input.generateRulesForClassLabelSet.contains(classLabel)){
-						ruleList.add("IF "+ruleSplit[0]+" THEN "+classLabel);
-						if(ruleSplit[0].contains("="))
-							attributesInRuleSet.add(ruleSplit[0].split("=")[0]);
-						else if(ruleSplit[0].contains("<"))
-							attributesInRuleSet.add(ruleSplit[0].split("<")[0]);
-						else if(ruleSplit[0].contains(">"))
-							attributesInRuleSet.add(ruleSplit[0].split(">")[0]);
-					}
-				}else{
-					constraint = treeSplit[i];
-					levelConstriantMap.put(0, treeSplit[i]);
-					if(constraint.contains("="))
-						attributesInRuleSet.add(constraint.split("=")[0]);
-					else if(constraint.contains("<"))
-						attributesInRuleSet.add(constraint.split("<")[0]);
-					else if(constraint.contains(">"))
-						attributesInRuleSet.add(constraint.split(">")[0]);
-				}
-			}
-		}
-
+		List<Rule> ruleList = new DecisionTreeRuleExtractor(input.generateRulesForClassLabelSet).getRuleList(tree, data, attributesInRuleSet);
+		Logger.println("No. Rules: "+ruleList.size());
 		//Logger.printReturn("Returning convertDecisionTreeToRules()");
 		return ruleList;
 	}
 	
-	private float[] getWeightedAverageMetrics(String classDetailEvaluationString){
+	/*
+	 * Return: the weighted averages over the classes of the TP rate, FP rate, 
+	 * precision, recall, F-measure and ROC area of eval, i.e., the "Weighted Avg." 
+	 * row of eval.toClassDetailsString() (unrounded)
+	 */
+	private float[] getWeightedAverageMetrics(weka.classifiers.Evaluation eval){
 		Logger.printCall("Calling getWeightedAverageMetrics()");
 		float[] weightedAverageMetrics = new float[6];
 		
-		classDetailEvaluationString = classDetailEvaluationString.split("Weighted Avg.")[1].trim();
-		String[] classDetailEvaluationStringSplit = classDetailEvaluationString.split(" ");
-		int noSplits = classDetailEvaluationStringSplit.length;
-		int currentIndex = 0;
-		for(int i = 0; i < noSplits; i++){
-			if(classDetailEvaluationStringSplit[i].trim().equalsIgnoreCase(""))
-				continue;
-			else{
-				weightedAverageMetrics[currentIndex] = new Float(classDetailEvaluationStringSplit[i].trim()).floatValue();
-				currentIndex++;
-			}
-		}
+		weightedAverageMetrics[0] = (float)eval.weightedTruePositiveRate();
+		weightedAverageMetrics[1] = (float)eval.weightedFalsePositiveRate();
+		weightedAverageMetrics[2] = (float)eval.weightedPrecision();
+		weightedAverageMetrics[3] = (float)eval.weightedRecall();
+		weightedAverageMetrics[4] = (float)eval.weightedFMeasure();
+		weightedAverageMetrics[5] = (float)eval.weightedAreaUnderROC();
 		
 		//Logger.printReturn("Returning getWeightedAverageMetrics()");
 		return weightedAverageMetrics;
@@ -3434,14 +3587,20 @@ public class DiscoverSignatures {
 //		System.out.println("In findAssociation Rules");
 		float minSupport = new Float(input.getAssociationRuleSettings().getMinSupportValueStr()).floatValue();
 		float minConfidence = new Float(input.getAssociationRuleSettings().getSortRulesMetricValueStr()).floatValue();
-		ClassSpecificAssociationRuleMiner c = new ClassSpecificAssociationRuleMiner(featureNominalWekaInstancesMap, input.getGenerateSignaturesForClassLabelSet(), minSupport, minConfidence);
-		return c.getFeatureRuleListMetrics();
+		return findAssociationRules(minSupport, minConfidence);
 	}
 	
 	private Map<Feature, RuleListMetrics> findAssociationRules(float minSupport, float minConfidence){
 //		System.out.println("In findAssociation Rules");
-		ClassSpecificAssociationRuleMiner c = new ClassSpecificAssociationRuleMiner(featureNominalWekaInstancesMap, input.getGenerateSignaturesForClassLabelSet(), minSupport, minConfidence);
-		return c.getFeatureRuleListMetrics();
+		return findAssociationRules(new float[]{minSupport}, minConfidence).get(0);
+	}
+	
+	/*
+	 * Return: the rules of the features for every min support value, in the order of minSupports
+	 */
+	private List<Map<Feature, RuleListMetrics>> findAssociationRules(float[] minSupports, float minConfidence){
+		ClassSpecificAssociationRuleMiner c = new ClassSpecificAssociationRuleMiner(featureNominalWekaInstancesMap, input.getGenerateSignaturesForClassLabelSet(), minSupports, minConfidence, input.associationRuleEngineType);
+		return c.getFeatureRuleListMetricsList();
 	}
 	
 	private String getParameterOptions(){
@@ -3482,6 +3641,7 @@ public class DiscoverSignatures {
 	 */
 	private void chooseBestRuleList(Map<String, Map<Feature, RuleListMetrics>> optionsStringFeatureRuleListMetricsMap){
 		Map<Feature, RuleListMetrics> featureRuleListMetricsMap;
+		List<Feature> featureList;
 		RuleListMetrics ruleListMetrics;
 		Metrics metrics;
 		double f1Score;
@@ -3494,7 +3654,9 @@ public class DiscoverSignatures {
 		
 		for(String optionsString : optionsStringFeatureRuleListMetricsMap.keySet()){
 			featureRuleListMetricsMap = optionsStringFeatureRuleListMetricsMap.get(optionsString);
-			for(Feature feature : featureRuleListMetricsMap.keySet()){
+			featureList = new ArrayList<Feature>(featureRuleListMetricsMap.keySet());
+			Collections.sort(featureList); //ties are broken by the order of the configurations and the feature types
+			for(Feature feature : featureList){
 				
 				ruleListMetrics = featureRuleListMetricsMap.get(feature);
 				classMetricsMap = ruleListMetrics.getClassMetricsMap();
@@ -3545,77 +3707,66 @@ public class DiscoverSignatures {
 			encodedDecodedRuleMap.clear();
 		}
 		
-		String[] ruleSplit; 
-		String[] antecedantSplit;
-
 		StringBuilder decodedRuleStringBuilder = new StringBuilder();
-		for(String encodedRule : finalRuleList){
-			
-			ruleSplit = encodedRule.replaceAll("IF ", "").split(" THEN ");
-			antecedantSplit = ruleSplit[0].split(" AND ");
-//			System.out.println(encodedRule+"@"+antecedantSplit.length);
+		List<RuleCondition> conditionList;
+		for(Rule encodedRule : finalRuleList){
+			conditionList = encodedRule.getConditionList();
 			decodedRuleStringBuilder.setLength(0);
 			decodedRuleStringBuilder.append("IF ");
-			for(int i = 0; i < antecedantSplit.length; i++){
-				if(antecedantSplit[i].contains(">=")){
-					decodedRuleStringBuilder.append(getDecodedAntecedant(antecedantSplit[i],">="));
-				}else if(antecedantSplit[i].contains(">")){
-					decodedRuleStringBuilder.append(getDecodedAntecedant(antecedantSplit[i],">"));
-				}else if(antecedantSplit[i].contains("<=")){
-					decodedRuleStringBuilder.append(getDecodedAntecedant(antecedantSplit[i],"<="));
-				}else if(antecedantSplit[i].contains("<")){
-					decodedRuleStringBuilder.append(getDecodedAntecedant(antecedantSplit[i],"<"));
-				}else if(antecedantSplit[i].contains("=")){
-					decodedRuleStringBuilder.append(getDecodedAntecedant(antecedantSplit[i],"="));
-				}
+			for(int i = 0; i < conditionList.size(); i++){
+				decodedRuleStringBuilder.append(getDecodedCondition(conditionList.get(i)));
 				
-				if(i < antecedantSplit.length-1){
+				if(i < conditionList.size()-1){
 					decodedRuleStringBuilder.append(" AND ");
 				}
 			}
 			
-			decodedRuleStringBuilder.append(" THEN ").append(ruleSplit[1]);
+			decodedRuleStringBuilder.append(" THEN ").append(encodedRule.getClassLabel());
 			
-			encodedDecodedRuleMap.put(encodedRule, decodedRuleStringBuilder.toString());
+			encodedDecodedRuleMap.put(encodedRule.toString(), decodedRuleStringBuilder.toString());
 		}
 	}
 	
-	private String getDecodedAntecedant(String antecedant, String constraint){
-		StringBuilder decodedAntecedant = new StringBuilder();
-		String[] featureSplit = antecedant.split(constraint);
-		String[] activitySplit = featureSplit[0].replaceAll("\\[", "").replaceAll("\\]", "").split("_");
+	/*
+	 * The condition with the activities of its attribute (a sequence feature, e.g., ab0ab1, or 
+	 * an alphabet feature, e.g., [ab0_ab1]) decoded
+	 */
+	private String getDecodedCondition(RuleCondition condition){
+		StringBuilder decodedCondition = new StringBuilder();
+		String attributeName = condition.getAttributeName();
+		String[] activitySplit = attributeName.replaceAll("\\[", "").replaceAll("\\]", "").split("_");
 		
-		if(antecedant.contains("["))
-			decodedAntecedant.append("[");
+		if(attributeName.contains("["))
+			decodedCondition.append("[");
 		int noActivites = activitySplit.length;
 		int index = 0;
 		int featureLength;
 		for(String encodedActivity : activitySplit){
 			if(encodedActivity.length() == encodingLength){
-				decodedAntecedant.append(charActivityMap.get(encodedActivity.trim()));
+				decodedCondition.append(getDecodedActivity(encodedActivity, 0));
 				index++;
 				if(index < noActivites)
-					decodedAntecedant.append(", ");
+					decodedCondition.append(", ");
 			}else{
 				//Sequence Feature
 				featureLength = encodedActivity.length()/encodingLength;
 				for(int i = 0; i < featureLength; i++){
-					decodedAntecedant.append(charActivityMap.get(encodedActivity.substring(i*encodingLength, (i+1)*encodingLength)));
+					decodedCondition.append(getDecodedActivity(encodedActivity, i*encodingLength));
 				}
 			}
 		}	
 		
-		if(antecedant.contains("]"))
-			decodedAntecedant.append("]");
-		decodedAntecedant.append(constraint).append(featureSplit[1]);
+		if(attributeName.contains("]"))
+			decodedCondition.append("]");
+		decodedCondition.append(condition.getOperator().getSymbol()).append(condition.getValue());
 		
-		return decodedAntecedant.toString();
+		return decodedCondition.toString();
 	}
 	
 	/* 
 	 * Compute metrics for all rules
 	 * Input:
-	 * ruleList: contains all rules in form of string with rule format: IF xx THEN label
+	 * ruleList: contains all rules (see Rule), with rule format: IF xx THEN label
 	 * data: contains all instances in Weka format for the best feature type (TR,MR..)
 	 * Output:
 	 * finalRuleListMetricsMap: map from rule to Metrics object for each rule
@@ -3630,7 +3781,7 @@ public class DiscoverSignatures {
 	 * True negative: means the instance does not satisfy the rule and has different label
 	 * False negative: means the instance does not satisfy the rule and has the same label
 	 */
-	private void evaluateRuleList(List<String> ruleList, Instances data){
+	private void evaluateRuleList(List<Rule> ruleList, Instances data){
 		Logger.printCall("Calling evaluateRuleList()");
 		
 		if(finalRuleListMetricsMap == null){
@@ -3639,159 +3790,20 @@ public class DiscoverSignatures {
 			finalRuleListMetricsMap.clear();
 		}
 		
-		int noInstances = data.numInstances();
-		Instance instance;
-		
-		String[] ruleSplit;
-		String[] antecedantSplit, antecedantContraintSplit;
-
-		int noAntecedants;
-		List<String> antecedantAttributeList = new ArrayList<String>();
-		List<String> antecedantConstraintList = new ArrayList<String>();
-		double numericValue;
-		String nominalValue;
-		boolean isAntecedantConstraintsSatisfied;
-		List<Integer> ruleSatisifyingInstanceList = new ArrayList<Integer>();
-		List<Integer> constraintSatisifyingInstanceList = new ArrayList<Integer>();
-		
 		Logger.println("No. Instances: "+data.numInstances()+" @ No.Rules: "+ruleList.size());
 		
-		int noInstancesWithRuleClassValue;
-		int tp, fp, tn, fn;
-		
 		/*
-		 * Compute metrics for every rule
+		 * The conditions of the rules are compiled once (see RuleEvaluator) and 
+		 * evaluated over the columns of their attributes, in parallel across rules
 		 */
-		for(String rule : ruleList){
-			
-			/*
-			 * Build antecedents of the rule, i.e.
-			 * Example of rule: 
-			 * IF antecedentAttribute1 >= antecedentConstraint1 AND antecedentAttribute2 < antecedentConstraint2 
-			 * 		THEN <Label>
-			 * antecedantSplit: all pairs [antecedentAttribute,antecedentConstraint] 
-			 * antecedantAttributeList: all antecedent attributes [antecedentAttribute,....]
-			 * antecedantConstraintList: all antecedent constraint [antecedentConstraint,...]
-			 */
-			ruleSplit = rule.replaceAll("IF ", "").split(" THEN ");
-			antecedantSplit = ruleSplit[0].split(" AND ");
-			noAntecedants = antecedantSplit.length;
-			
-			Logger.println("Rule: "+rule);
-			Logger.println("No. Antecedants: "+noAntecedants);
-			
-			antecedantAttributeList.clear();
-			antecedantConstraintList.clear();
-			
-			for(String antecedant : antecedantSplit){
-				if(antecedant.contains(">=")){
-					antecedantContraintSplit = antecedant.split(">=");
-				}else if(antecedant.contains("<=")){
-					antecedantContraintSplit = antecedant.split("<=");
-				}else if(antecedant.contains("=")){
-					antecedantContraintSplit = antecedant.split("=");
-				}else if(antecedant.contains(">")){
-					antecedantContraintSplit = antecedant.split(">");
-				}else{
-					antecedantContraintSplit = antecedant.split("<");
-				}
-				
-				Logger.println(antecedant+"@("+antecedantContraintSplit[0].trim()+","+data.attribute(antecedantContraintSplit[0].trim()).toString()+")@"+antecedantContraintSplit[1]);
-				
-				antecedantAttributeList.add(antecedantContraintSplit[0].trim());
-				antecedantConstraintList.add(antecedantContraintSplit[1].trim());
-			}
-			
-			Logger.println("Consequent: "+ruleSplit[1]);
-			noInstancesWithRuleClassValue = 0;
-			
-			constraintSatisifyingInstanceList.clear();
-			ruleSatisifyingInstanceList.clear();
-			fn = tn = tp = fp = 0;
-			
-			/*
-			 * Scan the whole log to compute metrics of one rule
-			 * Scan every instance, at each instance, get the attribute value based on the attribute name,
-			 * compare that value with the antecedent constraint. If satisfied, check the next attribute.
-			 * If one of the attribute is not satisfied: the whole antecedent is not satisfied. 
-			 */
-			for(int i = 0; i < noInstances; i++){
-				instance = data.instance(i);
-				
-				if(instance.stringValue(instance.classAttribute()).equals(ruleSplit[1].trim()))
-					noInstancesWithRuleClassValue++;
-				
-				isAntecedantConstraintsSatisfied = true;
-				for(int j = 0; j < noAntecedants; j++){
-					if(antecedantSplit[j].contains(">=")){
-						numericValue = instance.value(data.attribute(antecedantAttributeList.get(j)));
-						if(!(numericValue >= new Double(antecedantConstraintList.get(j)).doubleValue())){
-							isAntecedantConstraintsSatisfied = false;
-							break;
-						}
-					}else if(antecedantSplit[j].contains("<=")){
-						numericValue = instance.value(data.attribute(antecedantAttributeList.get(j)));
-						if(!(numericValue <= new Double(antecedantConstraintList.get(j)).doubleValue())){
-							isAntecedantConstraintsSatisfied = false;
-							break;
-						}
-					}else if(antecedantSplit[j].contains(">")){
-						numericValue = instance.value(data.attribute(antecedantAttributeList.get(j)));
-						if(!(numericValue > new Double(antecedantConstraintList.get(j)).doubleValue())){
-							isAntecedantConstraintsSatisfied = false;
-							break;
-						}
-					}else if(antecedantSplit[j].contains("<")){
-						numericValue = instance.value(data.attribute(antecedantAttributeList.get(j)));
-						if(!(numericValue < new Double(antecedantConstraintList.get(j)).doubleValue())){
-							isAntecedantConstraintsSatisfied = false;
-							break;
-						}
-					}else{
-						//Nominal attributes have only constraints as =
-						nominalValue = instance.stringValue(data.attribute(antecedantAttributeList.get(j)));
-//						System.out.println(antecedantAttributeList.get(j)+"@"+data.attribute(antecedantAttributeList.get(j))+"@ Nominal value: "+nominalValue+"@ Cons: "+antecedantConstraintList.get(j));
-						if(!nominalValue.equals(antecedantConstraintList.get(j))){
-							isAntecedantConstraintsSatisfied = false;
-							break;
-						}
-					}
-				}
-				
-				/*
-				 * Check label to determine TP/FP/TN/FN
-				 * Positive: means the instance satisfies the rule
-				 * True positive: means the instance satisfies the rule and has the same label
-				 * False positive: means the instance satisfies the rule and has different label
-				 * 
-				 * Negative: means the instance does not satisfy the rule
-				 * True negative: means the instance does not satisfy the rule and has different label
-				 * False negative: means the instance does not satisfy the rule and has the same label
-				 */
-				if(isAntecedantConstraintsSatisfied){
-					constraintSatisifyingInstanceList.add(i);
-					//Check consequent satisfaction
-					if(instance.stringValue(instance.classAttribute()).equals(ruleSplit[1].trim())){
-//						System.out.println("Adding Instance: "+i);
-						ruleSatisifyingInstanceList.add(i);
-						tp++;
-					}else{
-						fp++;
-					}
-				}else{
-					if(instance.stringValue(instance.classAttribute()).equals(ruleSplit[1].trim())){
-						fn++;
-					}else{
-						tn++;
-					}
-				}
-			}
-			
-			Logger.println("No. Constraints Satisfying Instances: "+constraintSatisifyingInstanceList.size());
-			Logger.println("Constraint Satisfying Instance List: "+constraintSatisifyingInstanceList);
-			Logger.println("No. Rule Satisfying Instances: "+ruleSatisifyingInstanceList.size());
-			Logger.println("Rule Satisfying Instance List: "+ruleSatisifyingInstanceList);
-			finalRuleListMetricsMap.put(rule, new Metrics(tp,fp,tn,fn,noInstances));
+		List<Metrics> ruleMetricsList = new RuleEvaluator(ruleList, data).evaluateRuleList(input.noThreads);
+		Metrics metrics;
+		for(int i = 0; i < ruleList.size(); i++){
+			metrics = ruleMetricsList.get(i);
+			Logger.println("Rule: "+ruleList.get(i));
+			Logger.println("No. Constraints Satisfying Instances: "+(metrics.getTP()+metrics.getFP()));
+			Logger.println("No. Rule Satisfying Instances: "+metrics.getTP());
+			finalRuleListMetricsMap.put(ruleList.get(i).toString(), metrics);
 		}
 		//Logger.printReturn("Returning evaluateRuleList()");
 	}
@@ -3801,7 +3813,7 @@ public class DiscoverSignatures {
 		return signaturePatternsFrame;
 	}
 
-	public List<String> getFinalRuleList() {
+	public List<Rule> getFinalRuleList() {
 		return finalRuleList;
 	}
 
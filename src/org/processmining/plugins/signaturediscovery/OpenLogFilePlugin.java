@@ -39,6 +39,7 @@ import org.deckfour.xes.in.XParser;
 import org.deckfour.xes.in.XParserRegistry;
 import org.deckfour.xes.in.XesXmlParser;
 import org.deckfour.xes.model.XLog;
+import org.processmining.plugins.signaturediscovery.encoding.StreamingLogEncoder;
 
 public class OpenLogFilePlugin extends AbstractImportPlugin {
 
@@ -109,6 +110,24 @@ public class OpenLogFilePlugin extends AbstractImportPlugin {
 
 	}
 
+	/**
+	 * Reads the log in the file into the encoder without building an XLog (see
+	 * StreamingLogEncoder); the same file types as for importFile are supported
+	 * 
+	 * @param file
+	 * @param logEncoder
+	 * @param isTest whether the traces of the log are test traces
+	 * @throws Exception
+	 */
+	public void encodeFile(File file, StreamingLogEncoder logEncoder, boolean isTest) throws Exception {
+		InputStream stream = getInputStream(file);
+		try {
+			logEncoder.read(stream, isTest);
+		} finally {
+			stream.close();
+		}
+	}
+
 	/**
 	 * This method returns an inputStream for a file. Note that the default
 	 * implementation returns "new FileInputStream(file);"
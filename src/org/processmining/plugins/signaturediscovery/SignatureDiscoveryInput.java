@@ -6,11 +6,14 @@ import java.util.Map;
 import java.util.Set;
 
 import org.processmining.plugins.signaturediscovery.settings.AssociationRuleSettings;
+import org.processmining.plugins.signaturediscovery.types.AssociationRuleEngineType;
 import org.processmining.plugins.signaturediscovery.types.EvaluationOptionType;
 import org.processmining.plugins.signaturediscovery.types.Feature;
 import org.processmining.plugins.signaturediscovery.types.FeatureCombination;
 import org.processmining.plugins.signaturediscovery.types.FeatureType;
 import org.processmining.plugins.signaturediscovery.types.LearningAlgorithmType;
+import org.processmining.plugins.signaturediscovery.types.RepeatEngineType;
+import org.processmining.plugins.signaturediscovery.util.ParallelTaskExecutor;
 
 /**
  * @author R.P. Jagadeesh Chandra 'JC' Bose
@@ -67,8 +70,49 @@ public class SignatureDiscoveryInput {
 	boolean isBaseFeatures;
 	boolean isNominalCount;
 	
+	/*
+	 * Number of threads for the parallel parts of the discovery (e.g., the
+	 * tandem repeats of the traces, the instance vectors of the traces); 1 runs 
+	 * everything sequentially
+	 */
+	int noThreads;
+	
+	/*
+	 * The data structure for the whole-log repeats (MR, SMR, NSMR,...); 
+	 * SuffixArray for logs whose suffix tree does not fit in memory
+	 */
+	RepeatEngineType repeatEngineType;
+	
+	/*
+	 * The miner of the class association rules (see ClassSpecificAssociationRuleMiner); 
+	 * FPGrowth by default, so that the Best sweep mines all its min support values 
+	 * from one FP-tree per class
+	 */
+	AssociationRuleEngineType associationRuleEngineType;
+	
+	/*
+	 * Memory-lean mode: the XLog is released once it is encoded and the traces 
+	 * are kept once, in a TraceStore, which the instance profiles and the 
+	 * instance vectors refer to by trace index instead of holding encoded traces
+	 */
+	boolean isMemoryLean;
+	
+	/*
+	 * Whether the heap retained after every stage of the discovery is reported (see HeapProfiler)
+	 */
+	boolean isHeapProfile;
+	
+	/*
+	 * Whether the Weka data sets, which are created in memory, are also written to 
+	 * .arff files in the temporary directory
+	 */
+	boolean isExportWekaData;
+	
 	public SignatureDiscoveryInput(){
 		this.selectedFeatureSet = new HashSet<Feature>();
+		this.noThreads = ParallelTaskExecutor.getDefaultNoThreads();
+		this.repeatEngineType = RepeatEngineType.SuffixTree;
+		this.associationRuleEngineType = AssociationRuleEngineType.FPGrowth;
 		createFeatureStringValueFeatureMap();
 	}
 	
@@ -159,6 +203,54 @@ public class SignatureDiscoveryInput {
 		this.kGramValue = kGramValue;
 	}
 	
+	public void setNoThreads(int noThreads){
+		this.noThreads = noThreads;
+	}
+	
+	public int getNoThreads(){
+		return noThreads;
+	}
+	
+	public void setRepeatEngineType(RepeatEngineType repeatEngineType){
+		this.repeatEngineType = repeatEngineType;
+	}
+	
+	public RepeatEngineType getRepeatEngineType(){
+		return repeatEngineType;
+	}
+	
+	public void setAssociationRuleEngineType(AssociationRuleEngineType associationRuleEngineType){
+		this.associationRuleEngineType = associationRuleEngineType;
+	}
+	
+	public AssociationRuleEngineType getAssociationRuleEngineType(){
+		return associationRuleEngineType;
+	}
+	
+	public void setMemoryLean(boolean isMemoryLean){
+		this.isMemoryLean = isMemoryLean;
+	}
+	
+	public boolean isMemoryLean(){
+		return isMemoryLean;
+	}
+	
+	public void setHeapProfile(boolean isHeapProfile){
+		this.isHeapProfile = isHeapProfile;
+	}
+	
+	public boolean isHeapProfile(){
+		return isHeapProfile;
+	}
+	
+	public void setExportWekaData(boolean isExportWekaData){
+		this.isExportWekaData = isExportWekaData;
+	}
+	
+	public boolean isExportWekaData(){
+		return isExportWekaData;
+	}
+	
 	public AssociationRuleSettings getAssociationRuleSettings(){
 		return associationRuleSettings;
 	}
@@ -0,0 +1,169 @@
+package org.processmining.plugins.signaturediscovery.encoding;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Assigns dense integer ids (0, 1, 2, ...) to the activities (and trace
+ * identifiers) of a log; a trace is then an int[] of activity ids (see
+ * InstanceProfile.getActivityIds).
+ *
+ * Every id also has a string code of encodingLength characters, e.g., "ab0",
+ * so that a trace can still be viewed as the concatenation of the codes of its
+ * activities (the encoded trace); the features, the Weka attribute names and
+ * the text outputs use this view. The codes are assigned by EncodeActivitySet.
+ *
+ * The dictionary is not modified after construction, so one instance can be
+ * shared by several threads.
+ */
+public class ActivityDictionary {
+	/*
+	 * Indexed by activity id
+	 * ("Arrive_Start-complete", "Triage_Request-complete", "29060537", ...)
+	 * ("ab0", "ab1", "ab2", ...)
+	 */
+	private List<String> activityList;
+	private List<String> codeList;
+
+	/*
+	 * ("Arrive_Start-complete", 0), ("Triage_Request-complete", 1), ...
+	 */
+	private Map<String, Integer> activityIdMap;
+
+	/*
+	 * Open addressing table of the codes: codeTable[slot] is the activity id + 1
+	 * of a code that hashes to slot (or a later slot), 0 if the slot is free; a
+	 * code is looked up in place in an encoded string (see getCodeId(String, int))
+	 */
+	private int[] codeTable;
+
+	private int encodingLength;
+
+	ActivityDictionary(List<String> activityList, List<String> codeList, int encodingLength) {
+		this.activityList = new ArrayList<String>(activityList);
+		this.codeList = new ArrayList<String>(codeList);
+		this.encodingLength = encodingLength;
+
+		this.activityIdMap = new HashMap<String, Integer>();
+		int noActivities = activityList.size();
+		for (int activityId = 0; activityId < noActivities; activityId++)
+			activityIdMap.put(activityList.get(activityId), activityId);
+
+		int tableSize = 2;
+		while (tableSize < 2 * noActivities)
+			tableSize *= 2;
+		this.codeTable = new int[tableSize];
+		int slot;
+		for (int activityId = 0; activityId < noActivities; activityId++) {
+			slot = getCodeHash(this.codeList.get(activityId), 0) & (tableSize - 1);
+			while (codeTable[slot] != 0)
+				slot = (slot + 1) & (tableSize - 1);
+			codeTable[slot] = activityId + 1;
+		}
+	}
+
+	private int getCodeHash(String encodedString, int start) {
+		int hash = 0;
+		for (int i = start; i < start + encodingLength; i++)
+			hash = 31 * hash + encodedString.charAt(i);
+		return hash ^ (hash >>> 16);
+	}
+
+	public int size() {
+		return activityList.size();
+	}
+
+	public int getEncodingLength() {
+		return encodingLength;
+	}
+
+	/*
+	 * Return: the id of the activity, -1 if the activity is not in the dictionary
+	 */
+	public int getActivityId(String activity) {
+		Integer activityId = activityIdMap.get(activity);
+		return activityId == null ? -1 : activityId;
+	}
+
+	public String getActivity(int activityId) {
+		return activityList.get(activityId);
+	}
+
+	/*
+	 * Return: the id of the activity with the code, -1 if there is no such activity
+	 */
+	public int getCodeId(String code) {
+		return code.length() == encodingLength ? getCodeId(code, 0) : -1;
+	}
+
+	/*
+	 * encodedString: "ab0ab1ab0ab2", start: 3
+	 * Return: the id of the activity whose code is at start .. start+encodingLength-1
+	 * of encodedString (e.g., the id of "ab1"), -1 if there is no such activity;
+	 * the code is looked up in place, without a substring
+	 */
+	public int getCodeId(String encodedString, int start) {
+		if (start < 0 || start + encodingLength > encodedString.length())
+			return -1;
+		int slot = getCodeHash(encodedString, start) & (codeTable.length - 1);
+		int activityId;
+		while ((activityId = codeTable[slot] - 1) >= 0) {
+			if (codeList.get(activityId).regionMatches(0, encodedString, start, encodingLength))
+				return activityId;
+			slot = (slot + 1) & (codeTable.length - 1);
+		}
+		return -1;
+	}
+
+	public String getCode(int activityId) {
+		return codeList.get(activityId);
+	}
+
+	/*
+	 * activityIds: (0, 1, 0, 2)
+	 * Return: the encoded trace, e.g., "ab0ab1ab0ab2"
+	 */
+	public String getEncodedTrace(int[] activityIds) {
+		StringBuilder encodedTrace = new StringBuilder(activityIds.length * encodingLength);
+		for (int activityId : activityIds)
+			encodedTrace.append(codeList.get(activityId));
+		return encodedTrace.toString();
+	}
+
+	/*
+	 * encodedTrace: "ab0ab1ab0ab2"
+	 * Return: the activity ids of the encoded trace, e.g., (0, 1, 0, 2); codes
+	 * that are not in the dictionary get -1
+	 */
+	public int[] getActivityIds(String encodedTrace) {
+		int encodedTraceLength = encodedTrace.length() / encodingLength;
+		int[] activityIds = new int[encodedTraceLength];
+		for (int i = 0; i < encodedTraceLength; i++)
+			activityIds[i] = getCodeId(encodedTrace, i * encodingLength);
+		return activityIds;
+	}
+
+	/*
+	 * Return: a map from the activities to their codes, e.g., ("Arrive_Start-complete", "ab0")
+	 */
+	public Map<String, String> getActivityCodeMap() {
+		Map<String, String> activityCodeMap = new HashMap<String, String>();
+		int noActivities = activityList.size();
+		for (int activityId = 0; activityId < noActivities; activityId++)
+			activityCodeMap.put(activityList.get(activityId), codeList.get(activityId));
+		return activityCodeMap;
+	}
+
+	/*
+	 * Return: a map from the codes to their activities, e.g., ("ab0", "Arrive_Start-complete")
+	 */
+	public Map<String, String> getCodeActivityMap() {
+		Map<String, String> codeActivityMap = new HashMap<String, String>();
+		int noActivities = activityList.size();
+		for (int activityId = 0; activityId < noActivities; activityId++)
+			codeActivityMap.put(codeList.get(activityId), activityList.get(activityId));
+		return codeActivityMap;
+	}
+}
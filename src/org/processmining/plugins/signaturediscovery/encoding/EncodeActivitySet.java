@@ -4,7 +4,9 @@
  */
 package org.processmining.plugins.signaturediscovery.encoding;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -56,6 +58,11 @@ public class EncodeActivitySet {
 	 */
 	private int encodingLength;
 	private int maximumActivityLength;
+	
+	/*
+	 * The dense integer ids of the activities, with the encodings as their codes
+	 */
+	private ActivityDictionary activityDictionary;
 
 	/**
 	 * This method encodes a set of elements passed to it; The elements can be
@@ -64,25 +71,34 @@ public class EncodeActivitySet {
 	 * distinct delimiter separating the traces).
 	 * 
 	 * The encoding length of each element in the set is automatically
-	 * estimated.
+	 * estimated; there is no limit on the number of elements, the encoding
+	 * just gets longer.
 	 * 
 	 * @param activitySet
-	 * @throws ActivityOverFlowException (when the number of elements to be encoded is too large)
 	 */
-	public EncodeActivitySet(Set<String> activitySet) throws ActivityOverFlowException {
+	public EncodeActivitySet(Set<String> activitySet) {
 		this.activitySet = activitySet;
 
 		this.activityCharMap = new HashMap<String, String>();
 		this.charActivityMap = new HashMap<String, String>();
 
 		encodeActivities();
+		
+		/*
+		 * The activities get their ids in the order in which they are encoded
+		 */
+		List<String> activityList = new ArrayList<String>(activitySet);
+		List<String> codeList = new ArrayList<String>(activityList.size());
+		for (String activity : activityList)
+			codeList.add(activityCharMap.get(activity));
+		activityDictionary = new ActivityDictionary(activityList, codeList, encodingLength);
 	}
 
 	/**
 	 * This method does the encoding; First it decides how many characters would be required for encoding 
 	 * Input: activitySet, activityCharMap, charActivityMap
 	 */
-	private void encodeActivities() throws ActivityOverFlowException {
+	private void encodeActivities() {
 		String[] lowerCaseArray = { "a", "b", "c", "d", "e", "f", "g", "h", "i", "j", "k", "l", "m", "n", "o", "p",
 				"q", "r", "s", "t", "u", "v", "w", "x", "y", "z" };
 		String[] upperCaseArray = { "A", "B", "C", "D", "E", "F", "G", "H", "I", "J", "K", "L", "M", "N", "O", "P",
@@ -147,7 +163,18 @@ public class EncodeActivitySet {
 			encodingLength = 3;
 			encode(allArray, allArray, allArray);
 		} else {
-			throw new ActivityOverFlowException();
+			/*
+			 * Beyond 238328 activities: as many lower case characters and
+			 * integers as needed, e.g., a0b9
+			 */
+			encodingLength = 4;
+			long noEncodings = (long) lowerCaseIntArray.length * lowerCaseIntArray.length * lowerCaseIntArray.length
+					* lowerCaseIntArray.length;
+			while (noEncodings < noActivities) {
+				encodingLength++;
+				noEncodings *= lowerCaseIntArray.length;
+			}
+			encode(lowerCaseIntArray, encodingLength);
 		}
 
 		//Free Memory
@@ -241,6 +268,34 @@ public class EncodeActivitySet {
 		charEncoding = null;
 	}
 
+	protected void encode(String[] strArray, int encodingLength) {
+		int currentactivityIndex = 0;
+
+		int charIndex;
+		StringBuilder charEncoding = new StringBuilder();
+		maximumActivityLength = 0;
+		for (String activity : activitySet) {
+			if(activity.length() > maximumActivityLength)
+				maximumActivityLength = activity.length();
+			
+			charEncoding.setLength(0);
+			charIndex = currentactivityIndex;
+			for (int i = 0; i < encodingLength; i++) {
+				charEncoding.insert(0, strArray[charIndex % strArray.length]);
+				charIndex /= strArray.length;
+			}
+			
+			activityCharMap.put(activity, charEncoding.toString());
+			if (charActivityMap.containsKey(charEncoding.toString())) {
+				throw new IllegalStateException("Something wrong with encoding: Already present charEncoding "
+						+ charEncoding);
+			} else {
+				charActivityMap.put(charEncoding.toString(), activity);
+			}
+			currentactivityIndex++;
+		}
+	}
+
 	public Map<String, String> getActivityCharMap() {
 		return activityCharMap;
 	}
@@ -256,4 +311,8 @@ public class EncodeActivitySet {
 	public int getMaximumActivityLength() {
 		return maximumActivityLength;
 	}
+
+	public ActivityDictionary getActivityDictionary() {
+		return activityDictionary;
+	}
 }
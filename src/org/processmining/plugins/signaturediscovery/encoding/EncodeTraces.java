@@ -1,12 +1,11 @@
 package org.processmining.plugins.signaturediscovery.encoding;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 import org.deckfour.xes.model.XAttributeMap;
 import org.deckfour.xes.model.XEvent;
-import org.deckfour.xes.model.XLog;
 import org.deckfour.xes.model.XTrace;
 
 /**
@@ -20,40 +19,76 @@ public class EncodeTraces {
 	private List<String> charStreamList;
 	private List<InstanceProfile> instanceProfileList;
 	
-	public EncodeTraces(Map<String, String> activityCharMap, XLog log) throws EncodingNotFoundException{
-		charStreamList = new ArrayList<String>();
+	public EncodeTraces(ActivityDictionary activityDictionary, List<XTrace> log) throws EncodingNotFoundException{
+		this(activityDictionary, log, null);
+	}
+	
+	/*
+	 * log: the traces of an XLog, or of several (e.g., the training and the test log)
+	 * traceStore: if not null, the traces are added to traceStore and the instance 
+	 * profiles (and the char streams) refer to them by trace index (memory-lean mode)
+	 */
+	public EncodeTraces(ActivityDictionary activityDictionary, List<XTrace> log, TraceStore traceStore) throws EncodingNotFoundException{
 		instanceProfileList = new ArrayList<InstanceProfile>();
 
-		StringBuilder charStreamBuilder = new StringBuilder();
 		StringBuilder activityBuilder = new StringBuilder();
 		
 		String classLabel;
 		
 		XAttributeMap attributeMap;
+		int[] activityIds;
+		int activityIndex;
+		InstanceProfile instanceProfile;
 
 		for(XTrace trace : log){
-			charStreamBuilder.setLength(0);
 			classLabel = trace.getAttributes().get("Label").toString();
+			activityIds = new int[trace.size()];
+			activityIndex = 0;
 			for(XEvent event : trace){
 				attributeMap = event.getAttributes();
 				activityBuilder.setLength(0);
 				activityBuilder.append(attributeMap.get("concept:name").toString()).append("-").append(attributeMap.get("lifecycle:transition").toString());
 				
-				
-				
-				if(activityCharMap.containsKey(activityBuilder.toString())){
-					charStreamBuilder.append(activityCharMap.get(activityBuilder.toString()));
-				}else{
+				activityIds[activityIndex] = activityDictionary.getActivityId(activityBuilder.toString());
+				if(activityIds[activityIndex] < 0){
 					throw new EncodingNotFoundException(activityBuilder.toString());
 				}
+				activityIndex++;
 			}
-			charStreamList.add(charStreamBuilder.toString());
-			instanceProfileList.add(new InstanceProfile(trace.getAttributes().get("concept:name").toString(), charStreamBuilder.toString(), classLabel));
+			if(traceStore != null){
+				instanceProfile = new InstanceProfile(trace.getAttributes().get("concept:name").toString(), traceStore, traceStore.addTrace(activityIds), classLabel);
+			}else{
+				instanceProfile = new InstanceProfile(trace.getAttributes().get("concept:name").toString(), activityIds, activityDictionary, classLabel);
+			}
+			instanceProfileList.add(instanceProfile);
+		}
+		if(traceStore != null){
+			traceStore.trimToSize();
+			charStreamList = traceStore.getEncodedTraceList();
+		}else{
+			charStreamList = getEncodedTraceList(instanceProfileList);
 		}
 	}
+	
+	/*
+	 * Return: the encoded traces of the instance profiles, as a read-only view that 
+	 * builds every encoded trace when it is read (see TraceStore.getEncodedTraceList)
+	 */
+	static List<String> getEncodedTraceList(final List<InstanceProfile> instanceProfileList){
+		return new AbstractList<String>() {
+			public String get(int index) {
+				return instanceProfileList.get(index).getEncodedTrace();
+			}
+
+			public int size() {
+				return instanceProfileList.size();
+			}
+		};
+	}
 
 	/*
-	 * Bruce: CharStreamList is list of all encoded traces in the log
+	 * Bruce: CharStreamList is list of all encoded traces in the log, a view on 
+	 * the activity ids of the traces
 	 */
 	public List<String> getCharStreamList() {
 		return charStreamList;
@@ -0,0 +1,66 @@
+package org.processmining.plugins.signaturediscovery.encoding;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Assigns dense integer ids (0, 1, 2, ...) to the features of one feature
+ * type, in the order of the feature list (the order of the attributes of the
+ * instance vectors); the sparse instance vectors of the type store these ids
+ * (see InstanceVector.setSparseVector).
+ *
+ * Features are sequence features, e.g., "ab0ab1ab2", or alphabet features,
+ * e.g., [ab0, ab1]. The ids are looked up by identity first: the feature count
+ * maps of the feature matchers use the feature objects of the list as keys,
+ * so the hash of an alphabet feature (a Set<String>) is not recomputed.
+ *
+ * The dictionary is not modified after construction, so one instance can be
+ * shared by several threads.
+ */
+public class FeatureDictionary<E> {
+	/*
+	 * Indexed by feature id
+	 * ("ab0ab1", "cd0cd1cd2", "de0de1", ...) or ([ab0, ab1], [cd0, cd1, cd2], ...)
+	 */
+	private List<E> featureList;
+
+	private Map<E, Integer> identityFeatureIdMap;
+	private Map<E, Integer> featureIdMap;
+
+	public FeatureDictionary(List<E> featureList) {
+		this.featureList = new ArrayList<E>(featureList);
+		this.identityFeatureIdMap = new IdentityHashMap<E, Integer>();
+		this.featureIdMap = new HashMap<E, Integer>();
+		int noFeatures = featureList.size();
+		for (int featureId = 0; featureId < noFeatures; featureId++) {
+			identityFeatureIdMap.put(featureList.get(featureId), featureId);
+			featureIdMap.put(featureList.get(featureId), featureId);
+		}
+	}
+
+	public int size() {
+		return featureList.size();
+	}
+
+	public E getFeature(int featureId) {
+		return featureList.get(featureId);
+	}
+
+	/*
+	 * Return: the id of the feature, -1 if the feature is not in the dictionary
+	 */
+	public int getFeatureId(Object feature) {
+		Integer featureId = identityFeatureIdMap.get(feature);
+		if (featureId == null)
+			featureId = featureIdMap.get(feature);
+		return featureId == null ? -1 : featureId;
+	}
+
+	public List<E> getFeatureList() {
+		return Collections.unmodifiableList(featureList);
+	}
+}
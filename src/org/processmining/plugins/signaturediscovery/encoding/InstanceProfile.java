@@ -24,19 +24,41 @@ public class InstanceProfile {
 	private String label;
 
 	/**
-	 * the encoded trace: "ab1cd2di3ss3"
+	 * the activity ids of the trace (see ActivityDictionary): (1, 5, 8, 12); 
+	 * null if the trace is kept in a TraceStore
 	 */
-	private String encodedTrace;
+	private int[] activityIds;
+	
+	/**
+	 * the dictionary from which the encoded trace of activityIds, e.g., 
+	 * "ab1cd2di3ss3", is built
+	 */
+	private ActivityDictionary activityDictionary;
+	
+	/**
+	 * the store that keeps the trace (memory-lean mode) and the index of the 
+	 * trace in it; null and -1 if the trace is kept in activityIds
+	 */
+	private TraceStore traceStore;
+	private int traceIndex = -1;
 
-	public InstanceProfile(String name, String encodedTrace, String label){
+	public InstanceProfile(String name, int[] activityIds, ActivityDictionary activityDictionary, String label){
+		this.name = name;
+		this.activityIds = activityIds;
+		this.activityDictionary = activityDictionary;
+		this.label = label;
+	}
+	
+	public InstanceProfile(String name, TraceStore traceStore, int traceIndex, String label){
 		this.name = name;
-		this.encodedTrace = encodedTrace;
+		this.traceStore = traceStore;
+		this.traceIndex = traceIndex;
 		this.label = label;
 	}
 
 	public String toString() {
 		String text = "Instance Profile: "+name+"\n";
-		text = text + "encodedTrace:" + encodedTrace+" Label: " + label;
+		text = text + "encodedTrace:" + getEncodedTrace()+" Label: " + label;
 		return text;
 	}
 
@@ -48,7 +70,52 @@ public class InstanceProfile {
 		return label;
 	}
 
+	/*
+	 * The encoded trace is a view for the text outputs only: it is rebuilt from 
+	 * the activity ids on every call, so that only the ids are kept per trace
+	 */
 	public String getEncodedTrace() {
-		return encodedTrace;
+		if(traceStore != null)
+			return traceStore.getEncodedTrace(traceIndex);
+		return activityDictionary.getEncodedTrace(activityIds);
+	}
+	
+	/*
+	 * The ids of a trace in a TraceStore are copied on every call; to only read them, 
+	 * use getActivityIdArray
+	 */
+	public int[] getActivityIds() {
+		return traceStore != null ? traceStore.getActivityIds(traceIndex) : activityIds;
+	}
+	
+	/*
+	 * The ids of the trace are at getActivityIdStart() .. getActivityIdEnd()-1 of this 
+	 * array (the array of the TraceStore or the ids of the trace), which must only be read
+	 */
+	public int[] getActivityIdArray() {
+		return traceStore != null ? traceStore.getActivityIdArray() : activityIds;
+	}
+	
+	public int getActivityIdStart() {
+		return traceStore != null ? traceStore.getTraceStart(traceIndex) : 0;
+	}
+	
+	public int getActivityIdEnd() {
+		return traceStore != null ? traceStore.getTraceStart(traceIndex+1) : activityIds.length;
+	}
+	
+	/*
+	 * Return: the dictionary that assigned the activity ids of the trace
+	 */
+	public ActivityDictionary getActivityDictionary() {
+		return traceStore != null ? traceStore.getActivityDictionary() : activityDictionary;
+	}
+	
+	public TraceStore getTraceStore() {
+		return traceStore;
+	}
+	
+	public int getTraceIndex() {
+		return traceIndex;
 	}
 }
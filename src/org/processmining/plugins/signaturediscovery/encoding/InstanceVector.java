@@ -1,8 +1,8 @@
 package org.processmining.plugins.signaturediscovery.encoding;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 /**
  * @author R.P. Jagadeesh Chandra 'JC' Bose
@@ -24,28 +24,23 @@ import java.util.Set;
  */
 public class InstanceVector {
 	/*
-	 * A map of those features in the featureSet which are found in the encoded trace
-	 * Those features in the featureSet not found in the trace are not in here (zero frequency)
-	 * Key: a feature (as pattern) in the featureSet and found in the encoded trace
-	 * Value: frequency count of feature in the encoded trace
-	 * Example
-	 * (ab0ab1,2), (cd0cd1, 3), (de0de1de2,2)
+	 * Sparse vector of the features found in the trace: their ids in featureDictionary 
+	 * (in increasing order) and their frequency counts
+	 * Those features of the dictionary not found in the trace are not in here (zero frequency)
+	 * Example, for the dictionary (ab0ab1, bc0bc1, cd0cd1, de0de1de2)
+	 * featureIds (0, 2, 3), featureCounts (2, 3, 2)
+	 * The features are sequence features (strings) or alphabet features (sets), e.g., 
+	 * ("ab0","ab1","ab2")
 	 */
-	Map<String, Integer> featureCountMap;
-	
-	/*
-	 * Similar to featureCountMap, but for alphabet feature
-	 * The pattern here is represented as a set, not string as in case of sequence features
-	 * Example: 
-	 * ("ab0","ab1","ab2"),5
-	 * ("ab0","ab3"),3
-	 * ("cd0","cd1","cd2","cd3"),8 
-	 */
-	Map<Set<String>, Integer> featureAlphabetCountMap;
+	FeatureDictionary<?> featureDictionary;
+	int[] featureIds;
+	int[] featureCounts;
 	
 	/*
 	 * Array contains the numerical frequency count of every feature in this trace
 	 * This is for all features in the feature set, including those not found in the trace (zero frequency)
+	 * Only set by standarizeNumericVector, otherwise the dense vector is built from the sparse vector 
+	 * when it is requested (see getStandardizedNumericVector)
 	 */
 	int[] standardizedNumericVector;
 	
@@ -53,6 +48,7 @@ public class InstanceVector {
 	/*
 	 * Array contains either 1 if feature found in the trace or 0 if not found
 	 * For all features in the feature set. 
+	 * Only set by standarizeNominalVector, see standardizedNumericVector
 	 */
 	int[] standardizedNominalVector;
 	
@@ -66,28 +62,17 @@ public class InstanceVector {
 	 * 
 	 */
 	String name; //Trace ID
-	String encodedTrace; 
+	
+	/*
+	 * The trace, whose encoded trace is only built when it is asked for (see 
+	 * getEncodedTrace), so that the vectors of all feature types share the trace
+	 */
+	InstanceProfile instanceProfile;
 	
 	public InstanceVector(){
 		
 	}
 	
-	public Map<String, Integer> getSequenceFeatureCountMap(){
-		return featureCountMap;
-	}
-	
-	public Map<Set<String>, Integer> getAlphabetFeatureCountMap(){
-		return featureAlphabetCountMap;
-	}
-	
-	public void setSequenceFeatureCountMap(Map<String, Integer> featureCountMap){
-		this.featureCountMap = featureCountMap;
-	}
-	
-	public void setAlphabetFeatureCountMap(Map<Set<String>, Integer> featureAlphabetCountMap){
-		this.featureAlphabetCountMap = featureAlphabetCountMap;
-	}
-	
 	public String getLabel(){
 		return label;
 	}
@@ -112,43 +97,29 @@ public class InstanceVector {
 	
 	/*
 	 * Bruce 27 May 2014
+	 * The encoded trace is rebuilt from the activity ids of the trace on every call
 	 */
 	public String getEncodedTrace(){
-		return encodedTrace;
+		return instanceProfile.getEncodedTrace();
 	}
 	
-	/*
-	 * Bruce 27 May 2014
-	 */
-	public void setEncodedTrace(String encode){
-		this.encodedTrace = encode;
-	}	
+	public void setInstanceProfile(InstanceProfile instanceProfile){
+		this.instanceProfile = instanceProfile;
+	}
 	
 	public <E> int[] toNumericAttributeVector(List<E> featureList){
 		int[] attributeVector = new int[featureList.size()];
 		int noFeatures = featureList.size();
-		for(int i = 0; i < noFeatures; i++){
-			if(featureCountMap != null && featureCountMap.containsKey(featureList.get(i)))
-				attributeVector[i] = featureCountMap.get(featureList.get(i));
-			else if(featureAlphabetCountMap != null && featureAlphabetCountMap.containsKey(featureList.get(i)))
-				attributeVector[i] = featureAlphabetCountMap.get(featureList.get(i));
-			else
-				attributeVector[i] = 0;
-		}
+		for(int i = 0; i < noFeatures; i++)
+			attributeVector[i] = getFeatureCount(featureList.get(i));
 		return attributeVector;
 	}
 	
 	public <E> String[] toNominalAttributeVector(List<E> featureList){
 		String[] attributeVector = new String[featureList.size()];
 		int noFeatures = featureList.size();
-		for(int i = 0; i < noFeatures; i++){
-			if(featureCountMap != null && featureCountMap.containsKey(featureList.get(i)))
-				attributeVector[i] = "Y";
-			else if(featureAlphabetCountMap != null && featureAlphabetCountMap.containsKey(featureList.get(i)))
-				attributeVector[i] = "Y";
-			else
-				attributeVector[i] = "N";
-		}
+		for(int i = 0; i < noFeatures; i++)
+			attributeVector[i] = getFeatureCount(featureList.get(i)) > 0 ? "Y" : "N";
 		return attributeVector;
 	}
 	
@@ -178,6 +149,7 @@ public class InstanceVector {
 	 * Convert to string format for Weka .arff file
 	 */	
 	public String toStringStandarizedNumericVector(){
+		int[] standardizedNumericVector = getStandardizedNumericVector();
 		String str = standardizedNumericVector[0]+"";
 		for(int i = 1; i < standardizedNumericVector.length; i++)
 			str = str+","+standardizedNumericVector[i];
@@ -189,6 +161,7 @@ public class InstanceVector {
 	 * Convert to string format for Weka .arff file
 	 */
 	public String toStringStandarizedNominalVector(){
+		int[] standardizedNominalVector = getStandardizedNominalVector();
 		String str = standardizedNominalVector[0]+"";
 		for(int i = 1; i < standardizedNominalVector.length; i++)
 			str = str+","+standardizedNominalVector[i];
@@ -196,6 +169,72 @@ public class InstanceVector {
 		return str;
 	}
 	
+	/*
+	 * Sets the sparse vector from the feature count map of the trace, e.g., 
+	 * (ab0ab1,2), (cd0cd1, 3), (de0de1de2,2); features that are not in the 
+	 * dictionary are left out
+	 * The dictionary is shared by the instance vectors of a feature type and 
+	 * replaces the dense vectors of standarizeNumericVector and standarizeNominalVector 
+	 */
+	public <E> void setSparseVector(FeatureDictionary<E> featureDictionary, Map<E, Integer> featureCountMap){
+		/*
+		 * Sort the (id, count) pairs on the id, packed as id << 32 | count
+		 */
+		long[] featureIdCounts = new long[featureCountMap.size()];
+		int noFeatures = 0, featureId;
+		for(Map.Entry<E, Integer> entry : featureCountMap.entrySet()){
+			featureId = featureDictionary.getFeatureId(entry.getKey());
+			if(featureId >= 0)
+				featureIdCounts[noFeatures++] = ((long)featureId << 32) | (entry.getValue() & 0xFFFFFFFFL);
+		}
+		Arrays.sort(featureIdCounts, 0, noFeatures);
+		
+		this.featureDictionary = featureDictionary;
+		this.featureIds = new int[noFeatures];
+		this.featureCounts = new int[noFeatures];
+		for(int i = 0; i < noFeatures; i++){
+			featureIds[i] = (int)(featureIdCounts[i] >>> 32);
+			featureCounts[i] = (int)featureIdCounts[i];
+		}
+	}
+	
+	public FeatureDictionary<?> getFeatureDictionary(){
+		return featureDictionary;
+	}
+	
+	/*
+	 * Return: the ids of the features found in the trace, in increasing order (null without sparse vector)
+	 */
+	public int[] getFeatureIds(){
+		return featureIds;
+	}
+	
+	/*
+	 * Return: the frequency counts of the features of getFeatureIds
+	 */
+	public int[] getFeatureCounts(){
+		return featureCounts;
+	}
+	
+	/*
+	 * Return: the frequency count of the feature with the id in the sparse vector, 0 if not found
+	 */
+	public int getFeatureCount(int featureId){
+		int index = Arrays.binarySearch(featureIds, featureId);
+		return index < 0 ? 0 : featureCounts[index];
+	}
+	
+	/*
+	 * Return: the frequency count of the feature (a sequence or an alphabet feature of the 
+	 * feature dictionary), 0 if not found or without sparse vector
+	 */
+	public int getFeatureCount(Object feature){
+		if(featureIds == null)
+			return 0;
+		int featureId = featureDictionary.getFeatureId(feature);
+		return featureId < 0 ? 0 : getFeatureCount(featureId);
+	}
+	
 	/*
 	 * featureList for sequence feature: (ab0ab1, cd0cd1cd2, ef0ef1, de0de1, ...)
 	 * featureList for alphabet feature: ((ab0,ab1), (cd0,cd1,cd2), (ef0,ef1), (de0,de1), ...)
@@ -208,14 +247,8 @@ public class InstanceVector {
 		int noFeatures = featureList.size();
 		standardizedNumericVector = new int[noFeatures];
 		
-		for(int i = 0; i < noFeatures; i++){
-			if(featureCountMap != null && featureCountMap.containsKey(featureList.get(i)))
-				standardizedNumericVector[i] = featureCountMap.get(featureList.get(i));
-			else if(featureAlphabetCountMap != null && featureAlphabetCountMap.containsKey(featureList.get(i)))
-				standardizedNumericVector[i] = featureAlphabetCountMap.get(featureList.get(i));
-			else
-				standardizedNumericVector[i] = 0;
-		}
+		for(int i = 0; i < noFeatures; i++)
+			standardizedNumericVector[i] = getFeatureCount(featureList.get(i));
 //		Logger.printReturn("Returning InstanceVector->standardizeNumericVector()");
 	}
 	
@@ -228,19 +261,23 @@ public class InstanceVector {
 		int noFeatures = featureList.size();
 		standardizedNominalVector = new int[noFeatures];
 		
-		for(int i = 0; i < noFeatures; i++){
-			if(featureCountMap != null && featureCountMap.containsKey(featureList.get(i)))
-				standardizedNominalVector[i] = 1;
-			else if(featureAlphabetCountMap != null && featureAlphabetCountMap.containsKey(featureList.get(i)))
-				standardizedNominalVector[i] = 1;
-			else
-				standardizedNominalVector[i] = 0;
-		}
+		for(int i = 0; i < noFeatures; i++)
+			standardizedNominalVector[i] = getFeatureCount(featureList.get(i)) > 0 ? 1 : 0;
 		
 //		Logger.printReturn("Returning InstanceVector->standardizeNominalVector()");
 	}
 
+	/*
+	 * Return: the dense numeric vector; without standarizeNumericVector it is built 
+	 * from the sparse vector (as wide as the feature dictionary) and not kept
+	 */
 	public int[] getStandardizedNumericVector() {
+		if (standardizedNumericVector == null && featureIds != null) {
+			int[] numericVector = new int[featureDictionary.size()];
+			for (int i = 0; i < featureIds.length; i++)
+				numericVector[featureIds[i]] = featureCounts[i];
+			return numericVector;
+		}
 		return standardizedNumericVector;
 	}
 
@@ -248,7 +285,16 @@ public class InstanceVector {
 		this.standardizedNumericVector = standardizedVector;
 	}
 	
+	/*
+	 * Return: the dense nominal vector, see getStandardizedNumericVector
+	 */
 	public int[] getStandardizedNominalVector() {
+		if (standardizedNominalVector == null && featureIds != null) {
+			int[] nominalVector = new int[featureDictionary.size()];
+			for (int i = 0; i < featureIds.length; i++)
+				nominalVector[featureIds[i]] = 1;
+			return nominalVector;
+		}
 		return standardizedNominalVector;
 	}
 
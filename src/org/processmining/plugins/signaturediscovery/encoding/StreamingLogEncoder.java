@@ -0,0 +1,319 @@
+package org.processmining.plugins.signaturediscovery.encoding;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Encodes XES or MXML logs while they are read (StAX), without building an
+ * XLog: every trace is turned into the activity ids of its events right away,
+ * and only these ids, the trace identifier and the label are kept.
+ *
+ * The same attributes as in EncodeTraces are used: the activity of an event
+ * is "concept:name-lifecycle:transition" (WorkflowModelElement-EventType in
+ * MXML), a trace is identified by its concept:name (the ProcessInstance id in
+ * MXML) and labelled by its Label attribute.
+ *
+ * The training log and the test log are read into the same encoder (see
+ * read), so that both are encoded with the same activity ids; once the
+ * ActivityDictionary or the instance profiles have been retrieved, no more
+ * logs can be read.
+ */
+public class StreamingLogEncoder {
+	/*
+	 * The activities and the trace identifiers (used as trace delimiter in the
+	 * computation of repeats) with their ids, in the order they are read
+	 * ("Arrive_Start-complete", 0), ("Triage_Request-complete", 1), ("29060537", 2), ...
+	 */
+	private Map<String, Integer> activityIdMap;
+
+	/*
+	 * The concept:name of the events of every activity id ("Arrive_Start", "Triage_Request", null, ...);
+	 * null for the trace identifiers
+	 */
+	private List<String> eventNameList;
+
+	private List<String> traceNameList;
+	private List<String> labelList;
+	private List<int[]> traceActivityIdsList;
+	private Set<String> testTraceNameSet;
+
+	private ActivityDictionary activityDictionary;
+	private List<InstanceProfile> instanceProfileList;
+	private TraceStore traceStore;
+
+	/*
+	 * The trace being read
+	 */
+	private String traceName;
+	private String label;
+	private int[] traceActivityIds;
+	private int traceLength;
+	private String eventName;
+	private String lifecycleTransition;
+
+	public StreamingLogEncoder() {
+		this.activityIdMap = new LinkedHashMap<String, Integer>();
+		this.eventNameList = new ArrayList<String>();
+		this.traceNameList = new ArrayList<String>();
+		this.labelList = new ArrayList<String>();
+		this.traceActivityIdsList = new ArrayList<int[]>();
+		this.testTraceNameSet = new HashSet<String>();
+		this.traceActivityIds = new int[16];
+	}
+
+	/**
+	 * Reads and encodes all traces of an XES or MXML log (the format is taken
+	 * from the root element); the stream is not closed.
+	 *
+	 * @param input
+	 * @param isTest
+	 *            whether the traces are test traces (see getTestTraceNameSet)
+	 * @throws XMLStreamException
+	 *             if the log cannot be parsed or a trace or an event misses
+	 *             one of the attributes above
+	 */
+	public void read(InputStream input, boolean isTest) throws XMLStreamException {
+		if (activityDictionary != null)
+			throw new IllegalStateException("The log has already been encoded");
+
+		XMLStreamReader reader = XMLInputFactory.newInstance().createXMLStreamReader(input);
+		try {
+			while (reader.hasNext()) {
+				if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+					if (reader.getLocalName().equals("WorkflowLog"))
+						readMxml(reader, isTest);
+					else
+						readXes(reader, isTest);
+					break;
+				}
+			}
+		} finally {
+			reader.close();
+		}
+	}
+
+	/*
+	 * reader: at the start of the log element
+	 * Only the attributes directly under a trace or an event are used (not the
+	 * nested ones of lists and containers)
+	 */
+	private void readXes(XMLStreamReader reader, boolean isTest) throws XMLStreamException {
+		int level = 0, traceLevel = -1, eventLevel = -1;
+		String elementName, key;
+		while (reader.hasNext()) {
+			switch (reader.next()) {
+				case XMLStreamConstants.START_ELEMENT :
+					level++;
+					elementName = reader.getLocalName();
+					if (elementName.equals("trace") && traceLevel < 0) {
+						traceLevel = level;
+						startTrace();
+					} else if (elementName.equals("event") && traceLevel >= 0 && eventLevel < 0) {
+						eventLevel = level;
+						eventName = null;
+						lifecycleTransition = null;
+					} else {
+						key = reader.getAttributeValue(null, "key");
+						if (key == null)
+							break;
+						if (eventLevel >= 0 && level == eventLevel + 1) {
+							if (key.equals("concept:name"))
+								eventName = reader.getAttributeValue(null, "value");
+							else if (key.equals("lifecycle:transition"))
+								lifecycleTransition = reader.getAttributeValue(null, "value");
+						} else if (eventLevel < 0 && traceLevel >= 0 && level == traceLevel + 1) {
+							if (key.equals("concept:name"))
+								traceName = reader.getAttributeValue(null, "value");
+							else if (key.equals("Label"))
+								label = reader.getAttributeValue(null, "value");
+						}
+					}
+					break;
+				case XMLStreamConstants.END_ELEMENT :
+					if (level == eventLevel) {
+						eventLevel = -1;
+						addEvent();
+					} else if (level == traceLevel) {
+						traceLevel = -1;
+						endTrace(isTest);
+					}
+					level--;
+					break;
+				default :
+					break;
+			}
+		}
+	}
+
+	/*
+	 * reader: at the start of the WorkflowLog element
+	 * The trace attributes are the Attribute elements in the Data of a
+	 * ProcessInstance
+	 */
+	private void readMxml(XMLStreamReader reader, boolean isTest) throws XMLStreamException {
+		boolean isInTrace = false, isInEvent = false;
+		String elementName, key;
+		while (reader.hasNext()) {
+			switch (reader.next()) {
+				case XMLStreamConstants.START_ELEMENT :
+					elementName = reader.getLocalName();
+					if (elementName.equals("ProcessInstance")) {
+						isInTrace = true;
+						startTrace();
+						traceName = reader.getAttributeValue(null, "id");
+					} else if (elementName.equals("AuditTrailEntry") && isInTrace) {
+						isInEvent = true;
+						eventName = null;
+						lifecycleTransition = null;
+					} else if (elementName.equals("WorkflowModelElement") && isInEvent) {
+						eventName = reader.getElementText().trim();
+					} else if (elementName.equals("EventType") && isInEvent) {
+						lifecycleTransition = reader.getElementText().trim();
+					} else if (elementName.equals("Attribute") && isInTrace && !isInEvent) {
+						key = reader.getAttributeValue(null, "name");
+						if (key != null && key.equals("Label"))
+							label = reader.getElementText().trim();
+					}
+					break;
+				case XMLStreamConstants.END_ELEMENT :
+					elementName = reader.getLocalName();
+					if (elementName.equals("AuditTrailEntry") && isInEvent) {
+						isInEvent = false;
+						addEvent();
+					} else if (elementName.equals("ProcessInstance") && isInTrace) {
+						isInTrace = false;
+						endTrace(isTest);
+					}
+					break;
+				default :
+					break;
+			}
+		}
+	}
+
+	private void startTrace() {
+		traceName = null;
+		label = null;
+		traceLength = 0;
+	}
+
+	private void addEvent() throws XMLStreamException {
+		if (eventName == null || lifecycleTransition == null)
+			throw new XMLStreamException("Event without concept:name or lifecycle:transition in trace "
+					+ traceName);
+
+		int activityId = getActivityId(eventName + "-" + lifecycleTransition, eventName);
+		if (traceLength == traceActivityIds.length)
+			traceActivityIds = Arrays.copyOf(traceActivityIds, 2 * traceLength);
+		traceActivityIds[traceLength++] = activityId;
+	}
+
+	private void endTrace(boolean isTest) throws XMLStreamException {
+		if (traceName == null || label == null)
+			throw new XMLStreamException("Trace without concept:name or Label: " + traceName);
+
+		getActivityId(traceName, null);
+		traceNameList.add(traceName);
+		labelList.add(label);
+		traceActivityIdsList.add(Arrays.copyOf(traceActivityIds, traceLength));
+		if (isTest)
+			testTraceNameSet.add(traceName);
+	}
+
+	private int getActivityId(String activity, String eventName) {
+		Integer activityId = activityIdMap.get(activity);
+		if (activityId == null) {
+			activityId = activityIdMap.size();
+			activityIdMap.put(activity, activityId);
+			eventNameList.add(eventName);
+		}
+		return activityId;
+	}
+
+	/*
+	 * Encodes the activities read so far (see EncodeActivitySet); the ids of
+	 * the dictionary are the ids assigned while reading
+	 */
+	public ActivityDictionary getActivityDictionary() {
+		if (activityDictionary == null) {
+			EncodeActivitySet encodeActivitySet = new EncodeActivitySet(new LinkedHashSet<String>(
+					activityIdMap.keySet()));
+			activityDictionary = encodeActivitySet.getActivityDictionary();
+			activityIdMap = null;
+		}
+		return activityDictionary;
+	}
+
+	/*
+	 * Return: the instance profiles of all traces read (training and test
+	 * traces), in the order they are read
+	 */
+	public List<InstanceProfile> getInstanceProfileList() {
+		return getInstanceProfileList(null);
+	}
+
+	/*
+	 * Same as getInstanceProfileList(), but the traces are added to traceStore
+	 * (built on getActivityDictionary()) and the instance profiles refer to
+	 * them by trace index (memory-lean mode); traceStore is ignored if the
+	 * instance profiles have already been retrieved
+	 */
+	public List<InstanceProfile> getInstanceProfileList(TraceStore traceStore) {
+		if (instanceProfileList == null) {
+			ActivityDictionary activityDictionary = getActivityDictionary();
+			instanceProfileList = new ArrayList<InstanceProfile>(traceNameList.size());
+			int noTraces = traceNameList.size();
+			for (int i = 0; i < noTraces; i++) {
+				if (traceStore != null)
+					instanceProfileList.add(new InstanceProfile(traceNameList.get(i), traceStore, traceStore
+							.addTrace(traceActivityIdsList.get(i)), labelList.get(i)));
+				else
+					instanceProfileList.add(new InstanceProfile(traceNameList.get(i), traceActivityIdsList.get(i),
+							activityDictionary, labelList.get(i)));
+				traceActivityIdsList.set(i, null);
+			}
+			if (traceStore != null) {
+				traceStore.trimToSize();
+				this.traceStore = traceStore;
+			}
+			traceNameList = null;
+			labelList = null;
+			traceActivityIdsList = null;
+		}
+		return instanceProfileList;
+	}
+
+	/*
+	 * Return: the encoded traces of all traces read, see EncodeTraces.getCharStreamList;
+	 * a view on the instance profiles (on the TraceStore in memory-lean mode)
+	 */
+	public List<String> getCharStreamList() {
+		List<InstanceProfile> instanceProfileList = getInstanceProfileList();
+		if (traceStore != null)
+			return traceStore.getEncodedTraceList();
+		return EncodeTraces.getEncodedTraceList(instanceProfileList);
+	}
+
+	public Set<String> getTestTraceNameSet() {
+		return testTraceNameSet;
+	}
+
+	/*
+	 * Return: the concept:name of the events of the activity, null for a trace identifier
+	 */
+	public String getEventName(int activityId) {
+		return eventNameList.get(activityId);
+	}
+}
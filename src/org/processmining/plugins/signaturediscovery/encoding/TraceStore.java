@@ -0,0 +1,121 @@
+package org.processmining.plugins.signaturediscovery.encoding;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Keeps the traces of a log once, as the activity ids of their events (see
+ * ActivityDictionary) in one int[] array, and hands them out by trace index
+ * (0, 1, 2, ... in the order they are added).
+ *
+ * This is the store of the memory-lean mode of DiscoverSignatures
+ * (SignatureDiscoveryInput.setMemoryLean): the instance profiles and the
+ * instance vectors of a trace only refer to its index, and its encoded trace,
+ * e.g., "ab0ab1ab0ab2", is rebuilt from the ids when it is asked for instead
+ * of being kept as a String next to the ids.
+ *
+ * Traces are added while the log is encoded, after that the store is only
+ * read, so one instance can be shared by several threads.
+ */
+public class TraceStore {
+	private ActivityDictionary activityDictionary;
+
+	/*
+	 * The activity ids of trace i are at traceStarts[i] .. traceStarts[i+1]-1
+	 */
+	private int[] activityIds;
+	private int[] traceStarts;
+	private int noTraces;
+
+	public TraceStore(ActivityDictionary activityDictionary) {
+		this.activityDictionary = activityDictionary;
+		this.activityIds = new int[256];
+		this.traceStarts = new int[17];
+	}
+
+	public ActivityDictionary getActivityDictionary() {
+		return activityDictionary;
+	}
+
+	/*
+	 * traceActivityIds: (0, 1, 0, 2)
+	 * Return: the index of the trace in the store
+	 */
+	public int addTrace(int[] traceActivityIds) {
+		if (noTraces + 1 == traceStarts.length)
+			traceStarts = Arrays.copyOf(traceStarts, 2 * traceStarts.length);
+		int start = traceStarts[noTraces];
+		if (start + traceActivityIds.length > activityIds.length)
+			activityIds = Arrays.copyOf(activityIds, Math.max(2 * activityIds.length, start + traceActivityIds.length));
+		System.arraycopy(traceActivityIds, 0, activityIds, start, traceActivityIds.length);
+		traceStarts[noTraces + 1] = start + traceActivityIds.length;
+		return noTraces++;
+	}
+
+	/*
+	 * Releases the spare capacity of the arrays once all traces are added
+	 */
+	public void trimToSize() {
+		activityIds = Arrays.copyOf(activityIds, traceStarts[noTraces]);
+		traceStarts = Arrays.copyOf(traceStarts, noTraces + 1);
+	}
+
+	public int size() {
+		return noTraces;
+	}
+
+	public int getTraceLength(int traceIndex) {
+		return traceStarts[traceIndex + 1] - traceStarts[traceIndex];
+	}
+
+	/*
+	 * Return: a copy of the activity ids of the trace, e.g., (0, 1, 0, 2)
+	 */
+	public int[] getActivityIds(int traceIndex) {
+		return Arrays.copyOfRange(activityIds, traceStarts[traceIndex], traceStarts[traceIndex + 1]);
+	}
+
+	/*
+	 * Return: the array of the activity ids of all traces, not a copy; it must only 
+	 * be read, the ids of trace i are at getTraceStart(i) .. getTraceStart(i+1)-1
+	 */
+	public int[] getActivityIdArray() {
+		return activityIds;
+	}
+
+	public int getTraceStart(int traceIndex) {
+		return traceStarts[traceIndex];
+	}
+
+	/*
+	 * Return: the encoded trace, e.g., "ab0ab1ab0ab2"
+	 */
+	public String getEncodedTrace(int traceIndex) {
+		int end = traceStarts[traceIndex + 1];
+		StringBuilder encodedTrace = new StringBuilder((end - traceStarts[traceIndex])
+				* activityDictionary.getEncodingLength());
+		for (int i = traceStarts[traceIndex]; i < end; i++)
+			encodedTrace.append(activityDictionary.getCode(activityIds[i]));
+		return encodedTrace.toString();
+	}
+
+	/*
+	 * Return: the encoded traces of the store in the order of their indices, as
+	 * a read-only view that builds every encoded trace when it is read (see
+	 * EncodeTraces.getCharStreamList)
+	 */
+	public List<String> getEncodedTraceList() {
+		return new AbstractList<String>() {
+			public String get(int traceIndex) {
+				if (traceIndex < 0 || traceIndex >= noTraces)
+					throw new IndexOutOfBoundsException("Trace index: " + traceIndex + ", size: " + noTraces);
+				return getEncodedTrace(traceIndex);
+			}
+
+			public int size() {
+				return noTraces;
+			}
+		};
+	}
+}
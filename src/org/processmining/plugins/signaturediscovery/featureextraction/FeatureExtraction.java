@@ -1,20 +1,29 @@
 package org.processmining.plugins.signaturediscovery.featureextraction;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.Callable;
 
+import org.processmining.plugins.signaturediscovery.encoding.ActivityDictionary;
 import org.processmining.plugins.signaturediscovery.encoding.InstanceProfile;
 import org.processmining.plugins.signaturediscovery.types.Feature;
+import org.processmining.plugins.signaturediscovery.types.RepeatEngineType;
+import org.processmining.plugins.signaturediscovery.util.ActivitySymbols;
+import org.processmining.plugins.signaturediscovery.util.AlphabetFeatureMatcher;
 import org.processmining.plugins.signaturediscovery.util.EquivalenceClass;
 import org.processmining.plugins.signaturediscovery.util.FileIO;
+import org.processmining.plugins.signaturediscovery.util.IntegerSuffixTree;
 import org.processmining.plugins.signaturediscovery.util.Logger;
+import org.processmining.plugins.signaturediscovery.util.ParallelTaskExecutor;
+import org.processmining.plugins.signaturediscovery.util.RepeatFinder;
+import org.processmining.plugins.signaturediscovery.util.SequenceFeatureMatcher;
+import org.processmining.plugins.signaturediscovery.util.SuffixArray;
 import org.processmining.plugins.signaturediscovery.util.UkkonenSuffixTree;
 
 /**
@@ -31,6 +40,18 @@ import org.processmining.plugins.signaturediscovery.util.UkkonenSuffixTree;
 public class FeatureExtraction {
 	int encodingLength;
 	int kGramValue;
+	
+	/*
+	 * Number of threads used for the per-trace computations (e.g., the tandem
+	 * repeats of each trace); 1 runs them sequentially
+	 */
+	int noThreads = 1;
+	
+	/*
+	 * The data structure on which MR, SMR, NSMR (and the alphabet variants) are 
+	 * discovered over the whole log
+	 */
+	RepeatEngineType repeatEngineType = RepeatEngineType.SuffixTree;
 	boolean hasSequenceFeature = false;
 	boolean hasAlphabetFeature = false;
 
@@ -50,6 +71,22 @@ public class FeatureExtraction {
 	
 	List<InstanceProfile> modifiedInstanceProfileList;
 	
+	/*
+	 * The dictionary that assigned the activity ids of the instance profiles and the 
+	 * symbols of the repeat structures built on these ids; the traces are read as 
+	 * activity ids, so that no encoded trace is built per trace
+	 */
+	ActivityDictionary activityDictionary;
+	ActivitySymbols activitySymbols;
+	
+	/*
+	 * The primitive tandem repeats of each trace (in the order of instanceProfileList);
+	 * shared by TR, TRA and the loop preprocessing of the log so that the suffix trees
+	 * of the traces are built only once
+	 * 		[(ab0, ab1), (ab0ab1, ab1ab0)], ...
+	 */
+	List<Map<TreeSet<String>, TreeSet<String>>> traceTandemRepeatMapList;
+	
 	/* Mapping from real activity name to encoded name
 	 * 		"New Claim", ab0
 	 * 		"Contact Customer", cd1
@@ -158,12 +195,32 @@ public class FeatureExtraction {
 	 * kGramValue: 3
 	 */
 	public FeatureExtraction(int encodingLength, Map<String, String> activityCharMap, Map<String, String> charActivityMap, List<InstanceProfile> instanceProfileList, Set<Feature> selectedFeatureSet, int kGramValue){
+		this(encodingLength, activityCharMap, charActivityMap, instanceProfileList, selectedFeatureSet, kGramValue, 1);
+	}
+	
+	/*
+	 * noThreads: number of threads for the per-trace computations, e.g. 8
+	 */
+	public FeatureExtraction(int encodingLength, Map<String, String> activityCharMap, Map<String, String> charActivityMap, List<InstanceProfile> instanceProfileList, Set<Feature> selectedFeatureSet, int kGramValue, int noThreads){
+		this(encodingLength, activityCharMap, charActivityMap, instanceProfileList, selectedFeatureSet, kGramValue, noThreads, RepeatEngineType.SuffixTree);
+	}
+	
+	/*
+	 * repeatEngineType: data structure for the whole-log repeats, e.g. SuffixArray
+	 */
+	public FeatureExtraction(int encodingLength, Map<String, String> activityCharMap, Map<String, String> charActivityMap, List<InstanceProfile> instanceProfileList, Set<Feature> selectedFeatureSet, int kGramValue, int noThreads, RepeatEngineType repeatEngineType){
 		this.encodingLength = encodingLength;
+		this.noThreads = noThreads;
+		this.repeatEngineType = repeatEngineType;
 		this.activityCharMap = activityCharMap;
 		this.charActivityMap = charActivityMap;
 		this.selectedFeatureSet = selectedFeatureSet;
 		this.kGramValue = kGramValue;
 		this.instanceProfileList = instanceProfileList;
+		if(!instanceProfileList.isEmpty()){
+			this.activityDictionary = instanceProfileList.get(0).getActivityDictionary();
+			this.activitySymbols = new ActivitySymbols(activityDictionary);
+		}
 		
 		computeFeatureSets();
 	}
@@ -230,23 +287,27 @@ public class FeatureExtraction {
 		}
 		
 		if (hasRepeatFeature || hasRepeatAlphabetFeature) {
-			StringBuilder combinedStringBuilder = new StringBuilder();
-			Set<String> charStreamSet = new HashSet<String>();
- 
 			modifiedInstanceProfileList = preprocessLogForTandemRepeats();
 			
 			/*
-			 * Concatenate all traces to once single sequence, delimited by traceID
+			 * Concatenate all traces to once single sequence (of activity ids), 
+			 * delimited by traceID
 			 */
+			int noActivityIds = 0;
+			for (InstanceProfile instanceProfile : modifiedInstanceProfileList)
+				noActivityIds += instanceProfile.getActivityIdEnd() - instanceProfile.getActivityIdStart() + 1;
+			int[] combinedActivityIds = new int[noActivityIds];
+			int index = 0, start, end;
 			for (InstanceProfile instanceProfile : modifiedInstanceProfileList) {
-				if (!charStreamSet.contains(instanceProfile.getEncodedTrace())) {
-					combinedStringBuilder.append(instanceProfile.getEncodedTrace());
-					combinedStringBuilder.append(activityCharMap.get(instanceProfile.getName()));
-				}
+				start = instanceProfile.getActivityIdStart();
+				end = instanceProfile.getActivityIdEnd();
+				System.arraycopy(instanceProfile.getActivityIdArray(), start, combinedActivityIds, index, end - start);
+				index += end - start;
+				combinedActivityIds[index++] = activityDictionary.getActivityId(instanceProfile.getName());
 			}
 
 			if (hasRepeatFeature) {
-				computeRepeatfeatureFeatureSetMap(encodingLength, combinedStringBuilder.toString(), repeatFeatureSet);
+				computeRepeatfeatureFeatureSetMap(encodingLength, combinedActivityIds, repeatFeatureSet);
 			} 
 			
 			/*
@@ -254,7 +315,7 @@ public class FeatureExtraction {
 			 * compute both sequence as well as alphabet features;
 			 */
 			if (hasRepeatAlphabetFeature) {
-				computeRepeatAlphabetfeatureFeatureSetMap(encodingLength, combinedStringBuilder.toString(),
+				computeRepeatAlphabetfeatureFeatureSetMap(encodingLength, combinedActivityIds,
 						repeatAlphabetFeatureSet);
 			}
 		}
@@ -280,16 +341,24 @@ public class FeatureExtraction {
 		//Logger.printCall("Calling FeatureExtraction->getIndividualEventFeatures()");
 		
 		Set<String> individualEventFeatureSet = new HashSet<String>();
-		String encodedTrace, encodedActivity;
-		int encodedTraceLength;
+		if(activityDictionary == null)
+			return individualEventFeatureSet;
+		
+		/*
+		 * Mark the activity ids that occur in the traces, then add their codes once
+		 */
+		boolean[] isPresentActivity = new boolean[activityDictionary.size()];
+		int[] activityIds;
+		int end;
 		for(InstanceProfile instanceProfile : instanceProfileList){
-			encodedTrace = instanceProfile.getEncodedTrace();
-			encodedTraceLength = encodedTrace.length()/encodingLength;
-			for(int i = 0; i < encodedTraceLength; i++){
-				encodedActivity = encodedTrace.substring(i*encodingLength, (i+1)*encodingLength);
-				if(!charActivityMap.get(encodedActivity).contains("Delimiter"))
-					individualEventFeatureSet.add(encodedActivity);
-			}
+			activityIds = instanceProfile.getActivityIdArray();
+			end = instanceProfile.getActivityIdEnd();
+			for(int i = instanceProfile.getActivityIdStart(); i < end; i++)
+				isPresentActivity[activityIds[i]] = true;
+		}
+		for(int activityId = 0; activityId < isPresentActivity.length; activityId++){
+			if(isPresentActivity[activityId] && !activityDictionary.getActivity(activityId).contains("Delimiter"))
+				individualEventFeatureSet.add(activityDictionary.getCode(activityId));
 		}
 		
 		//Logger.printReturn("Returning FeatureExtraction->getIndividualEventFeatures() "+individualEventFeatureSet.size());
@@ -304,13 +373,19 @@ public class FeatureExtraction {
 		//Logger.printCall("Calling FeatureExtraction->getKGrams()");
 		
 		Set<String> kGramFeatureSet = new HashSet<String>();
-		String encodedTrace;
-		int encodedTraceLength;
+		StringBuilder kGram = new StringBuilder(kGramValue*encodingLength);
+		int[] activityIds;
+		int start, end;
 		for(InstanceProfile instanceProfile : instanceProfileList){
-			encodedTrace = instanceProfile.getEncodedTrace();
-			encodedTraceLength = encodedTrace.length()/encodingLength;
-			for(int i = 0; i < encodedTraceLength-kGramValue; i++)
-				kGramFeatureSet.add(encodedTrace.substring(i*encodingLength, (i+kGramValue)*encodingLength));
+			activityIds = instanceProfile.getActivityIdArray();
+			start = instanceProfile.getActivityIdStart();
+			end = instanceProfile.getActivityIdEnd();
+			for(int i = start; i < end-kGramValue; i++){
+				kGram.setLength(0);
+				for(int j = i; j < i+kGramValue; j++)
+					kGram.append(activityDictionary.getCode(activityIds[j]));
+				kGramFeatureSet.add(kGram.toString());
+			}
 		}
 		
 		//Logger.printReturn("Returning FeatureExtraction->getKGrams() "+kGramFeatureSet.size());
@@ -326,29 +401,9 @@ public class FeatureExtraction {
 	private void computeTandemRepeatFeatureSet(){
 		//Logger.printCall("Calling FeatureExtraction->computeTandemRepeatFeatureSet()");
 		
-		UkkonenSuffixTree suffixTree;
 		Set<String> tandemRepeatSet = new HashSet<String>();
 		Set<String> baseTandemRepeatSet = new HashSet<String>();
-		Map<TreeSet<String>, TreeSet<String>> loopAlphabetLoopPatternSetMap;
-		Set<String> loopAlphabetPatternSet;
-		for(InstanceProfile instanceProfile : instanceProfileList){
-//			System.out.println("Trace: "+instanceProfile.getEncodedTrace());
-			if(instanceProfile.getEncodedTrace().length() > 2*encodingLength){
-				suffixTree = new UkkonenSuffixTree(encodingLength, instanceProfile.getEncodedTrace());
-				suffixTree.LZDecomposition();
-				loopAlphabetLoopPatternSetMap = suffixTree.getPrimitiveTandemRepeats();
-				for(Set<String> trAlphabet : loopAlphabetLoopPatternSetMap.keySet()){
-					loopAlphabetPatternSet = loopAlphabetLoopPatternSetMap.get(trAlphabet);
-					tandemRepeatSet.addAll(loopAlphabetPatternSet);
-					
-					for(String tandemRepeat : loopAlphabetPatternSet){
-						if(tandemRepeat.length()/encodingLength == trAlphabet.size()){
-							baseTandemRepeatSet.add(tandemRepeat);
-						}
-					}
-				}
-			}
-		}
+		mergeTraceTandemRepeats(tandemRepeatSet, baseTandemRepeatSet);
 		
 		originalSequenceFeatureSetMap.put(Feature.TR, tandemRepeatSet);
 		//System.out.println(tandemRepeatSet.toString());
@@ -369,30 +424,9 @@ public class FeatureExtraction {
 	private void computeTandemRepeatAlphabetFeatureSet(){
 		//Logger.printCall("Calling FeatureExtraction->computeTandemRepeatAlphabetFeatureSet()");
 		
-		UkkonenSuffixTree suffixTree;
 		Set<String> tandemRepeatSet = new HashSet<String>();
 		Set<String> baseTandemRepeatSet = new HashSet<String>();
-		
-		Map<TreeSet<String>, TreeSet<String>> loopAlphabetLoopPatternSetMap;
-		Set<String> loopAlphabetPatternSet;
-		
-		for(InstanceProfile instanceProfile : instanceProfileList){
-			if(instanceProfile.getEncodedTrace().length() > 2*encodingLength){
-				suffixTree = new UkkonenSuffixTree(encodingLength, instanceProfile.getEncodedTrace());
-				suffixTree.LZDecomposition();
-				loopAlphabetLoopPatternSetMap = suffixTree.getPrimitiveTandemRepeats();
-				for(Set<String> trAlphabet : loopAlphabetLoopPatternSetMap.keySet()){
-					loopAlphabetPatternSet = loopAlphabetLoopPatternSetMap.get(trAlphabet);
-					tandemRepeatSet.addAll(loopAlphabetPatternSet);
-					
-					for(String tandemRepeat : loopAlphabetPatternSet){
-						if(tandemRepeat.length()/encodingLength == trAlphabet.size()){
-							baseTandemRepeatSet.add(tandemRepeat);
-						}
-					}
-				}
-			}
-		}
+		mergeTraceTandemRepeats(tandemRepeatSet, baseTandemRepeatSet);
 		
 		EquivalenceClass equivalenceClass = new EquivalenceClass();
 		originalAlphabetFeatureSetMap.put(Feature.TRA, equivalenceClass.getAlphabetEquivalenceClassMap(encodingLength, tandemRepeatSet));
@@ -404,67 +438,116 @@ public class FeatureExtraction {
 		//Logger.printReturn("Returning FeatureExtraction->computeTandemRepeatAlphabetFeatureSet()");
 	}
 	
+	/*
+	 * Returns the primitive tandem repeats of each trace, see traceTandemRepeatMapList;
+	 * traces of at most two activities have no tandem repeats (empty map)
+	 * 
+	 * Every trace gets its own suffix tree, so with noThreads > 1 the traces are
+	 * processed in parallel
+	 */
+	private List<Map<TreeSet<String>, TreeSet<String>>> getTraceTandemRepeatMapList(){
+		if(traceTandemRepeatMapList != null)
+			return traceTandemRepeatMapList;
+		
+		List<Callable<Map<TreeSet<String>, TreeSet<String>>>> taskList = new ArrayList<Callable<Map<TreeSet<String>, TreeSet<String>>>>();
+		for(InstanceProfile instanceProfile : instanceProfileList){
+			final int[] activityIds = instanceProfile.getActivityIdArray();
+			final int start = instanceProfile.getActivityIdStart();
+			final int end = instanceProfile.getActivityIdEnd();
+			taskList.add(new Callable<Map<TreeSet<String>, TreeSet<String>>>() {
+				public Map<TreeSet<String>, TreeSet<String>> call() {
+					if(end - start <= 2)
+						return new HashMap<TreeSet<String>, TreeSet<String>>();
+					
+					IntegerSuffixTree suffixTree = new IntegerSuffixTree(activitySymbols, activityIds, start, end);
+					suffixTree.LZDecomposition();
+					return suffixTree.getPrimitiveTandemRepeats();
+				}
+			});
+		}
+		
+		traceTandemRepeatMapList = ParallelTaskExecutor.invokeAll(taskList, noThreads);
+		return traceTandemRepeatMapList;
+	}
+	
+	/*
+	 * Merges the tandem repeats of all traces into tandemRepeatSet; the tandem repeats
+	 * whose length is the size of their alphabet also go into baseTandemRepeatSet (if not null)
+	 */
+	private void mergeTraceTandemRepeats(Set<String> tandemRepeatSet, Set<String> baseTandemRepeatSet){
+		Set<String> loopAlphabetPatternSet;
+		for(Map<TreeSet<String>, TreeSet<String>> loopAlphabetLoopPatternSetMap : getTraceTandemRepeatMapList()){
+			for(Set<String> trAlphabet : loopAlphabetLoopPatternSetMap.keySet()){
+				loopAlphabetPatternSet = loopAlphabetLoopPatternSetMap.get(trAlphabet);
+				tandemRepeatSet.addAll(loopAlphabetPatternSet);
+				
+				if(baseTandemRepeatSet == null)
+					continue;
+				for(String tandemRepeat : loopAlphabetPatternSet){
+					if(tandemRepeat.length()/encodingLength == trAlphabet.size()){
+						baseTandemRepeatSet.add(tandemRepeat);
+					}
+				}
+			}
+		}
+	}
+	
 	private List<InstanceProfile> preprocessLogForTandemRepeats(){
 		//Logger.printCall("Calling FeatureExtraction->preprocessLogForTandemRepeats()");
 		
 		List<InstanceProfile> processedInstanceProfileList = new ArrayList<InstanceProfile>();
-		UkkonenSuffixTree suffixTree;
 		Set<String> tandemRepeatSet = new HashSet<String>();
-		Map<TreeSet<String>, TreeSet<String>> loopAlphabetLoopPatternSetMap;
-		for(InstanceProfile instanceProfile : instanceProfileList){
-			if(instanceProfile.getEncodedTrace().length() > 2*encodingLength){
-				suffixTree = new UkkonenSuffixTree(encodingLength, instanceProfile.getEncodedTrace());
-				suffixTree.LZDecomposition();
-				loopAlphabetLoopPatternSetMap = suffixTree.getPrimitiveTandemRepeats();
-				for(Set<String> trAlphabet : loopAlphabetLoopPatternSetMap.keySet())
-					tandemRepeatSet.addAll(loopAlphabetLoopPatternSetMap.get(trAlphabet));
-			}
-		}
+		mergeTraceTandemRepeats(tandemRepeatSet, null);
 		
 		EquivalenceClass equivalenceClass = new EquivalenceClass();
 		Map<String, Set<String>> startSymbolEquivalenceClassMap = equivalenceClass.getStartSymbolEquivalenceClassMap(encodingLength, tandemRepeatSet, false);
 		
-		String encodedInstance, currentSymbol;
-		int encodedInstanceLength;
-		Set<String> startSymbolEquivalenceClassSet;
+		/*
+		 * The tandem repeats as activity ids, by the activity id of their start symbol 
+		 * (in the order of the equivalence classes)
+		 */
+		Map<Integer, List<int[]>> startActivityTandemRepeatListMap = new HashMap<Integer, List<int[]>>();
+		List<int[]> tandemRepeatList;
+		for(String startSymbol : startSymbolEquivalenceClassMap.keySet()){
+			tandemRepeatList = new ArrayList<int[]>();
+			for(String tandemRepeat : startSymbolEquivalenceClassMap.get(startSymbol))
+				tandemRepeatList.add(activityDictionary.getActivityIds(tandemRepeat));
+			startActivityTandemRepeatListMap.put(activityDictionary.getCodeId(startSymbol), tandemRepeatList);
+		}
 		
-		Pattern pattern;
-		Matcher matcher;
-		StringBuilder modifiedCharStream = new StringBuilder();
-		InstanceProfile modifiedInstanceProfile;
+		int[] activityIds, modifiedActivityIds;
+		int start, end, noModifiedActivityIds, noCopies;
 		boolean hasPattern;
 		for(InstanceProfile instanceProfile : instanceProfileList){
-			encodedInstance = instanceProfile.getEncodedTrace();
-			encodedInstanceLength = encodedInstance.length()/encodingLength;
-			modifiedCharStream.setLength(0);
-			//System.out.println("Original Trace: "+encodedInstance+" @ "+encodedInstanceLength);
-			for(int i = 0; i < encodedInstanceLength; i++){
-				currentSymbol = encodedInstance.substring(i*encodingLength, (i+1)*encodingLength);
-				if(startSymbolEquivalenceClassMap.containsKey(currentSymbol)){
-					startSymbolEquivalenceClassSet = startSymbolEquivalenceClassMap.get(currentSymbol);
-					hasPattern = false;
-//					System.out.println(currentSymbol+"@"+startSymbolEquivalenceClassSet);
-					for(String tandemRepeat : startSymbolEquivalenceClassSet){
-						pattern = Pattern.compile("("+tandemRepeat+"){1,}");
-						matcher = pattern.matcher(encodedInstance);
-						if(matcher.find(i*encodingLength) && matcher.start() == i*encodingLength){
-							modifiedCharStream.append(tandemRepeat);
-							i = matcher.end()/encodingLength-1;
+			activityIds = instanceProfile.getActivityIdArray();
+			start = instanceProfile.getActivityIdStart();
+			end = instanceProfile.getActivityIdEnd();
+			modifiedActivityIds = new int[end-start];
+			noModifiedActivityIds = 0;
+			for(int i = start; i < end; i++){
+				tandemRepeatList = startActivityTandemRepeatListMap.get(activityIds[i]);
+				hasPattern = false;
+				if(tandemRepeatList != null){
+					/*
+					 * Collapse the back-to-back copies of the first tandem repeat 
+					 * that starts here into one copy
+					 */
+					for(int[] tandemRepeat : tandemRepeatList){
+						noCopies = AlphabetFeatureMatcher.countTandemCopies(activityIds, i, end, tandemRepeat);
+						if(noCopies > 0){
+							System.arraycopy(tandemRepeat, 0, modifiedActivityIds, noModifiedActivityIds, tandemRepeat.length);
+							noModifiedActivityIds += tandemRepeat.length;
+							i += noCopies*tandemRepeat.length-1;
 							hasPattern = true;
 							break;
 						}
 					}
-					if(!hasPattern){
-						modifiedCharStream.append(currentSymbol);	
-					}
-				}else{
-					modifiedCharStream.append(currentSymbol);
 				}
+				if(!hasPattern)
+					modifiedActivityIds[noModifiedActivityIds++] = activityIds[i];
 			}
 			
-//			System.out.println("Modified Trace: "+modifiedCharStream);
-			modifiedInstanceProfile = new InstanceProfile(instanceProfile.getName(), modifiedCharStream.toString(),instanceProfile.getLabel());
-			processedInstanceProfileList.add(modifiedInstanceProfile);
+			processedInstanceProfileList.add(new InstanceProfile(instanceProfile.getName(), Arrays.copyOf(modifiedActivityIds, noModifiedActivityIds), activityDictionary, instanceProfile.getLabel()));
 		}
 		
 		//Logger.printReturn("Returning FeatureExtraction->preprocessLogForTandemRepeats()");
@@ -475,14 +558,14 @@ public class FeatureExtraction {
 	 * Compute features for MR,SMR,NSMR.
 	 * This is on the whole log (all traces concatenated)
 	 * encodingLength: length of encoded activity
-	 * charStream: all traces concatenated into one string, separated with traceID
+	 * activityIds: all traces concatenated into one sequence of activity ids, separated with traceID
 	 * repeatFeatureSet: either TR,MR,SMR,NSMR
 	 * Output: 
 	 * originalSequenceFeatureSetMap: set of features for each feature type
 	 * baseSequenceFeatureSetMap: set of features for each feature type, these features contain no repetitive alphabet 
 	 * 		components
 	 */
-	private void computeRepeatfeatureFeatureSetMap(int encodingLength, String charStream, Set<Feature> repeatFeatureSet){
+	private void computeRepeatfeatureFeatureSetMap(int encodingLength, int[] activityIds, Set<Feature> repeatFeatureSet){
 		//Logger.printCall("Calling FeatureExtraction->computeRepeatfeatureFeatureSetMap");
 		Logger.println(repeatFeatureSet);
 	
@@ -490,7 +573,7 @@ public class FeatureExtraction {
 		Map<Set<String>, Set<String>> alphabetPatternEquivalenceClassMap;
 		Set<String> alphabetEquivalenceClassPatternSet;
 		
-		UkkonenSuffixTree suffixTree = new UkkonenSuffixTree(encodingLength, charStream);
+		RepeatFinder suffixTree = createRepeatFinder(repeatEngineType, activitySymbols, activityIds);
 		suffixTree.findLeftDiverseNodes();
 		for(Feature feature : repeatFeatureSet){
 			switch(feature){
@@ -563,6 +646,31 @@ public class FeatureExtraction {
 		//Logger.printReturn("Returning FeatureExtraction->computeRepeatfeatureFeatureSetMap");
 	}
 	
+	/*
+	 * The structure for the whole-log repeats; all engines return the same repeats
+	 */
+	public static RepeatFinder createRepeatFinder(RepeatEngineType repeatEngineType, int encodingLength, String charStream){
+		switch(repeatEngineType){
+		case SuffixArray:
+			return new SuffixArray(encodingLength, charStream);
+		default:
+			return new UkkonenSuffixTree(encodingLength, charStream);
+		}
+	}
+	
+	/*
+	 * Same as createRepeatFinder(RepeatEngineType, int, String) for a sequence of activity ids, 
+	 * e.g., all traces of a log; activitySymbols is the symbol table of their ActivityDictionary
+	 */
+	public static RepeatFinder createRepeatFinder(RepeatEngineType repeatEngineType, ActivitySymbols activitySymbols, int[] activityIds){
+		switch(repeatEngineType){
+		case SuffixArray:
+			return new SuffixArray(activitySymbols, activityIds, 0, activityIds.length);
+		default:
+			return new IntegerSuffixTree(activitySymbols, activityIds, 0, activityIds.length);
+		}
+	}
+	
 	/*
 	 * Similar to computeRepeatfeatureFeatureSetMap
 	 * Return: originalAlphabetFeatureSetMap, baseAlphabetFeatureSetMap
@@ -573,14 +681,14 @@ public class FeatureExtraction {
 	 * Key: set of alphabet 
 	 * Value: set of equivalence classes of the key
 	 */
-	private void computeRepeatAlphabetfeatureFeatureSetMap(int encodingLength, String charStream, Set<Feature> repeatfeatureSet){
+	private void computeRepeatAlphabetfeatureFeatureSetMap(int encodingLength, int[] activityIds, Set<Feature> repeatfeatureSet){
 		//Logger.printCall("Calling FeatureExtraction->computeRepeatAlphabetfeatureFeatureSetMap");
 		
 		EquivalenceClass equivalenceClass = new EquivalenceClass();
 		Map<Set<String>, Set<String>> alphabetPatternEquivalenceClassMap;
 		Set<String> alphabetEquivalenceClassPatternSet;
 		
-		UkkonenSuffixTree suffixTree = new UkkonenSuffixTree(encodingLength, charStream);
+		RepeatFinder suffixTree = createRepeatFinder(repeatEngineType, activitySymbols, activityIds);
 		suffixTree.findLeftDiverseNodes();
 		
 		for(Feature feature : repeatfeatureSet){
@@ -832,11 +940,9 @@ public class FeatureExtraction {
 		Set<String> sequenceFeatureSet;
 		
 		List<InstanceProfile> instanceProfileList = new ArrayList<InstanceProfile>();
-		String encodedTrace, currentSymbol;
-		int encodedTraceLength, count;
-		EquivalenceClass equivalenceClass = new EquivalenceClass();
-		Map<String, Set<String>> startSymbolEquivalenceClassMap;
-		Set<String> startSymbolEquivalenceClassSet;
+		int count;
+		SequenceFeatureMatcher sequenceFeatureMatcher;
+		Map<String, Integer> encodedTraceSequenceFeatureCountMap;
 		Set<String> instanceSequenceFeatureSet = new HashSet<String>();
 		
 		for(Feature feature : featureSequenceFeatureMap.keySet()){
@@ -867,30 +973,19 @@ public class FeatureExtraction {
 					break;
 			}
 			sequenceFeatureSet = featureSequenceFeatureMap.get(feature);
-			startSymbolEquivalenceClassMap = equivalenceClass.getStartSymbolEquivalenceClassMap(encodingLength, sequenceFeatureSet);
+			sequenceFeatureMatcher = new SequenceFeatureMatcher(activityDictionary, sequenceFeatureSet);
 			sequenceFeatureNOCMap = new HashMap<String, Integer>();
 			sequenceFeatureInstanceCountMap = new HashMap<String, Integer>();
 			instanceSequenceFeatureSet.clear();
 			for(InstanceProfile instanceProfile : instanceProfileList){
-				encodedTrace = instanceProfile.getEncodedTrace();
-//				System.out.println("H: "+encodedTrace);
-				encodedTraceLength = encodedTrace.length()/encodingLength;
-				for(int i = 0; i < encodedTraceLength; i++){
-					currentSymbol = encodedTrace.substring(i*encodingLength, (i+1)*encodingLength);
-					if(startSymbolEquivalenceClassMap.containsKey(currentSymbol)){
-						startSymbolEquivalenceClassSet = startSymbolEquivalenceClassMap.get(currentSymbol);
-//						System.out.println(currentSymbol+"@"+startSymbolEquivalenceClassSet);
-						for(String pattern : startSymbolEquivalenceClassSet){
-							if(encodedTrace.indexOf(pattern, i*encodingLength) == i*encodingLength){
-								count = 1;
-								if(sequenceFeatureNOCMap.containsKey(pattern)){
-									count += sequenceFeatureNOCMap.get(pattern);
-								}
-								sequenceFeatureNOCMap.put(pattern, count);
-								instanceSequenceFeatureSet.add(pattern);
-							}
-						}
+				encodedTraceSequenceFeatureCountMap = sequenceFeatureMatcher.getFeatureCountMap(instanceProfile.getActivityIdArray(), instanceProfile.getActivityIdStart(), instanceProfile.getActivityIdEnd());
+				for(String pattern : encodedTraceSequenceFeatureCountMap.keySet()){
+					count = encodedTraceSequenceFeatureCountMap.get(pattern);
+					if(sequenceFeatureNOCMap.containsKey(pattern)){
+						count += sequenceFeatureNOCMap.get(pattern);
 					}
+					sequenceFeatureNOCMap.put(pattern, count);
+					instanceSequenceFeatureSet.add(pattern);
 				}
 				
 				for(String pattern : instanceSequenceFeatureSet){
@@ -935,51 +1030,11 @@ public class FeatureExtraction {
 		 * ("ab0ab1", 2)
 		 * ("cd0cd1cd2", 3)
 		 * ("de0de1", 4)
+		 * The features are found with an automaton built on the feature set; to count 
+		 * the features of many traces, build a SequenceFeatureMatcher once and use 
+		 * its getFeatureCountMap for each trace
 		 */
-		Map<String, Integer> encodedTraceSequenceFeatureCountMap = new HashMap<String, Integer>();
-		
-		EquivalenceClass equivalenceClass = new EquivalenceClass();
-		
-		/* Get a structure below from the feature set, 
-		 * The key is the first activity in the feature
-		 * The value is a set of features which commonly have the key as prefix
-		 * The set is sorted from the longest to the shortest feature
-		 * ab0, {ab0ab1ab2, ab0ab3}
-		 * cd0, {cd0cd1, cd0cd2}
-		 * de0, {de0de1, de0de2de3}
-		 * ef0, {ef0ef1ef2ef3, ef0ef4, ef0ef5}
-		 */
-		Map<String, Set<String>> startSymbolEquivalenceClassMap = equivalenceClass.getStartSymbolEquivalenceClassMap(encodingLength, featureSet);
-		
-		Set<String> startSymbolEquivalenceClassSet;
-		
-		int encodedTraceLength = encodedTrace.length()/encodingLength;
-		
-		String currentSymbol;
-		int count;
-		/*
-		 * Scan every activity in the trace
-		 */
-		for(int i = 0; i < encodedTraceLength; i++){
-			currentSymbol = encodedTrace.substring(i*encodingLength, (i+1)*encodingLength);
-			
-			//Consider the activity if it is found as prefix of any feature
-			if(startSymbolEquivalenceClassMap.containsKey(currentSymbol)){
-				startSymbolEquivalenceClassSet = startSymbolEquivalenceClassMap.get(currentSymbol);
-//				System.out.println(currentSymbol+"@"+startSymbolEquivalenceClassSet);
-				
-				//Fore each feature, search for its occurrence in the trace
-				for(String pattern : startSymbolEquivalenceClassSet){
-					if(encodedTrace.indexOf(pattern, i*encodingLength) == i*encodingLength){
-						count = 1;
-						if(encodedTraceSequenceFeatureCountMap.containsKey(pattern)){
-							count += encodedTraceSequenceFeatureCountMap.get(pattern);
-						}
-						encodedTraceSequenceFeatureCountMap.put(pattern, count);
-					}
-				}
-			}
-		}
+		Map<String, Integer> encodedTraceSequenceFeatureCountMap = new SequenceFeatureMatcher(encodingLength, featureSet).getFeatureCountMap(encodedTrace);
 		
 //		Logger.printReturn("Returning FeatureExtraction->computeNonOverlapSequenceFeatureCountMap()-> feature set size: "+featureSet.size());
 		return encodedTraceSequenceFeatureCountMap;
@@ -1003,79 +1058,12 @@ public class FeatureExtraction {
 	public Map<Set<String>, Integer> computeNonOverlapAlphabetFeatureCountMap(int encodingLength, String encodedTrace, Map<Set<String>, Set<String>> alphabetFeatureSetMap){
 //		Logger.printCall("Calling FeatureExtraction->computeNonOverlapAlphabetFeatureCountMap()-> feature set size: "+alphabetFeatureSetMap.size());
 		
-		Map<Set<String>, Integer> encodedTraceAlphabetCountMap = new HashMap<Set<String>, Integer>();
-		
-		TreeSet<String> alphabetFeatureSet;
-		Set<String> allAlphabetFeatureSet = new HashSet<String>();
-		
-		for (Set<String> alphabet : alphabetFeatureSetMap.keySet())
-			allAlphabetFeatureSet.addAll(alphabetFeatureSetMap.get(alphabet));
-
-		boolean encodedTraceHasPattern;
-		int encodedTraceLength = encodedTrace.length()/encodingLength;
-		Pattern pattern;
-		Matcher matcher;
-		int maxCount, repeatLength, patternCount, noMatches;
-		String maxCountPattern;
-		for (Set<String> alphabet : alphabetFeatureSetMap.keySet()) {
-			alphabetFeatureSet = new TreeSet<String>();
-			alphabetFeatureSet.addAll(alphabetFeatureSetMap.get(alphabet));
-
-			encodedTraceHasPattern = false;
-			for (String repeatPattern : alphabetFeatureSet) {
-				if (encodedTrace.contains(repeatPattern)) {
-					encodedTraceHasPattern = true;
-					break;
-				}
-			}
-			if (encodedTraceHasPattern) {
-				for (int i = 0; i < encodedTraceLength; i++) {
-					maxCount = 0;
-					maxCountPattern = "";
-					for (String repeatPattern : alphabetFeatureSet) {
-						// First check if this repeat pattern exists
-						// starting at this index; only if it exists then
-						// use the pattern matcher
-						if (encodedTrace.indexOf(repeatPattern, i
-								* encodingLength) == i * encodingLength) {
-							// w.start();
-							pattern = Pattern.compile("(" + repeatPattern
-									+ "){1,}");
-							matcher = pattern.matcher(encodedTrace);
-							if (matcher.find(i * encodingLength)
-									&& matcher.start() == i
-											* encodingLength) {
-								repeatLength = repeatPattern.length()
-										/ encodingLength;
-								noMatches = (matcher.end() - matcher
-										.start())
-										/ (repeatLength * encodingLength);
-								if (noMatches > maxCount) {
-									maxCount = noMatches;
-									maxCountPattern = repeatPattern;
-								}
-							}
-							// System.out.println("Took "+w.msecs()+" msecs for pattern matching");
-						}
-					}
-					if (maxCount > 0) {
-						// No need to actually compute the counts again as
-						// we have already stored the maxCount and
-						// maxCountPattern information
-						repeatLength = maxCountPattern.length()
-								/ encodingLength;
-						i += repeatLength * maxCount - 1;
-						patternCount = 0;
-						if (encodedTraceAlphabetCountMap.containsKey(alphabet)) {
-							patternCount = encodedTraceAlphabetCountMap.get(alphabet);
-						}
-
-						encodedTraceAlphabetCountMap.put((TreeSet<String>) alphabet,
-								maxCount + patternCount);
-					}
-				}
-			}
-		}
+		/*
+		 * The patterns are sorted and converted once per call; to count the 
+		 * features of many traces, build an AlphabetFeatureMatcher once and use 
+		 * it for all of them
+		 */
+		Map<Set<String>, Integer> encodedTraceAlphabetCountMap = new AlphabetFeatureMatcher(encodingLength, alphabetFeatureSetMap).getAlphabetCountMap(encodedTrace);
 		
 //		Logger.printReturn("Returning FeatureExtraction->computeNonOverlapAlphabetFeatureCountMap()-> feature set size: "+alphabetFeatureSetMap.size());
 		return encodedTraceAlphabetCountMap;
@@ -1140,111 +1128,24 @@ public class FeatureExtraction {
 		Map<Set<String>, Integer> nonOverlapAlphabetCountMap = new HashMap<Set<String>, Integer>();
 		Map<Set<String>, Integer> nonOverlapAlphabetInstanceCountMap = new HashMap<Set<String>, Integer>();
 
-		Map<TreeSet<String>, Integer> alphabetCountMap = new HashMap<TreeSet<String>, Integer>();
-		Map<TreeSet<String>, Integer> alphabetInstanceCountMap = new HashMap<TreeSet<String>, Integer>();
-		Map<String, Integer> patternCountMap = new HashMap<String, Integer>();
-
-		int patternCount;
+		Map<Set<String>, Integer> alphabetCountMap = new HashMap<Set<String>, Integer>();
+		Map<Set<String>, Integer> alphabetInstanceCountMap = new HashMap<Set<String>, Integer>();
 
-		TreeSet<String> alphabetFeatureSet;
-
-		Set<String> allAlphabetFeatureSet = new HashSet<String>();
-		
-		for (Set<String> alphabet : alphabetFeatureSetMap.keySet())
-			allAlphabetFeatureSet.addAll(alphabetFeatureSetMap.get(alphabet));
-
-		int encodedTraceLength, count;
-		boolean encodedTraceHasPattern;
-		Pattern pattern;
-		Matcher matcher;
-		String maxCountPattern;
-		int maxCount, noMatches, repeatLength;
-		Set<TreeSet<String>> encodedTraceContributingAlphabetSet = new HashSet<TreeSet<String>>();
-		
-		String encodedTrace;
+		/*
+		 * The alphabets with a non-zero count in a trace are the ones the trace
+		 * contributes to (for the instance count)
+		 */
+		AlphabetFeatureMatcher alphabetFeatureMatcher = new AlphabetFeatureMatcher(activityDictionary, alphabetFeatureSetMap);
+		Map<Set<String>, Integer> encodedTraceAlphabetCountMap;
+		Integer count;
 		for (InstanceProfile instanceProfile : instanceProfileList) {
-			encodedTrace = instanceProfile.getEncodedTrace();
-			encodedTraceContributingAlphabetSet.clear();
-			encodedTraceLength = encodedTrace.length() / encodingLength;
+			encodedTraceAlphabetCountMap = alphabetFeatureMatcher.getAlphabetCountMap(instanceProfile.getActivityIdArray(), instanceProfile.getActivityIdStart(), instanceProfile.getActivityIdEnd());
+			for (Set<String> alphabet : encodedTraceAlphabetCountMap.keySet()) {
+				count = alphabetCountMap.get(alphabet);
+				alphabetCountMap.put(alphabet, encodedTraceAlphabetCountMap.get(alphabet) + (count == null ? 0 : count));
 
-			// For each alphabet, check first whether this subtrace contains the
-			// repeat under the alphabet; if so, get the non-overlapping count
-			// of that repeat alphabet
-			for (Set<String> alphabet : alphabetFeatureSetMap.keySet()) {
-				alphabetFeatureSet = new TreeSet<String>();
-				alphabetFeatureSet.addAll(alphabetFeatureSetMap.get(alphabet));
-
-				encodedTraceHasPattern = false;
-				for (String repeatPattern : alphabetFeatureSet) {
-					if (encodedTrace.contains(repeatPattern)) {
-						encodedTraceHasPattern = true;
-						break;
-					}
-				}
-				if (encodedTraceHasPattern) {
-					for (int i = 0; i < encodedTraceLength; i++) {
-						maxCount = 0;
-						maxCountPattern = "";
-						for (String repeatPattern : alphabetFeatureSet) {
-							// First check if this repeat pattern exists
-							// starting at this index; only if it exists then
-							// use the pattern matcher
-							if (encodedTrace.indexOf(repeatPattern, i
-									* encodingLength) == i * encodingLength) {
-								// w.start();
-								pattern = Pattern.compile("(" + repeatPattern
-										+ "){1,}");
-								matcher = pattern.matcher(encodedTrace);
-								if (matcher.find(i * encodingLength)
-										&& matcher.start() == i
-												* encodingLength) {
-									repeatLength = repeatPattern.length()
-											/ encodingLength;
-									noMatches = (matcher.end() - matcher
-											.start())
-											/ (repeatLength * encodingLength);
-									if (noMatches > maxCount) {
-										maxCount = noMatches;
-										maxCountPattern = repeatPattern;
-									}
-								}
-								// System.out.println("Took "+w.msecs()+" msecs for pattern matching");
-							}
-						}
-						if (maxCount > 0) {
-							// No need to actually compute the counts again as
-							// we have already stored the maxCount and
-							// maxCountPattern information
-							repeatLength = maxCountPattern.length()
-									/ encodingLength;
-							i += repeatLength * maxCount - 1;
-							patternCount = 0;
-							if (patternCountMap.containsKey(maxCountPattern))
-								patternCount = patternCountMap
-										.get(maxCountPattern);
-							patternCountMap.put(maxCountPattern, maxCount
-									+ patternCount);
-							patternCount = 0;
-							if (alphabetCountMap.containsKey(alphabet)) {
-								patternCount = alphabetCountMap.get(alphabet);
-							}
-
-							alphabetCountMap.put((TreeSet<String>) alphabet,
-									maxCount + patternCount);
-
-							encodedTraceContributingAlphabetSet
-									.add((TreeSet<String>) alphabet);
-						}
-					}
-				}
-			}
-
-			for (TreeSet<String> alphabet : encodedTraceContributingAlphabetSet) {
-				count = 0;
-				if (alphabetInstanceCountMap.containsKey(alphabet)) {
-					count = alphabetInstanceCountMap.get(alphabet);
-				}
-				alphabetInstanceCountMap.put(alphabet, count + 1);
+				count = alphabetInstanceCountMap.get(alphabet);
+				alphabetInstanceCountMap.put(alphabet, count == null ? 1 : count + 1);
 			}
 		}
 	
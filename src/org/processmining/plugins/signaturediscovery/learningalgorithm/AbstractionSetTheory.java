@@ -1,6 +1,5 @@
 package org.processmining.plugins.signaturediscovery.learningalgorithm;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -22,6 +21,10 @@ import org.jgrapht.graph.SimpleDirectedGraph;
  *          and Computer Science, TU/e
  * 
  * This class computes the Hasse diagram for a given set of pattern alphabets
+ * 
+ * The maximal elements are found without the Hasse diagram (see 
+ * MaximalSetFinder), which is only built when it is asked for (getHasseDiagram, 
+ * printGraph)
  */
 
 public class AbstractionSetTheory {
@@ -30,6 +33,7 @@ public class AbstractionSetTheory {
 	Map<Integer, Set<Set<String>>> sizeAlphabetSetMap;
 	Map<Set<String>, Set<Set<String>>> alphabetMaximalElementSetMap;
 	Map<Set<String>, Set<Set<String>>> maximalElementSubsumedAlphabetSetMap;
+	MaximalSetFinder<String> maximalSetFinder;
 	
 	/*
 	 * Store the sizes of the alphabet; It would be required when constructing
@@ -61,12 +65,21 @@ public class AbstractionSetTheory {
 			sortedSizeArray[index++] = size;
 		
 		Arrays.sort(sortedSizeArray);
-		
-		sg = new SimpleDirectedGraph<Set<String>, DefaultEdge>(DefaultEdge.class);
-		for(Set<String> alphabet : alphabetSet)
-			sg.addVertex(alphabet);
-		
-		buildLayeredGraph();
+	}
+	
+	/*
+	 * Return: the Hasse diagram of the alphabets, with an edge from every 
+	 * alphabet to the alphabets that cover it; built on the first call
+	 */
+	public SimpleDirectedGraph<Set<String>, DefaultEdge> getHasseDiagram(){
+		if(sg == null){
+			sg = new SimpleDirectedGraph<Set<String>, DefaultEdge>(DefaultEdge.class);
+			for(Set<String> alphabet : alphabetSet)
+				sg.addVertex(alphabet);
+			
+			buildLayeredGraph();
+		}
+		return sg;
 	}
 
 	protected void buildGraph(){
@@ -116,59 +129,46 @@ public class AbstractionSetTheory {
 		}
 	}
 	
+	/*
+	 * Return: the alphabets that are not a proper subset of another alphabet, in 
+	 * the order of alphabetSet
+	 */
 	public List<Set<String>> getMaximalElements(){
-		List<Set<String>> maximalElementList = new ArrayList<Set<String>>();
-		
-		for(Set<String> alphabet : sg.vertexSet()){
-			if(sg.outDegreeOf(alphabet) == 0)
-				maximalElementList.add(alphabet);
-		}
+		if(maximalSetFinder == null)
+			maximalSetFinder = new MaximalSetFinder<String>(alphabetSet);
+		return maximalSetFinder.getMaximalSetList();
+	}
+	
+	/*
+	 * Computes, with the subset tests of MaximalSetFinder, the maximal elements 
+	 * that contain every alphabet and the alphabets that every maximal element 
+	 * contains (the alphabets from which there is a path to it in the Hasse diagram)
+	 */
+	private void computeMaximalElementSubsumption(){
+		if(alphabetMaximalElementSetMap != null)
+			return;
+		getMaximalElements();
 		
 		alphabetMaximalElementSetMap = new HashMap<Set<String>, Set<Set<String>>>();
 		maximalElementSubsumedAlphabetSetMap = new HashMap<Set<String>, Set<Set<String>>>();
 		
-		Set<Set<String>> alphabetMaximalElementSet;
 		Set<Set<String>> maximalElementSubsumedAlphabetSet;
-		boolean maximalElementSubsumesAlphabet;
-		
 		for(Set<String> alphabet : alphabetSet){
-			for(Set<String> maximalElement : maximalElementList){
-				maximalElementSubsumesAlphabet = false;
-				if (!alphabet.equals(maximalElement)) {
-					DijkstraShortestPath<Set<String>, DefaultEdge> d = new DijkstraShortestPath<Set<String>, DefaultEdge>(
-							sg, alphabet, maximalElement);
-					if (d.getPathEdgeList() != null) {
-						if (alphabetMaximalElementSetMap.containsKey(alphabet))
-							alphabetMaximalElementSet = alphabetMaximalElementSetMap.get(alphabet);
-						else
-							alphabetMaximalElementSet = new HashSet<Set<String>>();
-						alphabetMaximalElementSet.add(maximalElement);
-						alphabetMaximalElementSetMap.put(alphabet, alphabetMaximalElementSet);
-						
-						maximalElementSubsumesAlphabet = true;
-					}
-				}else{
-					alphabetMaximalElementSet = new HashSet<Set<String>>();
-					alphabetMaximalElementSet.add(maximalElement);
-					alphabetMaximalElementSetMap.put(alphabet, alphabetMaximalElementSet);
-					maximalElementSubsumesAlphabet = true;
-				}
+			alphabetMaximalElementSetMap.put(alphabet, new HashSet<Set<String>>(maximalSetFinder.getContainingMaximalSetList(alphabet)));
+			for(Set<String> maximalElement : alphabetMaximalElementSetMap.get(alphabet)){
+				if(maximalElementSubsumedAlphabetSetMap.containsKey(maximalElement))
+					maximalElementSubsumedAlphabetSet = maximalElementSubsumedAlphabetSetMap.get(maximalElement);
+				else
+					maximalElementSubsumedAlphabetSet = new HashSet<Set<String>>();
 				
-				if(maximalElementSubsumesAlphabet){
-					if(maximalElementSubsumedAlphabetSetMap.containsKey(maximalElement))
-						maximalElementSubsumedAlphabetSet = maximalElementSubsumedAlphabetSetMap.get(maximalElement);
-					else
-						maximalElementSubsumedAlphabetSet = new HashSet<Set<String>>();
-					
-					maximalElementSubsumedAlphabetSet.add(alphabet);
-					maximalElementSubsumedAlphabetSetMap.put(maximalElement, maximalElementSubsumedAlphabetSet);
-				}
+				maximalElementSubsumedAlphabetSet.add(alphabet);
+				maximalElementSubsumedAlphabetSetMap.put(maximalElement, maximalElementSubsumedAlphabetSet);
 			}
 		}
-		return maximalElementList;
 	}
 	
 	public void printGraph(){
+		getHasseDiagram();
 		System.out.println("AlphabetSet for Abstration");
 		/*
 		 * Print the alphabetSet First
@@ -194,14 +194,17 @@ public class AbstractionSetTheory {
 	}
 
 	public Map<Set<String>, Set<Set<String>>> getAlphabetMaximalElementSetMap() {
+		computeMaximalElementSubsumption();
 		return alphabetMaximalElementSetMap;
 	}
 
 	public Map<Set<String>, Set<Set<String>>> getMaximalElementSubsumedAlphabetSetMap() {
+		computeMaximalElementSubsumption();
 		return maximalElementSubsumedAlphabetSetMap;
 	}
 	
 	public Set<Set<String>> getSubsumedAlphabetSet(Set<String> maximalElement){
+		computeMaximalElementSubsumption();
 		if(maximalElementSubsumedAlphabetSetMap.containsKey(maximalElement))
 			return maximalElementSubsumedAlphabetSetMap.get(maximalElement);
 		else
@@ -0,0 +1,142 @@
+package org.processmining.plugins.signaturediscovery.learningalgorithm;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The miners of the association sets of a class for
+ * ClassSpecificAssociationRuleMiner (see AssociationRuleEngineType). Both get
+ * the instances of the classes as items, i.e., attribute=value pairs such as
+ * "ab0=1", with the ids of the instances that contain them (their tidsets).
+ *
+ * The association sets of a class are the items with support > minSupport and
+ * confidence > minConfidence, and every union of two association sets over
+ * different attributes with support > minSupport and confidence >
+ * minConfidence. Confidence is not anti-monotone, so e.g. [a, b, c, d] can be
+ * an association set as the union of [a, b] and [c, d] while none of its
+ * 3-subsets is: the miners find the frequent itemsets over the items of the
+ * class, and keep the ones with enough confidence that split into two
+ * association sets (isSplit), subsets first.
+ */
+public abstract class AssociationSetMiner {
+	int noInstances;
+
+	/*
+	 * The items, e.g., "ab0=1", their groups (the attribute; items of the same
+	 * group are never combined) and their tidsets, by item id
+	 */
+	List<String> itemList;
+	List<Integer> itemGroupList;
+	List<BitSet> itemTidsetList;
+
+	public AssociationSetMiner(int noInstances) {
+		this.noInstances = noInstances;
+		this.itemList = new ArrayList<String>();
+		this.itemGroupList = new ArrayList<Integer>();
+		this.itemTidsetList = new ArrayList<BitSet>();
+	}
+
+	/*
+	 * Return: the id of the item
+	 */
+	public int addItem(String item, int group, BitSet tidset) {
+		itemList.add(item);
+		itemGroupList.add(group);
+		itemTidsetList.add(tidset);
+		return itemList.size() - 1;
+	}
+
+	public int getNoItems() {
+		return itemList.size();
+	}
+
+	public int getNoInstances() {
+		return noInstances;
+	}
+
+	/**
+	 * @param classTidset
+	 *            the ids of the instances of the class
+	 * @param minSupport
+	 * @param minConfidence
+	 * @return the association sets of the class, e.g., [[ab0=1], [ab0=1,
+	 *         cd1=2]]; empty if no item has enough support and confidence
+	 */
+	public abstract Set<Set<String>> getClassAssociationSet(BitSet classTidset, float minSupport, float minConfidence);
+
+	/*
+	 * Return: the association sets of the class for every min support value,
+	 * in the order of minSupports
+	 */
+	public List<Set<Set<String>>> getClassAssociationSetList(BitSet classTidset, float[] minSupports,
+			float minConfidence) {
+		List<Set<Set<String>>> classAssociationSetList = new ArrayList<Set<Set<String>>>();
+		for (float minSupport : minSupports)
+			classAssociationSetList.add(getClassAssociationSet(classTidset, minSupport, minConfidence));
+		return classAssociationSetList;
+	}
+
+	boolean isFrequent(int supportCount, float minSupport) {
+		return (float) supportCount / noInstances > minSupport;
+	}
+
+	boolean isConfident(int classSupportCount, int supportCount, float minConfidence) {
+		return (float) classSupportCount / supportCount > minConfidence;
+	}
+
+	int getClassSupportCount(BitSet tidset, BitSet classTidset) {
+		BitSet classItemSetTidset = (BitSet) tidset.clone();
+		classItemSetTidset.and(classTidset);
+		return classItemSetTidset.cardinality();
+	}
+
+	/*
+	 * itemSet: a set of item positions (at least 2)
+	 * Return: whether itemSet is the union of two of associationItemSetSet; the
+	 * one with the first item of itemSet is tried with every subset of the
+	 * other items
+	 */
+	static boolean isSplit(BitSet itemSet, Set<BitSet> associationItemSetSet) {
+		int[] items = new int[itemSet.cardinality()];
+		int noItems = 0;
+		for (int i = itemSet.nextSetBit(0); i >= 0; i = itemSet.nextSetBit(i + 1))
+			items[noItems++] = i;
+
+		BitSet leftItemSet = new BitSet();
+		BitSet rightItemSet = new BitSet();
+		long noSplits = (1L << (noItems - 1)) - 1;
+		for (long split = 0; split < noSplits; split++) {
+			leftItemSet.clear();
+			rightItemSet.clear();
+			leftItemSet.set(items[0]);
+			for (int i = 1; i < noItems; i++) {
+				if ((split & (1L << (i - 1))) != 0)
+					leftItemSet.set(items[i]);
+				else
+					rightItemSet.set(items[i]);
+			}
+			if (associationItemSetSet.contains(leftItemSet) && associationItemSetSet.contains(rightItemSet))
+				return true;
+		}
+		return false;
+	}
+
+	/*
+	 * items: the item ids of the item positions
+	 * Return: the item sets as sets of items, e.g., [ab0=1, cd1=2]
+	 */
+	Set<Set<String>> toAssociationSet(List<BitSet> associationItemSetList, int[] items) {
+		Set<Set<String>> associationSet = new HashSet<Set<String>>();
+		Set<String> association;
+		for (BitSet itemSet : associationItemSetList) {
+			association = new HashSet<String>();
+			for (int i = itemSet.nextSetBit(0); i >= 0; i = itemSet.nextSetBit(i + 1))
+				association.add(itemList.get(items[i]));
+			associationSet.add(association);
+		}
+		return associationSet;
+	}
+}
@@ -1,15 +1,16 @@
 package org.processmining.plugins.signaturediscovery.learningalgorithm;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import org.processmining.plugins.signaturediscovery.metrics.Metrics;
 import org.processmining.plugins.signaturediscovery.metrics.RuleListMetrics;
+import org.processmining.plugins.signaturediscovery.types.AssociationRuleEngineType;
 import org.processmining.plugins.signaturediscovery.types.Feature;
 import org.processmining.plugins.signaturediscovery.util.Logger;
 
@@ -31,92 +32,70 @@ import weka.core.Instances;
  */
 
 public class ClassSpecificAssociationRuleMiner {
-	float minSupport;
+	float[] minSupports;
 	float minConfidence;
+	AssociationRuleEngineType associationRuleEngineType;
 	Set<String> generateRulesForClassLabelSet;
-	Map<Feature, RuleListMetrics> featureRuleListMetrics;
-	public ClassSpecificAssociationRuleMiner(Map<Feature, Instances> featureInstancesMap, Set<String> generateRulesForClassLabelSet, float minSupport, float minConfidence){
+	
+	/*
+	 * The rules of the features, for every min support value in the order of minSupports
+	 */
+	List<Map<Feature, RuleListMetrics>> featureRuleListMetricsList;
+	
+	/*
+	 * The condition of every item (attribute=value) of the association sets of the 
+	 * current feature
+	 */
+	Map<String, RuleCondition> itemConditionMap;
+	
+	/*
+	 * Finds the rules for several min support values, e.g., 0.2, 0.3, ..., 0.9, at 
+	 * once (see getFeatureRuleListMetricsList); FPGrowth mines all of them from one 
+	 * FP-tree per class
+	 * associationRuleEngineType: Eclat or FPGrowth, see SignatureDiscoveryInput.associationRuleEngineType
+	 */
+	public ClassSpecificAssociationRuleMiner(Map<Feature, Instances> featureInstancesMap, Set<String> generateRulesForClassLabelSet, float[] minSupports, float minConfidence, AssociationRuleEngineType associationRuleEngineType){
 		this.generateRulesForClassLabelSet = generateRulesForClassLabelSet;
-		this.minSupport = minSupport;
+		this.minSupports = minSupports;
 		this.minConfidence = minConfidence;
-//		System.out.println(minSupport+" @ "+minConfidence);
+		this.associationRuleEngineType = associationRuleEngineType;
+//		System.out.println(Arrays.toString(minSupports)+" @ "+minConfidence);
 		findRules(featureInstancesMap);
 	}
 	
 	private void findRules(Map<Feature, Instances> featureInstancesMap){
 		Instances instances;
-		List<Instance> interestedClassInstanceList;
-		
-		List<Instance> filteredInstanceList;
-//		Set<Map<Attribute, String>> attributeValueMapSet;
-		List<Map<Attribute, String>> attributeValueMapList;
+		AssociationSetMiner associationSetMiner;
+		Map<String, BitSet> classValueTidsetMap;
 		
-		Map<String, Set<Map<Attribute, String>>> classValueAttributeValuePairSetMap;
-		Map<String, Set<Map<Attribute, String>>> tempClassValueCombinationAttributeValuePairSetMap;
-		Map<String, Set<Map<Attribute, String>>> classValueCombinationAttributeValuePairSetMap;
-		Set<Map<Attribute, String>> classValueCombinationAttributeValuePairSet;
+		Map<String, List<Set<Set<String>>>> classValueAssociationSetListMap;
+		Map<String, Set<Set<String>>> classValueAssociationSetMap;
+		Set<Set<String>> classValueAssociationSet;
 		
-//		Set<Map<Attribute, String>> classValueAttributeValuePairSet;
-		featureRuleListMetrics = new HashMap<Feature, RuleListMetrics>();
+		featureRuleListMetricsList = new ArrayList<Map<Feature, RuleListMetrics>>();
+		for(int i = 0; i < minSupports.length; i++)
+			featureRuleListMetricsList.add(new HashMap<Feature, RuleListMetrics>());
 		for(Feature feature : featureInstancesMap.keySet()){
 			instances = featureInstancesMap.get(feature);
-			interestedClassInstanceList = getInstancesForRequiredClasses(instances);
-			filteredInstanceList = interestedClassInstanceList;
-//			System.out.println("Feature: "+feature+" No. Features: "+(instances.numAttributes()-1));
-//			System.out.println("No. Instances of interested classes: "+interestedClassInstanceList.size());
-			
-			attributeValueMapList = getAttributeValueMapList(filteredInstanceList);
-//			System.out.println("No. Attributes satisfying min Support: "+attributeValueMapList.size());
-//			for(Map<Attribute, String> attributeValueMap : attributeValueMapList){
-//				for(Attribute attribute : attributeValueMap.keySet()){
-//					System.out.println(attribute.name()+" @ "+attributeValueMap.get(attribute)+" @ "+getSupport(attribute, attributeValueMap.get(attribute),filteredInstanceList));
-//				}
-//			}
-
-			classValueAttributeValuePairSetMap = getClassValueAttributeValuePairSetMap(attributeValueMapList, filteredInstanceList);
-			
-			tempClassValueCombinationAttributeValuePairSetMap = new HashMap<String, Set<Map<Attribute,String>>>(classValueAttributeValuePairSetMap);
-			classValueCombinationAttributeValuePairSetMap = new HashMap<String, Set<Map<Attribute,String>>>(classValueAttributeValuePairSetMap);
+			classValueTidsetMap = new HashMap<String, BitSet>();
+			associationSetMiner = getAssociationSetMiner(instances, classValueTidsetMap);
+//			System.out.println("Feature: "+feature+" No. Items: "+associationSetMiner.getNoItems()+" No. Instances of interested classes: "+associationSetMiner.getNoInstances());
 			
-//			for(String classValue : classValueAttributeValuePairSetMap.keySet()){
-//				classValueAttributeValuePairSet = classValueAttributeValuePairSetMap.get(classValue);
-//				for(Map<Attribute, String> attributeValueMap : classValueAttributeValuePairSet){
-//					for(Attribute attribute : attributeValueMap.keySet()){
-//						System.out.print(attribute.name()+" = "+attributeValueMap.get(attribute)+" , ");
-//					}
-//					
-//					System.out.println(" Then "+classValue);
-//				}
-//			}
+			classValueAssociationSetListMap = new HashMap<String, List<Set<Set<String>>>>();
+			for(String classValue : generateRulesForClassLabelSet)
+				classValueAssociationSetListMap.put(classValue, associationSetMiner.getClassAssociationSetList(classValueTidsetMap.get(classValue), minSupports, minConfidence));
 			
-			int noIterations = 0;
-			do{
-				tempClassValueCombinationAttributeValuePairSetMap = getCombinationAssociations(tempClassValueCombinationAttributeValuePairSetMap, classValueAttributeValuePairSetMap, filteredInstanceList);
-				if(tempClassValueCombinationAttributeValuePairSetMap.size() > 0){
-//					System.out.println("Got Combinations: ");
-//					for(String classValue : tempClassValueCombinationAttributeValuePairSetMap.keySet()){
-//						attributeValueMapSet = tempClassValueCombinationAttributeValuePairSetMap.get(classValue);
-//						for(Map<Attribute, String> attributeValueMap : attributeValueMapSet){
-//							for(Attribute attribute : attributeValueMap.keySet())
-//								System.out.print(attribute.name()+" = "+attributeValueMap.get(attribute)+", ");
-//							System.out.println(" Then "+classValue);
-//						}
-//					}
-					for(String classValue : tempClassValueCombinationAttributeValuePairSetMap.keySet()){
-						if(classValueCombinationAttributeValuePairSetMap.containsKey(classValue)){
-							classValueCombinationAttributeValuePairSet = classValueCombinationAttributeValuePairSetMap.get(classValue);
-							classValueCombinationAttributeValuePairSet.addAll(tempClassValueCombinationAttributeValuePairSetMap.get(classValue));
-							classValueCombinationAttributeValuePairSetMap.put(classValue, classValueCombinationAttributeValuePairSet);
-						}else{
-							classValueCombinationAttributeValuePairSetMap.put(classValue, tempClassValueCombinationAttributeValuePairSetMap.get(classValue));
-						}
-					}
+			for(int i = 0; i < minSupports.length; i++){
+				classValueAssociationSetMap = new HashMap<String, Set<Set<String>>>();
+				for(String classValue : generateRulesForClassLabelSet){
+					classValueAssociationSet = classValueAssociationSetListMap.get(classValue).get(i);
+					if(classValueAssociationSet.size() > 0)
+						classValueAssociationSetMap.put(classValue, classValueAssociationSet);
 				}
-				noIterations++;
-			}while(tempClassValueCombinationAttributeValuePairSetMap.size() > 0);
-			
-			List<String> ruleList = getMaximalAssociations(classValueCombinationAttributeValuePairSetMap);
-			featureRuleListMetrics.put(feature, evaluateRuleList(ruleList, instances));
+				
+				List<Rule> ruleList = getMaximalAssociations(classValueAssociationSetMap);
+				featureRuleListMetricsList.get(i).put(feature, evaluateRuleList(ruleList, instances, minSupports[i]));
+			}
 		}
 	}
 	
@@ -131,423 +110,107 @@ public class ClassSpecificAssociationRuleMiner {
 		return interestedClassInstanceList;
 	}
 	
-	private List<Map<Attribute, String>> getAttributeValueMapList(List<Instance> instanceList){
-		List<Map<Attribute, String>> attributeValueMapList = new ArrayList<Map<Attribute,String>>();
-		Map<Attribute, String> attributeValueMap;
+	/*
+	 * Builds the vertical layout of the instances of the classes in
+	 * generateRulesForClassLabelSet in one pass over them: the instance ids
+	 * (0, 1, 2, ... in the order of the instances) of every attribute=value
+	 * pair whose value is not 0, and of every class in classValueTidsetMap
+	 */
+	private AssociationSetMiner getAssociationSetMiner(Instances instances, Map<String, BitSet> classValueTidsetMap){
+		List<Instance> interestedClassInstanceList = getInstancesForRequiredClasses(instances);
+		int noInstances = interestedClassInstanceList.size();
+		int noAttributes = instances.numAttributes();
+		int classIndex = instances.classIndex();
+		
+		BitSet[][] attributeValueTidsets = new BitSet[noAttributes][];
+		for(int i = 0; i < noAttributes; i++)
+			attributeValueTidsets[i] = new BitSet[i == classIndex ? 0 : instances.attribute(i).numValues()];
+		for(String classValue : generateRulesForClassLabelSet)
+			classValueTidsetMap.put(classValue, new BitSet(noInstances));
 		
-		Instance instance = instanceList.get(0);
-		int noAttributes = instance.numAttributes();
-		int noAttributeValues;
-		Attribute currentAttribute, classAttribute;
-		classAttribute = instance.classAttribute();
-		for(int i = 0; i < noAttributes; i++){
-			currentAttribute = instance.attribute(i);
-			if(!currentAttribute.equals(classAttribute)){
-				noAttributeValues = currentAttribute.numValues();
-				for(int j = 0; j < noAttributeValues; j++){
-					if(currentAttribute.value(j).equalsIgnoreCase("0"))
-						continue;
-					if(getSupport(currentAttribute, currentAttribute.value(j), instanceList) > minSupport){
-						attributeValueMap = new HashMap<Attribute, String>();
-						attributeValueMap.put(currentAttribute, currentAttribute.value(j));
-						attributeValueMapList.add(attributeValueMap);
-					}
-				}
-				
-			}
-		}
-		return attributeValueMapList;
-	}
-	
-	private Map<String, Set<Map<Attribute, String>>> getClassValueAttributeValuePairSetMap(List<Map<Attribute, String>> attributeValueMapList, List<Instance> instanceList){
-		Map<String, Set<Map<Attribute, String>>> classValueAttributeValuePairSetMap = new HashMap<String, Set<Map<Attribute,String>>>();
-		Set<Map<Attribute, String>> classValueAttributeValuePairSet;
-		
-		Instance instance = instanceList.get(0);
-		Attribute classAttribute = instance.classAttribute();
-		float confidence;
-		List<Instance> filteredInstanceList;
-		for(Map<Attribute, String> attributeValueMap : attributeValueMapList){
-			filteredInstanceList = getFilteredInstanceList(attributeValueMap, instanceList);
-			for(String classValue : generateRulesForClassLabelSet){
-				confidence =getConfidence(classAttribute, classValue, filteredInstanceList); 
-//				System.out.println("confidence "+confidence);
-				if(confidence > minConfidence){
-					if(classValueAttributeValuePairSetMap.containsKey(classValue)){
-						classValueAttributeValuePairSet = classValueAttributeValuePairSetMap.get(classValue);
-					}else{
-						classValueAttributeValuePairSet = new HashSet<Map<Attribute,String>>();
-					}
-					classValueAttributeValuePairSet.add(attributeValueMap);
-					classValueAttributeValuePairSetMap.put(classValue, classValueAttributeValuePairSet);
-				}
+		Instance instance;
+		int valueIndex;
+		for(int tid = 0; tid < noInstances; tid++){
+			instance = interestedClassInstanceList.get(tid);
+			classValueTidsetMap.get(instance.stringValue(classIndex)).set(tid);
+			for(int i = 0; i < noAttributes; i++){
+				if(attributeValueTidsets[i].length == 0)
+					continue;
+				valueIndex = (int)instance.value(i);
+				if(attributeValueTidsets[i][valueIndex] == null)
+					attributeValueTidsets[i][valueIndex] = new BitSet(noInstances);
+				attributeValueTidsets[i][valueIndex].set(tid);
 			}
 		}
 		
-		return classValueAttributeValuePairSetMap;
-	}
-	
-	private Map<String, Set<Map<Attribute, String>>> getCombinationAssociations(Map<String, Set<Map<Attribute, String>>> classValueAttributeValuePairSetMapA, Map<String, Set<Map<Attribute, String>>> classValueAttributeValuePairSetMapB, List<Instance> instanceList){
-//		System.out.println("In getCombination");
-		
-		Set<Map<Attribute, String>> classValueAttributeValuePairSet;
-		List<Map<Attribute, String>> classValueAttributeValuePairListA = new ArrayList<Map<Attribute,String>>();
-		List<Map<Attribute, String>> classValueAttributeValuePairListB = new ArrayList<Map<Attribute,String>>();
-		int noAttributeValuePairMapsA, noAttributeValuePairMapsB;
-		Map<Attribute, String> tempAttributeValueMap;
-		
-		Set<Attribute> attributeSetA = new HashSet<Attribute>();
-		Set<Attribute> attributeSetB = new HashSet<Attribute>();
-		Set<Attribute> tempAttributeSet = new HashSet<Attribute>();
-		Set<Set<Attribute>> attributeCombinationSet = new HashSet<Set<Attribute>>();
-		
-		Attribute classAttribute = instanceList.get(0).classAttribute();
-		List<Instance> filteredInstanceList;
-		
-		Map<String, Set<Map<Attribute, String>>> classValueCombinationAttributeValuePairSetMap = new HashMap<String, Set<Map<Attribute,String>>>();
-		Set<Map<Attribute, String>> classValueCombinationAttributeValuePairSet;
-		
-		for(String classValue : classValueAttributeValuePairSetMapA.keySet()){
-			if(!classValueAttributeValuePairSetMapB.containsKey(classValue))
-				continue;
-//			System.out.println("Class Value: "+classValue);
-			classValueAttributeValuePairSet = classValueAttributeValuePairSetMapA.get(classValue);
-			classValueAttributeValuePairListA.clear();
-			classValueAttributeValuePairListA.addAll(classValueAttributeValuePairSet);
-			noAttributeValuePairMapsA = classValueAttributeValuePairListA.size();
-			
-			classValueAttributeValuePairSet = classValueAttributeValuePairSetMapB.get(classValue);
-			classValueAttributeValuePairListB.clear();
-			classValueAttributeValuePairListB.addAll(classValueAttributeValuePairSet);
-			noAttributeValuePairMapsB = classValueAttributeValuePairListB.size();
-			
-//			System.out.println("No. Attribute Value Pair Maps A: "+noAttributeValuePairMapsA);
-//			System.out.println("No. Attribute Value Pair Maps B: "+noAttributeValuePairMapsB);
-			
-			for(int i = 0; i < noAttributeValuePairMapsA; i++){
-				attributeSetA.clear();
-				attributeSetA.addAll(classValueAttributeValuePairListA.get(i).keySet());
-				for(int j = 0; j < noAttributeValuePairMapsB; j++){
-					attributeSetB.clear();
-					attributeSetB.addAll(classValueAttributeValuePairListB.get(j).keySet());
-					
-					tempAttributeSet.clear();
-					tempAttributeSet.addAll(attributeSetA);
-					tempAttributeSet.retainAll(attributeSetB);
-					
-					if(tempAttributeSet.size() == 0 && !attributeCombinationSet.contains(tempAttributeSet)){
-						tempAttributeValueMap  = new HashMap<Attribute, String>(classValueAttributeValuePairListA.get(i));
-						tempAttributeValueMap.putAll(classValueAttributeValuePairListB.get(j));
-//						System.out.println(attributeSetA+" ^ "+attributeSetB+" ^ "+tempAttributeValueMap.keySet());
-						attributeCombinationSet.add(tempAttributeValueMap.keySet());
-						if(getSupport(tempAttributeValueMap, instanceList) > minSupport){
-							filteredInstanceList = getFilteredInstanceList(tempAttributeValueMap, instanceList);
-							if(getConfidence(classAttribute, classValue, filteredInstanceList) > minConfidence){
-								if(classValueCombinationAttributeValuePairSetMap.containsKey(classValue)){
-									classValueCombinationAttributeValuePairSet = classValueCombinationAttributeValuePairSetMap.get(classValue);
-								}else{
-									classValueCombinationAttributeValuePairSet = new HashSet<Map<Attribute,String>>();
-								}
-								classValueCombinationAttributeValuePairSet.add(tempAttributeValueMap);
-								classValueCombinationAttributeValuePairSetMap.put(classValue, classValueCombinationAttributeValuePairSet);
-								
-//								for(Attribute attribute : tempAttributeValueMap.keySet()){
-//									System.out.print(attribute.name()+" = "+tempAttributeValueMap.get(attribute)+" , ");
-//								}
-//								
-//								System.out.println(" Then "+classValue);
-							}
-						}
-					}
+		AssociationSetMiner associationSetMiner;
+		if(associationRuleEngineType == AssociationRuleEngineType.FPGrowth)
+			associationSetMiner = new FPGrowthMiner(noInstances);
+		else
+			associationSetMiner = new EclatMiner(noInstances);
+		Attribute attribute;
+		RuleCondition condition;
+		itemConditionMap = new HashMap<String, RuleCondition>();
+		for(int i = 0; i < noAttributes; i++){
+			attribute = instances.attribute(i);
+			for(int j = 0; j < attributeValueTidsets[i].length; j++){
+				if(attributeValueTidsets[i][j] != null && !attribute.value(j).equalsIgnoreCase("0")){
+					condition = new RuleCondition(attribute.name(), RuleCondition.Operator.EQ, attribute.value(j));
+					itemConditionMap.put(condition.toString(), condition);
+					associationSetMiner.addItem(condition.toString(), i, attributeValueTidsets[i][j]);
 				}
 			}
-			
 		}
-		
-		return classValueCombinationAttributeValuePairSetMap;
+		return associationSetMiner;
 	}
 	
-	private List<String> getMaximalAssociations(Map<String, Set<Map<Attribute, String>>> classValueAttributeValuePairSetMap){
-		List<String> ruleList = new ArrayList<String>();
+	private List<Rule> getMaximalAssociations(Map<String, Set<Set<String>>> classValueAssociationSetMap){
+		List<Rule> ruleList = new ArrayList<Rule>();
 //		System.out.println("In getMaximalAssociations()");
-		Set<Map<Attribute, String>> classValueAttributeValuePairSet;
-		Set<Set<String>> associationCombinationSet = new HashSet<Set<String>>();
-		Set<String> associationSet;
 		AbstractionSetTheory ast;
 		List<Set<String>> maximalAssociationList;
-		Iterator<String> it;
-		String antecedant;
-		for(String classValue : classValueAttributeValuePairSetMap.keySet()){
-			classValueAttributeValuePairSet = classValueAttributeValuePairSetMap.get(classValue);
-			associationCombinationSet.clear();
-//			System.out.println(classValue+" @ No. AttributeValuePairSets: "+classValueAttributeValuePairSet.size());
-			for(Map<Attribute, String> attributeValueMap : classValueAttributeValuePairSet){
-				associationSet = new HashSet<String>();
-				for(Attribute attribute : attributeValueMap.keySet()){
-					associationSet.add(attribute.name()+"="+attributeValueMap.get(attribute));
-				}
-				associationCombinationSet.add(associationSet);
-			}
-//			System.out.println("Association Combination Set Size: "+associationCombinationSet.size());
-			ast = new AbstractionSetTheory(associationCombinationSet);
+		List<RuleCondition> conditionList = new ArrayList<RuleCondition>();
+		for(String classValue : classValueAssociationSetMap.keySet()){
+//			System.out.println("Association Combination Set Size: "+classValueAssociationSetMap.get(classValue).size());
+			ast = new AbstractionSetTheory(classValueAssociationSetMap.get(classValue));
 			maximalAssociationList = ast.getMaximalElements();
-			String rule;
 			for(Set<String> association : maximalAssociationList){
-				rule = "IF ";
-				it = association.iterator();
-				while(it.hasNext()){
-					antecedant = it.next();
-					rule += antecedant;
-					if(it.hasNext())
-						rule += " AND ";
-				}
-				rule += " THEN "+classValue;
-				ruleList.add(rule);
+				conditionList.clear();
+				for(String item : association)
+					conditionList.add(itemConditionMap.get(item));
+				ruleList.add(new Rule(conditionList, classValue));
 //				System.out.println(rule);
 			}
 		}
 		return ruleList;
 	}
 	
-	@SuppressWarnings("unused")
-	private void findRules1(Map<Feature, Instances> featureInstancesMap){
-		Instances instances;
-		List<Instance> filteredInstanceList = new ArrayList<Instance>();
-		String classValue;
-
-		String antecedant;
-		int noAttributeValues;
-		float support, confidence;
-		Attribute attribute;
-		String attributeValue;
-		int noAttributes;
-		int noInstances, noFilteredInstances;
-		String attributeClassValuePair;
-		int count;
-		Map<String, Integer> attributeValueInstanceCountMap = new HashMap<String, Integer>();
-		Map<String, Integer> attributeClassValuePairInstanceCountMap = new HashMap<String, Integer>();
-		for(Feature feature : featureInstancesMap.keySet()){
-//			System.out.println(feature);
-			instances = featureInstancesMap.get(feature);
-			noInstances = instances.numInstances();
-			noAttributes = instances.numAttributes()-1;
-			filteredInstanceList.clear();
-			
-			for(Instance instance : instances){
-				classValue = instance.stringValue(instance.classAttribute());
-				if(generateRulesForClassLabelSet.contains(classValue))
-					filteredInstanceList.add(instance);
-			}
-			
-			noFilteredInstances = filteredInstanceList.size();
-			
-			for(int i = 0; i < noAttributes; i++){
-				attribute = instances.attribute(i);
-				noAttributeValues = attribute.numValues();
-				
-				for(int j = 0; j < noAttributeValues; j++){
-					attributeValue = instances.attribute(i).value(j);
-					antecedant = instances.attribute(i).name()+" = "+attributeValue;
-					// get the support of this antecedant
-					support = 0;
-					for(Instance instance : filteredInstanceList){
-						if(instance.stringValue(attribute).equals(attributeValue))
-							support++;
-					}
-					attributeClassValuePairInstanceCountMap.clear();
-					if(support/noFilteredInstances > minSupport){
-//						System.out.println(antecedant+" has support "+support/noFilteredInstances);
-						attributeValueInstanceCountMap.clear();
-						for(Instance instance : filteredInstanceList){
-							if(instance.stringValue(attribute).equals(attributeValue)){
-								classValue = instance.stringValue(instance.classAttribute());
-								attributeClassValuePair = antecedant+"@"+classValue;
-								count = 1;
-								if(attributeValueInstanceCountMap.containsKey(attributeValue))
-									count += attributeValueInstanceCountMap.get(attributeValue);
-								attributeValueInstanceCountMap.put(attributeValue, count);
-								
-								count = 1;
-								if(attributeClassValuePairInstanceCountMap.containsKey(attributeClassValuePair)){
-									count += attributeClassValuePairInstanceCountMap.get(attributeClassValuePair);
-								}
-								attributeClassValuePairInstanceCountMap.put(attributeClassValuePair, count);
-							}
-						}
-						
-						for(String acPair : attributeClassValuePairInstanceCountMap.keySet()){
-							count = attributeClassValuePairInstanceCountMap.get(acPair);
-							confidence = (((float)count)/attributeValueInstanceCountMap.get(attributeValue));
-//							System.out.print(acPair+" has confidence "+confidence);
-//							if(confidence > minConfidence){
-//								System.out.println(" above min confidence "+minConfidence);
-//							}
-						}
-					}
-				}
-			}
-			
-			
-//			System.out.println("No. Filtered Instances: "+filteredInstanceList.size());
-		}
-	}
-	
-	private float getSupport(Attribute attribute, String attributeValue, List<Instance> instanceList){
-//		System.out.println("Computing support for: "+attribute.name()+"@"+attributeValue+":");
-		float support = 0;
-		for(Instance instance : instanceList){
-			if(instance.stringValue(attribute).equals(attributeValue))
-				support++;
-		}
-		return support/instanceList.size();
-	}
-	
-	private float getSupport(Map<Attribute, String> attributeValueMap, List<Instance> instanceList){
-		float support = 0;
-		boolean allSatisfied;
-		//If all attribute values are zero, return support = 0
-		boolean allZero = true;
-		for(Attribute attribute : attributeValueMap.keySet()){
-			if(!attributeValueMap.get(attribute).equalsIgnoreCase("0")){
-				allZero = false;
-				break;
-			}
-		}
-		if(allZero)
-			return support;
-		for(Instance instance : instanceList){
-			allSatisfied = true;
-			for(Attribute attribute : attributeValueMap.keySet()){
-				if(!instance.stringValue(attribute).equals(attributeValueMap.get(attribute))){
-					allSatisfied = false;
-					break;
-				}
-			}
-			if(allSatisfied)
-				support++;
-		}
-		return support/instanceList.size();
-	}
-	
-	private List<Instance> getFilteredInstanceList(Map<Attribute, String> attributeValueMap, List<Instance> instanceList){
-		List<Instance> filteredInstanceList = new ArrayList<Instance>();
-		boolean allSatisfied;
-		for(Instance instance : instanceList){
-			allSatisfied = true;
-			for(Attribute attribute : attributeValueMap.keySet()){
-				if(!instance.stringValue(attribute).equals(attributeValueMap.get(attribute))){
-					allSatisfied = false;
-					break;
-				}
-			}
-			if(allSatisfied)
-				filteredInstanceList.add(instance);
-		}
-		
-		return filteredInstanceList;
-	}
-	
-	private float getConfidence(Attribute classAttribute, String classValue, List<Instance> instanceList){
-		float confidence = 0;
-		for(Instance instance : instanceList){
-			if(instance.stringValue(classAttribute).equals(classValue))
-				confidence++;
-		}
-		return confidence/instanceList.size();
-	}
-	
-	
-	private RuleListMetrics evaluateRuleList(List<String> ruleList, Instances data){
+	private RuleListMetrics evaluateRuleList(List<Rule> ruleList, Instances data, float minSupport){
 		Logger.printCall("Calling evaluateRuleList()");
 		RuleListMetrics ruleListMetrics;
 		Map<String, Metrics> classMetricsMap = new HashMap<String, Metrics>();
 		
-		int noInstances = data.numInstances();
-		Instance instance;
-		
-		String[] ruleSplit;
-		String[] antecedantSplit, antecedantContraintSplit;
-
-		int noAntecedants;
-		List<String> antecedantAttributeList = new ArrayList<String>();
-		List<String> antecedantConstraintList = new ArrayList<String>();
-		String nominalValue;
-		boolean isAntecedantConstraintsSatisfied;
-		List<Integer> ruleSatisifyingInstanceList = new ArrayList<Integer>();
-		List<Integer> constraintSatisifyingInstanceList = new ArrayList<Integer>();
-		
 		Logger.println("No. Instances: "+data.numInstances()+" @ No.Rules: "+ruleList.size());
 		
-		int noInstancesWithRuleClassValue;
-		int tp, fp, tn, fn;
-		for(String classValue : generateRulesForClassLabelSet){
-			tp = fp = tn = fn = 0;
-			noInstancesWithRuleClassValue = 0;
-			for(String rule : ruleList){
-				ruleSplit = rule.replaceAll("IF ", "").split(" THEN ");
-				if(!ruleSplit[1].trim().equals(classValue))
-					continue;
-				antecedantSplit = ruleSplit[0].split(" AND ");
-				noAntecedants = antecedantSplit.length;
-				
-				Logger.println("Rule: "+rule);
-				Logger.println("No. Antecedants: "+noAntecedants);
-				
-				antecedantAttributeList.clear();
-				antecedantConstraintList.clear();
-				for(String antecedant : antecedantSplit){
-					antecedantContraintSplit = antecedant.split("=");
-	//				Logger.println(antecedant+"@("+antecedantContraintSplit[0].trim()+","+data.attribute(antecedantContraintSplit[0].trim()).toString()+")@"+antecedantContraintSplit[1]);
-					antecedantAttributeList.add(antecedantContraintSplit[0].trim());
-					antecedantConstraintList.add(antecedantContraintSplit[1].trim());
-				}
-				
-				Logger.println("Consequent: "+ruleSplit[1]);
-				
-				
-				constraintSatisifyingInstanceList.clear();
-				ruleSatisifyingInstanceList.clear();
-
-				for(int i = 0; i < noInstances; i++){
-					instance = data.instance(i);
-		
-					if(instance.stringValue(instance.classAttribute()).equals(ruleSplit[1].trim()))
-						noInstancesWithRuleClassValue++;
-					
-					isAntecedantConstraintsSatisfied = true;
-					for(int j = 0; j < noAntecedants; j++){
-						//Nominal attributes have only constraints as =
-						nominalValue = instance.stringValue(data.attribute(antecedantAttributeList.get(j)));
-	//						System.out.println(antecedantAttributeList.get(j)+"@"+data.attribute(antecedantAttributeList.get(j))+"@ Nominal value: "+nominalValue+"@ Cons: "+antecedantConstraintList.get(j));
-						if(!nominalValue.equals(antecedantConstraintList.get(j))){
-							isAntecedantConstraintsSatisfied = false;
-							break;
-						}
-					}
-					if(isAntecedantConstraintsSatisfied){
-						constraintSatisifyingInstanceList.add(i);
-						//Check consequent satisfaction
-						if(instance.stringValue(instance.classAttribute()).equals(ruleSplit[1].trim())){
-	//						System.out.println("Adding Instance: "+i);
-							ruleSatisifyingInstanceList.add(i);
-							tp++;
-						}else{
-							fp++;
-						}
-					}else{
-						if(instance.stringValue(instance.classAttribute()).equals(ruleSplit[1].trim())){
-							fn++;
-						}else{
-							tn++;
-						}
-					}
-				}
-				Logger.println("No. Constraints Satisfying Instances: "+constraintSatisifyingInstanceList.size());
-				Logger.println("Constraint Satisfying Instance List: "+constraintSatisifyingInstanceList);
-				Logger.println("No. Rule Satisfying Instances: "+ruleSatisifyingInstanceList.size());
-				Logger.println("Rule Satisfying Instance List: "+ruleSatisifyingInstanceList);
-			}
-			classMetricsMap.put(classValue, new Metrics(tp, fp, tn, fn, noInstancesWithRuleClassValue));
+		/*
+		 * The metrics of a class add up the TP/FP/TN/FN of its rules and, for every 
+		 * rule, the number of instances of the class
+		 */
+		RuleEvaluator ruleEvaluator = new RuleEvaluator(ruleList, data);
+		List<Metrics> ruleMetricsList = ruleEvaluator.evaluateRuleList(1);
+		Metrics ruleMetrics, classMetrics;
+		String classValue;
+		for(String generateRulesForClassLabel : generateRulesForClassLabelSet)
+			classMetricsMap.put(generateRulesForClassLabel, new Metrics(0, 0, 0, 0, 0));
+		for(int i = 0; i < ruleList.size(); i++){
+			classValue = ruleList.get(i).getClassLabel();
+			classMetrics = classMetricsMap.get(classValue);
+			if(classMetrics == null)
+				continue;
+			ruleMetrics = ruleMetricsList.get(i);
+			Logger.println("Rule: "+ruleList.get(i));
+			Logger.println("No. Rule Satisfying Instances: "+ruleMetrics.getTP());
+			classMetrics.add(ruleMetrics.getTP(), ruleMetrics.getFP(), ruleMetrics.getTN(), ruleMetrics.getFN(), ruleEvaluator.getNoInstancesWithRuleClassValue(i));
 		}
 		ruleListMetrics = new RuleListMetrics("ARM minSupport "+minSupport+" minConfidence "+minConfidence, ruleList, classMetricsMap);
 		Logger.printReturn("Returning evaluateRuleList()");
@@ -555,6 +218,10 @@ public class ClassSpecificAssociationRuleMiner {
 	}
 	
 	public Map<Feature, RuleListMetrics> getFeatureRuleListMetrics(){
-		return featureRuleListMetrics;
+		return featureRuleListMetricsList.get(0);
+	}
+	
+	public List<Map<Feature, RuleListMetrics>> getFeatureRuleListMetricsList(){
+		return featureRuleListMetricsList;
 	}
 }
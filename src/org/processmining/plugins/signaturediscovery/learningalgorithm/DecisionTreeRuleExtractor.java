@@ -0,0 +1,146 @@
+package org.processmining.plugins.signaturediscovery.learningalgorithm;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.processmining.plugins.signaturediscovery.learningalgorithm.RuleCondition.Operator;
+
+import weka.classifiers.Classifier;
+import weka.classifiers.trees.J48;
+import weka.classifiers.trees.j48.ClassifierSplitModel;
+import weka.classifiers.trees.j48.ClassifierTree;
+import weka.classifiers.trees.j48.ClassifierTreeNodes;
+import weka.classifiers.trees.j48.Distribution;
+import weka.core.Attribute;
+import weka.core.Instances;
+import weka.core.Utils;
+
+/**
+ * Converts a decision tree built by Weka into rules
+ * IF attribute1<=1.5 AND attribute2=x THEN label
+ * one for every leaf whose label is in generateRulesForClassLabelSet, in the
+ * order of the leaves in the toString() of the tree, by walking the nodes of
+ * the tree instead of parsing that text (which also fails on attribute names
+ * with a ':' or '|').
+ *
+ * The nodes of a J48 tree are read through RuleJ48, which exposes the root of
+ * the tree, and ClassifierTreeNodes, which reads the protected fields of its
+ * nodes; the condition of a branch is the rightSide of the split model of its
+ * node, e.g., " <= 1.5", as in J48.toString(), since the split point itself is
+ * not exposed; a leaf is labelled by the distribution of its own local model
+ * (see getJ48LeafClass).
+ * The nodes of an Id3 tree are read through the accessors of RuleId3.
+ *
+ * The attributes of a split are collected in attributesInRuleSet unless all
+ * its branches are leaves whose label is not asked for.
+ */
+public class DecisionTreeRuleExtractor {
+	Set<String> generateRulesForClassLabelSet;
+
+	/*
+	 * A J48 whose tree can be walked (see getRoot)
+	 */
+	public static class RuleJ48 extends J48 {
+		private static final long serialVersionUID = 1L;
+
+		public ClassifierTree getRoot() {
+			return m_root;
+		}
+	}
+
+	public DecisionTreeRuleExtractor(Set<String> generateRulesForClassLabelSet){
+		this.generateRulesForClassLabelSet = generateRulesForClassLabelSet;
+	}
+
+	/*
+	 * tree: a RuleJ48 or a RuleId3 built on data
+	 * attributesInRuleSet: the attributes used in the rules are added to it
+	 */
+	public List<Rule> getRuleList(Classifier tree, Instances data, Set<String> attributesInRuleSet){
+		List<Rule> ruleList = new ArrayList<Rule>();
+		if(tree instanceof RuleJ48)
+			addJ48Rules(((RuleJ48)tree).getRoot(), data, new ArrayList<RuleCondition>(), ruleList, attributesInRuleSet);
+		else if(tree instanceof RuleId3)
+			addId3Rules((RuleId3)tree, new ArrayList<RuleCondition>(), ruleList, attributesInRuleSet);
+		else
+			throw new IllegalArgumentException("No rules can be extracted from "+tree.getClass().getName());
+		return ruleList;
+	}
+
+	private void addJ48Rules(ClassifierTree node, Instances data, List<RuleCondition> conditionList, List<Rule> ruleList, Set<String> attributesInRuleSet){
+		if(ClassifierTreeNodes.isLeaf(node))
+			return;
+		ClassifierSplitModel localModel = ClassifierTreeNodes.getLocalModel(node);
+		ClassifierTree[] sons = ClassifierTreeNodes.getSons(node);
+		String attributeName = localModel.leftSide(data).trim();
+		RuleCondition condition;
+		String classLabel;
+		for(int i = 0; i < sons.length; i++){
+			condition = getJ48Condition(attributeName, localModel.rightSide(i, data));
+			if(ClassifierTreeNodes.isLeaf(sons[i])){
+				classLabel = data.classAttribute().value(getJ48LeafClass(localModel, sons[i]));
+				if(generateRulesForClassLabelSet.contains(classLabel)){
+					attributesInRuleSet.add(attributeName);
+					conditionList.add(condition);
+					ruleList.add(new Rule(conditionList, classLabel));
+					conditionList.remove(conditionList.size()-1);
+				}
+			}else{
+				attributesInRuleSet.add(attributeName);
+				conditionList.add(condition);
+				addJ48Rules(sons[i], data, conditionList, ruleList, attributesInRuleSet);
+				conditionList.remove(conditionList.size()-1);
+			}
+		}
+	}
+
+	/*
+	 * Return: the class of a leaf of a J48 split, the majority class of the leaf's own 
+	 * training rows or, if none reached the leaf, the one of the split, as J48 labels 
+	 * (toString) and classifies an empty leaf
+	 */
+	private static int getJ48LeafClass(ClassifierSplitModel localModel, ClassifierTree leaf){
+		Distribution distribution = ClassifierTreeNodes.getLocalModel(leaf).distribution();
+		return Utils.gr(distribution.total(), 0) ? distribution.maxClass() : localModel.distribution().maxClass();
+	}
+
+	/*
+	 * rightSide: the right side of a branch of a J48 split, " <operator> <value>",
+	 * e.g., " <= 1.5", " > 1.5", " = x" or " != x"
+	 */
+	private static RuleCondition getJ48Condition(String attributeName, String rightSide){
+		String constraint = rightSide.trim();
+		int valueStart = constraint.indexOf(' ');
+		Operator operator = valueStart < 0 ? null : Operator.getOperator(constraint.substring(0, valueStart));
+		if(operator == null)
+			throw new IllegalArgumentException("Unknown split "+attributeName+rightSide);
+		return new RuleCondition(attributeName, operator, constraint.substring(valueStart+1));
+	}
+
+	private void addId3Rules(RuleId3 node, List<RuleCondition> conditionList, List<Rule> ruleList, Set<String> attributesInRuleSet){
+		Attribute attribute = node.getAttribute();
+		if(attribute == null)
+			return;
+		RuleId3[] successors = node.getSuccessors();
+		RuleCondition condition;
+		String classLabel;
+		for(int i = 0; i < successors.length; i++){
+			condition = new RuleCondition(attribute.name(), Operator.EQ, attribute.value(i));
+			if(successors[i].getAttribute() == null){
+				classLabel = successors[i].getClassLabel();
+				if(generateRulesForClassLabelSet.contains(classLabel)){
+					attributesInRuleSet.add(attribute.name());
+					conditionList.add(condition);
+					ruleList.add(new Rule(conditionList, classLabel));
+					conditionList.remove(conditionList.size()-1);
+				}
+			}else{
+				attributesInRuleSet.add(attribute.name());
+				conditionList.add(condition);
+				addId3Rules(successors[i], conditionList, ruleList, attributesInRuleSet);
+				conditionList.remove(conditionList.size()-1);
+			}
+		}
+	}
+}
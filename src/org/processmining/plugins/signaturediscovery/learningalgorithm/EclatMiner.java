@@ -0,0 +1,123 @@
+package org.processmining.plugins.signaturediscovery.learningalgorithm;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Mines the association sets of a class (see AssociationSetMiner) on a
+ * vertical layout (Eclat): the support of an itemset is the cardinality of the
+ * intersection of the tidsets of its items and its confidence for a class the
+ * cardinality of that intersection AND-ed with the tidset of the class, so no
+ * instance is read once the tidsets are built.
+ *
+ * The frequent itemsets over the items of the class are visited depth first,
+ * extending an itemset with items of a smaller position only, which visits
+ * every itemset after all its subsets; an itemset with enough support and
+ * confidence is then an association set iff it splits into two association
+ * sets already found.
+ */
+public class EclatMiner extends AssociationSetMiner {
+
+	public EclatMiner(int noInstances) {
+		super(noInstances);
+	}
+
+	public Set<Set<String>> getClassAssociationSet(BitSet classTidset, float minSupport, float minConfidence) {
+		return new ClassAssociationWalk(classTidset, minSupport, minConfidence).getAssociationSet();
+	}
+
+	/*
+	 * The depth-first walk of the frequent itemsets for one class; itemsets are
+	 * BitSets over the positions of the items of the class in classItems
+	 */
+	private class ClassAssociationWalk {
+		BitSet classTidset;
+		float minSupport;
+		float minConfidence;
+
+		int[] classItems;
+		Set<BitSet> associationItemSetSet;
+		List<BitSet> associationItemSetList;
+
+		ClassAssociationWalk(BitSet classTidset, float minSupport, float minConfidence) {
+			this.classTidset = classTidset;
+			this.minSupport = minSupport;
+			this.minConfidence = minConfidence;
+			this.associationItemSetSet = new HashSet<BitSet>();
+			this.associationItemSetList = new ArrayList<BitSet>();
+		}
+
+		boolean isConfident(BitSet tidset) {
+			return EclatMiner.this.isConfident(getClassSupportCount(tidset, classTidset), tidset.cardinality(),
+					minConfidence);
+		}
+
+		Set<Set<String>> getAssociationSet() {
+			if (noInstances == 0)
+				return new HashSet<Set<String>>();
+
+			List<Integer> classItemList = new ArrayList<Integer>();
+			for (int item = 0; item < itemList.size(); item++) {
+				BitSet tidset = itemTidsetList.get(item);
+				if (isFrequent(tidset.cardinality(), minSupport) && isConfident(tidset))
+					classItemList.add(item);
+			}
+
+			int noClassItems = classItemList.size();
+			classItems = new int[noClassItems];
+			BitSet[] tidsets = new BitSet[noClassItems];
+			int[] positions = new int[noClassItems];
+			for (int i = 0; i < noClassItems; i++) {
+				classItems[i] = classItemList.get(i);
+				tidsets[i] = itemTidsetList.get(classItems[i]);
+				positions[i] = i;
+			}
+			walk(new BitSet(), positions, tidsets, noClassItems);
+
+			return toAssociationSet(associationItemSetList, classItems);
+		}
+
+		/*
+		 * itemSet: a frequent itemset (empty at the root)
+		 * positions/tidsets: the items smaller than the ones of itemSet that
+		 * keep it frequent, in increasing order, with the tidset of itemSet
+		 * extended with them
+		 */
+		void walk(BitSet itemSet, int[] positions, BitSet[] tidsets, int noExtensions) {
+			BitSet extendedItemSet;
+			int[] extensionPositions;
+			BitSet[] extensionTidsets;
+			int noExtensionExtensions, group;
+			BitSet tidset;
+			for (int i = 0; i < noExtensions; i++) {
+				extendedItemSet = (BitSet) itemSet.clone();
+				extendedItemSet.set(positions[i]);
+				if (itemSet.isEmpty()
+						|| (isConfident(tidsets[i]) && isSplit(extendedItemSet, associationItemSetSet))) {
+					associationItemSetSet.add(extendedItemSet);
+					associationItemSetList.add(extendedItemSet);
+				}
+
+				extensionPositions = new int[i];
+				extensionTidsets = new BitSet[i];
+				noExtensionExtensions = 0;
+				group = itemGroupList.get(classItems[positions[i]]);
+				for (int j = 0; j < i; j++) {
+					if (itemGroupList.get(classItems[positions[j]]) == group)
+						continue;
+					tidset = (BitSet) tidsets[i].clone();
+					tidset.and(tidsets[j]);
+					if (isFrequent(tidset.cardinality(), minSupport)) {
+						extensionPositions[noExtensionExtensions] = positions[j];
+						extensionTidsets[noExtensionExtensions++] = tidset;
+					}
+				}
+				if (noExtensionExtensions > 0)
+					walk(extendedItemSet, extensionPositions, extensionTidsets, noExtensionExtensions);
+			}
+		}
+	}
+}
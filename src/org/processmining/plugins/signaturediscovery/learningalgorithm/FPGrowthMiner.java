@@ -0,0 +1,261 @@
+package org.processmining.plugins.signaturediscovery.learningalgorithm;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Mines the association sets of a class (see AssociationSetMiner) with
+ * FP-growth: the instances are inserted, as their items of the class sorted by
+ * decreasing support, in a prefix tree (FP-tree) whose nodes count the
+ * instances on their path and the ones of the class among them. The frequent
+ * itemsets are grown from the prefix paths of the nodes of an item
+ * (conditional FP-trees) without generating candidates, each with its support
+ * and class support, so its confidence is known without another pass.
+ *
+ * The FP-tree of a class is built and mined once for the lowest min support
+ * value asked for; the association sets of every min support value are then
+ * selected from its frequent itemsets (getClassAssociationSetList), e.g., for
+ * the eight min support values of the Best sweep of DiscoverSignatures.
+ *
+ * An instance has one value per attribute, so the items of one attribute never
+ * share a path of the tree and are never combined.
+ */
+public class FPGrowthMiner extends AssociationSetMiner {
+
+	public FPGrowthMiner(int noInstances) {
+		super(noInstances);
+	}
+
+	public Set<Set<String>> getClassAssociationSet(BitSet classTidset, float minSupport, float minConfidence) {
+		return getClassAssociationSetList(classTidset, new float[] { minSupport }, minConfidence).get(0);
+	}
+
+	public List<Set<Set<String>>> getClassAssociationSetList(BitSet classTidset, float[] minSupports,
+			float minConfidence) {
+		List<Set<Set<String>>> classAssociationSetList = new ArrayList<Set<Set<String>>>();
+		if (noInstances == 0 || minSupports.length == 0) {
+			for (int i = 0; i < minSupports.length; i++)
+				classAssociationSetList.add(new HashSet<Set<String>>());
+			return classAssociationSetList;
+		}
+
+		float lowestMinSupport = minSupports[0];
+		for (float minSupport : minSupports)
+			lowestMinSupport = Math.min(lowestMinSupport, minSupport);
+
+		/*
+		 * The items of the class at the lowest min support, by decreasing support
+		 */
+		List<Integer> classItemList = new ArrayList<Integer>();
+		for (int item = 0; item < itemList.size(); item++) {
+			BitSet tidset = itemTidsetList.get(item);
+			if (isFrequent(tidset.cardinality(), lowestMinSupport)
+					&& isConfident(getClassSupportCount(tidset, classTidset), tidset.cardinality(), minConfidence))
+				classItemList.add(item);
+		}
+		Collections.sort(classItemList, new Comparator<Integer>() {
+			public int compare(Integer item1, Integer item2) {
+				int supportCount1 = itemTidsetList.get(item1).cardinality();
+				int supportCount2 = itemTidsetList.get(item2).cardinality();
+				return supportCount1 != supportCount2 ? supportCount2 - supportCount1 : item1 - item2;
+			}
+		});
+		int noClassItems = classItemList.size();
+		int[] classItems = new int[noClassItems];
+		for (int i = 0; i < noClassItems; i++)
+			classItems[i] = classItemList.get(i);
+
+		List<FrequentItemSet> frequentItemSetList = new ArrayList<FrequentItemSet>();
+		mine(buildTree(classItems, classTidset), new BitSet(), lowestMinSupport, frequentItemSetList);
+
+		/*
+		 * Subsets first, for isSplit
+		 */
+		Collections.sort(frequentItemSetList, new Comparator<FrequentItemSet>() {
+			public int compare(FrequentItemSet frequentItemSet1, FrequentItemSet frequentItemSet2) {
+				return frequentItemSet1.itemSet.cardinality() - frequentItemSet2.itemSet.cardinality();
+			}
+		});
+
+		Set<BitSet> associationItemSetSet;
+		List<BitSet> associationItemSetList;
+		for (float minSupport : minSupports) {
+			associationItemSetSet = new HashSet<BitSet>();
+			associationItemSetList = new ArrayList<BitSet>();
+			for (FrequentItemSet frequentItemSet : frequentItemSetList) {
+				if (!isFrequent(frequentItemSet.supportCount, minSupport)
+						|| !isConfident(frequentItemSet.classSupportCount, frequentItemSet.supportCount, minConfidence))
+					continue;
+				if (frequentItemSet.itemSet.cardinality() == 1
+						|| isSplit(frequentItemSet.itemSet, associationItemSetSet)) {
+					associationItemSetSet.add(frequentItemSet.itemSet);
+					associationItemSetList.add(frequentItemSet.itemSet);
+				}
+			}
+			classAssociationSetList.add(toAssociationSet(associationItemSetList, classItems));
+		}
+		return classAssociationSetList;
+	}
+
+	/*
+	 * The FP-tree of the instances over the items of the class; the positions
+	 * of classItems are the items of the tree
+	 */
+	private FPTree buildTree(int[] classItems, BitSet classTidset) {
+		int noClassItems = classItems.length;
+		int[] noInstanceItems = new int[noInstances];
+		BitSet tidset;
+		for (int position = 0; position < noClassItems; position++) {
+			tidset = itemTidsetList.get(classItems[position]);
+			for (int tid = tidset.nextSetBit(0); tid >= 0; tid = tidset.nextSetBit(tid + 1))
+				noInstanceItems[tid]++;
+		}
+
+		int[][] instancePositions = new int[noInstances][];
+		for (int tid = 0; tid < noInstances; tid++)
+			instancePositions[tid] = new int[noInstanceItems[tid]];
+		int[] noFilledPositions = new int[noInstances];
+		for (int position = 0; position < noClassItems; position++) {
+			tidset = itemTidsetList.get(classItems[position]);
+			for (int tid = tidset.nextSetBit(0); tid >= 0; tid = tidset.nextSetBit(tid + 1))
+				instancePositions[tid][noFilledPositions[tid]++] = position;
+		}
+
+		FPTree tree = new FPTree(noClassItems);
+		for (int tid = 0; tid < noInstances; tid++) {
+			if (instancePositions[tid].length > 0)
+				tree.addPath(instancePositions[tid], instancePositions[tid].length, 1, classTidset.get(tid) ? 1 : 0);
+		}
+		return tree;
+	}
+
+	/*
+	 * Adds the frequent itemsets of tree, each extended with suffixItemSet, to
+	 * frequentItemSetList
+	 */
+	private void mine(FPTree tree, BitSet suffixItemSet, float minSupport, List<FrequentItemSet> frequentItemSetList) {
+		BitSet itemSet;
+		int[] prefixSupportCounts, path;
+		int pathLength;
+		FPTree conditionalTree;
+		for (int position = tree.noPositions - 1; position >= 0; position--) {
+			if (tree.firstNodes[position] == null || !isFrequent(tree.supportCounts[position], minSupport))
+				continue;
+			itemSet = (BitSet) suffixItemSet.clone();
+			itemSet.set(position);
+			frequentItemSetList.add(new FrequentItemSet(itemSet, tree.supportCounts[position],
+					tree.classSupportCounts[position]));
+
+			/*
+			 * The conditional FP-tree of the item: the prefix paths of its nodes,
+			 * over the items that are frequent on them
+			 */
+			prefixSupportCounts = new int[position];
+			for (FPNode node = tree.firstNodes[position]; node != null; node = node.nextNode)
+				for (FPNode parent = node.parent; parent != tree.root; parent = parent.parent)
+					prefixSupportCounts[parent.position] += node.supportCount;
+
+			conditionalTree = new FPTree(position);
+			path = new int[position];
+			for (FPNode node = tree.firstNodes[position]; node != null; node = node.nextNode) {
+				pathLength = 0;
+				for (FPNode parent = node.parent; parent != tree.root; parent = parent.parent)
+					if (isFrequent(prefixSupportCounts[parent.position], minSupport))
+						path[pathLength++] = parent.position;
+				if (pathLength == 0)
+					continue;
+				for (int i = 0, j = pathLength - 1; i < j; i++, j--) {
+					int tempPosition = path[i];
+					path[i] = path[j];
+					path[j] = tempPosition;
+				}
+				conditionalTree.addPath(path, pathLength, node.supportCount, node.classSupportCount);
+			}
+			if (conditionalTree.root.childMap != null)
+				mine(conditionalTree, itemSet, minSupport, frequentItemSetList);
+		}
+	}
+
+	private static class FrequentItemSet {
+		BitSet itemSet;
+		int supportCount;
+		int classSupportCount;
+
+		FrequentItemSet(BitSet itemSet, int supportCount, int classSupportCount) {
+			this.itemSet = itemSet;
+			this.supportCount = supportCount;
+			this.classSupportCount = classSupportCount;
+		}
+	}
+
+	private static class FPNode {
+		int position;
+		int supportCount;
+		int classSupportCount;
+		FPNode parent;
+		Map<Integer, FPNode> childMap;
+
+		/*
+		 * The next node of the same item (node link)
+		 */
+		FPNode nextNode;
+
+		FPNode(int position, FPNode parent) {
+			this.position = position;
+			this.parent = parent;
+		}
+	}
+
+	private static class FPTree {
+		FPNode root;
+		int noPositions;
+
+		/*
+		 * The header table: the first node, the support and the class support
+		 * of every item
+		 */
+		FPNode[] firstNodes;
+		int[] supportCounts;
+		int[] classSupportCounts;
+
+		FPTree(int noPositions) {
+			this.root = new FPNode(-1, null);
+			this.noPositions = noPositions;
+			this.firstNodes = new FPNode[noPositions];
+			this.supportCounts = new int[noPositions];
+			this.classSupportCounts = new int[noPositions];
+		}
+
+		/*
+		 * positions: the items of the path, in increasing order
+		 */
+		void addPath(int[] positions, int length, int supportCount, int classSupportCount) {
+			FPNode node = root, child;
+			int position;
+			for (int i = 0; i < length; i++) {
+				position = positions[i];
+				if (node.childMap == null)
+					node.childMap = new HashMap<Integer, FPNode>();
+				child = node.childMap.get(position);
+				if (child == null) {
+					child = new FPNode(position, node);
+					child.nextNode = firstNodes[position];
+					firstNodes[position] = child;
+					node.childMap.put(position, child);
+				}
+				child.supportCount += supportCount;
+				child.classSupportCount += classSupportCount;
+				supportCounts[position] += supportCount;
+				classSupportCounts[position] += classSupportCount;
+				node = child;
+			}
+		}
+	}
+}
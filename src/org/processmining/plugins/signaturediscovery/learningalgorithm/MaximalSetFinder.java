@@ -0,0 +1,198 @@
+package org.processmining.plugins.signaturediscovery.learningalgorithm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Finds the maximal elements of a family of sets, i.e., the sets that are not
+ * a proper subset of another set of the family, e.g., the association sets of
+ * a class whose rules ClassSpecificAssociationRuleMiner reports (see
+ * AbstractionSetTheory.getMaximalElements).
+ *
+ * The elements are numbered by increasing frequency and every set is kept as a
+ * sorted array of element ids and as a BitSet. The sets are visited by
+ * decreasing size, so the proper supersets of a set are visited before it: a
+ * set is maximal iff none of the maximal sets found so far contains it. The
+ * maximal sets are indexed in a prefix tree of their sorted ids (set-trie), in
+ * which a superset of [2, 5, 9] is searched by descending only into the
+ * children whose id does not exceed the next id of the set; with the rare
+ * elements first, few branches are left. The BitSets give the subset tests of
+ * getContainingMaximalSetList.
+ *
+ * Equal sets of the family are kept once.
+ */
+public class MaximalSetFinder<E> {
+	List<Set<E>> setList;
+	Map<Set<E>, Integer> setIndexMap;
+	int[][] setElementIds;
+	BitSet[] setBitSets;
+
+	/*
+	 * The indices of the maximal sets, in the order of the family
+	 */
+	List<Integer> maximalSetIndexList;
+
+	public MaximalSetFinder(Collection<? extends Set<E>> sets) {
+		this.setList = new ArrayList<Set<E>>(sets);
+		int noSets = setList.size();
+
+		final Map<E, Integer> elementFrequencyMap = new HashMap<E, Integer>();
+		Integer frequency;
+		for (Set<E> set : setList) {
+			for (E element : set) {
+				frequency = elementFrequencyMap.get(element);
+				elementFrequencyMap.put(element, frequency == null ? 1 : frequency + 1);
+			}
+		}
+		List<E> elementList = new ArrayList<E>(elementFrequencyMap.keySet());
+		Collections.sort(elementList, new Comparator<E>() {
+			public int compare(E element1, E element2) {
+				return elementFrequencyMap.get(element1) - elementFrequencyMap.get(element2);
+			}
+		});
+		Map<E, Integer> elementIdMap = new HashMap<E, Integer>();
+		for (E element : elementList)
+			elementIdMap.put(element, elementIdMap.size());
+
+		setIndexMap = new HashMap<Set<E>, Integer>();
+		setElementIds = new int[noSets][];
+		setBitSets = new BitSet[noSets];
+		int noElements;
+		for (int i = 0; i < noSets; i++) {
+			setIndexMap.put(setList.get(i), i);
+			setElementIds[i] = new int[setList.get(i).size()];
+			setBitSets[i] = new BitSet();
+			noElements = 0;
+			for (E element : setList.get(i)) {
+				setElementIds[i][noElements] = elementIdMap.get(element);
+				setBitSets[i].set(setElementIds[i][noElements++]);
+			}
+			Arrays.sort(setElementIds[i]);
+		}
+
+		findMaximalSets();
+	}
+
+	private void findMaximalSets() {
+		int noSets = setList.size();
+		List<Integer> setIndexList = new ArrayList<Integer>(noSets);
+		for (int i = 0; i < noSets; i++)
+			setIndexList.add(i);
+		Collections.sort(setIndexList, new Comparator<Integer>() {
+			public int compare(Integer setIndex1, Integer setIndex2) {
+				return setElementIds[setIndex2].length - setElementIds[setIndex1].length;
+			}
+		});
+
+		boolean[] isMaximal = new boolean[noSets];
+		SetTrieNode root = new SetTrieNode();
+		boolean isEmptyTrie = true;
+		for (int setIndex : setIndexList) {
+			if (isEmptyTrie || !root.containsSuperset(setElementIds[setIndex], 0)) {
+				isEmptyTrie = false;
+				isMaximal[setIndex] = true;
+				root.add(setElementIds[setIndex]);
+			}
+		}
+
+		maximalSetIndexList = new ArrayList<Integer>();
+		for (int i = 0; i < noSets; i++)
+			if (isMaximal[i])
+				maximalSetIndexList.add(i);
+	}
+
+	/*
+	 * Return: the maximal sets, in the order of the family
+	 */
+	public List<Set<E>> getMaximalSetList() {
+		List<Set<E>> maximalSetList = new ArrayList<Set<E>>(maximalSetIndexList.size());
+		for (int setIndex : maximalSetIndexList)
+			maximalSetList.add(setList.get(setIndex));
+		return maximalSetList;
+	}
+
+	/*
+	 * set: a set of the family
+	 * Return: the maximal sets that contain set (set itself if it is maximal)
+	 */
+	public List<Set<E>> getContainingMaximalSetList(Set<E> set) {
+		List<Set<E>> containingMaximalSetList = new ArrayList<Set<E>>();
+		Integer setIndex = setIndexMap.get(set);
+		if (setIndex == null)
+			return containingMaximalSetList;
+
+		BitSet setBitSet = setBitSets[setIndex];
+		BitSet differenceBitSet;
+		for (int maximalSetIndex : maximalSetIndexList) {
+			if (setElementIds[maximalSetIndex].length < setElementIds[setIndex].length)
+				continue;
+			differenceBitSet = (BitSet) setBitSet.clone();
+			differenceBitSet.andNot(setBitSets[maximalSetIndex]);
+			if (differenceBitSet.isEmpty())
+				containingMaximalSetList.add(setList.get(maximalSetIndex));
+		}
+		return containingMaximalSetList;
+	}
+
+	/*
+	 * A node of the set-trie; the path from the root spells the sorted ids of a
+	 * prefix of the added sets
+	 */
+	private static class SetTrieNode {
+		/*
+		 * The ids of the children, in increasing order, and the children
+		 */
+		int[] childIds = new int[0];
+		SetTrieNode[] children = new SetTrieNode[0];
+
+		void add(int[] elementIds) {
+			SetTrieNode node = this, child;
+			int childIndex;
+			for (int elementId : elementIds) {
+				childIndex = Arrays.binarySearch(node.childIds, elementId);
+				if (childIndex >= 0) {
+					child = node.children[childIndex];
+				} else {
+					childIndex = -childIndex - 1;
+					child = new SetTrieNode();
+					node.childIds = insert(node.childIds, childIndex, elementId);
+					SetTrieNode[] children = new SetTrieNode[node.children.length + 1];
+					System.arraycopy(node.children, 0, children, 0, childIndex);
+					children[childIndex] = child;
+					System.arraycopy(node.children, childIndex, children, childIndex + 1, node.children.length - childIndex);
+					node.children = children;
+				}
+				node = child;
+			}
+		}
+
+		static int[] insert(int[] ids, int index, int id) {
+			int[] newIds = new int[ids.length + 1];
+			System.arraycopy(ids, 0, newIds, 0, index);
+			newIds[index] = id;
+			System.arraycopy(ids, index, newIds, index + 1, ids.length - index);
+			return newIds;
+		}
+
+		/*
+		 * Return: whether a set added below this node contains elementIds[i..]
+		 */
+		boolean containsSuperset(int[] elementIds, int i) {
+			if (i == elementIds.length)
+				return true;
+			for (int childIndex = 0; childIndex < childIds.length && childIds[childIndex] <= elementIds[i]; childIndex++) {
+				if (children[childIndex].containsSuperset(elementIds, childIds[childIndex] == elementIds[i] ? i + 1 : i))
+					return true;
+			}
+			return false;
+		}
+	}
+}
@@ -0,0 +1,115 @@
+package org.processmining.plugins.signaturediscovery.learningalgorithm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import weka.core.Instance;
+import weka.core.Instances;
+
+/**
+ * Removes the rows whose attribute values (the class included) are all 0 from
+ * a data set, as the rule loops of DiscoverSignatures do on every iteration
+ * after the attributes of the rules found have been removed.
+ *
+ * The number of non-zero values of every row is counted once and updated when
+ * attributes are removed (removeAttributes), only looking at the values of
+ * the removed attributes; the rows whose count drops to 0 are kept in a
+ * bitmap, so removeZeroRows needs a single pass over the rows, and none if no
+ * row became empty.
+ *
+ * The values are read with Instance.numValues/index/valueSparse, so a
+ * SparseInstance costs its non-zero values only. Missing values count as
+ * non-zero, as in Instance.value(j) != 0.
+ */
+public class NonZeroRowFilter {
+	Instances data;
+
+	/*
+	 * Number of non-zero values of every row of data, and the rows where it is 0
+	 */
+	int[] nonZeroCounts;
+	BitSet zeroRows;
+
+	public NonZeroRowFilter(Instances data) {
+		this.data = data;
+		int noInstances = data.numInstances();
+		this.nonZeroCounts = new int[noInstances];
+		this.zeroRows = new BitSet(noInstances);
+		for (int i = 0; i < noInstances; i++) {
+			nonZeroCounts[i] = countNonZeroValues(data.instance(i), null);
+			if (nonZeroCounts[i] == 0)
+				zeroRows.set(i);
+		}
+	}
+
+	/*
+	 * attributeMask: the attributes to count the values of, null for all
+	 */
+	static int countNonZeroValues(Instance instance, boolean[] attributeMask) {
+		int noNonZeroValues = 0;
+		int noValues = instance.numValues();
+		for (int j = 0; j < noValues; j++)
+			if ((attributeMask == null || attributeMask[instance.index(j)]) && instance.valueSparse(j) != 0)
+				noNonZeroValues++;
+		return noNonZeroValues;
+	}
+
+	public Instances getData() {
+		return data;
+	}
+
+	/*
+	 * Removes the rows whose values are all 0 from the data set (in place),
+	 * keeping the order of the other rows
+	 * Return: the data set
+	 */
+	public Instances removeZeroRows() {
+		if (zeroRows.isEmpty())
+			return data;
+
+		int noInstances = data.numInstances();
+		List<Instance> nonZeroRowList = new ArrayList<Instance>(noInstances - zeroRows.cardinality());
+		int noNonZeroRows = 0;
+		for (int i = 0; i < noInstances; i++) {
+			if (!zeroRows.get(i)) {
+				nonZeroRowList.add(data.instance(i));
+				nonZeroCounts[noNonZeroRows++] = nonZeroCounts[i];
+			}
+		}
+		data.delete();
+		for (Instance instance : nonZeroRowList)
+			data.add(instance);
+		nonZeroCounts = Arrays.copyOf(nonZeroCounts, noNonZeroRows);
+		zeroRows.clear();
+		return data;
+	}
+
+	/**
+	 * Updates the counts for the removal of attributes from the data set
+	 *
+	 * @param attributeIndices
+	 *            the indices of the removed attributes in the current data set
+	 * @param filteredData
+	 *            the data set without these attributes, with the same rows in
+	 *            the same order (e.g., the output of the Remove filter); it
+	 *            replaces the current data set
+	 */
+	public void removeAttributes(int[] attributeIndices, Instances filteredData) {
+		if (attributeIndices.length > 0) {
+			boolean[] attributeMask = new boolean[data.numAttributes()];
+			for (int attributeIndex : attributeIndices)
+				attributeMask[attributeIndex] = true;
+			int noInstances = data.numInstances();
+			for (int i = 0; i < noInstances; i++) {
+				if (nonZeroCounts[i] == 0)
+					continue;
+				nonZeroCounts[i] -= countNonZeroValues(data.instance(i), attributeMask);
+				if (nonZeroCounts[i] == 0)
+					zeroRows.set(i);
+			}
+		}
+		data = filteredData;
+	}
+}
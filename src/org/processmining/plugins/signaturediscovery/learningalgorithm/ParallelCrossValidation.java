@@ -0,0 +1,85 @@
+package org.processmining.plugins.signaturediscovery.learningalgorithm;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+
+import org.processmining.plugins.signaturediscovery.util.ParallelTaskExecutor;
+
+import weka.classifiers.Classifier;
+import weka.classifiers.Evaluation;
+import weka.core.Instances;
+
+/**
+ * k-fold cross validation of a classifier with the folds trained on separate
+ * threads, as a replacement of Evaluation.crossValidateModel.
+ *
+ * The folds are the ones of crossValidateModel for the same Random: the data
+ * is copied, randomized and stratified, and the training and test sets of the
+ * folds are drawn one after the other (trainCV shuffles the training set with
+ * the Random). Only then are the classifiers of the folds built in parallel;
+ * they are evaluated in the order of the folds on the given Evaluation, with
+ * its priors set to the training set of the fold, so the evaluation (e.g., the
+ * TP/FP/TN/FN counts of every class) is the same as the one of
+ * crossValidateModel.
+ */
+public class ParallelCrossValidation {
+
+	/*
+	 * Creates a new, untrained classifier of the configuration to evaluate,
+	 * e.g., a J48 with the options "-C 0.25 -M 1"; called once per fold
+	 */
+	public interface ClassifierFactory {
+		Classifier newClassifier() throws Exception;
+	}
+
+	/**
+	 * Cross validates the classifiers of classifierFactory on data and adds the
+	 * predictions on the test folds to evaluation
+	 *
+	 * @param evaluation
+	 *            created on (the header of) data
+	 * @param classifierFactory
+	 * @param data
+	 *            not modified
+	 * @param noFolds
+	 * @param random
+	 *            the Random for the folds, e.g., new Random(1)
+	 * @param noThreads
+	 *            the number of folds trained at the same time
+	 * @throws Exception
+	 *             if a classifier cannot be built or evaluated
+	 */
+	public static void crossValidateModel(Evaluation evaluation, final ClassifierFactory classifierFactory,
+			Instances data, int noFolds, Random random, int noThreads) throws Exception {
+		data = new Instances(data);
+		data.randomize(random);
+		if (data.classAttribute().isNominal())
+			data.stratify(noFolds);
+
+		List<Instances> trainDataList = new ArrayList<Instances>(noFolds);
+		List<Instances> testDataList = new ArrayList<Instances>(noFolds);
+		for (int fold = 0; fold < noFolds; fold++) {
+			trainDataList.add(data.trainCV(noFolds, fold, random));
+			testDataList.add(data.testCV(noFolds, fold));
+		}
+
+		List<Callable<Classifier>> taskList = new ArrayList<Callable<Classifier>>(noFolds);
+		for (final Instances trainData : trainDataList) {
+			taskList.add(new Callable<Classifier>() {
+				public Classifier call() throws Exception {
+					Classifier classifier = classifierFactory.newClassifier();
+					classifier.buildClassifier(trainData);
+					return classifier;
+				}
+			});
+		}
+		List<Classifier> classifierList = ParallelTaskExecutor.invokeAll(taskList, noThreads);
+
+		for (int fold = 0; fold < noFolds; fold++) {
+			evaluation.setPriors(trainDataList.get(fold));
+			evaluation.evaluateModel(classifierList.get(fold), testDataList.get(fold));
+		}
+	}
+}
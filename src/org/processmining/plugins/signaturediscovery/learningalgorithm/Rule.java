@@ -0,0 +1,46 @@
+package org.processmining.plugins.signaturediscovery.learningalgorithm;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A rule IF condition1 AND condition2 ... THEN label, as the decision trees
+ * (DecisionTreeRuleExtractor) and the association rules
+ * (ClassSpecificAssociationRuleMiner) produce it and RuleEvaluator evaluates
+ * it.
+ *
+ * Its text (toString), e.g., IF attribute1<=1.5 AND attribute2=x THEN label,
+ * is built once and is the key of the rule in the metrics and decoded rule
+ * maps of DiscoverSignatures.
+ */
+public class Rule {
+	List<RuleCondition> conditionList;
+	String classLabel;
+	String text;
+
+	public Rule(List<RuleCondition> conditionList, String classLabel){
+		this.conditionList = new ArrayList<RuleCondition>(conditionList);
+		this.classLabel = classLabel;
+
+		StringBuilder rule = new StringBuilder("IF ");
+		for(int i = 0; i < this.conditionList.size(); i++){
+			if(i > 0)
+				rule.append(" AND ");
+			rule.append(this.conditionList.get(i));
+		}
+		rule.append(" THEN ").append(classLabel);
+		this.text = rule.toString();
+	}
+
+	public List<RuleCondition> getConditionList(){
+		return conditionList;
+	}
+
+	public String getClassLabel(){
+		return classLabel;
+	}
+
+	public String toString(){
+		return text;
+	}
+}
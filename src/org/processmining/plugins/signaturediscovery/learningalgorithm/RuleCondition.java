@@ -0,0 +1,69 @@
+package org.processmining.plugins.signaturediscovery.learningalgorithm;
+
+/**
+ * One antecedent of a Rule, e.g., attribute1<=1.5 or attribute2=x: the name
+ * of the attribute, the operator and the value as it is shown in the rule.
+ *
+ * The attribute is kept by name, not by index: the rules of a decision tree
+ * are learnt on data sets from which the attributes of the earlier rules have
+ * been removed, and are evaluated on the full data set of the feature type
+ * (see RuleEvaluator, which looks the attribute up once per data set).
+ */
+public class RuleCondition {
+	public enum Operator {
+		EQ("="), NE("!="), LE("<="), LT("<"), GE(">="), GT(">");
+
+		private final String symbol;
+
+		private Operator(String symbol){
+			this.symbol = symbol;
+		}
+
+		public String getSymbol(){
+			return symbol;
+		}
+
+		/*
+		 * Return: the operator with the symbol, e.g., "<=", null if there is none
+		 */
+		public static Operator getOperator(String symbol){
+			for(Operator operator : values())
+				if(operator.symbol.equals(symbol))
+					return operator;
+			return null;
+		}
+	}
+
+	String attributeName;
+	Operator operator;
+
+	/*
+	 * A nominal value of the attribute, e.g., Y, or a number, e.g., 1.5
+	 */
+	String value;
+
+	public RuleCondition(String attributeName, Operator operator, String value){
+		this.attributeName = attributeName;
+		this.operator = operator;
+		this.value = value;
+	}
+
+	public String getAttributeName(){
+		return attributeName;
+	}
+
+	public Operator getOperator(){
+		return operator;
+	}
+
+	public String getValue(){
+		return value;
+	}
+
+	/*
+	 * Return: attributeName+operator+value, e.g., attribute1<=1.5
+	 */
+	public String toString(){
+		return attributeName+operator.getSymbol()+value;
+	}
+}
@@ -0,0 +1,229 @@
+package org.processmining.plugins.signaturediscovery.learningalgorithm;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.processmining.plugins.signaturediscovery.learningalgorithm.RuleCondition.Operator;
+import org.processmining.plugins.signaturediscovery.metrics.Metrics;
+import org.processmining.plugins.signaturediscovery.util.ParallelTaskExecutor;
+
+import weka.core.Attribute;
+import weka.core.Instances;
+
+/**
+ * Computes the TP/FP/TN/FN of rules of the form
+ * IF attribute1>=1.5 AND attribute2=x THEN label (see Rule)
+ * over a data set, e.g., for DiscoverSignatures.evaluateRuleList and
+ * ClassSpecificAssociationRuleMiner.evaluateRuleList.
+ *
+ * The conditions of every rule are compiled once into their attribute index
+ * in the data, operator and threshold, and its label into its index in the
+ * class attribute; the value of a condition on a nominal attribute is compiled
+ * into its index in the attribute. The columns
+ * of the attributes the rules refer to and the class indices of the instances
+ * are read from the data once. A rule is then evaluated column by column: the
+ * instances satisfying its first antecedent are kept in a BitSet that every
+ * further antecedent only narrows down, and the counts follow from the
+ * cardinalities of that BitSet and of the instances of its label.
+ *
+ * As Instance.stringValue, a missing nominal value reads as the first value of
+ * the attribute; a missing numeric value satisfies no numeric constraint.
+ */
+public class RuleEvaluator {
+	List<Rule> ruleList;
+	int noInstances;
+
+	/*
+	 * The antecedents of every rule and the index of its label (-1 if the
+	 * class attribute has no such value)
+	 */
+	int[][] ruleAttributeIndices;
+	Operator[][] ruleOperators;
+	double[][] ruleThresholds;
+	int[] ruleClassIndices;
+
+	/*
+	 * The values of the attributes used by the rules, by attribute index (null
+	 * for the other attributes), and the instances of every class value
+	 */
+	double[][] attributeColumns;
+	BitSet[] classTidsets;
+
+	public RuleEvaluator(List<Rule> ruleList, Instances data){
+		this.ruleList = ruleList;
+		this.noInstances = data.numInstances();
+
+		int noRules = ruleList.size();
+		ruleAttributeIndices = new int[noRules][];
+		ruleOperators = new Operator[noRules][];
+		ruleThresholds = new double[noRules][];
+		ruleClassIndices = new int[noRules];
+		attributeColumns = new double[data.numAttributes()][];
+		for(int i = 0; i < noRules; i++)
+			compileRule(i, data);
+
+		Attribute classAttribute = data.classAttribute();
+		classTidsets = new BitSet[classAttribute.numValues()];
+		for(int j = 0; j < classTidsets.length; j++)
+			classTidsets[j] = new BitSet(noInstances);
+		for(int i = 0; i < noInstances; i++)
+			classTidsets[(int)data.instance(i).classValue()].set(i);
+	}
+
+	/*
+	 * Compiles the conditions of rule ruleIndex and reads the columns of their 
+	 * attributes
+	 */
+	private void compileRule(int ruleIndex, Instances data){
+		Rule rule = ruleList.get(ruleIndex);
+		List<RuleCondition> conditionList = rule.getConditionList();
+		int noConditions = conditionList.size();
+
+		ruleAttributeIndices[ruleIndex] = new int[noConditions];
+		ruleOperators[ruleIndex] = new Operator[noConditions];
+		ruleThresholds[ruleIndex] = new double[noConditions];
+
+		RuleCondition condition;
+		Attribute attribute;
+		for(int j = 0; j < noConditions; j++){
+			condition = conditionList.get(j);
+			attribute = data.attribute(condition.getAttributeName());
+			if(attribute == null)
+				throw new IllegalArgumentException("Unknown attribute "+condition.getAttributeName()+" in rule "+rule);
+
+			ruleAttributeIndices[ruleIndex][j] = attribute.index();
+			ruleOperators[ruleIndex][j] = condition.getOperator();
+			if(attribute.isNominal())
+				ruleThresholds[ruleIndex][j] = attribute.indexOfValue(condition.getValue());
+			else
+				ruleThresholds[ruleIndex][j] = Double.parseDouble(condition.getValue());
+
+			if(attributeColumns[attribute.index()] == null)
+				attributeColumns[attribute.index()] = getColumn(data, attribute);
+		}
+		ruleClassIndices[ruleIndex] = data.classAttribute().indexOfValue(rule.getClassLabel());
+	}
+
+	/*
+	 * The values of attribute; the ones of a nominal attribute as the index of
+	 * their value, with a missing value as 0
+	 */
+	private double[] getColumn(Instances data, Attribute attribute){
+		double[] column = new double[noInstances];
+		int attributeIndex = attribute.index();
+		boolean isNominal = attribute.isNominal();
+		for(int i = 0; i < noInstances; i++){
+			column[i] = data.instance(i).value(attributeIndex);
+			if(isNominal)
+				column[i] = (int)column[i];
+		}
+		return column;
+	}
+
+	/*
+	 * Return: the instances satisfying the antecedents of rule ruleIndex
+	 */
+	public BitSet getSatisfyingInstances(int ruleIndex){
+		BitSet satisfyingInstances = new BitSet(noInstances);
+		satisfyingInstances.set(0, noInstances);
+
+		double[] column;
+		double threshold;
+		for(int j = 0; j < ruleAttributeIndices[ruleIndex].length && !satisfyingInstances.isEmpty(); j++){
+			column = attributeColumns[ruleAttributeIndices[ruleIndex][j]];
+			threshold = ruleThresholds[ruleIndex][j];
+			switch(ruleOperators[ruleIndex][j]){
+			case GE:
+				for(int i = satisfyingInstances.nextSetBit(0); i >= 0; i = satisfyingInstances.nextSetBit(i+1))
+					if(!(column[i] >= threshold))
+						satisfyingInstances.clear(i);
+				break;
+			case LE:
+				for(int i = satisfyingInstances.nextSetBit(0); i >= 0; i = satisfyingInstances.nextSetBit(i+1))
+					if(!(column[i] <= threshold))
+						satisfyingInstances.clear(i);
+				break;
+			case GT:
+				for(int i = satisfyingInstances.nextSetBit(0); i >= 0; i = satisfyingInstances.nextSetBit(i+1))
+					if(!(column[i] > threshold))
+						satisfyingInstances.clear(i);
+				break;
+			case LT:
+				for(int i = satisfyingInstances.nextSetBit(0); i >= 0; i = satisfyingInstances.nextSetBit(i+1))
+					if(!(column[i] < threshold))
+						satisfyingInstances.clear(i);
+				break;
+			case NE:
+				for(int i = satisfyingInstances.nextSetBit(0); i >= 0; i = satisfyingInstances.nextSetBit(i+1))
+					if(column[i] == threshold)
+						satisfyingInstances.clear(i);
+				break;
+			default:
+				for(int i = satisfyingInstances.nextSetBit(0); i >= 0; i = satisfyingInstances.nextSetBit(i+1))
+					if(column[i] != threshold)
+						satisfyingInstances.clear(i);
+			}
+		}
+		return satisfyingInstances;
+	}
+
+	/*
+	 * Return: the number of instances with the label of rule ruleIndex
+	 */
+	public int getNoInstancesWithRuleClassValue(int ruleIndex){
+		return ruleClassIndices[ruleIndex] < 0 ? 0 : classTidsets[ruleClassIndices[ruleIndex]].cardinality();
+	}
+
+	/*
+	 * Return: Metrics(TP, FP, TN, FN, noInstances) of rule ruleIndex
+	 * Positive: the instance satisfies the antecedents of the rule
+	 * True positive: a positive instance with the label of the rule,
+	 * true negative: a negative instance with another label
+	 */
+	public Metrics evaluateRule(int ruleIndex){
+		BitSet satisfyingInstances = getSatisfyingInstances(ruleIndex);
+		int noSatisfyingInstances = satisfyingInstances.cardinality();
+		int noInstancesWithRuleClassValue = getNoInstancesWithRuleClassValue(ruleIndex);
+
+		int tp = 0;
+		if(ruleClassIndices[ruleIndex] >= 0){
+			satisfyingInstances.and(classTidsets[ruleClassIndices[ruleIndex]]);
+			tp = satisfyingInstances.cardinality();
+		}
+		int fp = noSatisfyingInstances - tp;
+		int fn = noInstancesWithRuleClassValue - tp;
+		int tn = noInstances - noSatisfyingInstances - fn;
+		return new Metrics(tp, fp, tn, fn, noInstances);
+	}
+
+	/*
+	 * Return: the Metrics of every rule, in the order of the rule list; with
+	 * noThreads > 1 blocks of rules are evaluated in parallel
+	 */
+	public List<Metrics> evaluateRuleList(int noThreads){
+		int noRules = ruleList.size();
+		int noBlocks = Math.max(1, Math.min(noRules, 4*noThreads));
+		int blockSize = (noRules+noBlocks-1)/noBlocks;
+
+		List<Callable<List<Metrics>>> taskList = new ArrayList<Callable<List<Metrics>>>();
+		for(int start = 0; start < noRules; start += blockSize){
+			final int blockStart = start;
+			final int blockEnd = Math.min(noRules, start+blockSize);
+			taskList.add(new Callable<List<Metrics>>(){
+				public List<Metrics> call(){
+					List<Metrics> blockMetricsList = new ArrayList<Metrics>();
+					for(int i = blockStart; i < blockEnd; i++)
+						blockMetricsList.add(evaluateRule(i));
+					return blockMetricsList;
+				}
+			});
+		}
+
+		List<Metrics> metricsList = new ArrayList<Metrics>(noRules);
+		for(List<Metrics> blockMetricsList : ParallelTaskExecutor.invokeAll(taskList, noThreads))
+			metricsList.addAll(blockMetricsList);
+		return metricsList;
+	}
+}
@@ -0,0 +1,211 @@
+package org.processmining.plugins.signaturediscovery.learningalgorithm;
+
+import weka.classifiers.trees.Id3;
+import weka.core.Attribute;
+import weka.core.Instance;
+import weka.core.Instances;
+import weka.core.NoSupportForMissingValuesException;
+import weka.core.Utils;
+
+/**
+ * An Id3 decision tree (the same tree, classifications, toString() and
+ * toSource() as weka.classifiers.trees.Id3) whose nodes can be walked through
+ * accessors, so that DecisionTreeRuleExtractor can read its rules; Weka's Id3
+ * keeps its nodes in private fields, so the tree is built here and the methods
+ * of Id3 that read it are overridden (toSource(String) of Id3 writes the nodes
+ * through toSource(int, StringBuffer)). See RuleId3Benchmark for the check
+ * against Id3.
+ *
+ * A node splits on getAttribute(), with one successor per value of that
+ * attribute; a leaf (getAttribute() is null) predicts getClassLabel(),
+ * "null" if no training instance reached it.
+ */
+public class RuleId3 extends Id3 {
+	private static final long serialVersionUID = 1L;
+
+	private RuleId3[] successors;
+	private Attribute attribute;
+	private double classValue;
+	private double[] distribution;
+	private Attribute classAttribute;
+
+	public void buildClassifier(Instances data) throws Exception {
+		//nominal attributes and class, no missing values
+		getCapabilities().testWithFail(data);
+
+		data = new Instances(data);
+		data.deleteWithMissingClass();
+
+		makeTree(data);
+	}
+
+	private void makeTree(Instances data) throws Exception {
+		if(data.numInstances() == 0){
+			attribute = null;
+			classValue = Utils.missingValue();
+			distribution = new double[data.numClasses()];
+			return;
+		}
+
+		//the attribute with the maximum information gain
+		double[] infoGains = new double[data.numAttributes()];
+		for(int i = 0; i < data.numAttributes(); i++)
+			if(i != data.classIndex())
+				infoGains[i] = computeInfoGain(data, data.attribute(i));
+		attribute = data.attribute(Utils.maxIndex(infoGains));
+
+		if(Utils.eq(infoGains[attribute.index()], 0)){
+			attribute = null;
+			distribution = new double[data.numClasses()];
+			for(int i = 0; i < data.numInstances(); i++)
+				distribution[(int)data.instance(i).classValue()]++;
+			Utils.normalize(distribution);
+			classValue = Utils.maxIndex(distribution);
+			classAttribute = data.classAttribute();
+		}else{
+			Instances[] splitData = splitData(data, attribute);
+			successors = new RuleId3[attribute.numValues()];
+			for(int j = 0; j < attribute.numValues(); j++){
+				successors[j] = new RuleId3();
+				successors[j].makeTree(splitData[j]);
+			}
+		}
+	}
+
+	private double computeInfoGain(Instances data, Attribute splitAttribute) throws Exception {
+		double infoGain = computeEntropy(data);
+		Instances[] splitData = splitData(data, splitAttribute);
+		for(int j = 0; j < splitAttribute.numValues(); j++)
+			if(splitData[j].numInstances() > 0)
+				infoGain -= ((double)splitData[j].numInstances()/(double)data.numInstances())*computeEntropy(splitData[j]);
+		return infoGain;
+	}
+
+	private double computeEntropy(Instances data) throws Exception {
+		double[] classCounts = new double[data.numClasses()];
+		for(int i = 0; i < data.numInstances(); i++)
+			classCounts[(int)data.instance(i).classValue()]++;
+		double entropy = 0;
+		for(int j = 0; j < data.numClasses(); j++)
+			if(classCounts[j] > 0)
+				entropy -= classCounts[j]*Utils.log2(classCounts[j]);
+		entropy /= (double)data.numInstances();
+		return entropy+Utils.log2(data.numInstances());
+	}
+
+	private Instances[] splitData(Instances data, Attribute splitAttribute){
+		Instances[] splitData = new Instances[splitAttribute.numValues()];
+		for(int j = 0; j < splitAttribute.numValues(); j++)
+			splitData[j] = new Instances(data, data.numInstances());
+		Instance instance;
+		for(int i = 0; i < data.numInstances(); i++){
+			instance = data.instance(i);
+			splitData[(int)instance.value(splitAttribute)].add(instance);
+		}
+		for(int j = 0; j < splitData.length; j++)
+			splitData[j].compactify();
+		return splitData;
+	}
+
+	public double classifyInstance(Instance instance) throws NoSupportForMissingValuesException {
+		if(instance.hasMissingValue())
+			throw new NoSupportForMissingValuesException("Id3: no missing values, please.");
+		if(attribute == null)
+			return classValue;
+		return successors[(int)instance.value(attribute)].classifyInstance(instance);
+	}
+
+	public double[] distributionForInstance(Instance instance) throws NoSupportForMissingValuesException {
+		if(instance.hasMissingValue())
+			throw new NoSupportForMissingValuesException("Id3: no missing values, please.");
+		if(attribute == null)
+			return distribution;
+		return successors[(int)instance.value(attribute)].distributionForInstance(instance);
+	}
+
+	/*
+	 * Return: the attribute this node splits on, null for a leaf
+	 */
+	public Attribute getAttribute(){
+		return attribute;
+	}
+
+	/*
+	 * Return: the successor of every value of getAttribute(), null for a leaf
+	 */
+	public RuleId3[] getSuccessors(){
+		return successors;
+	}
+
+	/*
+	 * Return: the label of a leaf, "null" (as in toString()) if no training
+	 * instance reached it
+	 */
+	public String getClassLabel(){
+		return Utils.isMissingValue(classValue) ? "null" : classAttribute.value((int)classValue);
+	}
+
+	/*
+	 * Writes the method of this node (and its successors) for
+	 * Id3.toSource(String), which numbers the nodes depth first
+	 * Return: the id of the last node written
+	 */
+	protected int toSource(int id, StringBuffer buffer) throws Exception {
+		buffer.append("\n");
+		buffer.append("  protected static double node"+id+"(Object[] i) {\n");
+		if(attribute == null){
+			if(Double.isNaN(classValue))
+				buffer.append("    return Double.NaN;");
+			else
+				buffer.append("    return "+classValue+";");
+			if(classAttribute != null)
+				buffer.append(" // "+classAttribute.value((int)classValue));
+			buffer.append("\n");
+			buffer.append("  }\n");
+			return id;
+		}
+
+		buffer.append("    checkMissing(i, "+attribute.index()+");\n\n");
+		buffer.append("    // "+attribute.name()+"\n");
+		StringBuffer[] successorBuffers = new StringBuffer[attribute.numValues()];
+		int newId = id;
+		for(int j = 0; j < attribute.numValues(); j++){
+			newId++;
+			buffer.append("    ");
+			if(j > 0)
+				buffer.append("else ");
+			buffer.append("if (((String) i["+attribute.index()+"]).equals(\""+attribute.value(j)+"\"))\n");
+			buffer.append("      return node"+newId+"(i);\n");
+			successorBuffers[j] = new StringBuffer();
+			newId = successors[j].toSource(newId, successorBuffers[j]);
+		}
+		buffer.append("    else\n");
+		buffer.append("      throw new IllegalArgumentException(\"Value '\" + i["+attribute.index()+"] + \"' is not allowed!\");\n");
+		buffer.append("  }\n");
+		for(int j = 0; j < successorBuffers.length; j++)
+			buffer.append(successorBuffers[j].toString());
+		return newId;
+	}
+
+	public String toString(){
+		if(distribution == null && successors == null)
+			return "Id3: No model built yet.";
+		return "Id3\n\n"+toString(0);
+	}
+
+	private String toString(int level){
+		StringBuilder text = new StringBuilder();
+		if(attribute == null){
+			text.append(": ").append(getClassLabel());
+		}else{
+			for(int j = 0; j < attribute.numValues(); j++){
+				text.append("\n");
+				for(int i = 0; i < level; i++)
+					text.append("|  ");
+				text.append(attribute.name()+" = "+attribute.value(j));
+				text.append(successors[j].toString(level+1));
+			}
+		}
+		return text.toString();
+	}
+}
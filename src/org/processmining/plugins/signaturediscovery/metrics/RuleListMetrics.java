@@ -4,6 +4,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
+import org.processmining.plugins.signaturediscovery.learningalgorithm.Rule;
+
 /**
  * @author R.P. Jagadeesh Chandra 'JC' Bose
  * @date 14 July 2010 
@@ -18,12 +20,12 @@ import java.util.Map;
 
 public class RuleListMetrics {
 	String optionsString;
-	List<String> ruleList;
+	List<Rule> ruleList;
 	Map<String, Metrics> classMetricsMap;
 
-	public RuleListMetrics(String optionsString, List<String> ruleList, Map<String, Metrics> classEvaluationMetricsMap){
+	public RuleListMetrics(String optionsString, List<Rule> ruleList, Map<String, Metrics> classEvaluationMetricsMap){
 		this.optionsString = optionsString;
-		this.ruleList = new ArrayList<String>();
+		this.ruleList = new ArrayList<Rule>();
 		this.ruleList.addAll(ruleList);
 		this.classMetricsMap = classEvaluationMetricsMap;
 	}
@@ -32,7 +34,7 @@ public class RuleListMetrics {
 		return optionsString;
 	}
 
-	public List<String> getRuleList() {
+	public List<Rule> getRuleList() {
 		return ruleList;
 	}
 
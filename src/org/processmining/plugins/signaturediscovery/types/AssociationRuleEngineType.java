@@ -0,0 +1,10 @@
+package org.processmining.plugins.signaturediscovery.types;
+
+/*
+ * The miner of the class association sets of ClassSpecificAssociationRuleMiner;
+ * both yield the same rules. FPGrowth mines all the min support values of the
+ * Best sweep from one FP-tree per class
+ */
+public enum AssociationRuleEngineType {
+	Eclat, FPGrowth
+}
@@ -0,0 +1,10 @@
+package org.processmining.plugins.signaturediscovery.types;
+
+/*
+ * The data structure on which the whole-log repeats (MR, SMR, NSMR and their
+ * alphabet variants) are discovered; all of them yield the same repeats.
+ * SuffixArray needs the least memory (a few ints per symbol of the log)
+ */
+public enum RepeatEngineType {
+	SuffixTree, SuffixArray
+}
@@ -153,20 +153,14 @@ public class SignatureDiscoveryUI implements SignatureDiscoverySettingsListener{
 							currentStep = introductionStep;
 							go(1);
 						}else{
-							warn = checkAssociationRulesParameterSettings(activitySet.size());
-							if(warn){
-								currentStep = learningAlgorithmConfigurationStep;
-								go(0);
-							}else{
-//								System.out.println(input.getSelectedFeatureSet());
-//								DiscoverSignatures discoverSignatures = new DiscoverSignatures(log, input, featureCreation);
-								
-								/*
-								 * BRUCE: add condition for feature creation
-								 */
-								if (!featureCreation) {
-//									return discoverSignatures.getSignaturePatternsFrame();
-								}
+//							System.out.println(input.getSelectedFeatureSet());
+//							DiscoverSignatures discoverSignatures = new DiscoverSignatures(log, input, featureCreation);
+							
+							/*
+							 * BRUCE: add condition for feature creation
+							 */
+							if (!featureCreation) {
+//								return discoverSignatures.getSignaturePatternsFrame();
 							}
 						}
 					}
@@ -221,14 +215,6 @@ public class SignatureDiscoveryUI implements SignatureDiscoverySettingsListener{
 		return false;
 	}
 	
-	private boolean checkAssociationRulesParameterSettings(int activitySetSize){
-		if(input.getLearningAlgorithmType() == LearningAlgorithmType.AssociationRules && activitySetSize > 40 && new Float(input.getAssociationRuleSettings().getMinSupportValueStr()).floatValue() < 0.2){
-			JOptionPane.showMessageDialog(new JFrame(), "<HTML>There are more than 50 features in the event log. <BR>It is computationally expensive to find association rules with a low min support value. <BR>  Please choose a min support value at least 0.2</HTML>");
-			return true;
-		}
-		return false;
-	}
-	
 	public void clearFeatureSelection(){
 		input.removeAllFeatures();
 	}
@@ -0,0 +1,61 @@
+package org.processmining.plugins.signaturediscovery.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.processmining.plugins.signaturediscovery.encoding.ActivityDictionary;
+
+/**
+ * The symbols of the repeat structures (IntegerSuffixTree and SuffixArray)
+ * built directly on the activity ids of an ActivityDictionary: activity id i
+ * is the symbol id i+1 and the symbol id EOS (0) is the prefix/termination
+ * symbol; symbolArray maps a symbol id back to the code of its activity, for
+ * the repeats, which are returned as encoded strings.
+ *
+ * The table is built once per dictionary and only read by the structures, so
+ * that one instance can be shared by all of them (e.g., by the suffix trees of
+ * all traces, built in parallel).
+ */
+public final class ActivitySymbols {
+	int encodingLength;
+
+	/**
+	 * symbolArray[0] is the prefix/termination symbol, symbolArray[i+1] the
+	 * code of activity i
+	 */
+	String[] symbolArray;
+
+	/**
+	 * Maps a symbol of symbolArray to its symbol id
+	 */
+	Map<String, Integer> symbolIdMap;
+
+	public ActivitySymbols(ActivityDictionary activityDictionary) {
+		this.encodingLength = activityDictionary.getEncodingLength();
+
+		int noActivities = activityDictionary.size();
+		this.symbolArray = new String[noActivities + 1];
+		this.symbolArray[IntegerSuffixTree.EOS] = IntegerSuffixTree
+				.getEOSSymbol(encodingLength);
+		for (int activityId = 0; activityId < noActivities; activityId++)
+			symbolArray[activityId + 1] = activityDictionary.getCode(activityId);
+
+		this.symbolIdMap = new HashMap<String, Integer>();
+		for (int i = 0; i < symbolArray.length; i++)
+			symbolIdMap.put(symbolArray[i], i);
+	}
+
+	public int getEncodingLength() {
+		return encodingLength;
+	}
+
+	/*
+	 * Return: the symbol ids of the activity ids at start .. end-1
+	 */
+	int[] getSymbols(int[] activityIds, int start, int end) {
+		int[] symbols = new int[end - start];
+		for (int i = start; i < end; i++)
+			symbols[i - start] = activityIds[i] + 1;
+		return symbols;
+	}
+}
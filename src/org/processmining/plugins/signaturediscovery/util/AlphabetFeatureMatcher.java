@@ -0,0 +1,267 @@
+package org.processmining.plugins.signaturediscovery.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.processmining.plugins.signaturediscovery.encoding.ActivityDictionary;
+
+/**
+ * Counts the non-overlapping occurrences of a set of alphabet features in
+ * encoded traces. An alphabet feature is an alphabet, e.g., (ab0, ab1), with
+ * its equivalence class of patterns, e.g., (ab0ab1, ab1ab0, ab0ab0ab1).
+ *
+ * At every position of the trace the pattern of the equivalence class with
+ * the most back-to-back copies starting there is taken (the first one in the
+ * natural order of the patterns on a tie), its copies are added to the count
+ * of the alphabet and the scan continues after the last copy.
+ *
+ * The patterns are converted to symbol ids and sorted once when the matcher
+ * is built, and the back-to-back copies are counted by comparing ids instead
+ * of compiling the regular expression (p){1,} for every pattern at every
+ * position of the trace.
+ *
+ * A matcher built with the ActivityDictionary of the log can also count the
+ * alphabets in the activity ids of a trace (InstanceProfile.getActivityIds).
+ *
+ * The matcher is not modified after construction, so one instance can be
+ * shared by several threads.
+ */
+public class AlphabetFeatureMatcher {
+
+	static final class AlphabetClass {
+		Set<String> alphabet;
+
+		/**
+		 * The symbols that occur in every pattern of the class (by their
+		 * number, see patternSymbolIndices); a trace without one of them has
+		 * no occurrence of the class
+		 */
+		int[] requiredSymbolIndices;
+
+		/**
+		 * The distinct first symbols of the patterns (sorted) and, for each of
+		 * them, the patterns starting with it in the natural order of the
+		 * pattern strings
+		 */
+		int[] firstSymbolIds;
+		int[][][] firstSymbolPatterns;
+	}
+
+	int encodingLength;
+	SymbolIndex symbolIndex;
+	List<AlphabetClass> alphabetClassList;
+
+	/**
+	 * The symbols that occur in the patterns are numbered 0, 1, 2,...;
+	 * patternSymbolIndices holds the number of each symbol id, -1 for the
+	 * symbols that occur in no pattern
+	 */
+	int[] patternSymbolIndices;
+	int noPatternSymbols;
+
+	public AlphabetFeatureMatcher(int encodingLength, Map<Set<String>, Set<String>> alphabetFeatureSetMap) {
+		this(encodingLength, null, alphabetFeatureSetMap);
+	}
+
+	public AlphabetFeatureMatcher(ActivityDictionary activityDictionary,
+			Map<Set<String>, Set<String>> alphabetFeatureSetMap) {
+		this(activityDictionary.getEncodingLength(), activityDictionary, alphabetFeatureSetMap);
+	}
+
+	AlphabetFeatureMatcher(int encodingLength, ActivityDictionary activityDictionary,
+			Map<Set<String>, Set<String>> alphabetFeatureSetMap) {
+		this.encodingLength = encodingLength;
+		this.symbolIndex = new SymbolIndex(encodingLength, activityDictionary);
+		this.alphabetClassList = new ArrayList<AlphabetClass>();
+
+		for (Set<String> alphabet : alphabetFeatureSetMap.keySet()) {
+			AlphabetClass alphabetClass = createAlphabetClass(alphabet, new TreeSet<String>(
+					alphabetFeatureSetMap.get(alphabet)));
+			if (alphabetClass != null)
+				alphabetClassList.add(alphabetClass);
+		}
+
+		patternSymbolIndices = new int[symbolIndex.size()];
+		Arrays.fill(patternSymbolIndices, -1);
+		for (AlphabetClass alphabetClass : alphabetClassList) {
+			for (int[][] patterns : alphabetClass.firstSymbolPatterns)
+				for (int[] pattern : patterns)
+					for (int symbolId : pattern)
+						if (patternSymbolIndices[symbolId] < 0)
+							patternSymbolIndices[symbolId] = noPatternSymbols++;
+		}
+		for (AlphabetClass alphabetClass : alphabetClassList)
+			for (int i = 0; i < alphabetClass.requiredSymbolIndices.length; i++)
+				alphabetClass.requiredSymbolIndices[i] = patternSymbolIndices[alphabetClass.requiredSymbolIndices[i]];
+	}
+
+	AlphabetClass createAlphabetClass(Set<String> alphabet, TreeSet<String> sortedPatternSet) {
+		/*
+		 * Patterns with the same first symbol, in the order of sortedPatternSet
+		 */
+		Map<Integer, List<int[]>> firstSymbolPatternListMap = new HashMap<Integer, List<int[]>>();
+		Set<Integer> requiredSymbolIdSet = null;
+		Set<Integer> patternSymbolIdSet = new HashSet<Integer>();
+
+		int[] pattern;
+		int patternLength;
+		List<int[]> patternList;
+		for (String patternString : sortedPatternSet) {
+			patternLength = patternString.length() / encodingLength;
+			if (patternLength == 0)
+				continue;
+
+			pattern = new int[patternLength];
+			patternSymbolIdSet.clear();
+			for (int i = 0; i < patternLength; i++) {
+				pattern[i] = symbolIndex.addSymbol(patternString.substring(i * encodingLength, (i + 1) * encodingLength));
+				patternSymbolIdSet.add(pattern[i]);
+			}
+
+			if (requiredSymbolIdSet == null)
+				requiredSymbolIdSet = new HashSet<Integer>(patternSymbolIdSet);
+			else
+				requiredSymbolIdSet.retainAll(patternSymbolIdSet);
+
+			patternList = firstSymbolPatternListMap.get(pattern[0]);
+			if (patternList == null) {
+				patternList = new ArrayList<int[]>();
+				firstSymbolPatternListMap.put(pattern[0], patternList);
+			}
+			patternList.add(pattern);
+		}
+
+		if (requiredSymbolIdSet == null)
+			return null;
+
+		AlphabetClass alphabetClass = new AlphabetClass();
+		alphabetClass.alphabet = alphabet;
+		alphabetClass.requiredSymbolIndices = toSortedArray(requiredSymbolIdSet);
+		alphabetClass.firstSymbolIds = toSortedArray(firstSymbolPatternListMap.keySet());
+		alphabetClass.firstSymbolPatterns = new int[alphabetClass.firstSymbolIds.length][][];
+		for (int i = 0; i < alphabetClass.firstSymbolIds.length; i++) {
+			patternList = firstSymbolPatternListMap.get(alphabetClass.firstSymbolIds[i]);
+			alphabetClass.firstSymbolPatterns[i] = patternList.toArray(new int[patternList.size()][]);
+		}
+
+		return alphabetClass;
+	}
+
+	static int[] toSortedArray(Set<Integer> set) {
+		int[] array = new int[set.size()];
+		int index = 0;
+		for (Integer element : set)
+			array[index++] = element;
+		Arrays.sort(array);
+		return array;
+	}
+
+	/*
+	 * Return: the number of back-to-back copies of pattern in sequence
+	 * starting at position start, e.g., 3 for the pattern (1, 2) at position 1
+	 * of (0, 1, 2, 1, 2, 1, 2, 1)
+	 */
+	public static int countTandemCopies(int[] sequence, int start, int[] pattern) {
+		return countTandemCopies(sequence, start, sequence.length, pattern);
+	}
+
+	/*
+	 * Same as countTandemCopies(int[], int, int[]) with the sequence ending at end
+	 */
+	public static int countTandemCopies(int[] sequence, int start, int end, int[] pattern) {
+		int patternLength = pattern.length;
+		int noCopies = 0;
+		int j;
+		for (int position = start; position + patternLength <= end; position += patternLength) {
+			for (j = 0; j < patternLength && sequence[position + j] == pattern[j]; j++)
+				;
+			if (j < patternLength)
+				break;
+			noCopies++;
+		}
+		return noCopies;
+	}
+
+	/*
+	 * encodedTrace: ab0ab1ab2cd0cd1ef0ef1ef2ef3...
+	 * Return: the alphabets that occur in the encoded trace with their
+	 * non-overlapping count (only alphabets with count > 0); the keys are the
+	 * alphabets of the feature set map the matcher was built with
+	 */
+	public Map<Set<String>, Integer> getAlphabetCountMap(String encodedTrace) {
+		return getAlphabetCountMap(symbolIndex.getSymbolIds(encodedTrace));
+	}
+
+	/*
+	 * symbolIds: the activity ids of a trace; the matcher has to be built
+	 * with the ActivityDictionary that assigned them
+	 * Return: as getAlphabetCountMap(String)
+	 */
+	public Map<Set<String>, Integer> getAlphabetCountMap(int[] symbolIds) {
+		return getAlphabetCountMap(symbolIds, 0, symbolIds.length);
+	}
+
+	/*
+	 * Same as getAlphabetCountMap(int[]) for the activity ids at start .. end-1,
+	 * e.g., of a trace in the array of a TraceStore
+	 */
+	public Map<Set<String>, Integer> getAlphabetCountMap(int[] symbolIds, int start, int end) {
+		Map<Set<String>, Integer> alphabetCountMap = new HashMap<Set<String>, Integer>();
+
+		boolean[] isPresentSymbol = new boolean[noPatternSymbols];
+		int symbolId;
+		for (int i = start; i < end; i++) {
+			symbolId = symbolIds[i];
+			if (symbolId >= 0 && symbolId < patternSymbolIndices.length && patternSymbolIndices[symbolId] >= 0)
+				isPresentSymbol[patternSymbolIndices[symbolId]] = true;
+		}
+
+		boolean hasRequiredSymbols;
+		int firstSymbolIndex, maxCount, maxCountPatternLength, noCopies, alphabetCount;
+		for (AlphabetClass alphabetClass : alphabetClassList) {
+			hasRequiredSymbols = true;
+			for (int patternSymbolIndex : alphabetClass.requiredSymbolIndices) {
+				if (!isPresentSymbol[patternSymbolIndex]) {
+					hasRequiredSymbols = false;
+					break;
+				}
+			}
+			if (!hasRequiredSymbols)
+				continue;
+
+			alphabetCount = 0;
+			for (int i = start; i < end; i++) {
+				if (symbolIds[i] < 0)
+					continue;
+				firstSymbolIndex = Arrays.binarySearch(alphabetClass.firstSymbolIds, symbolIds[i]);
+				if (firstSymbolIndex < 0)
+					continue;
+
+				maxCount = 0;
+				maxCountPatternLength = 0;
+				for (int[] pattern : alphabetClass.firstSymbolPatterns[firstSymbolIndex]) {
+					noCopies = countTandemCopies(symbolIds, i, end, pattern);
+					if (noCopies > maxCount) {
+						maxCount = noCopies;
+						maxCountPatternLength = pattern.length;
+					}
+				}
+				if (maxCount > 0) {
+					i += maxCountPatternLength * maxCount - 1;
+					alphabetCount += maxCount;
+				}
+			}
+
+			if (alphabetCount > 0)
+				alphabetCountMap.put(alphabetClass.alphabet, alphabetCount);
+		}
+
+		return alphabetCountMap;
+	}
+}
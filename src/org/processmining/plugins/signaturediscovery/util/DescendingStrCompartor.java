@@ -0,0 +1,12 @@
+package org.processmining.plugins.signaturediscovery.util;
+
+import java.util.Comparator;
+
+/**
+ * Orders strings in the reverse of their natural order
+ */
+class DescendingStrCompartor implements Comparator<String> {
+	public int compare(String s1, String s2) {
+		return s1.compareTo(s2) * (-1);
+	}
+}
@@ -7,6 +7,8 @@ import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 
+import org.processmining.plugins.signaturediscovery.encoding.ActivityDictionary;
+
 /**
  * @author R.P. Jagadeesh Chandra 'JC' Bose
  * @date 14 July 2010 
@@ -20,6 +22,12 @@ import java.util.TreeSet;
  */
 
 public class EquivalenceClass {
+	/*
+	 * The dictionary in which the codes of the features are looked up; null if 
+	 * the features are split into substrings
+	 */
+	ActivityDictionary activityDictionary;
+	
 	class DescendingStringLengthComparator implements Comparator<String>{
 		public int compare(String str1, String str2){
 			return (str1.length() < str2.length()) ? 1 : -1;
@@ -33,7 +41,31 @@ public class EquivalenceClass {
 		}
 	}
 	
+	public EquivalenceClass(){
+		
+	}
+	
 	/*
+	 * The codes of the features are looked up in activityDictionary, so that the 
+	 * alphabets share the codes of the dictionary instead of holding a substring 
+	 * for every code of every feature
+	 */
+	public EquivalenceClass(ActivityDictionary activityDictionary){
+		this.activityDictionary = activityDictionary;
+	}
+	
+	/*
+	 * Return: the code at start of the feature, e.g., "ab1" at 3 of "ab0ab1"
+	 */
+	private String getSymbol(int encodingLength, String feature, int start){
+		if(activityDictionary != null){
+			int activityId = activityDictionary.getCodeId(feature, start);
+			if(activityId >= 0)
+				return activityDictionary.getCode(activityId);
+		}
+		return feature.substring(start, start+encodingLength);
+	}
+	
 	/*
 	 * featureSet: set of features ("ab0ab1", "cd0cd1cd2", "de0de1", ...), encodingLength=3
 	 * encodingLength: length of encoded activity name (the same for all activities)
@@ -50,7 +82,7 @@ public class EquivalenceClass {
 			featureLength = feature.length()/encodingLength;
 			featureAlphabet = new TreeSet<String>();
 			for(int i = 0; i < featureLength; i++)
-				featureAlphabet.add(feature.substring(i*encodingLength, (i+1)*encodingLength));
+				featureAlphabet.add(getSymbol(encodingLength, feature, i*encodingLength));
 			featureAlphabetMap.put(feature, featureAlphabet);
 		}
 		
@@ -82,7 +114,7 @@ public class EquivalenceClass {
 			
 			// Note that only add distinct alphabet components (due to Set type)
 			for(int i = 0; i < featureLength; i++){
-				featureAlphabet.add(feature.substring(i*encodingLength, (i+1)*encodingLength));
+				featureAlphabet.add(getSymbol(encodingLength, feature, i*encodingLength));
 			}
 			
 			if(alphabetEquivalenceClassMap.containsKey(featureAlphabet)){
@@ -106,7 +138,7 @@ public class EquivalenceClass {
 		TreeSet<String> startSymbolFeatureSet;
 		String startSymbol;
 		for(String feature : featureSet){
-			startSymbol = feature.substring(0, encodingLength);
+			startSymbol = getSymbol(encodingLength, feature, 0);
 			if(startSymbolEquivalenceClassMap.containsKey(startSymbol)){
 				startSymbolFeatureSet = (TreeSet<String>)startSymbolEquivalenceClassMap.get(startSymbol);
 			}else{
@@ -141,7 +173,7 @@ public class EquivalenceClass {
 		TreeSet<String> startSymbolFeatureSet;
 		String startSymbol;
 		for(String feature : featureSet){
-			startSymbol = feature.substring(0, encodingLength);
+			startSymbol = getSymbol(encodingLength, feature, 0);
 			if(startSymbolEquivalenceClassMap.containsKey(startSymbol)){
 				startSymbolFeatureSet = (TreeSet<String>)startSymbolEquivalenceClassMap.get(startSymbol);
 			}else{
@@ -170,7 +202,7 @@ public class EquivalenceClass {
 			featureLength = feature.length()/encodingLength;
 			featureAlphabet = new TreeSet<String>();
 			for(int i = 0; i < featureLength; i++){
-				featureAlphabet.add(feature.substring(i*encodingLength, (i+1)*encodingLength));
+				featureAlphabet.add(getSymbol(encodingLength, feature, i*encodingLength));
 			}
 			featureAlphabetMap.put(feature, featureAlphabet);
 		}
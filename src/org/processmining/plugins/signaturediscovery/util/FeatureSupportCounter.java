@@ -0,0 +1,87 @@
+package org.processmining.plugins.signaturediscovery.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.processmining.plugins.signaturediscovery.encoding.FeatureDictionary;
+
+/**
+ * Counts the support of a set of features (sequence features such as
+ * "ab0ab1ab2" or alphabet features such as [ab0, ab1]): the total number of
+ * occurrences of every feature over the instances, see
+ * DiscoverSignatures.computeTotalSequenceFeatureSupportCount.
+ *
+ * The counts are accumulated in long[] arrays indexed by the ids of the
+ * features in a FeatureDictionary, so a sparse instance vector (feature ids
+ * and counts) can be added without any lookup, and a feature count map
+ * without recomputing the hash of its Set<String> features (the dictionary
+ * looks them up by identity first).
+ *
+ * The counter can be fed while the instances are vectorized in parallel: every
+ * task counts into its own array (newSupportCounts, addSupportCounts) and adds
+ * it to the counter when it is done (addSupportCounts(long[])).
+ */
+public class FeatureSupportCounter<E> {
+	FeatureDictionary<E> featureDictionary;
+	long[] supportCounts;
+
+	public FeatureSupportCounter(FeatureDictionary<E> featureDictionary) {
+		this.featureDictionary = featureDictionary;
+		this.supportCounts = new long[featureDictionary.size()];
+	}
+
+	public FeatureDictionary<E> getFeatureDictionary() {
+		return featureDictionary;
+	}
+
+	/*
+	 * Return: an array to count the support of the features in
+	 */
+	public long[] newSupportCounts() {
+		return new long[featureDictionary.size()];
+	}
+
+	/*
+	 * Adds the feature counts of an instance, e.g., ("ab0ab1", 2), ("cd0cd1cd2", 3),
+	 * to supportCounts; features that are not in the dictionary are ignored
+	 */
+	public void addSupportCounts(Map<E, Integer> featureCountMap, long[] supportCounts) {
+		int featureId;
+		for (Map.Entry<E, Integer> entry : featureCountMap.entrySet()) {
+			featureId = featureDictionary.getFeatureId(entry.getKey());
+			if (featureId >= 0)
+				supportCounts[featureId] += entry.getValue();
+		}
+	}
+
+	/*
+	 * Adds a sparse instance vector (see InstanceVector.getFeatureIds) to supportCounts
+	 */
+	public void addSupportCounts(int[] featureIds, int[] featureCounts, long[] supportCounts) {
+		for (int i = 0; i < featureIds.length; i++)
+			supportCounts[featureIds[i]] += featureCounts[i];
+	}
+
+	public synchronized void addSupportCounts(long[] supportCounts) {
+		for (int featureId = 0; featureId < supportCounts.length; featureId++)
+			this.supportCounts[featureId] += supportCounts[featureId];
+	}
+
+	public synchronized long getSupportCount(E feature) {
+		int featureId = featureDictionary.getFeatureId(feature);
+		return featureId < 0 ? 0 : supportCounts[featureId];
+	}
+
+	/*
+	 * Return: the features that occur in the instances with a support of at
+	 * least minSupport * noTraces, in the order of the dictionary
+	 */
+	public synchronized List<E> getFrequentFeatureList(double minSupport, int noTraces) {
+		List<E> frequentFeatureList = new ArrayList<E>();
+		for (int featureId = 0; featureId < supportCounts.length; featureId++)
+			if (supportCounts[featureId] > 0 && (double) supportCounts[featureId] / noTraces >= minSupport)
+				frequentFeatureList.add(featureDictionary.getFeature(featureId));
+		return frequentFeatureList;
+	}
+}
@@ -0,0 +1,196 @@
+package org.processmining.plugins.signaturediscovery.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Computes the Fisher score of every feature of a set of labelled instances:
+ * SUMi(Ni*(Ui - U)^2) / SUMi(Ni*Vi) over the classes i, with Ni the number of
+ * instances of class i, Ui and Vi the mean and the (population) variance of
+ * the feature in class i and U its mean over all instances. A feature with
+ * both sums 0 scores 0, one with only the denominator 0 scores
+ * Double.MAX_VALUE.
+ *
+ * The instances are added as rows of (feature id, count) pairs, the features
+ * not listed having count 0. They are transposed into a columnar (per feature)
+ * count matrix, and the class sums, means and variances are accumulated in
+ * double[] arrays indexed by feature id and class id instead of hash maps
+ * keyed by "feature:label" strings.
+ *
+ * The floating point operations are those of the former computation in
+ * DiscoverSignatures, in the same order: the squared deviations are summed
+ * per class in the order of the instances and the classes are summed in the
+ * iteration order of a HashMap from the labels to their instance counts, so
+ * the scores (and the ranking of the features) are the same bit for bit.
+ */
+public class FisherScoreCalculator {
+	int noFeatures;
+	int noInstances;
+	String[] labels;
+
+	/*
+	 * The rows: the (feature id, count) pairs of instance i are at
+	 * rowStarts[i] .. rowStarts[i+1]-1 of rowFeatureIds and rowCounts
+	 */
+	int[] rowStarts;
+	int[] rowFeatureIds;
+	int[] rowCounts;
+	int noEntries;
+
+	public FisherScoreCalculator(int noFeatures) {
+		this.noFeatures = noFeatures;
+		this.labels = new String[16];
+		this.rowStarts = new int[17];
+		this.rowFeatureIds = new int[64];
+		this.rowCounts = new int[64];
+	}
+
+	public int getNoFeatures() {
+		return noFeatures;
+	}
+
+	public int getNoInstances() {
+		return noInstances;
+	}
+
+	/**
+	 * Adds an instance
+	 *
+	 * @param label
+	 * @param featureIds
+	 *            the features of the instance with a non-zero count, each at
+	 *            most once
+	 * @param counts
+	 *            their counts
+	 * @param length
+	 *            the number of features in featureIds and counts
+	 */
+	public void addInstance(String label, int[] featureIds, int[] counts, int length) {
+		if (noInstances == labels.length) {
+			labels = Arrays.copyOf(labels, 2 * noInstances);
+			rowStarts = Arrays.copyOf(rowStarts, 2 * noInstances + 1);
+		}
+		if (noEntries + length > rowFeatureIds.length) {
+			int capacity = Math.max(2 * rowFeatureIds.length, noEntries + length);
+			rowFeatureIds = Arrays.copyOf(rowFeatureIds, capacity);
+			rowCounts = Arrays.copyOf(rowCounts, capacity);
+		}
+		System.arraycopy(featureIds, 0, rowFeatureIds, noEntries, length);
+		System.arraycopy(counts, 0, rowCounts, noEntries, length);
+		noEntries += length;
+		labels[noInstances++] = label;
+		rowStarts[noInstances] = noEntries;
+	}
+
+	/*
+	 * Return: the Fisher score of every feature, indexed by feature id; all
+	 * scores are NaN if no instance has been added
+	 */
+	public double[] computeFisherScores() {
+		/*
+		 * Class ids in the iteration order of the label -> instance count map
+		 * (filled in the order of the instances, as before), which is the
+		 * order in which the classes are summed in the score
+		 */
+		Map<String, Integer> classInstanceCountMap = new HashMap<String, Integer>();
+		for (int i = 0; i < noInstances; i++) {
+			Integer classInstanceCount = classInstanceCountMap.get(labels[i]);
+			classInstanceCountMap.put(labels[i], classInstanceCount == null ? 1 : classInstanceCount + 1);
+		}
+		int noClasses = classInstanceCountMap.size();
+		int[] classInstanceCounts = new int[noClasses];
+		Map<String, Integer> classIdMap = new HashMap<String, Integer>();
+		for (Map.Entry<String, Integer> entry : classInstanceCountMap.entrySet()) {
+			classInstanceCounts[classIdMap.size()] = entry.getValue();
+			classIdMap.put(entry.getKey(), classIdMap.size());
+		}
+		int[] instanceClassIds = new int[noInstances];
+		for (int i = 0; i < noInstances; i++)
+			instanceClassIds[i] = classIdMap.get(labels[i]);
+
+		/*
+		 * Transpose the rows into columns: the (instance, count) pairs of
+		 * feature f are at columnStarts[f] .. columnStarts[f+1]-1, in the
+		 * order of the instances
+		 */
+		int[] columnStarts = new int[noFeatures + 1];
+		for (int j = 0; j < noEntries; j++)
+			columnStarts[rowFeatureIds[j] + 1]++;
+		for (int f = 0; f < noFeatures; f++)
+			columnStarts[f + 1] += columnStarts[f];
+		int[] columnInstances = new int[noEntries];
+		int[] columnCounts = new int[noEntries];
+		int[] columnEnds = Arrays.copyOf(columnStarts, noFeatures);
+		for (int i = 0; i < noInstances; i++) {
+			for (int j = rowStarts[i]; j < rowStarts[i + 1]; j++) {
+				columnInstances[columnEnds[rowFeatureIds[j]]] = i;
+				columnCounts[columnEnds[rowFeatureIds[j]]++] = rowCounts[j];
+			}
+		}
+
+		/*
+		 * Class means Ui of every feature, at featureId * noClasses + classId,
+		 * and overall means U; the sums of the counts are exact in double
+		 */
+		double[] featureClassAvgValues = new double[noFeatures * noClasses];
+		double[] featureOverallAvgValues = new double[noFeatures];
+		for (int f = 0; f < noFeatures; f++) {
+			for (int j = columnStarts[f]; j < columnStarts[f + 1]; j++) {
+				featureClassAvgValues[f * noClasses + instanceClassIds[columnInstances[j]]] += columnCounts[j];
+				featureOverallAvgValues[f] += columnCounts[j];
+			}
+			featureOverallAvgValues[f] = 1.0 * featureOverallAvgValues[f] / noInstances;
+			for (int c = 0; c < noClasses; c++)
+				featureClassAvgValues[f * noClasses + c] = 1.0 * featureClassAvgValues[f * noClasses + c]
+						/ classInstanceCounts[c];
+		}
+
+		/*
+		 * Class variances Vi: SUMj((Xij - Ui)^2)/Ni, summed over all instances
+		 * (also the ones with count 0) in their order
+		 */
+		double[] fisherScores = new double[noFeatures];
+		double[] classAvgValues = new double[noClasses];
+		double[] classZeroDeviations = new double[noClasses];
+		double[] classStdDevValues = new double[noClasses];
+		int classId, nextColumnIndex, columnEnd;
+		double nominator, denominator;
+		for (int f = 0; f < noFeatures; f++) {
+			for (int c = 0; c < noClasses; c++) {
+				classAvgValues[c] = featureClassAvgValues[f * noClasses + c];
+				classZeroDeviations[c] = Math.pow(classAvgValues[c], 2);
+				classStdDevValues[c] = 0.0;
+			}
+			nextColumnIndex = columnStarts[f];
+			columnEnd = columnStarts[f + 1];
+			for (int i = 0; i < noInstances; i++) {
+				classId = instanceClassIds[i];
+				if (nextColumnIndex < columnEnd && columnInstances[nextColumnIndex] == i)
+					classStdDevValues[classId] += Math.pow(columnCounts[nextColumnIndex++] - classAvgValues[classId], 2);
+				else
+					classStdDevValues[classId] += classZeroDeviations[classId];
+			}
+
+			/*
+			 * Fisher score: SUMi(Ni*(Ui - U)^2) / SUMi(Ni*Vi)
+			 */
+			nominator = 0.0;
+			denominator = 0.0;
+			for (int c = 0; c < noClasses; c++) {
+				nominator += 1.0 * classInstanceCounts[c]
+						* Math.pow(classAvgValues[c] - featureOverallAvgValues[f], 2);
+				denominator += 1.0 * classInstanceCounts[c] * (classStdDevValues[c] / classInstanceCounts[c]);
+			}
+
+			if (denominator != 0.0)
+				fisherScores[f] = 1.0 * nominator / denominator;
+			else if (nominator == 0.0)
+				fisherScores[f] = 0.0;
+			else
+				fisherScores[f] = Double.MAX_VALUE;
+		}
+
+		return fisherScores;
+	}
+}
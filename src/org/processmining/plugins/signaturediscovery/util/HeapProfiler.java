@@ -0,0 +1,76 @@
+package org.processmining.plugins.signaturediscovery.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reports the heap retained after the stages of a computation, e.g., of the
+ * signature discovery (encoding, feature extraction, instance vectors, ...):
+ * at the end of every stage (mark) the garbage is collected and the used heap
+ * is recorded, so the report shows what the data structures alive at that
+ * point take, and how much every stage added or released.
+ *
+ * Collecting the garbage takes time, so a disabled profiler (the default of
+ * DiscoverSignatures, see SignatureDiscoveryInput.setHeapProfile) does not
+ * measure anything.
+ *
+ * Example report:
+ * Stage                              Retained (MB)    Delta (MB)
+ * Encode log                                 412.3         380.1
+ * Generate features                          431.0          18.7
+ */
+public class HeapProfiler {
+	boolean enabled;
+	long startUsedMemory;
+	List<String> stageList;
+	List<Long> usedMemoryList;
+
+	public HeapProfiler(boolean enabled) {
+		this.enabled = enabled;
+		this.stageList = new ArrayList<String>();
+		this.usedMemoryList = new ArrayList<Long>();
+		if (enabled)
+			startUsedMemory = getUsedMemory();
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/*
+	 * Return: the used heap after a garbage collection, in bytes
+	 */
+	public static long getUsedMemory() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++)
+			System.gc();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	/*
+	 * Records the heap retained at the end of the stage
+	 */
+	public void mark(String stage) {
+		if (!enabled)
+			return;
+		stageList.add(stage);
+		usedMemoryList.add(getUsedMemory());
+	}
+
+	public String getReport() {
+		StringBuilder report = new StringBuilder();
+		report.append(String.format("%-32s %16s %13s%n", "Stage", "Retained (MB)", "Delta (MB)"));
+		long previousUsedMemory = startUsedMemory;
+		for (int i = 0; i < stageList.size(); i++) {
+			report.append(String.format("%-32s %16.1f %13.1f%n", stageList.get(i), usedMemoryList.get(i)
+					/ (1024.0 * 1024.0), (usedMemoryList.get(i) - previousUsedMemory) / (1024.0 * 1024.0)));
+			previousUsedMemory = usedMemoryList.get(i);
+		}
+		return report.toString();
+	}
+
+	public void printReport() {
+		if (enabled)
+			System.out.print(getReport());
+	}
+}
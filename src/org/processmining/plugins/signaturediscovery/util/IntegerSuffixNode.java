@@ -0,0 +1,85 @@
+package org.processmining.plugins.signaturediscovery.util;
+
+/**
+ * A node of IntegerSuffixTree
+ */
+final class IntegerSuffixNode {
+	/**
+	 * The parent node of this node
+	 */
+	IntegerSuffixNode parent;
+
+	/**
+	 * The suffix link signifies the link to the node that forms the largest
+	 * suffix of the current node
+	 */
+	IntegerSuffixNode suffixLink;
+
+	/**
+	 * The first child of this node; null for leaves
+	 */
+	IntegerSuffixNode firstChild;
+
+	/**
+	 * All children of this node, indexed by the first symbol of their incoming
+	 * edge
+	 */
+	SuffixNodeChildIndex<IntegerSuffixNode> children;
+
+	/**
+	 * The starting index (in the input sequence) of the incoming edge
+	 */
+	int edgeLabelStart;
+
+	/**
+	 * The end index (in the input sequence) of the incoming edge
+	 */
+	int edgeLabelEnd;
+
+	/**
+	 * The index of the start position (in the input sequence) of the node's
+	 * path
+	 */
+	int pathPosition;
+
+	/**
+	 * flag signifying whether the node is left diverse
+	 */
+	boolean isLeftDiverse;
+
+	/**
+	 * For a leaf, the symbol to the left of its suffix; for an internal node,
+	 * the left symbol shared by all the leaves below it or
+	 * IntegerSuffixTree.DIVERSE if the leaves do not agree
+	 */
+	int leftSymbol;
+
+	/**
+	 * The number of leaves in the subtree of the node and the index of the
+	 * first of them; the leaves of a subtree are numbered consecutively (in
+	 * pre-order) by IntegerSuffixTree.findLeftDiverseNodes()
+	 */
+	int noLeaves;
+	int firstLeafIndex;
+
+	public IntegerSuffixNode() {
+		this.children = new SuffixNodeChildIndex<IntegerSuffixNode>();
+	}
+
+	public IntegerSuffixNode(IntegerSuffixNode parent, int edgeLabelStart,
+			int edgeLabelEnd, int pathPosition) {
+		this.parent = parent;
+		this.edgeLabelStart = edgeLabelStart;
+		this.edgeLabelEnd = edgeLabelEnd;
+		this.pathPosition = pathPosition;
+		this.children = new SuffixNodeChildIndex<IntegerSuffixNode>();
+	}
+
+	/**
+	 * Adds node as the child whose incoming edge starts with symbol; an
+	 * existing child for the same symbol is replaced
+	 */
+	public void addChild(int symbol, IntegerSuffixNode node) {
+		children.put(symbol, node);
+	}
+}
@@ -0,0 +1,1287 @@
+/*
+ * Author: R. P. Jagadeesh Chandra Bose
+ * Date: 22 Dec 2008
+ * Version: 1.0
+ * 
+ * This file implements the suffix tree generation in linear time and space
+ * The suffix tree is constructed based on Ukkonen's algorithm
+ * The general outline of the algorithm is as follows:
+ * 
+ * n = length of the string.
+   CreateTree:
+	   Calls n times to SPA (Single Phase Algorithm). SPA:  
+	      Increase the variable e (virtual end of all leaves).
+	   Calls SEA (Single Extension Algorithm) starting with the first extension that
+	   does not already exist in the tree and ending at the first extension that
+	   already exists. SEA :  
+	      Follow suffix link.
+	      Check if current suffix exists in the tree.
+	      If it does not - apply rule 2 and then create a new suffix link.
+	      apply_rule_2:  
+	         Create a new leaf and maybe a new internal node as well.
+	         create_node:  
+	            Create a new node or a leaf.
+   
+  Rules 1 and 3 are implicit and thus are not implemented. Only rule 2 is
+  "real".
+ * 
+ * The input is kept as an int[] of symbol ids, so every symbol comparison is
+ * a single int comparison. The tree is built on the activity ids of a trace or
+ * a log (see ActivitySymbols); UkkonenSuffixTree builds it on an encoded
+ * string. The repeats are returned as encoded strings (e.g., ab0ab1).
+ *
+ * Symbol 0 is reserved for the prefix/termination symbol "."; the encoded
+ * activities are mapped to the ids 1..n
+ */
+
+package org.processmining.plugins.signaturediscovery.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class IntegerSuffixTree implements RepeatFinder {
+	/**
+	 * The id of the prefix/termination symbol
+	 */
+	static final int EOS = 0;
+
+	/**
+	 * The leftSymbol of an internal node whose leaves have different left
+	 * symbols
+	 */
+	static final int DIVERSE = -1;
+
+	/**
+	 * The prefix/termination symbol of the encoded string
+	 */
+	static final String EOS_SYMBOL = ".";
+
+	/**
+	 * The root of the tree
+	 */
+	IntegerSuffixNode root;
+
+	/**
+	 * The node that doesn't have a suffix link yet. It will have one by the end
+	 * of the current phase
+	 */
+	IntegerSuffixNode suffixLess;
+
+	/**
+	 * The node and the position in its incoming edge where the last match
+	 * occurred; the cursor is per tree so that several trees can be used
+	 * together
+	 */
+	IntegerSuffixNode posNode;
+	int posEdgePosition;
+
+	/**
+	 * The input sequence of symbol ids; index 0 is the prefix symbol and index
+	 * sequenceLength is the termination symbol
+	 */
+	int[] sequence;
+
+	/**
+	 * The length of the input sequence + 1 for the termination symbol
+	 */
+	int sequenceLength;
+
+	/**
+	 * The encoding length of the encoded activities
+	 */
+	int encodingLength;
+
+	/**
+	 * Maps a symbol id to its encoded activity; symbolArray[EOS] is the
+	 * prefix/termination symbol
+	 */
+	String[] symbolArray;
+
+	/**
+	 * Maps an encoded activity to its symbol id; created when needed
+	 */
+	Map<String, Integer> symbolIdMap;
+
+	/**
+	 * The virtual end of all leaves
+	 */
+	int e;
+
+	/**
+	 * The phase number
+	 */
+	int phase;
+
+	boolean isLeftDiversityComputed;
+
+	/**
+	 * The left symbol of each leaf, indexed on the leaf index (see
+	 * IntegerSuffixNode.firstLeafIndex); set by findLeftDiverseNodes()
+	 */
+	int[] leafLeftSymbols;
+
+	/*
+	 * The lengths of the tandem repeats starting at every position; set by
+	 * LZDecomposition()
+	 */
+	ArrayList<TreeSet<Integer>> tandemPairs;
+	HashSet<String> complexTandemRepeats;
+	HashMap<TreeSet<String>, TreeSet<String>> complexAlphabetTandemRepeatMap;
+
+	/**
+	 * Builds the tree for the activity ids at start .. end-1 of activityIds,
+	 * e.g., the ids of a trace read in place (InstanceProfile.getActivityIdArray)
+	 * or the ids of all traces of a log; activitySymbols is the (shared) symbol
+	 * table of the ActivityDictionary that assigned them
+	 */
+	public IntegerSuffixTree(ActivitySymbols activitySymbols,
+			int[] activityIds, int start, int end) {
+		this(activitySymbols.encodingLength, activitySymbols.getSymbols(
+				activityIds, start, end), activitySymbols.symbolArray,
+				activitySymbols.symbolIdMap);
+	}
+
+	/*
+	 * Builds the tree for symbols that are already symbol ids (1..n) of
+	 * symbolArray; symbolIdMap may be null. Used by UkkonenSuffixTree and for
+	 * the trees built on the tandem repeats of this tree
+	 */
+	protected IntegerSuffixTree(int encodingLength, int[] symbols,
+			String[] symbolArray, Map<String, Integer> symbolIdMap) {
+		this.encodingLength = encodingLength;
+		this.symbolArray = symbolArray;
+		this.symbolIdMap = symbolIdMap;
+
+		init(symbols);
+	}
+
+	static String getEOSSymbol(int encodingLength) {
+		String eosSymbol = EOS_SYMBOL;
+		for (int i = 1; i < encodingLength; i++)
+			eosSymbol += EOS_SYMBOL;
+		return eosSymbol;
+	}
+
+	private void init(int[] symbols) {
+		/*
+		 * Adjust the sequence to start from index 1 rather than from index 0
+		 * and add the termination symbol at the end
+		 */
+		this.sequenceLength = symbols.length + 1;
+		this.sequence = new int[sequenceLength + 1];
+		this.sequence[0] = EOS;
+		System.arraycopy(symbols, 0, sequence, 1, symbols.length);
+		this.sequence[sequenceLength] = EOS;
+
+		createTree();
+	}
+
+	private void createTree() {
+		this.root = new IntegerSuffixNode();
+
+		int extension;
+
+		/* Initialize the algorithm parameters */
+		phase = 2;
+		extension = 2;
+
+		/* Allocation of first child to the root; phase 0 */
+		root.firstChild = new IntegerSuffixNode(root, 1, sequenceLength, 1);
+		root.addChild(sequence[1], root.firstChild);
+		this.e = 2;
+		suffixLess = null;
+
+		posNode = root;
+		posEdgePosition = 0;
+
+		boolean repeatedExtension = false;
+		for (; phase < sequenceLength; phase++) {
+			SPAResult spaResult = SPA(phase, extension, repeatedExtension);
+			extension = spaResult.extension;
+			repeatedExtension = spaResult.repeatedExtension;
+		}
+	}
+
+	/*
+	 * Performs all insertions of a single phase by calling function SEA
+	 * starting from the first extension that does not already exist in the tree
+	 * and ending at the first extension that already exists in the tree.
+	 * 
+	 * Output: 1. The extension number that was last executed on this phase.
+	 * Next phase will start from it and not from 1. 2. The flag
+	 * repeatedExtension (set to true if rule 3 is applied)
+	 */
+	private SPAResult SPA(int phase, int extension, boolean repeatedExtension) {
+		int ruleApplied = 0;
+
+		SuffixTreePath streePath = new SuffixTreePath();
+
+		/* Leaf's trick; Apply implicit extensions 1 through previous phase */
+		this.e = phase + 1;
+
+		while (extension <= phase + 1) {
+			streePath.begin = extension;
+			streePath.end = phase + 1;
+
+			ruleApplied = SEA(streePath, repeatedExtension);
+
+			if (ruleApplied == 3) {
+				repeatedExtension = true;
+				break;
+			}
+
+			repeatedExtension = false;
+			extension++;
+		}
+		return new SPAResult(extension, repeatedExtension);
+	}
+
+	/*
+	 * Single Extension Algorithm: ensures that the extension streePath is in
+	 * the tree. Follows the suffix link of posNode (unless afterRule3) and
+	 * traces the rest of the extension; if it is in the tree rule 3 applies
+	 * (the phase is done), otherwise it is inserted by rule 2.
+	 * 
+	 * Output: The rule that was applied (3 or 2)
+	 */
+	private int SEA(SuffixTreePath streePath, boolean afterRule3) {
+		int ruleApplied = 0;
+
+		int pathPosition = streePath.begin;
+
+		IntegerSuffixNode tempNode;
+
+		if (!afterRule3) {
+			followSuffixLink();
+		}
+
+		int noSymbolsFound = 0;
+		if (posNode == root) {
+			noSymbolsFound = traceString(streePath, sequence, false);
+		} else {
+			streePath.begin = streePath.end;
+			noSymbolsFound = 0;
+			if (isLastSymbolInEdge()) {
+				tempNode = findChild(sequence[streePath.end]);
+				if (tempNode != null) {
+					posNode = tempNode;
+					posEdgePosition = 0;
+					noSymbolsFound = 1;
+				}
+			} else {
+				if (sequence[posNode.edgeLabelStart + posEdgePosition + 1] == sequence[streePath.end]) {
+					posEdgePosition++;
+					noSymbolsFound = 1;
+				}
+			}
+		}
+
+		if (noSymbolsFound == streePath.end - streePath.begin + 1) {
+			ruleApplied = 3;
+			if (suffixLess != null) {
+				suffixLess.suffixLink = posNode.parent;
+				suffixLess = null;
+			}
+
+			return ruleApplied;
+		}
+
+		if (isLastSymbolInEdge() || posNode == root) {
+			if (posNode.firstChild != null) {
+				applyExtensionRule2(streePath.begin + noSymbolsFound,
+						streePath.end, pathPosition, 0, true);
+				ruleApplied = 2;
+				if (suffixLess != null) {
+					suffixLess.suffixLink = posNode;
+					suffixLess = null;
+				}
+			}
+		} else {
+			applyExtensionRule2(streePath.begin + noSymbolsFound,
+					streePath.end, pathPosition, posEdgePosition, false);
+
+			if (suffixLess != null)
+				suffixLess.suffixLink = posNode;
+
+			if (getNodeLabelLength(posNode) == 1 && posNode.parent == root) {
+				posNode.suffixLink = root;
+				suffixLess = null;
+			} else {
+				suffixLess = posNode;
+			}
+
+			ruleApplied = 2;
+		}
+
+		return ruleApplied;
+	}
+
+	/*
+	 * Extension rule 2: either a new leaf is added to posNode or the incoming
+	 * edge of posNode is split at edgePos by a new internal node that gets the
+	 * new leaf
+	 */
+	private void applyExtensionRule2(int edgeLabelBegin, int edgeLabelEnd,
+			int pathPosition, int edgePos, boolean newson) {
+
+		if (newson) {
+			IntegerSuffixNode newLeaf = new IntegerSuffixNode(posNode,
+					edgeLabelBegin, edgeLabelEnd, pathPosition);
+			posNode.addChild(sequence[edgeLabelBegin], newLeaf);
+			return;
+		}
+
+		/* split case */
+		IntegerSuffixNode newInternal = new IntegerSuffixNode(posNode.parent,
+				posNode.edgeLabelStart, posNode.edgeLabelStart + edgePos,
+				posNode.pathPosition);
+
+		posNode.edgeLabelStart += edgePos + 1;
+
+		IntegerSuffixNode newLeaf = new IntegerSuffixNode(newInternal,
+				edgeLabelBegin, edgeLabelEnd, pathPosition);
+
+		/*
+		 * The new internal node starts with the same symbol as posNode and
+		 * hence replaces it in the children of its parent
+		 */
+		posNode.parent.addChild(sequence[newInternal.edgeLabelStart],
+				newInternal);
+
+		if (newInternal.parent.firstChild == posNode) {
+			newInternal.parent.firstChild = newInternal;
+		}
+
+		newInternal.firstChild = posNode;
+		newInternal.addChild(sequence[posNode.edgeLabelStart], posNode);
+		posNode.parent = newInternal;
+		newInternal.addChild(sequence[edgeLabelBegin], newLeaf);
+
+		posNode = newInternal;
+	}
+
+	private void followSuffixLink() {
+		SuffixTreePath gamma = new SuffixTreePath();
+		if (posNode == root) {
+			return;
+		}
+
+		if (posNode.suffixLink == null || !isLastSymbolInEdge()) {
+			if (posNode.parent == root) {
+				posNode = root;
+				return;
+			}
+
+			/* Store gamma - the indices of node's incoming edge */
+			gamma.begin = posNode.edgeLabelStart;
+			gamma.end = posNode.edgeLabelStart + posEdgePosition;
+
+			/* Follow father's suffix link and down-walk gamma */
+			posNode = posNode.parent.suffixLink;
+			traceString(gamma, sequence, true);
+		} else {
+			posNode = posNode.suffixLink;
+			posEdgePosition = getNodeLabelLength(posNode) - 1;
+		}
+	}
+
+	/*
+	 * Traces the symbols searchSequence[streePath.begin..streePath.end] in the
+	 * tree starting from posNode. With skip (the string is known to be in
+	 * the tree, e.g., when following a suffix link) the symbols of an edge are
+	 * not compared but its length is skipped (Ukkonen's skip trick)
+	 *
+	 * Output: number of symbols found
+	 */
+	private int traceString(SuffixTreePath streePath, int[] searchSequence,
+			boolean skip) {
+		boolean isSearchDone = false;
+
+		int noSymbolsFound = 0;
+
+		int streeBegin = streePath.begin;
+
+		while (!isSearchDone) {
+			posEdgePosition = 0;
+			TraceSingleEdgeResult result = traceSingleEdge(streePath,
+					searchSequence, skip);
+			streePath.begin += result.noEdgeSymbolsFound;
+			noSymbolsFound += result.noEdgeSymbolsFound;
+			isSearchDone = result.searchDone;
+		}
+
+		// streePath is passed by value; so reset the value
+		streePath.begin = streeBegin;
+
+		return noSymbolsFound;
+	}
+
+	/*
+	 * Traces the symbols in the outgoing edge of posNode that starts with
+	 * searchSequence[streePath.begin]. Search stops when the whole string was
+	 * found in the edge, the edge ended (and the next edge must be searched by
+	 * traceString) or a non-matching symbol was found
+	 */
+	private TraceSingleEdgeResult traceSingleEdge(SuffixTreePath streePath,
+			int[] searchSequence, boolean skip) {
+		int noEdgeSymbolsFound = 0;
+		boolean isSearchDone = true;
+		posEdgePosition = 0;
+
+		IntegerSuffixNode contNode = findChild(searchSequence[streePath.begin]);
+
+		if (contNode == null) {
+			/* Search is done, string not found */
+			posEdgePosition = getNodeLabelLength(posNode) - 1;
+			return new TraceSingleEdgeResult(0, isSearchDone);
+		}
+
+		posNode = contNode;
+		int nodeLabelLength = getNodeLabelLength(posNode);
+		int streePathLength = streePath.end - streePath.begin + 1;
+
+		int edgePos;
+		if (skip) {
+			if (nodeLabelLength <= streePathLength) {
+				noEdgeSymbolsFound = nodeLabelLength;
+				posEdgePosition = nodeLabelLength - 1;
+				if (nodeLabelLength < streePathLength)
+					isSearchDone = false;
+			} else {
+				noEdgeSymbolsFound = streePathLength;
+				posEdgePosition = streePathLength - 1;
+			}
+			return new TraceSingleEdgeResult(noEdgeSymbolsFound, isSearchDone);
+		} else {
+			if (streePathLength < nodeLabelLength) {
+				nodeLabelLength = streePathLength;
+			}
+
+			posEdgePosition = 1;
+			int edgeLabelStart = posNode.edgeLabelStart;
+			for (edgePos = 1, noEdgeSymbolsFound = 1; edgePos < nodeLabelLength; edgePos++, noEdgeSymbolsFound++) {
+				if (sequence[edgeLabelStart + edgePos] != searchSequence[streePath.begin
+						+ edgePos]) {
+					edgePos--;
+					posEdgePosition = edgePos;
+					return new TraceSingleEdgeResult(noEdgeSymbolsFound,
+							isSearchDone);
+				}
+			}
+		}
+
+		/* The loop has advanced edgePosition one too much */
+		posEdgePosition = edgePos - 1;
+		if (noEdgeSymbolsFound < streePathLength) {
+			isSearchDone = false;
+		}
+
+		return new TraceSingleEdgeResult(noEdgeSymbolsFound, isSearchDone);
+	}
+
+	/**
+	 * findChild : Finds the child of posNode whose incoming edge starts with
+	 * the given symbol; sets posNode to the child if it exists
+	 *
+	 * Output: The child node if it exists, null if no such child.
+	 */
+	private IntegerSuffixNode findChild(int symbol) {
+		IntegerSuffixNode child = posNode.children.get(symbol);
+		if (child != null)
+			posNode = child;
+		return child;
+	}
+
+	private int getNodeLabelLength(IntegerSuffixNode node) {
+		return getNodeLabelEnd(node) - node.edgeLabelStart + 1;
+	}
+
+	/*
+	 * For leaves the end index is the virtual end e of all leaves
+	 */
+	private int getNodeLabelEnd(IntegerSuffixNode node) {
+		if (node.firstChild == null)
+			return this.e;
+		return node.edgeLabelEnd;
+	}
+
+	private boolean isLastSymbolInEdge() {
+		return posEdgePosition == getNodeLabelLength(posNode) - 1;
+	}
+
+	/*
+	 * Decodes the symbols sequence[start..end] (both inclusive) into the
+	 * encoded string
+	 */
+	private String decode(int start, int end) {
+		StringBuilder decodedString = new StringBuilder((end - start + 1)
+				* encodingLength);
+		for (int i = start; i <= end; i++)
+			decodedString.append(symbolArray[sequence[i]]);
+		return decodedString.toString();
+	}
+
+	private Map<String, Integer> getSymbolIdMap() {
+		if (symbolIdMap == null) {
+			symbolIdMap = new HashMap<String, Integer>();
+			for (int i = 0; i < symbolArray.length; i++)
+				symbolIdMap.put(symbolArray[i], i);
+		}
+		return symbolIdMap;
+	}
+
+	/*
+	 * Encodes a string into symbol ids; returns null if the string contains a
+	 * symbol that is not in this tree
+	 */
+	private int[] encode(String encodedString) {
+		Map<String, Integer> symbolIdMap = getSymbolIdMap();
+		int noSymbols = encodedString.length() / encodingLength;
+		int[] symbols = new int[noSymbols];
+		Integer symbolId;
+		for (int i = 0; i < noSymbols; i++) {
+			symbolId = symbolIdMap.get(encodedString.substring(i
+					* encodingLength, (i + 1) * encodingLength));
+			if (symbolId == null)
+				return null;
+			symbols[i] = symbolId;
+		}
+		return symbols;
+	}
+
+	/*
+	 * Collects the leaves under the given node; the traversal uses an explicit
+	 * stack rather than recursion
+	 */
+	void getLeaves(IntegerSuffixNode node,
+			ArrayList<IntegerSuffixNode> leaves) {
+		ArrayList<IntegerSuffixNode> stack = new ArrayList<IntegerSuffixNode>();
+		stack.add(node);
+		IntegerSuffixNode currentNode;
+		while (!stack.isEmpty()) {
+			currentNode = stack.remove(stack.size() - 1);
+			if (currentNode.firstChild == null)
+				leaves.add(currentNode);
+			else
+				stack.addAll(currentNode.children);
+		}
+	}
+
+	/*
+	 * Locates the node (posNode) at or below which the given symbols end;
+	 * returns false if the symbols do not occur in the sequence
+	 */
+	private boolean locate(int[] searchSequence) {
+		posNode = root;
+		if (searchSequence == null || searchSequence.length == 0)
+			return false;
+
+		SuffixTreePath streePath = new SuffixTreePath();
+		streePath.begin = 0;
+		streePath.end = searchSequence.length - 1;
+
+		return traceString(streePath, searchSequence, false) == searchSequence.length;
+	}
+
+	public int noMatches(String searchString) {
+		if (locate(encode(searchString))) {
+			if (isLeftDiversityComputed)
+				return posNode.noLeaves;
+			ArrayList<IntegerSuffixNode> leaves = new ArrayList<IntegerSuffixNode>();
+			getLeaves(posNode, leaves);
+			return leaves.size();
+		}
+		return 0;
+	}
+
+	/**
+	 * @return the start positions (1-based) of the
+	 *         occurrences of the encoded searchString; null if there are none
+	 */
+	public int[] getMatches(String searchString) {
+		return getMatchingPositions(encode(searchString));
+	}
+
+	/**
+	 * @return the start positions (1-based) of the occurrences of the given
+	 *         activity ids; null if there are none
+	 */
+	public int[] getMatches(int[] activityIdSequence) {
+		int noSymbols = activityIdSequence.length;
+		int[] symbols = new int[noSymbols];
+		for (int i = 0; i < noSymbols; i++)
+			symbols[i] = activityIdSequence[i] + 1;
+		return getMatchingPositions(symbols);
+	}
+
+	private int[] getMatchingPositions(int[] searchSequence) {
+		if (!locate(searchSequence))
+			return null;
+
+		ArrayList<IntegerSuffixNode> leaves = new ArrayList<IntegerSuffixNode>();
+		getLeaves(posNode, leaves);
+		int[] matchingPos = new int[leaves.size()];
+		int i = 0;
+		for (IntegerSuffixNode leafNode : leaves)
+			matchingPos[i++] = leafNode.pathPosition;
+		return matchingPos;
+	}
+
+	/**
+	 * Assess the left diversity (property) of nodes
+	 *
+	 * A node v is called left diverse if at least two leaves in v's subtree
+	 * have different left symbols. This is a single bottom-up (post-order)
+	 * pass: a leaf takes the symbol to the left of its suffix and
+	 * an internal node takes the left symbol of its children if they all agree
+	 * and DIVERSE otherwise. The same pass counts the leaves below each node.
+	 */
+	public void findLeftDiverseNodes() {
+		ArrayList<IntegerSuffixNode> nodeList = getNodesInPreOrder();
+
+		/*
+		 * Number the leaves in pre-order; the leaves of a subtree then get
+		 * consecutive indices starting at the number of leaves visited before
+		 * the root of the subtree
+		 */
+		int noLeaves = 0;
+		for (IntegerSuffixNode node : nodeList) {
+			node.firstLeafIndex = noLeaves;
+			if (node.firstChild == null)
+				noLeaves++;
+		}
+		leafLeftSymbols = new int[noLeaves];
+
+		/*
+		 * Reverse pre-order visits every child before its parent
+		 */
+		IntegerSuffixNode node;
+		int leftSymbol;
+		for (int i = nodeList.size() - 1; i >= 0; i--) {
+			node = nodeList.get(i);
+			if (node.firstChild == null) {
+				node.leftSymbol = sequence[node.pathPosition - 1];
+				node.isLeftDiverse = false;
+				node.noLeaves = 1;
+				leafLeftSymbols[node.firstLeafIndex] = node.leftSymbol;
+			} else {
+				leftSymbol = node.firstChild.leftSymbol;
+				node.noLeaves = 0;
+				for (IntegerSuffixNode child : node.children) {
+					node.noLeaves += child.noLeaves;
+					if (child.leftSymbol != leftSymbol)
+						leftSymbol = DIVERSE;
+				}
+				node.leftSymbol = leftSymbol;
+				node.isLeftDiverse = leftSymbol == DIVERSE;
+			}
+		}
+		isLeftDiversityComputed = true;
+	}
+
+	private ArrayList<IntegerSuffixNode> getNodesInPreOrder() {
+		ArrayList<IntegerSuffixNode> nodeList = new ArrayList<IntegerSuffixNode>();
+		ArrayList<IntegerSuffixNode> stack = new ArrayList<IntegerSuffixNode>();
+		stack.add(root);
+		IntegerSuffixNode node;
+		while (!stack.isEmpty()) {
+			node = stack.remove(stack.size() - 1);
+			nodeList.add(node);
+			stack.addAll(node.children);
+		}
+		return nodeList;
+	}
+
+	/**
+	 * @return the list of all leftDiverse nodes in the tree
+	 */
+	ArrayList<IntegerSuffixNode> getLeftDiverseNodes() {
+		ArrayList<IntegerSuffixNode> leftDiverseNodeList = new ArrayList<IntegerSuffixNode>();
+		if (!isLeftDiversityComputed)
+			return leftDiverseNodeList;
+
+		for (IntegerSuffixNode node : getNodesInPreOrder())
+			if (node.isLeftDiverse)
+				leftDiverseNodeList.add(node);
+
+		return leftDiverseNodeList;
+	}
+
+	/**
+	 * Get the maximal repeat strings (not necessarily tandem) in the input
+	 * sequence; a string alpha labeling a path to a node v is a maximal repeat
+	 * iff v is leftDiverse (Gusfield).
+	 *
+	 * Assumes that the parent method calling this would have invoked
+	 * findLeftDiverseNodes();
+	 */
+	public HashSet<String> getMaximalRepeats() {
+		HashSet<String> maximalRepeats = new HashSet<String>();
+
+		ArrayList<IntegerSuffixNode> leftDiverseNodeList = getLeftDiverseNodes();
+		int noLeftDiverseNodes = leftDiverseNodeList.size();
+
+		/* findLeftDiverseNodes() is not invoked */
+		if (noLeftDiverseNodes == 0) {
+			return null;
+		}
+		for (IntegerSuffixNode leftDiverseNode : leftDiverseNodeList) {
+			maximalRepeats.add(decode(leftDiverseNode.pathPosition,
+					leftDiverseNode.edgeLabelEnd));
+		}
+
+		return maximalRepeats;
+	}
+
+	/**
+	 * Find SuperMaximal Repeats; A left diverse internal node v represents a
+	 * super maximal repeat alpha if and only if all of v's children are leaves,
+	 * and each has a distinct left character
+	 *
+	 * Assumes that the parent method calling this would have already invoked
+	 * findLeftDiverseNodes();
+	 */
+	public HashSet<String> getSuperMaximalRepeats() {
+		HashSet<String> superMaximalRepeats = new HashSet<String>();
+
+		ArrayList<IntegerSuffixNode> leftDiverseNodeList = getLeftDiverseNodes();
+
+		/* findLeftDiverseNodes() is not invoked */
+		if (leftDiverseNodeList.size() == 0) {
+			return null;
+		}
+
+		boolean isAllChildrenLeaves;
+		HashSet<Integer> leftSymbolSet = new HashSet<Integer>();
+		for (IntegerSuffixNode leftDiverseNode : leftDiverseNodeList) {
+			isAllChildrenLeaves = true;
+			leftSymbolSet.clear();
+			for (IntegerSuffixNode child : leftDiverseNode.children) {
+				if (child.firstChild != null) {
+					isAllChildrenLeaves = false;
+					break;
+				} else {
+					leftSymbolSet.add(child.leftSymbol);
+				}
+			}
+			// Check for the distinct left character
+			if (isAllChildrenLeaves
+					&& leftSymbolSet.size() == leftDiverseNode.children
+							.size()) {
+				superMaximalRepeats.add(decode(leftDiverseNode.pathPosition,
+						leftDiverseNode.edgeLabelEnd));
+			}
+		}
+
+		return superMaximalRepeats;
+	}
+
+	/**
+	 * Find NearSuperMaximal Repeats; A left diverse internal node v represents
+	 * a near super maximal repeat alpha if and only if one of v's children is a
+	 * leaf and its left character is the left character of no other leaf below
+	 * v
+	 *
+	 * Assumes that the parent method calling this would have already invoked
+	 * findLeftDiverseNodes();
+	 */
+	public HashSet<String> getNearSuperMaximalRepeats() {
+		HashSet<String> nearSuperMaximalRepeats = new HashSet<String>();
+
+		ArrayList<IntegerSuffixNode> leftDiverseNodeList = getLeftDiverseNodes();
+
+		/* findLeftDiverseNodes() is not invoked */
+		if (leftDiverseNodeList.size() == 0) {
+			return null;
+		}
+
+		/*
+		 * Group the leaf indices by left symbol; the leaves below a node v with
+		 * left symbol x are then the indices of symbol x within
+		 * [v.firstLeafIndex, v.firstLeafIndex + v.noLeaves), which are counted
+		 * with two binary searches instead of collecting the leaves of v
+		 */
+		int noSymbols = symbolArray.length;
+		int[] symbolLeafOffsets = new int[noSymbols + 1];
+		for (int leftSymbol : leafLeftSymbols)
+			symbolLeafOffsets[leftSymbol + 1]++;
+		for (int i = 0; i < noSymbols; i++)
+			symbolLeafOffsets[i + 1] += symbolLeafOffsets[i];
+		int[] symbolLeafIndices = new int[leafLeftSymbols.length];
+		int[] nextOffset = symbolLeafOffsets.clone();
+		for (int i = 0; i < leafLeftSymbols.length; i++)
+			symbolLeafIndices[nextOffset[leafLeftSymbols[i]]++] = i;
+
+		boolean isNearSuperMaximal;
+		int fromIndex, toIndex, from, to;
+		for (IntegerSuffixNode leftDiverseNode : leftDiverseNodeList) {
+			fromIndex = leftDiverseNode.firstLeafIndex;
+			toIndex = fromIndex + leftDiverseNode.noLeaves;
+
+			/*
+			 * Check for a leaf child whose left symbol is the left symbol of
+			 * no other leaf below the node
+			 */
+			isNearSuperMaximal = false;
+			for (IntegerSuffixNode child : leftDiverseNode.children) {
+				if (child.firstChild != null)
+					continue;
+				from = symbolLeafOffsets[child.leftSymbol];
+				to = symbolLeafOffsets[child.leftSymbol + 1];
+				if (lowerBound(symbolLeafIndices, from, to, toIndex)
+						- lowerBound(symbolLeafIndices, from, to, fromIndex) == 1) {
+					isNearSuperMaximal = true;
+					break;
+				}
+			}
+			if (isNearSuperMaximal) {
+				nearSuperMaximalRepeats.add(decode(
+						leftDiverseNode.pathPosition,
+						leftDiverseNode.edgeLabelEnd));
+			}
+		}
+
+		return nearSuperMaximalRepeats;
+	}
+
+	/*
+	 * Return: the first index in sortedArray[from..to) whose value is >= key
+	 */
+	private static int lowerBound(int[] sortedArray, int from, int to, int key) {
+		int mid;
+		while (from < to) {
+			mid = (from + to) >>> 1;
+			if (sortedArray[mid] < key)
+				from = mid + 1;
+			else
+				to = mid;
+		}
+		return from;
+	}
+
+	/**
+	 * LZ decomposition of the sequence followed by the tandem repeat detection
+	 * of each pair of consecutive blocks (Gusfield and Stoye); the tandem
+	 * repeats are retrieved by getTandemRepeats()
+	 */
+	public void LZDecomposition() {
+		int[] s = new int[sequenceLength];
+		int[] l = new int[sequenceLength];
+
+		tandemPairs = new ArrayList<TreeSet<Integer>>(sequenceLength);
+		for (int i = 0; i < sequenceLength; i++) {
+			tandemPairs.add(new TreeSet<Integer>());
+		}
+
+		s[0] = 0;
+		l[0] = 0;
+
+		int j;
+		for (int i = 2; i <= sequenceLength; i++) {
+			j = i - 1;
+
+			posNode = root;
+			IntegerSuffixNode childNode = findChild(sequence[i]);
+			if (childNode == null) {
+				/*
+				 * Only the termination symbol of a single-symbol sequence is
+				 * not in the tree (no phase was run); it starts a new block
+				 */
+				l[j] = 0;
+				s[j] = 0;
+				continue;
+			}
+
+			int noMatches = childNode.edgeLabelEnd - childNode.edgeLabelStart
+					+ 1;
+			if (i != childNode.pathPosition) {
+				l[j] = noMatches;
+				s[j] = childNode.pathPosition;
+			} else {
+				l[j] = 0;
+				s[j] = 0;
+				continue;
+			}
+
+			int prevPathPos = childNode.pathPosition;
+
+			i += noMatches - 1;
+
+			while (++i < sequenceLength) {
+				posNode = childNode;
+				childNode = findChild(sequence[i]);
+				if (childNode == null) {
+					break;
+				}
+
+				if (childNode.edgeLabelStart < i) {
+					i += childNode.edgeLabelEnd - childNode.edgeLabelStart;
+					noMatches += childNode.edgeLabelEnd
+							- childNode.edgeLabelStart + 1;
+					prevPathPos = childNode.pathPosition;
+				} else {
+					break;
+				}
+			}
+
+			s[j] = prevPathPos;
+			l[j] = noMatches;
+			i = j + 1;
+		}
+
+		// Vector of Blocks
+		ArrayList<Integer> I = new ArrayList<Integer>();
+
+		I.add(1);
+		j = 0;
+
+		while (I.get(j) <= sequenceLength - 1) {
+			I.add(I.get(j) + Math.max(1, l[I.get(j) - 1]));
+			j++;
+		}
+
+		/*
+		 * Block i starts at h[i] and is blockLength[i] symbols long; the last
+		 * block is the termination symbol
+		 */
+		int noBlocks = I.size() - 1;
+		int[] h = new int[noBlocks + 1];
+		int[] blockLength = new int[noBlocks + 1];
+		for (int i = 0; i < noBlocks; i++) {
+			h[i] = I.get(i);
+			blockLength[i] = I.get(i + 1) - I.get(i);
+		}
+
+		h[noBlocks] = I.get(noBlocks);
+		blockLength[noBlocks] = 1;
+		noBlocks++; // consider the termination symbol block
+
+		for (int i = 0; i < noBlocks - 1; i++) {
+			processBlockAlgorithm1A(blockLength[i], h[i + 1]);
+			processBlockAlgorithm1B(blockLength[i], blockLength[i + 1], h[i],
+					h[i + 1]);
+		}
+	}
+
+	private void processBlockAlgorithm1A(int currentBlockLength, int h1) {
+		int q, k1, k2;
+		for (int k = 1; k <= currentBlockLength; k++) {
+			q = h1 - k;
+			// Longest common extension in the forward direction from h1 and q
+			k1 = 0;
+			while ((h1 + k1 + 1 < sequenceLength)
+					&& sequence[q + k1] == sequence[h1 + k1])
+				k1++;
+
+			// Longest common extension in the backward direction from h1-1
+			// and q-1
+			k2 = 0;
+			while ((q - k2 - 1) > 0
+					&& sequence[q - 1 - k2] == sequence[h1 - k2 - 1])
+				k2++;
+
+			if (k1 + k2 >= k && k1 > 0) {
+				int maxVal = Math.max(q - k2, q - k + 1);
+				tandemPairs.get(maxVal - 1).add(2 * k);
+			} else if (k1 + k2 >= k && k1 == 0) {
+				int maxVal = Math.max(q - k2, q - k);
+				tandemPairs.get(maxVal - 1).add(2 * k);
+			}
+		}
+	}
+
+	private void processBlockAlgorithm1B(int currentBlockLength,
+			int nextBlockLength, int h, int h1) {
+		int q, k1, k2;
+		for (int k = 1; k <= currentBlockLength + nextBlockLength; k++) {
+			q = h + k;
+
+			// Longest common extension from positions h & q
+			k1 = 0;
+			while ((q + k1) < sequenceLength
+					&& sequence[h + k1] == sequence[q + k1])
+				k1++;
+
+			// Longest common extension in the backward direction from h-1 and
+			// q-1
+			k2 = 0;
+			while ((h - k2 - 1) > 0
+					&& sequence[h - k2 - 1] == sequence[q - 1 - k2])
+				k2++;
+
+			if (k1 + k2 >= k && k1 > 0 && k2 > 0
+					&& (Math.max(h - k2, h - k + 1) + k) <= h1) {
+				int maxVal = Math.max(h - k2, h - k + 1);
+				tandemPairs.get(maxVal - 1).add(2 * k);
+			}
+		}
+	}
+
+	public TreeSet<String> getTandemRepeats() {
+		TreeSet<String> tandemRepeatSet = new TreeSet<String>();
+		for (int i = 0; i < sequenceLength; i++) {
+			for (Integer loc : tandemPairs.get(i))
+				tandemRepeatSet.add(decode(i + 1, i + loc));
+		}
+
+		return tandemRepeatSet;
+	}
+
+	private TreeSet<String> getAlphabet(String pattern) {
+		TreeSet<String> alphabet = new TreeSet<String>();
+		int patternLength = pattern.length() / encodingLength;
+		for (int i = 0; i < patternLength; i++)
+			alphabet.add(pattern.substring(i * encodingLength, (i + 1)
+					* encodingLength));
+		return alphabet;
+	}
+
+	private IntegerSuffixTree getTandemRepeatTree(String tandemRepeat) {
+		IntegerSuffixTree st = new IntegerSuffixTree(encodingLength,
+				encode(tandemRepeat), symbolArray, getSymbolIdMap());
+		st.LZDecomposition();
+		return st;
+	}
+
+	/**
+	 * @return map from the tandem repeat alphabet to the primitive tandem
+	 *         repeats with that alphabet; the tandem repeats that are not a
+	 *         combination of primitive repeats are kept in
+	 *         getComplexTandemRepeats(). Assumes that LZDecomposition() has
+	 *         been invoked
+	 */
+	public HashMap<TreeSet<String>, TreeSet<String>> getPrimitiveTandemRepeats() {
+		TreeSet<String> tandemRepeatSet = getTandemRepeats();
+		ArrayList<String> tandemRepeatArrayList = new ArrayList<String>();
+		HashMap<String, Integer> tandemRepeatIndexMap = new HashMap<String, Integer>();
+
+		HashMap<String, TreeSet<String>> tandemRepeatAlphabetMap = new HashMap<String, TreeSet<String>>();
+		HashMap<TreeSet<String>, TreeSet<String>> alphabetTandemRepeatMap = new HashMap<TreeSet<String>, TreeSet<String>>();
+		HashMap<TreeSet<String>, TreeSet<String>> alphabetPrimitiveRepeatMap = new HashMap<TreeSet<String>, TreeSet<String>>();
+
+		complexTandemRepeats = new HashSet<String>();
+
+		int tandemRepeatLength;
+		String tandemRepeat;
+		TreeSet<String> tandemRepeatAlphabetSet, alphabetTandemRepeatSet, alphabetPrimitiveRepeatSet;
+		for (String tandemRepeatPair : tandemRepeatSet) {
+			// The division by 2 is to consider only the repeat alpha
+			tandemRepeatLength = tandemRepeatPair.length() / encodingLength / 2;
+
+			tandemRepeat = tandemRepeatPair.substring(0, tandemRepeatLength
+					* encodingLength);
+			tandemRepeatIndexMap.put(tandemRepeat, tandemRepeatArrayList.size());
+			tandemRepeatArrayList.add(tandemRepeat);
+
+			tandemRepeatAlphabetSet = getAlphabet(tandemRepeat);
+			tandemRepeatAlphabetMap.put(tandemRepeat, tandemRepeatAlphabetSet);
+
+			alphabetTandemRepeatSet = alphabetTandemRepeatMap
+					.get(tandemRepeatAlphabetSet);
+			if (alphabetTandemRepeatSet == null) {
+				alphabetTandemRepeatSet = new TreeSet<String>();
+				alphabetTandemRepeatMap.put(tandemRepeatAlphabetSet,
+						alphabetTandemRepeatSet);
+			}
+			alphabetTandemRepeatSet.add(tandemRepeat);
+		}
+
+		int noTandemRepeats = tandemRepeatArrayList.size();
+		boolean[] isTandemRepeatProcessed = new boolean[noTandemRepeats];
+
+		int index;
+		boolean isComplex;
+		Pattern prPattern;
+		Matcher prMatcher;
+		String primitiveRepeat;
+		for (String tr : tandemRepeatArrayList) {
+			index = tandemRepeatIndexMap.get(tr);
+			tandemRepeatLength = tr.length() / encodingLength;
+			if (!isTandemRepeatProcessed[index]) {
+				isComplex = false;
+				primitiveRepeat = "";
+				tandemRepeatAlphabetSet = tandemRepeatAlphabetMap.get(tr);
+
+				/*
+				 * Simple Cases 1. When the tandem repeat is made up of only one
+				 * symbol 2. When the tandem repeat, alpha is itself a
+				 * primitive repeat
+				 */
+				if (tandemRepeatAlphabetSet.size() == 1) {
+					primitiveRepeat = tr.substring(0, encodingLength);
+					isTandemRepeatProcessed[index] = true;
+				} else if (tandemRepeatAlphabetSet.size() == tandemRepeatLength) {
+					primitiveRepeat = tr;
+				} else if (tandemRepeatAlphabetSet.size() == tandemRepeatLength - 1) {
+					primitiveRepeat = tr;
+				} else {
+					/*
+					 * Check if this tr is in itself a tandem repeat
+					 */
+					if (getTandemRepeatTree(tr).getTandemRepeats().contains(tr)) {
+						complexTandemRepeats.add(tr.substring(0,
+								tandemRepeatLength * encodingLength / 2));
+					} else {
+						complexTandemRepeats.add(tr);
+					}
+
+					isComplex = true;
+				}
+
+				if (!isComplex) {
+					alphabetPrimitiveRepeatSet = alphabetPrimitiveRepeatMap
+							.get(tandemRepeatAlphabetSet);
+					if (alphabetPrimitiveRepeatSet == null) {
+						alphabetPrimitiveRepeatSet = new TreeSet<String>();
+						alphabetPrimitiveRepeatMap.put(tandemRepeatAlphabetSet,
+								alphabetPrimitiveRepeatSet);
+					}
+					alphabetPrimitiveRepeatSet.add(primitiveRepeat);
+
+					/*
+					 * Mark all the tandem repeats of the type
+					 * primitiveRepeat^n sharing the same alphabet as processed
+					 */
+					alphabetTandemRepeatSet = alphabetTandemRepeatMap
+							.get(tandemRepeatAlphabetSet);
+					prPattern = Pattern.compile("(" + primitiveRepeat + ")+");
+
+					for (String similarTandemRepeat : alphabetTandemRepeatSet) {
+						prMatcher = prPattern.matcher(similarTandemRepeat);
+						if (prMatcher.replaceAll("").equals("")) {
+							isTandemRepeatProcessed[tandemRepeatIndexMap
+									.get(similarTandemRepeat)] = true;
+						}
+					}
+				}
+			}
+		}
+
+		/*
+		 * By now all simple cases would have been handled; process the complex
+		 * repeats now
+		 */
+		String prRegEx;
+		Iterator<String> it;
+		TreeSet<String> toConsiderPrimitiveRepeatSet;
+		HashSet<String> processedComplexTandemRepeats = new HashSet<String>();
+		HashSet<String> newComplexTandemRepeats = new HashSet<String>();
+		for (String tr : complexTandemRepeats) {
+			tandemRepeatAlphabetSet = tandemRepeatAlphabetMap.get(tr);
+			if (tandemRepeatAlphabetSet == null) {
+				tandemRepeatAlphabetSet = getAlphabet(tr);
+				tandemRepeatAlphabetMap.put(tr, tandemRepeatAlphabetSet);
+			}
+
+			/*
+			 * Check whether this tandem repeat is a combination of the
+			 * primitive repeats over (subsets of) its alphabet
+			 */
+			toConsiderPrimitiveRepeatSet = new TreeSet<String>(
+					new DescendingStrCompartor());
+			for (TreeSet<String> alphabetSet : alphabetPrimitiveRepeatMap
+					.keySet()) {
+				if (tandemRepeatAlphabetSet.containsAll(alphabetSet))
+					toConsiderPrimitiveRepeatSet
+							.addAll(alphabetPrimitiveRepeatMap.get(alphabetSet));
+			}
+
+			prRegEx = "(";
+			it = toConsiderPrimitiveRepeatSet.iterator();
+			while (it.hasNext()) {
+				prRegEx += "(" + it.next() + ")";
+				if (it.hasNext())
+					prRegEx += "|";
+			}
+			prRegEx += ")+";
+
+			prPattern = Pattern.compile(prRegEx);
+			prMatcher = prPattern.matcher(tr);
+			if (prMatcher.replaceAll("").equals("")) {
+				processedComplexTandemRepeats.add(tr);
+			} else {
+				/*
+				 * There can be a tandem Repeat within this
+				 */
+				IntegerSuffixTree st = getTandemRepeatTree(tr);
+				HashMap<TreeSet<String>, TreeSet<String>> tempMap = st
+						.getPrimitiveTandemRepeats();
+				TreeSet<String> aptrs;
+
+				for (TreeSet<String> as : tempMap.keySet()) {
+					aptrs = alphabetPrimitiveRepeatMap.get(as);
+					if (aptrs == null) {
+						aptrs = new TreeSet<String>();
+						alphabetPrimitiveRepeatMap.put(as, aptrs);
+					}
+					aptrs.addAll(tempMap.get(as));
+				}
+
+				if (tempMap.size() > 0) {
+					processedComplexTandemRepeats.add(tr);
+				}
+
+				/*
+				 * All of new complex tandem repeats need not be complex
+				 */
+				HashSet<String> comTR = st.getComplexTandemRepeats();
+				HashSet<String> tempProcessed = new HashSet<String>();
+
+				for (String cTr : comTR) {
+					Pattern pt = Pattern.compile("(" + cTr + "){2,}");
+					Matcher mc = pt.matcher(tr);
+					if (mc.find()) {
+						processedComplexTandemRepeats.add(tr);
+						tempProcessed.add(tr);
+					}
+				}
+				comTR.removeAll(tempProcessed);
+				newComplexTandemRepeats.removeAll(tempProcessed);
+				newComplexTandemRepeats.addAll(comTR);
+			}
+		}
+
+		complexTandemRepeats.removeAll(processedComplexTandemRepeats);
+		complexTandemRepeats.addAll(newComplexTandemRepeats);
+
+		/*
+		 * Populate complexAlphabetTandemRepeatMap
+		 */
+		complexAlphabetTandemRepeatMap = new HashMap<TreeSet<String>, TreeSet<String>>();
+		for (String complexTR : complexTandemRepeats) {
+			tandemRepeatAlphabetSet = tandemRepeatAlphabetMap.get(complexTR);
+			if (tandemRepeatAlphabetSet == null) {
+				tandemRepeatAlphabetSet = getAlphabet(complexTR);
+				tandemRepeatAlphabetMap.put(complexTR, tandemRepeatAlphabetSet);
+			}
+			tandemRepeatSet = complexAlphabetTandemRepeatMap
+					.get(tandemRepeatAlphabetSet);
+			if (tandemRepeatSet == null) {
+				tandemRepeatSet = new TreeSet<String>();
+				complexAlphabetTandemRepeatMap.put(tandemRepeatAlphabetSet,
+						tandemRepeatSet);
+			}
+			tandemRepeatSet.add(complexTR);
+		}
+
+		return alphabetPrimitiveRepeatMap;
+	}
+
+	public HashSet<String> getComplexTandemRepeats() {
+		return complexTandemRepeats;
+	}
+
+	public HashMap<TreeSet<String>, TreeSet<String>> getComplexAlphabetTandemRepeatMap() {
+		return complexAlphabetTandemRepeatMap;
+	}
+
+	public int getSequenceLength() {
+		return sequenceLength;
+	}
+}
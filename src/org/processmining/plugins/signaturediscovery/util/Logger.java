@@ -20,8 +20,21 @@ public class Logger {
 
 	static PrintStream outFile = null;
 	static String logDir, fileName;
-	static int callDepth = 0;
-	static String prefix = "";
+	/*
+	 * The call depth and its prefix are kept per thread, so that the calls logged by 
+	 * tasks running in parallel (e.g., the learning configurations of a sweep) do not 
+	 * change each other's indentation
+	 */
+	static ThreadLocal<Integer> callDepth = new ThreadLocal<Integer>() {
+		protected Integer initialValue() {
+			return 0;
+		}
+	};
+	static ThreadLocal<String> prefix = new ThreadLocal<String>() {
+		protected String initialValue() {
+			return "";
+		}
+	};
 	public static boolean debug = true; // decide whether in debug mode or not.
 
 	// Start a Log file that logs all input and output
@@ -52,16 +65,16 @@ public class Logger {
 
 	public static void println(String s) {
 		if (outFile != null)
-			outFile.println(prefix + s);
+			outFile.println(prefix.get() + s);
 		else
-			System.out.println(prefix + s);
+			System.out.println(prefix.get() + s);
 	}
 
 	public static void println(Object o) {
 		if (outFile != null)
-			outFile.println(prefix + o.toString());
+			outFile.println(prefix.get() + o.toString());
 		else
-			System.out.println(prefix + o.toString());
+			System.out.println(prefix.get() + o.toString());
 	}
 	
 	public static void print(String s) {
@@ -84,8 +97,8 @@ public class Logger {
 
 	public static void printCall(String s) {
 		println(s);
-		callDepth++;
-		prefix = getPrefix(callDepth);
+		callDepth.set(callDepth.get() + 1);
+		prefix.set(getPrefix(callDepth.get()));
 	}
 
 	static String getPrefix(int i) {
@@ -96,8 +109,8 @@ public class Logger {
 	}
 
 	public static void printReturn(String s) {
-		callDepth--;
-		prefix = getPrefix(callDepth);
+		callDepth.set(callDepth.get() - 1);
+		prefix.set(getPrefix(callDepth.get()));
 		println(s);
 	}
 
@@ -0,0 +1,68 @@
+package org.processmining.plugins.signaturediscovery.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs a list of independent tasks on a fixed size thread pool and returns
+ * their results in the order of the tasks, so that merging the results does
+ * not depend on the scheduling of the threads. With noThreads <= 1 (or a
+ * single task) the tasks are run one after the other in the calling thread.
+ *
+ * A failing task fails the whole call: the tasks are collected in the order
+ * they complete, so the first failure cancels (interrupts) the tasks that are
+ * still running or waiting and its exception is rethrown (wrapped in a
+ * RuntimeException unless it is one).
+ */
+public class ParallelTaskExecutor {
+
+	public static int getDefaultNoThreads() {
+		return Runtime.getRuntime().availableProcessors();
+	}
+
+	public static <T> List<T> invokeAll(List<? extends Callable<T>> taskList, int noThreads) {
+		List<T> resultList = new ArrayList<T>(taskList.size());
+		if (noThreads <= 1 || taskList.size() <= 1) {
+			try {
+				for (Callable<T> task : taskList)
+					resultList.add(task.call());
+			} catch (RuntimeException e) {
+				throw e;
+			} catch (Exception e) {
+				throw new RuntimeException(e);
+			}
+			return resultList;
+		}
+
+		ExecutorService executorService = Executors.newFixedThreadPool(Math.min(noThreads, taskList.size()));
+		CompletionService<T> completionService = new ExecutorCompletionService<T>(executorService);
+		List<Future<T>> futureList = new ArrayList<Future<T>>(taskList.size());
+		try {
+			for (Callable<T> task : taskList)
+				futureList.add(completionService.submit(task));
+			for (int i = 0; i < futureList.size(); i++)
+				completionService.take().get();
+			for (Future<T> future : futureList)
+				resultList.add(future.get());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw new RuntimeException(e.getCause());
+		} finally {
+			for (Future<T> future : futureList)
+				future.cancel(true);
+			executorService.shutdownNow();
+		}
+		return resultList;
+	}
+}
@@ -0,0 +1,23 @@
+package org.processmining.plugins.signaturediscovery.util;
+
+import java.util.HashSet;
+
+/**
+ * The repeats of a (encoded) sequence that FeatureExtraction uses for the
+ * whole-log repeat features (MR, SMR, NSMR and their alphabet variants).
+ *
+ * Implemented by the suffix tree (IntegerSuffixTree and UkkonenSuffixTree, its
+ * adapter for encoded strings) and by SuffixArray; all of them return the same
+ * sets for the same sequence.
+ * findLeftDiverseNodes() has to be invoked before the repeats are retrieved.
+ */
+public interface RepeatFinder {
+
+	public void findLeftDiverseNodes();
+
+	public HashSet<String> getMaximalRepeats();
+
+	public HashSet<String> getSuperMaximalRepeats();
+
+	public HashSet<String> getNearSuperMaximalRepeats();
+}
@@ -0,0 +1,16 @@
+package org.processmining.plugins.signaturediscovery.util;
+
+/**
+ * @author R.P. Jagadeesh Chandra Bose Class to hold the return values of the
+ *         SPA procedure
+ * 
+ */
+class SPAResult {
+	int extension;
+	boolean repeatedExtension;
+
+	public SPAResult(int extension, boolean repeatedExtension) {
+		this.extension = extension;
+		this.repeatedExtension = repeatedExtension;
+	}
+}
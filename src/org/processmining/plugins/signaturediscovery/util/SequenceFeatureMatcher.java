@@ -0,0 +1,177 @@
+package org.processmining.plugins.signaturediscovery.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.processmining.plugins.signaturediscovery.encoding.ActivityDictionary;
+
+/**
+ * Counts the occurrences of a set of sequence features (encoded patterns such
+ * as ab0ab1ab2) in encoded traces with an Aho-Corasick automaton over the
+ * encoded activities.
+ *
+ * The automaton is built once for a feature set and then finds all features
+ * in a single left-to-right pass over a trace, instead of trying every feature
+ * that starts with the current activity at every position of the trace. As
+ * before, every occurrence of a feature that starts at an activity boundary
+ * is counted (also overlapping ones); symbols that occur in no feature (e.g.,
+ * the blanks between the traces of a trace stream) reset the automaton.
+ *
+ * A matcher built with the ActivityDictionary of the log can also count the
+ * features in the activity ids of a trace (InstanceProfile.getActivityIds),
+ * without slicing the encoded trace into symbols.
+ *
+ * The automaton is not modified after construction, so one instance can be
+ * shared by several threads.
+ */
+public class SequenceFeatureMatcher {
+
+	static final class State {
+		/**
+		 * The encoded activity (symbol id) on the edge into this state
+		 */
+		int symbolId;
+
+		SuffixNodeChildIndex<State> children = new SuffixNodeChildIndex<State>();
+
+		/**
+		 * The state of the longest proper suffix of this state's string that
+		 * is also a prefix of a feature
+		 */
+		State failure;
+
+		/**
+		 * The next state on the failure chain whose string is a feature
+		 */
+		State output;
+
+		/**
+		 * The feature ending in this state, null if there is none
+		 */
+		String feature;
+
+		State(int symbolId) {
+			this.symbolId = symbolId;
+		}
+	}
+
+	int encodingLength;
+	SymbolIndex symbolIndex;
+	State root;
+
+	public SequenceFeatureMatcher(int encodingLength, Set<String> featureSet) {
+		this(encodingLength, null, featureSet);
+	}
+
+	public SequenceFeatureMatcher(ActivityDictionary activityDictionary, Set<String> featureSet) {
+		this(activityDictionary.getEncodingLength(), activityDictionary, featureSet);
+	}
+
+	SequenceFeatureMatcher(int encodingLength, ActivityDictionary activityDictionary, Set<String> featureSet) {
+		this.encodingLength = encodingLength;
+		this.symbolIndex = new SymbolIndex(encodingLength, activityDictionary);
+		this.root = new State(-1);
+
+		/*
+		 * The trie of the features
+		 */
+		State state, child;
+		int symbolId, featureLength;
+		for (String feature : featureSet) {
+			state = root;
+			featureLength = feature.length() / encodingLength;
+			if (featureLength == 0)
+				continue;
+			for (int i = 0; i < featureLength; i++) {
+				symbolId = symbolIndex.addSymbol(feature.substring(i * encodingLength, (i + 1) * encodingLength));
+				child = state.children.get(symbolId);
+				if (child == null) {
+					child = new State(symbolId);
+					state.children.put(symbolId, child);
+				}
+				state = child;
+			}
+			state.feature = feature;
+		}
+
+		/*
+		 * Failure and output links in breadth first order, so that the links
+		 * of shorter strings are available
+		 */
+		List<State> queue = new ArrayList<State>();
+		for (State rootChild : root.children) {
+			rootChild.failure = root;
+			queue.add(rootChild);
+		}
+		State failure, next;
+		for (int index = 0; index < queue.size(); index++) {
+			state = queue.get(index);
+			for (State stateChild : state.children) {
+				failure = state.failure;
+				next = failure.children.get(stateChild.symbolId);
+				while (next == null && failure != root) {
+					failure = failure.failure;
+					next = failure.children.get(stateChild.symbolId);
+				}
+				stateChild.failure = next == null ? root : next;
+				stateChild.output = stateChild.failure.feature != null ? stateChild.failure
+						: stateChild.failure.output;
+				queue.add(stateChild);
+			}
+		}
+	}
+
+	/*
+	 * encodedTrace: ab0ab1ab2cd0cd1ef0ef1ef2ef3...
+	 * Return: the features found in the encoded trace with their number of
+	 * occurrences (only features with count > 0)
+	 */
+	public Map<String, Integer> getFeatureCountMap(String encodedTrace) {
+		return getFeatureCountMap(symbolIndex.getSymbolIds(encodedTrace));
+	}
+
+	/*
+	 * activityIds: the activity ids of a trace; the matcher has to be built
+	 * with the ActivityDictionary that assigned them
+	 * Return: as getFeatureCountMap(String)
+	 */
+	public Map<String, Integer> getFeatureCountMap(int[] activityIds) {
+		return getFeatureCountMap(activityIds, 0, activityIds.length);
+	}
+
+	/*
+	 * Same as getFeatureCountMap(int[]) for the activity ids at start .. end-1,
+	 * e.g., of a trace in the array of a TraceStore
+	 */
+	public Map<String, Integer> getFeatureCountMap(int[] activityIds, int start, int end) {
+		Map<String, Integer> featureCountMap = new HashMap<String, Integer>();
+
+		State state = root, next;
+		Integer count;
+		int symbolId;
+		for (int i = start; i < end; i++) {
+			symbolId = activityIds[i];
+			if (symbolId < 0) {
+				state = root;
+				continue;
+			}
+
+			next = state.children.get(symbolId);
+			while (next == null && state != root) {
+				state = state.failure;
+				next = state.children.get(symbolId);
+			}
+			state = next == null ? root : next;
+
+			for (State match = state.feature != null ? state : state.output; match != null; match = match.output) {
+				count = featureCountMap.get(match.feature);
+				featureCountMap.put(match.feature, count == null ? 1 : count + 1);
+			}
+		}
+
+		return featureCountMap;
+	}
+}
@@ -0,0 +1,624 @@
+/*
+ * This file implements the discovery of maximal, super maximal and near super
+ * maximal repeats on a suffix array with an LCP array instead of a suffix
+ * tree. The suffix array is built in linear time with SA-IS (Nong, Zhang and
+ * Chan) over the integer-encoded sequence and the LCP array with the
+ * permuted LCP (PLCP) variant of Kasai's algorithm.
+ *
+ * The internal nodes of the suffix tree correspond one-to-one to the LCP
+ * intervals of the suffix array (Abouelhoda, Kurtz and Ohlebusch): the node
+ * with string depth l whose leaves are the suffixes SA[lb..rb]. These
+ * intervals are enumerated bottom-up with a stack, so the repeats are the
+ * same as those of UkkonenSuffixTree while the structure costs a few ints per
+ * symbol instead of several objects per symbol.
+ *
+ * As in the suffix trees, the sequence is preceded by the prefix symbol "."
+ * (the left symbol of the first suffix) and terminated by "."; the root (the
+ * empty string) is reported as the prefix/termination symbol.
+ */
+
+package org.processmining.plugins.signaturediscovery.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+
+public class SuffixArray implements RepeatFinder {
+	/**
+	 * The id of the prefix/termination symbol; the encoded activities are
+	 * mapped to the ids 1..n
+	 */
+	static final int EOS = 0;
+
+	/**
+	 * The left symbol of an interval whose suffixes have different left
+	 * symbols, and of an interval for which no suffix has been seen yet
+	 */
+	static final int DIVERSE = -1;
+	static final int NONE = -2;
+
+	/**
+	 * Flags of the left diverse intervals
+	 */
+	static final int SUPER_MAXIMAL = 1;
+	static final int NEAR_SUPER_MAXIMAL = 2;
+
+	/**
+	 * The encoding length of the sequence
+	 */
+	int encodingLength;
+
+	/**
+	 * The input sequence as symbol ids, terminated by EOS; the repeats are
+	 * substrings of it
+	 */
+	int[] symbols;
+
+	/**
+	 * Maps a symbol id to its encoded activity; symbolArray[EOS] is the
+	 * prefix/termination symbol
+	 */
+	String[] symbolArray;
+
+	/**
+	 * The number of suffixes, i.e., the number of symbols in the sequence + 1
+	 * for the termination symbol
+	 */
+	int noSuffixes;
+
+	/**
+	 * The number of distinct symbol ids (including EOS)
+	 */
+	int noSymbols;
+
+	/**
+	 * suffixArray[i] is the start of the i-th smallest suffix;
+	 * lcpArray[i] is the length of the longest common prefix of the suffixes
+	 * suffixArray[i-1] and suffixArray[i] (lcpArray[0] = 0);
+	 * leftSymbolArray[i] is the symbol before suffixArray[i] (the
+	 * Burrows-Wheeler transform; EOS for the first suffix)
+	 *
+	 * These are released by findLeftDiverseNodes()
+	 */
+	int[] suffixArray;
+	int[] lcpArray;
+	int[] leftSymbolArray;
+
+	/**
+	 * The left diverse intervals (the start and length of their string in
+	 * the sequence and their SUPER_MAXIMAL/NEAR_SUPER_MAXIMAL flags)
+	 */
+	int noLeftDiverseNodes;
+	int[] leftDiverseStarts;
+	int[] leftDiverseLengths;
+	byte[] leftDiverseFlags;
+
+	public SuffixArray(int encodingLength, String sequence) {
+		this.encodingLength = encodingLength;
+
+		/*
+		 * Map the symbols to the ids 1..n in the order of their first
+		 * occurrence and add the termination symbol EOS, the unique smallest
+		 * symbol, at the end
+		 */
+		HashMap<String, Integer> symbolIdMap = new HashMap<String, Integer>();
+		List<String> symbolList = new ArrayList<String>();
+		symbolList.add(IntegerSuffixTree.getEOSSymbol(encodingLength));
+		int noSymbolsInSequence = sequence.length() / encodingLength;
+		int[] symbols = new int[noSymbolsInSequence + 1];
+		String symbol;
+		Integer symbolId;
+		for (int i = 0; i < noSymbolsInSequence; i++) {
+			symbol = sequence.substring(i * encodingLength, (i + 1)
+					* encodingLength);
+			symbolId = symbolIdMap.get(symbol);
+			if (symbolId == null) {
+				symbolId = symbolList.size();
+				symbolIdMap.put(symbol, symbolId);
+				symbolList.add(symbol);
+			}
+			symbols[i] = symbolId;
+		}
+		symbols[noSymbolsInSequence] = EOS;
+
+		init(symbols, symbolList.toArray(new String[symbolList.size()]));
+	}
+
+	/**
+	 * Builds the suffix array for the activity ids at start .. end-1 of
+	 * activityIds (e.g., the ids of all traces of a log); activitySymbols is
+	 * the symbol table of the ActivityDictionary that assigned them
+	 */
+	public SuffixArray(ActivitySymbols activitySymbols, int[] activityIds,
+			int start, int end) {
+		this.encodingLength = activitySymbols.encodingLength;
+
+		int[] symbols = new int[end - start + 1];
+		for (int i = start; i < end; i++)
+			symbols[i - start] = activityIds[i] + 1;
+		symbols[end - start] = EOS;
+
+		init(symbols, activitySymbols.symbolArray);
+	}
+
+	private void init(int[] symbols, String[] symbolArray) {
+		this.symbols = symbols;
+		this.symbolArray = symbolArray;
+		noSuffixes = symbols.length;
+		noSymbols = symbolArray.length;
+
+		suffixArray = new int[noSuffixes];
+		computeSuffixArray(symbols, suffixArray, noSuffixes, noSymbols);
+
+		lcpArray = computeLCPArray(symbols, suffixArray, noSuffixes);
+
+		leftSymbolArray = new int[noSuffixes];
+		for (int i = 0; i < noSuffixes; i++)
+			leftSymbolArray[i] = suffixArray[i] > 0 ? symbols[suffixArray[i] - 1]
+					: EOS;
+	}
+
+	/*
+	 * SA-IS: s[0..n) over the alphabet [0, k) with s[n-1] = 0 the unique
+	 * smallest symbol
+	 */
+	static void computeSuffixArray(int[] s, int[] sa, int n, int k) {
+		if (n == 1) {
+			sa[0] = 0;
+			return;
+		}
+
+		/*
+		 * Classify the suffixes: isSType[i] iff suffix i is smaller than
+		 * suffix i+1
+		 */
+		boolean[] isSType = new boolean[n];
+		isSType[n - 1] = true;
+		for (int i = n - 2; i >= 0; i--)
+			isSType[i] = s[i] < s[i + 1]
+					|| (s[i] == s[i + 1] && isSType[i + 1]);
+
+		/*
+		 * Stage 1: sort the LMS substrings by induced sorting
+		 */
+		int[] bucket = new int[k];
+		getBuckets(s, bucket, n, k, true);
+		Arrays.fill(sa, -1);
+		for (int i = 1; i < n; i++)
+			if (isLMS(isSType, i))
+				sa[--bucket[s[i]]] = i;
+		induceSort(s, isSType, sa, bucket, n, k);
+
+		/*
+		 * Compact the sorted LMS substrings into the first n1 items of sa and
+		 * name them
+		 */
+		int n1 = 0;
+		for (int i = 0; i < n; i++)
+			if (isLMS(isSType, sa[i]))
+				sa[n1++] = sa[i];
+		Arrays.fill(sa, n1, n, -1);
+
+		int name = 0, prev = -1, pos;
+		boolean isDifferent;
+		for (int i = 0; i < n1; i++) {
+			pos = sa[i];
+			isDifferent = false;
+			for (int d = 0; d < n; d++) {
+				if (prev == -1 || s[pos + d] != s[prev + d]
+						|| isSType[pos + d] != isSType[prev + d]) {
+					isDifferent = true;
+					break;
+				} else if (d > 0
+						&& (isLMS(isSType, pos + d) || isLMS(isSType, prev + d))) {
+					break;
+				}
+			}
+			if (isDifferent) {
+				name++;
+				prev = pos;
+			}
+			sa[n1 + pos / 2] = name - 1;
+		}
+		int[] s1 = new int[n1];
+		for (int i = n - 1, j = n1 - 1; i >= n1; i--)
+			if (sa[i] >= 0)
+				s1[j--] = sa[i];
+
+		/*
+		 * Stage 2: sort the LMS suffixes (recursively if the names are not
+		 * unique)
+		 */
+		int[] sa1 = new int[n1];
+		if (name < n1) {
+			computeSuffixArray(s1, sa1, n1, name);
+		} else {
+			for (int i = 0; i < n1; i++)
+				sa1[s1[i]] = i;
+		}
+
+		/*
+		 * Stage 3: induce the suffix array from the sorted LMS suffixes
+		 */
+		for (int i = 1, j = 0; i < n; i++)
+			if (isLMS(isSType, i))
+				s1[j++] = i;
+		for (int i = 0; i < n1; i++)
+			sa1[i] = s1[sa1[i]];
+		s1 = null;
+
+		getBuckets(s, bucket, n, k, true);
+		Arrays.fill(sa, -1);
+		for (int i = n1 - 1; i >= 0; i--)
+			sa[--bucket[s[sa1[i]]]] = sa1[i];
+		sa1 = null;
+		induceSort(s, isSType, sa, bucket, n, k);
+	}
+
+	private static boolean isLMS(boolean[] isSType, int i) {
+		return i > 0 && isSType[i] && !isSType[i - 1];
+	}
+
+	/*
+	 * bucket[c] = the start (or the end if isEnd) of the bucket of symbol c
+	 */
+	private static void getBuckets(int[] s, int[] bucket, int n, int k,
+			boolean isEnd) {
+		Arrays.fill(bucket, 0);
+		for (int i = 0; i < n; i++)
+			bucket[s[i]]++;
+		int sum = 0;
+		for (int c = 0; c < k; c++) {
+			sum += bucket[c];
+			bucket[c] = isEnd ? sum : sum - bucket[c];
+		}
+	}
+
+	private static void induceSort(int[] s, boolean[] isSType, int[] sa,
+			int[] bucket, int n, int k) {
+		int j;
+		getBuckets(s, bucket, n, k, false);
+		for (int i = 0; i < n; i++) {
+			j = sa[i] - 1;
+			if (j >= 0 && !isSType[j])
+				sa[bucket[s[j]]++] = j;
+		}
+		getBuckets(s, bucket, n, k, true);
+		for (int i = n - 1; i >= 0; i--) {
+			j = sa[i] - 1;
+			if (j >= 0 && isSType[j])
+				sa[--bucket[s[j]]] = j;
+		}
+	}
+
+	/*
+	 * Kasai's algorithm on the permuted LCP array: plcp[i] is the LCP of
+	 * suffix i and the suffix preceding it in the suffix array; plcp[i+1] >=
+	 * plcp[i] - 1
+	 */
+	static int[] computeLCPArray(int[] s, int[] sa, int n) {
+		int[] plcp = new int[n];
+		plcp[sa[0]] = -1;
+		for (int i = 1; i < n; i++)
+			plcp[sa[i]] = sa[i - 1];
+
+		int h = 0, j;
+		for (int i = 0; i < n; i++) {
+			j = plcp[i];
+			if (j == -1) {
+				plcp[i] = 0;
+				h = 0;
+				continue;
+			}
+			while (i + h < n && j + h < n && s[i + h] == s[j + h])
+				h++;
+			plcp[i] = h;
+			if (h > 0)
+				h--;
+		}
+
+		int[] lcp = new int[n];
+		for (int i = 1; i < n; i++)
+			lcp[i] = plcp[sa[i]];
+		return lcp;
+	}
+
+	/**
+	 * Assess the left diversity (property) of the LCP intervals, i.e., of the
+	 * internal nodes of the suffix tree
+	 *
+	 * The intervals are enumerated bottom-up: an interval [lb..rb] with LCP
+	 * value l is closed when an LCP value smaller than l is reached. Its left
+	 * symbol is the left symbol of its suffixes if they all agree and DIVERSE
+	 * otherwise. A suffix i is a leaf child of the interval with LCP value
+	 * max(lcpArray[i], lcpArray[i+1]); the leaf children are kept on a stack
+	 * until their interval is closed, to determine the super maximal and near
+	 * super maximal repeats.
+	 */
+	public void findLeftDiverseNodes() {
+		System.out.println("No. Suffixes in the Suffix Array: " + noSuffixes);
+
+		/*
+		 * The positions of each left symbol in leftSymbolArray, grouped by
+		 * symbol (in increasing order); used to count the suffixes of an
+		 * interval with a given left symbol
+		 */
+		int[] symbolOffsets = new int[noSymbols + 1];
+		for (int i = 0; i < noSuffixes; i++)
+			symbolOffsets[leftSymbolArray[i] + 1]++;
+		for (int c = 0; c < noSymbols; c++)
+			symbolOffsets[c + 1] += symbolOffsets[c];
+		int[] symbolPositions = new int[noSuffixes];
+		int[] nextOffset = symbolOffsets.clone();
+		for (int i = 0; i < noSuffixes; i++)
+			symbolPositions[nextOffset[leftSymbolArray[i]]++] = i;
+		nextOffset = null;
+
+		/*
+		 * Stamp of the last interval in which a symbol was seen as the left
+		 * symbol of a leaf child (to check that the leaf children have
+		 * distinct left symbols)
+		 */
+		int[] symbolStamps = new int[noSymbols];
+		Arrays.fill(symbolStamps, -1);
+
+		noLeftDiverseNodes = 0;
+		leftDiverseStarts = new int[16];
+		leftDiverseLengths = new int[16];
+		leftDiverseFlags = new byte[16];
+
+		/*
+		 * The suffix trees are built from phase 2 on and have no left diverse
+		 * node for a sequence of a single symbol
+		 */
+		if (noSuffixes <= 2)
+			return;
+
+		/*
+		 * The stack of the open intervals and the stack of their leaf children
+		 */
+		int[] lcpStack = new int[16];
+		int[] lbStack = new int[16];
+		int[] leftSymbolStack = new int[16];
+		boolean[] hasInternalChildStack = new boolean[16];
+		int[] leafStartStack = new int[16];
+		int top = 0;
+		int[] leafStack = new int[16];
+		int noLeaves = 0;
+
+		lcpStack[0] = 0;
+		lbStack[0] = 0;
+		leftSymbolStack[0] = NONE;
+		hasInternalChildStack[0] = false;
+		leafStartStack[0] = 0;
+
+		int lcp, previousLcp, lb, childLeftSymbol, stamp = 0;
+		boolean hasChild;
+		for (int k = 1; k <= noSuffixes; k++) {
+			lcp = k < noSuffixes ? lcpArray[k] : 0;
+			previousLcp = lcpStack[top];
+
+			/* The suffix k-1 is a leaf child of the current interval */
+			if (previousLcp >= lcp) {
+				if (noLeaves == leafStack.length)
+					leafStack = Arrays.copyOf(leafStack, 2 * noLeaves);
+				leafStack[noLeaves++] = k - 1;
+				leftSymbolStack[top] = mergeLeftSymbol(leftSymbolStack[top],
+						leftSymbolArray[k - 1]);
+			}
+
+			lb = k - 1;
+			childLeftSymbol = NONE;
+			hasChild = false;
+			while (lcp < lcpStack[top]) {
+				/* Close the interval [lbStack[top]..k-1] */
+				processInterval(lcpStack[top], lbStack[top], k - 1,
+						leftSymbolStack[top], hasInternalChildStack[top],
+						leafStack, leafStartStack[top], noLeaves,
+						symbolOffsets, symbolPositions, symbolStamps, stamp++);
+				noLeaves = leafStartStack[top];
+				lb = lbStack[top];
+				childLeftSymbol = leftSymbolStack[top];
+				top--;
+
+				if (lcp <= lcpStack[top]) {
+					leftSymbolStack[top] = mergeLeftSymbol(
+							leftSymbolStack[top], childLeftSymbol);
+					hasInternalChildStack[top] = true;
+					childLeftSymbol = NONE;
+				} else {
+					hasChild = true;
+				}
+			}
+
+			if (lcp > lcpStack[top]) {
+				top++;
+				if (top == lcpStack.length) {
+					lcpStack = Arrays.copyOf(lcpStack, 2 * top);
+					lbStack = Arrays.copyOf(lbStack, 2 * top);
+					leftSymbolStack = Arrays.copyOf(leftSymbolStack, 2 * top);
+					hasInternalChildStack = Arrays.copyOf(
+							hasInternalChildStack, 2 * top);
+					leafStartStack = Arrays.copyOf(leafStartStack, 2 * top);
+				}
+				lcpStack[top] = lcp;
+				lbStack[top] = lb;
+				leftSymbolStack[top] = childLeftSymbol;
+				hasInternalChildStack[top] = hasChild;
+				leafStartStack[top] = noLeaves;
+			}
+
+			/* The suffix k-1 is a leaf child of the new interval */
+			if (previousLcp < lcp) {
+				if (noLeaves == leafStack.length)
+					leafStack = Arrays.copyOf(leafStack, 2 * noLeaves);
+				leafStack[noLeaves++] = k - 1;
+				leftSymbolStack[top] = mergeLeftSymbol(leftSymbolStack[top],
+						leftSymbolArray[k - 1]);
+			}
+		}
+
+		/* The root */
+		processInterval(0, 0, noSuffixes - 1, leftSymbolStack[0],
+				hasInternalChildStack[0], leafStack, 0, noLeaves,
+				symbolOffsets, symbolPositions, symbolStamps, stamp);
+
+		/*
+		 * Only the left diverse intervals are needed from now on
+		 */
+		suffixArray = null;
+		lcpArray = null;
+		leftSymbolArray = null;
+	}
+
+	private static int mergeLeftSymbol(int leftSymbol, int otherLeftSymbol) {
+		if (leftSymbol == NONE || leftSymbol == otherLeftSymbol)
+			return otherLeftSymbol;
+		if (otherLeftSymbol == NONE)
+			return leftSymbol;
+		return DIVERSE;
+	}
+
+	/*
+	 * Records the interval [lb..rb] with LCP value lcp if it is left diverse;
+	 * leafStack[leafStart..leafEnd) are its leaf children
+	 */
+	private void processInterval(int lcp, int lb, int rb, int leftSymbol,
+			boolean hasInternalChild, int[] leafStack, int leafStart,
+			int leafEnd, int[] symbolOffsets, int[] symbolPositions,
+			int[] symbolStamps, int stamp) {
+		if (leftSymbol != DIVERSE)
+			return;
+
+		/*
+		 * Super maximal: all children are leaves, each with a distinct left
+		 * symbol
+		 */
+		boolean isSuperMaximal = !hasInternalChild;
+		int symbol;
+		for (int i = leafStart; isSuperMaximal && i < leafEnd; i++) {
+			symbol = leftSymbolArray[leafStack[i]];
+			if (symbolStamps[symbol] == stamp)
+				isSuperMaximal = false;
+			symbolStamps[symbol] = stamp;
+		}
+
+		/*
+		 * Near super maximal: the left symbol of a leaf child is the left
+		 * symbol of no other suffix of the interval
+		 */
+		boolean isNearSuperMaximal = false;
+		int count;
+		for (int i = leafStart; !isNearSuperMaximal && i < leafEnd; i++) {
+			symbol = leftSymbolArray[leafStack[i]];
+			count = lowerBound(symbolPositions, symbolOffsets[symbol],
+					symbolOffsets[symbol + 1], rb + 1)
+					- lowerBound(symbolPositions, symbolOffsets[symbol],
+							symbolOffsets[symbol + 1], lb);
+			if (count == 1)
+				isNearSuperMaximal = true;
+		}
+
+		if (noLeftDiverseNodes == leftDiverseStarts.length) {
+			leftDiverseStarts = Arrays.copyOf(leftDiverseStarts,
+					2 * noLeftDiverseNodes);
+			leftDiverseLengths = Arrays.copyOf(leftDiverseLengths,
+					2 * noLeftDiverseNodes);
+			leftDiverseFlags = Arrays.copyOf(leftDiverseFlags,
+					2 * noLeftDiverseNodes);
+		}
+		leftDiverseStarts[noLeftDiverseNodes] = suffixArray[lb];
+		leftDiverseLengths[noLeftDiverseNodes] = lcp;
+		leftDiverseFlags[noLeftDiverseNodes] = (byte) ((isSuperMaximal ? SUPER_MAXIMAL
+				: 0) | (isNearSuperMaximal ? NEAR_SUPER_MAXIMAL : 0));
+		noLeftDiverseNodes++;
+	}
+
+	/*
+	 * @return the first index in sortedArray[from..to) whose value is >= key
+	 */
+	private static int lowerBound(int[] sortedArray, int from, int to, int key) {
+		int mid;
+		while (from < to) {
+			mid = (from + to) >>> 1;
+			if (sortedArray[mid] < key)
+				from = mid + 1;
+			else
+				to = mid;
+		}
+		return from;
+	}
+
+	/*
+	 * The string of the i-th left diverse interval; the root (the empty
+	 * string) is the prefix/termination symbol as in the suffix trees
+	 */
+	private String getLeftDiverseString(int i) {
+		if (leftDiverseLengths[i] == 0)
+			return symbolArray[EOS];
+		StringBuilder repeat = new StringBuilder(leftDiverseLengths[i]
+				* encodingLength);
+		for (int j = leftDiverseStarts[i]; j < leftDiverseStarts[i]
+				+ leftDiverseLengths[i]; j++)
+			repeat.append(symbolArray[symbols[j]]);
+		return repeat.toString();
+	}
+
+	private HashSet<String> getRepeats(int flag) {
+		if (noLeftDiverseNodes == 0) {
+			System.out
+					.println("Looks like findLeftDiverseNodes() is not invoked");
+			return null;
+		}
+
+		HashSet<String> repeats = new HashSet<String>();
+		for (int i = 0; i < noLeftDiverseNodes; i++)
+			if ((leftDiverseFlags[i] & flag) == flag)
+				repeats.add(getLeftDiverseString(i));
+		return repeats;
+	}
+
+	/**
+	 * Get the maximal repeat strings (not necessarily tandem) in the input
+	 * sequence; a string alpha is a maximal repeat iff its LCP interval is
+	 * left diverse (Gusfield).
+	 *
+	 * Assumes that the parent method calling this would have invoked
+	 * findLeftDiverseNodes();
+	 */
+	public HashSet<String> getMaximalRepeats() {
+		if (noLeftDiverseNodes > 0)
+			System.out.println("No. Left Diverse Nodes: " + noLeftDiverseNodes);
+		return getRepeats(0);
+	}
+
+	/**
+	 * Find SuperMaximal Repeats; A left diverse interval represents a super
+	 * maximal repeat alpha if and only if all of its children are leaves, and
+	 * each has a distinct left character
+	 *
+	 * Assumes that the parent method calling this would have already invoked
+	 * findLeftDiverseNodes();
+	 */
+	public HashSet<String> getSuperMaximalRepeats() {
+		return getRepeats(SUPER_MAXIMAL);
+	}
+
+	/**
+	 * Find NearSuperMaximal Repeats; A left diverse interval represents a near
+	 * super maximal repeat alpha if and only if one of its children is a leaf
+	 * and its left character is the left character of no other leaf below it
+	 *
+	 * Assumes that the parent method calling this would have already invoked
+	 * findLeftDiverseNodes();
+	 */
+	public HashSet<String> getNearSuperMaximalRepeats() {
+		return getRepeats(NEAR_SUPER_MAXIMAL);
+	}
+
+	public int getNoSuffixes() {
+		return noSuffixes;
+	}
+}
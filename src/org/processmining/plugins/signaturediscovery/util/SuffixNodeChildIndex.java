@@ -0,0 +1,175 @@
+package org.processmining.plugins.signaturediscovery.util;
+
+import java.util.AbstractCollection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The children of a suffix tree node, indexed by the (integer id of the) first
+ * symbol of their incoming edge; no two children of a node start with the same
+ * symbol.
+ *
+ * The index adapts to the fan-out of the node: up to INLINE_CAPACITY children
+ * are kept in two small parallel arrays (keys, nodes) that are scanned
+ * linearly; most internal nodes of a suffix tree have only a few children.
+ * Beyond that (e.g., the root of a tree over a log with thousands of
+ * activities) the arrays are turned into an open addressing hash table with
+ * linear probing so that a lookup no longer depends on the number of children.
+ * Leaves do not allocate any array.
+ *
+ * Children are never removed from a node; when an edge is split, the new
+ * internal node replaces the old child under the same key (see put).
+ */
+final class SuffixNodeChildIndex<N> extends AbstractCollection<N> {
+	/**
+	 * The maximum number of children kept in the inline arrays
+	 */
+	static final int INLINE_CAPACITY = 8;
+
+	int[] keys;
+	Object[] nodes;
+	int size;
+	boolean isHashed;
+
+	public int size() {
+		return size;
+	}
+
+	@SuppressWarnings("unchecked")
+	public N get(int key) {
+		if (nodes == null)
+			return null;
+		if (!isHashed) {
+			for (int i = 0; i < size; i++)
+				if (keys[i] == key)
+					return (N) nodes[i];
+			return null;
+		}
+
+		int mask = keys.length - 1;
+		for (int slot = hash(key) & mask; nodes[slot] != null; slot = (slot + 1) & mask) {
+			if (keys[slot] == key)
+				return (N) nodes[slot];
+		}
+		return null;
+	}
+
+	/**
+	 * Adds node as the child for key; replaces the existing child for key if
+	 * there is one
+	 */
+	public void put(int key, N node) {
+		if (nodes == null) {
+			keys = new int[2];
+			nodes = new Object[2];
+		}
+
+		if (!isHashed) {
+			for (int i = 0; i < size; i++) {
+				if (keys[i] == key) {
+					nodes[i] = node;
+					return;
+				}
+			}
+			if (size < keys.length) {
+				keys[size] = key;
+				nodes[size] = node;
+				size++;
+				return;
+			}
+			if (size < INLINE_CAPACITY) {
+				grow(size * 2);
+				keys[size] = key;
+				nodes[size] = node;
+				size++;
+				return;
+			}
+			rehash(INLINE_CAPACITY * 4);
+		} else if ((size + 1) * 2 > keys.length) {
+			rehash(keys.length * 2);
+		}
+
+		insert(key, node);
+	}
+
+	private void insert(int key, Object node) {
+		int mask = keys.length - 1;
+		int slot = hash(key) & mask;
+		while (nodes[slot] != null) {
+			if (keys[slot] == key) {
+				nodes[slot] = node;
+				return;
+			}
+			slot = (slot + 1) & mask;
+		}
+		keys[slot] = key;
+		nodes[slot] = node;
+		size++;
+	}
+
+	private void grow(int capacity) {
+		int[] newKeys = new int[capacity];
+		Object[] newNodes = new Object[capacity];
+		System.arraycopy(keys, 0, newKeys, 0, size);
+		System.arraycopy(nodes, 0, newNodes, 0, size);
+		keys = newKeys;
+		nodes = newNodes;
+	}
+
+	/*
+	 * capacity must be a power of 2
+	 */
+	private void rehash(int capacity) {
+		int[] oldKeys = keys;
+		Object[] oldNodes = nodes;
+		int oldLength = isHashed ? oldKeys.length : size;
+
+		keys = new int[capacity];
+		nodes = new Object[capacity];
+		size = 0;
+		isHashed = true;
+		for (int i = 0; i < oldLength; i++)
+			if (oldNodes[i] != null)
+				insert(oldKeys[i], oldNodes[i]);
+	}
+
+	private static int hash(int key) {
+		int h = key * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	public Iterator<N> iterator() {
+		return new Iterator<N>() {
+			int index = advance(0);
+
+			private int advance(int from) {
+				if (nodes == null)
+					return 0;
+				if (!isHashed)
+					return from;
+				while (from < nodes.length && nodes[from] == null)
+					from++;
+				return from;
+			}
+
+			public boolean hasNext() {
+				if (nodes == null)
+					return false;
+				return isHashed ? index < nodes.length : index < size;
+			}
+
+			@SuppressWarnings("unchecked")
+			public N next() {
+				if (!hasNext())
+					throw new NoSuchElementException();
+				N node = (N) nodes[index];
+				index = advance(index + 1);
+				return node;
+			}
+
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+}
@@ -0,0 +1,15 @@
+package org.processmining.plugins.signaturediscovery.util;
+
+/**
+ * The begin and end indices of a path (a substring) of the sequence of a
+ * suffix tree
+ */
+class SuffixTreePath {
+	int begin;
+	int end;
+
+	public SuffixTreePath() {
+		this.begin = 0;
+		this.end = 0;
+	}
+}
@@ -0,0 +1,75 @@
+package org.processmining.plugins.signaturediscovery.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.processmining.plugins.signaturediscovery.encoding.ActivityDictionary;
+
+/**
+ * The integer ids of the symbols (encoded activities) of the feature matchers.
+ *
+ * With an ActivityDictionary the id of a symbol is its activity id, so that
+ * the matchers can work directly on the activity ids of a trace
+ * (InstanceProfile.getActivityIds); symbols of the features that are not in
+ * the dictionary (e.g., the sentinels of the repeats) get the ids after the
+ * dictionary ones. Without a dictionary the symbols are numbered in the order
+ * in which they are added.
+ */
+final class SymbolIndex {
+	int encodingLength;
+	ActivityDictionary activityDictionary;
+	int noDictionaryIds;
+	Map<String, Integer> symbolIdMap;
+
+	SymbolIndex(int encodingLength, ActivityDictionary activityDictionary) {
+		this.encodingLength = encodingLength;
+		this.activityDictionary = activityDictionary;
+		this.noDictionaryIds = activityDictionary == null ? 0 : activityDictionary.size();
+		this.symbolIdMap = new HashMap<String, Integer>();
+	}
+
+	/**
+	 * The number of ids; all ids are below it
+	 */
+	int size() {
+		return noDictionaryIds + symbolIdMap.size();
+	}
+
+	/**
+	 * Returns the id of the symbol, -1 if the symbol has none
+	 */
+	int getSymbolId(String symbol) {
+		if (activityDictionary != null) {
+			int symbolId = activityDictionary.getCodeId(symbol);
+			if (symbolId >= 0)
+				return symbolId;
+		}
+		Integer symbolId = symbolIdMap.get(symbol);
+		return symbolId == null ? -1 : symbolId;
+	}
+
+	/**
+	 * Returns the id of the symbol, a new one if the symbol has none yet
+	 */
+	int addSymbol(String symbol) {
+		int symbolId = getSymbolId(symbol);
+		if (symbolId < 0) {
+			symbolId = size();
+			symbolIdMap.put(symbol, symbolId);
+		}
+		return symbolId;
+	}
+
+	/*
+	 * encodedTrace: ab0ab1ab2cd0cd1ef0ef1ef2ef3...
+	 * Return: the symbol ids of the encoded trace; symbols without an id
+	 * (e.g., the blanks between the traces of a trace stream) get -1
+	 */
+	int[] getSymbolIds(String encodedTrace) {
+		int encodedTraceLength = encodedTrace.length() / encodingLength;
+		int[] symbolIds = new int[encodedTraceLength];
+		for (int i = 0; i < encodedTraceLength; i++)
+			symbolIds[i] = getSymbolId(encodedTrace.substring(i * encodingLength, (i + 1) * encodingLength));
+		return symbolIds;
+	}
+}
@@ -0,0 +1,22 @@
+package org.processmining.plugins.signaturediscovery.util;
+
+/**
+ * @author R. P. Jagadeesh Chandra Bose Class to hold the return value of the
+ *         traceSingleEdge procedure
+ * 
+ */
+class TraceSingleEdgeResult {
+	/**
+	 * number of matching symbols found on the edge
+	 */
+	int noEdgeSymbolsFound;
+	/**
+	 * flag denoting the end of search
+	 */
+	boolean searchDone;
+
+	public TraceSingleEdgeResult(int noEdgeSymbolsFound, boolean searchDone) {
+		this.noEdgeSymbolsFound = noEdgeSymbolsFound;
+		this.searchDone = searchDone;
+	}
+}
@@ -0,0 +1,32 @@
+package weka.classifiers.trees.j48;
+
+/**
+ * Read access to the nodes of a ClassifierTree (the tree of J48), for
+ * DecisionTreeRuleExtractor: the Weka versions the plugin is built with have
+ * no public accessors for the sons, the leaf flag and the split model of a
+ * node, which are protected fields, so this class lives in the package of
+ * ClassifierTree.
+ */
+public final class ClassifierTreeNodes {
+
+	private ClassifierTreeNodes(){
+	}
+
+	public static boolean isLeaf(ClassifierTree node){
+		return node.m_isLeaf;
+	}
+
+	/*
+	 * Return: the sons of node, null for a leaf
+	 */
+	public static ClassifierTree[] getSons(ClassifierTree node){
+		return node.m_sons;
+	}
+
+	/*
+	 * Return: the split model of node, a NoSplit (with the distribution of its training rows) for a leaf
+	 */
+	public static ClassifierSplitModel getLocalModel(ClassifierTree node){
+		return node.m_localModel;
+	}
+}